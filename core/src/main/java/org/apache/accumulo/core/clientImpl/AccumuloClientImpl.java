@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.Accumulo;
@@ -84,6 +85,13 @@ public class AccumuloClientImpl implements AccumuloClient {
     this.context = context;
     instanceID = context.getInstanceID();
 
+    // the pool is shared by all clients of the process, so its limit is only changed when set
+    Properties props = context.getProperties();
+    if (!ClientProperty.RPC_MAX_CONNECTIONS_PER_SERVER.isEmpty(props)) {
+      ThriftTransportPool.getInstance().setMaxConnectionsPerServer(
+          ClientProperty.RPC_MAX_CONNECTIONS_PER_SERVER.getInteger(props));
+    }
+
     // Skip fail fast for system services; string literal for class name, to avoid dependency on
     // server jar
     final String tokenClassName = context.getCredentials().getToken().getClass().getName();
@@ -116,6 +124,19 @@ public class AccumuloClientImpl implements AccumuloClient {
         numQueryThreads);
   }
 
+  /**
+   * Creates a batch scanner that runs its queries with the given executor instead of creating a
+   * thread pool. The executor is shut down when the scanner is closed.
+   */
+  public BatchScanner createBatchScanner(String tableName, Authorizations authorizations,
+      int numQueryThreads, ExecutorService queryThreadPool) throws TableNotFoundException {
+    checkArgument(tableName != null, "tableName is null");
+    checkArgument(authorizations != null, "authorizations is null");
+    ensureOpen();
+    return new TabletServerBatchReader(context, getTableId(tableName), authorizations,
+        numQueryThreads, queryThreadPool);
+  }
+
   @Override
   public BatchScanner createBatchScanner(String tableName, Authorizations authorizations)
       throws TableNotFoundException {
@@ -69,6 +69,8 @@ import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.file.rfile.RowSketch;
 import org.apache.accumulo.core.master.thrift.FateOperation;
 import org.apache.accumulo.core.util.CachedConfiguration;
 import org.apache.accumulo.core.volume.VolumeConfiguration;
@@ -257,6 +259,30 @@ public class BulkImport implements ImportDestinationArguments, ImportMappingOpti
     return results;
   }
 
+  /**
+   * Estimates the amount of a file that goes to each extent using the file's row sketch instead of
+   * reading its index.
+   */
+  public static Map<KeyExtent,Long> estimateSizes(RowSketch sketch, long fileSize,
+      Collection<KeyExtent> extents) {
+
+    if (extents.size() == 1) {
+      return Collections.singletonMap(extents.iterator().next(), fileSize);
+    }
+
+    double totalSamples = Math.max(1, sketch.getSampleRows().size());
+
+    Map<KeyExtent,Long> results = new TreeMap<>();
+    for (KeyExtent keyExtent : extents) {
+      double numSamples = sketch.countSamples(keyExtent);
+      if (numSamples == 0)
+        numSamples = 1;
+      long estSize = (long) ((numSamples / totalSamples) * fileSize);
+      results.put(keyExtent, estSize);
+    }
+    return results;
+  }
+
   public interface KeyExtentCache {
     KeyExtent lookup(Text row)
         throws IOException, AccumuloException, AccumuloSecurityException, TableNotFoundException;
@@ -312,6 +338,66 @@ public class BulkImport implements ImportDestinationArguments, ImportMappingOpti
     }
   }
 
+  public interface FileOpener {
+    FileSKVIterator open() throws IOException;
+  }
+
+  /**
+   * Finds the tablets that overlap a file using its row sketch. Tablets between the first and last
+   * row of the file that contain none of the rows recorded in the sketch may fall in a gap between
+   * rows of the file, so the file is only opened to seek into those tablets.
+   */
+  public static List<KeyExtent> findOverlappingTablets(KeyExtentCache extentCache,
+      RowSketch sketch, FileOpener fileOpener)
+      throws IOException, AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    List<KeyExtent> result = new ArrayList<>();
+    FileSKVIterator reader = null;
+    try {
+      KeyExtent extent = extentCache.lookup(sketch.getFirstRow());
+      while (true) {
+        if (sketch.containsRecordedRow(extent)) {
+          result.add(extent);
+        } else {
+          if (reader == null) {
+            reader = fileOpener.open();
+          }
+          reader.seek(extent.toDataRange(), Collections.emptyList(), false);
+          if (reader.hasTop()) {
+            result.add(extent);
+          }
+        }
+
+        if (extent.getEndRow() == null || extent.getEndRow().compareTo(sketch.getLastRow()) >= 0) {
+          break;
+        }
+        extent = extentCache.lookup(nextRow(extent.getEndRow()));
+      }
+    } finally {
+      if (reader != null) {
+        reader.close();
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads the row sketch meta block of an RFile without opening its index.
+   *
+   * @return the sketch or null if the file is not an RFile or was written without a sketch
+   */
+  private static RowSketch readRowSketch(ClientContext context, Path file, FileSystem fs,
+      Cache<String,Long> fileLenCache) throws IOException {
+    if (!file.getName().endsWith("." + RFile.EXTENSION)) {
+      return null;
+    }
+
+    try (CachableBlockFile.Reader reader = new CachableBlockFile.Reader(fs, file, fs.getConf(),
+        fileLenCache, null, null, null, context.getConfiguration(), null)) {
+      return RowSketch.read(reader);
+    }
+  }
+
   private static Map<String,Long> getFileLenMap(List<FileStatus> statuses) {
     HashMap<String,Long> fileLens = new HashMap<>();
     for (FileStatus status : statuses) {
@@ -354,6 +440,7 @@ public class BulkImport implements ImportDestinationArguments, ImportMappingOpti
               + Sets.symmetricDifference(fileDestinations.keySet(), fileLens.keySet()));
     }
 
+    // The plan says where each file goes, so no file is opened to compute the mapping.
     KeyExtentCache extentCache = new ConcurrentKeyExtentCache(tableId, context);
 
     // Pre-populate cache by looking up all end rows in sorted order. Doing this in sorted order
@@ -493,24 +580,67 @@ public class BulkImport implements ImportDestinationArguments, ImportMappingOpti
     // trips to the namenode
     Cache<String,Long> fileLensCache = getPopulatedFileLenCache(dirPath, files);
 
+    // Read the small row sketch meta block of every file before looking up any tablets. Files
+    // without a sketch fall back to opening the file and seeking through it.
+    List<CompletableFuture<RowSketch>> sketchFutures = new ArrayList<>();
+    for (FileStatus fileStatus : files) {
+      sketchFutures.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          return readRowSketch(context, fileStatus.getPath(), fs, fileLensCache);
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }, executor));
+    }
+
+    List<RowSketch> sketches = new ArrayList<>(files.size());
+    for (CompletableFuture<RowSketch> future : sketchFutures) {
+      sketches.add(getUnchecked(future));
+    }
+
+    // Pre-populate cache by looking up the first row of every file in sorted order. Doing this in
+    // sorted order leverages read ahead and lets the cache batch metadata lookups, instead of each
+    // file independently looking up its tablets in random order.
+    sketches.stream().filter(Objects::nonNull).map(RowSketch::getFirstRow).sorted().distinct()
+        .forEach(row -> {
+          try {
+            extentCache.lookup(row);
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        });
+
     List<CompletableFuture<Map<KeyExtent,Bulk.FileInfo>>> futures = new ArrayList<>();
 
-    for (FileStatus fileStatus : files) {
+    for (int i = 0; i < files.size(); i++) {
+      FileStatus fileStatus = files.get(i);
+      RowSketch sketch = sketches.get(i);
       CompletableFuture<Map<KeyExtent,Bulk.FileInfo>> future = CompletableFuture.supplyAsync(() -> {
         try {
           long t1 = System.currentTimeMillis();
-          List<KeyExtent> extents = findOverlappingTablets(context, extentCache,
-              fileStatus.getPath(), fs, fileLensCache);
-          Map<KeyExtent,Long> estSizes = estimateSizes(context.getConfiguration(),
-              fileStatus.getPath(), fileStatus.getLen(), extents, fs, fileLensCache);
+          List<KeyExtent> extents;
+          Map<KeyExtent,Long> estSizes;
+          if (sketch != null) {
+            extents = findOverlappingTablets(extentCache, sketch,
+                () -> FileOperations.getInstance().newReaderBuilder()
+                    .forFile(fileStatus.getPath().toString(), fs, fs.getConf())
+                    .withTableConfiguration(context.getConfiguration())
+                    .withFileLenCache(fileLensCache).build());
+            estSizes = estimateSizes(sketch, fileStatus.getLen(), extents);
+          } else {
+            extents = findOverlappingTablets(context, extentCache, fileStatus.getPath(), fs,
+                fileLensCache);
+            estSizes = estimateSizes(context.getConfiguration(), fileStatus.getPath(),
+                fileStatus.getLen(), extents, fs, fileLensCache);
+          }
           Map<KeyExtent,Bulk.FileInfo> pathLocations = new HashMap<>();
           for (KeyExtent ke : extents) {
             pathLocations.put(ke,
                 new Bulk.FileInfo(fileStatus.getPath(), estSizes.getOrDefault(ke, 0L)));
           }
           long t2 = System.currentTimeMillis();
-          log.trace("Mapped {} to {} tablets in {}ms", fileStatus.getPath(), pathLocations.size(),
-              t2 - t1);
+          log.trace("Mapped {} to {} tablets in {}ms (sketch: {})", fileStatus.getPath(),
+              pathLocations.size(), t2 - t1, sketch != null);
           return pathLocations;
         } catch (Exception e) {
           throw new CompletionException(e);
@@ -523,22 +653,26 @@ public class BulkImport implements ImportDestinationArguments, ImportMappingOpti
     SortedMap<KeyExtent,Bulk.Files> mappings = new TreeMap<>();
 
     for (CompletableFuture<Map<KeyExtent,Bulk.FileInfo>> future : futures) {
-      try {
-        Map<KeyExtent,Bulk.FileInfo> pathMapping = future.get();
-        pathMapping.forEach((extent, path) -> {
-          mappings.computeIfAbsent(extent, k -> new Bulk.Files()).add(path);
-        });
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        throw new RuntimeException(e);
-      } catch (ExecutionException e) {
-        throw new RuntimeException(e);
-      }
+      Map<KeyExtent,Bulk.FileInfo> pathMapping = getUnchecked(future);
+      pathMapping.forEach((extent, path) -> {
+        mappings.computeIfAbsent(extent, k -> new Bulk.Files()).add(path);
+      });
     }
 
     return mergeOverlapping(mappings);
   }
 
+  private static <T> T getUnchecked(CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   // This method handles the case of splits happening while files are being examined. It merges
   // smaller tablets into large tablets.
   static SortedMap<KeyExtent,Bulk.Files> mergeOverlapping(
@@ -52,10 +52,19 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
     return nextBatchReaderInstance++;
   }
 
-  private final int batchReaderInstance = getNextBatchReaderInstance();
-
   public TabletServerBatchReader(ClientContext context, Table.ID tableId,
       Authorizations authorizations, int numQueryThreads) {
+    this(context, tableId, authorizations, numQueryThreads, new SimpleThreadPool(numQueryThreads,
+        "batch scanner " + getNextBatchReaderInstance() + "-"));
+  }
+
+  /**
+   * Creates a batch reader that runs its queries with the given executor, which is shut down when
+   * the reader is closed. The executor may be a view of a pool shared by many readers, that only
+   * shuts down the tasks of this reader.
+   */
+  public TabletServerBatchReader(ClientContext context, Table.ID tableId,
+      Authorizations authorizations, int numQueryThreads, ExecutorService queryThreadPool) {
     checkArgument(context != null, "context is null");
     checkArgument(tableId != null, "tableId is null");
     checkArgument(authorizations != null, "authorizations is null");
@@ -63,9 +72,7 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
     this.authorizations = authorizations;
     this.tableId = tableId;
     this.numThreads = numQueryThreads;
-
-    queryThreadPool = new SimpleThreadPool(numQueryThreads,
-        "batch scanner " + batchReaderInstance + "-");
+    this.queryThreadPool = queryThreadPool;
 
     ranges = null;
     ex = new Throwable();
@@ -19,14 +19,16 @@ package org.apache.accumulo.core.clientImpl;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.accumulo.core.rpc.ThriftUtil;
 import org.apache.accumulo.core.singletons.SingletonManager;
@@ -43,19 +45,73 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 
+/**
+ * Pools thrift connections to servers. Connections are kept per server in lock free stacks, so
+ * threads reserving and returning connections do not contend with each other or with the thread
+ * that closes idle connections. The number of connections to each server can be bounded, in which
+ * case threads wait in order for a connection to be returned. A thread that already holds a
+ * connection to a server does not wait for another one, so that nested RPCs to the same server
+ * can not deadlock.
+ */
 public class ThriftTransportPool {
 
   private static final SecureRandom random = new SecureRandom();
-  private long killTime = 1000 * 3;
+  private volatile long killTime = 1000 * 3;
+  private volatile int maxConnectionsPerServer = 0;
 
   private static class CachedConnections {
-    LinkedList<CachedConnection> unreserved = new LinkedList<>();
-    Map<CachedTTransport,CachedConnection> reserved = new HashMap<>();
+    // used as a LIFO stack, see returnTransport()
+    final Deque<CachedConnection> unreserved = new ConcurrentLinkedDeque<>();
+    final Map<CachedTTransport,CachedConnection> reserved = new ConcurrentHashMap<>();
+
+    // one permit per reserved connection, null when the number of connections is not bounded
+    final Semaphore permits;
+    // the number of permits held by each thread
+    final Map<Thread,Integer> permitHolders = new ConcurrentHashMap<>();
+
+    final AtomicLong errorCount = new AtomicLong();
+    // time of the first error since the error count was last cleared, 0 if there was none
+    volatile long errorTime = 0;
+    volatile boolean warnedAbout = false;
+
+    CachedConnections(int maxConnections) {
+      permits = maxConnections > 0 ? new Semaphore(maxConnections, true) : null;
+    }
+
+    boolean isHealthy() {
+      return errorCount.get() < ERROR_THRESHOLD;
+    }
+
+    /**
+     * @return false if the number of connections is not bounded, or the current thread already
+     *         holds a permit and so may reserve another connection without waiting for one
+     */
+    boolean needsPermit() {
+      return permits != null && !permitHolders.containsKey(Thread.currentThread());
+    }
 
-    public CachedConnection reserveAny() {
-      if (unreserved.size() > 0) {
-        CachedConnection cachedConnection = unreserved.removeFirst();
-        cachedConnection.reserve();
+    void permitAcquired() {
+      permitHolders.merge(Thread.currentThread(), 1, Integer::sum);
+    }
+
+    void releasePermit(Thread holder) {
+      permitHolders.computeIfPresent(holder, (thread, count) -> count == 1 ? null : count - 1);
+      permits.release();
+    }
+
+    /**
+     * @param permitHolder
+     *          the thread that acquired a permit for the connection, or null if none was needed
+     */
+    public CachedConnection reserveAny(Thread permitHolder) {
+      CachedConnection cachedConnection;
+      while ((cachedConnection = unreserved.pollFirst()) != null) {
+        if (!cachedConnection.transport.isOpen()) {
+          // closed under us, for example by the server, so it can not be used
+          cachedConnection.transport.close();
+          continue;
+        }
+        cachedConnection.reserve(permitHolder);
         reserved.put(cachedConnection.transport, cachedConnection);
         if (log.isTraceEnabled()) {
           log.trace("Using existing connection to {}", cachedConnection.transport.cacheKey);
@@ -67,17 +123,21 @@ public class ThriftTransportPool {
     }
   }
 
-  private Map<ThriftTransportKey,CachedConnections> cache = new HashMap<>();
-  private Map<ThriftTransportKey,Long> errorCount = new HashMap<>();
-  private Map<ThriftTransportKey,Long> errorTime = new HashMap<>();
-  private Set<ThriftTransportKey> serversWarnedAbout = new HashSet<>();
+  private volatile Map<ThriftTransportKey,CachedConnections> cache = new ConcurrentHashMap<>();
+
+  private final LongAdder reserves = new LongAdder();
+  private final LongAdder reserveWaitNanos = new LongAdder();
+  private final AtomicLong maxReserveWaitNanos = new AtomicLong();
+  private final LongAdder connectionsCreated = new LongAdder();
+  private final LongAdder errors = new LongAdder();
 
-  private Thread checkThread;
+  private volatile Thread checkThread;
 
   private static final Logger log = LoggerFactory.getLogger(ThriftTransportPool.class);
 
-  private static final Long ERROR_THRESHOLD = 20L;
+  private static final long ERROR_THRESHOLD = 20L;
   private static final int STUCK_THRESHOLD = 2 * 60 * 1000;
+  private static final long STATS_LOG_INTERVAL = 60 * 1000;
 
   private static class CachedConnection {
 
@@ -85,9 +145,10 @@ public class ThriftTransportPool {
       this.transport = t;
     }
 
-    void reserve() {
+    void reserve(Thread permitHolder) {
       Preconditions.checkState(!this.transport.reserved);
       this.transport.setReserved(true);
+      this.permitHolder = permitHolder;
     }
 
     void unreserve() {
@@ -97,7 +158,10 @@ public class ThriftTransportPool {
 
     final CachedTTransport transport;
 
-    long lastReturnTime;
+    // the thread that acquired the permit of the reservation, null if it did not need one
+    volatile Thread permitHolder;
+
+    volatile long lastReturnTime;
   }
 
   public static class TransportPoolShutdownException extends RuntimeException {
@@ -108,6 +172,79 @@ public class ThriftTransportPool {
     private static final long serialVersionUID = 1L;
   }
 
+  /**
+   * A snapshot of the state of the pool and counts of what it has done since it was created.
+   */
+  public static class PoolStats {
+    private final long connectionsOpen;
+    private final long connectionsReserved;
+    private final long connectionsCreated;
+    private final long reserves;
+    private final long reserveWaitNanos;
+    private final long maxReserveWaitNanos;
+    private final long errors;
+
+    PoolStats(long connectionsOpen, long connectionsReserved, long connectionsCreated,
+        long reserves, long reserveWaitNanos, long maxReserveWaitNanos, long errors) {
+      this.connectionsOpen = connectionsOpen;
+      this.connectionsReserved = connectionsReserved;
+      this.connectionsCreated = connectionsCreated;
+      this.reserves = reserves;
+      this.reserveWaitNanos = reserveWaitNanos;
+      this.maxReserveWaitNanos = maxReserveWaitNanos;
+      this.errors = errors;
+    }
+
+    /**
+     * @return connections in the pool, whether reserved or not
+     */
+    public long getConnectionsOpen() {
+      return connectionsOpen;
+    }
+
+    public long getConnectionsReserved() {
+      return connectionsReserved;
+    }
+
+    public long getConnectionsCreated() {
+      return connectionsCreated;
+    }
+
+    /**
+     * @return the number of times a connection was reserved, whether pooled or new
+     */
+    public long getReserves() {
+      return reserves;
+    }
+
+    /**
+     * @return total time spent waiting for a connection to a server that had reached its maximum
+     *         number of connections
+     */
+    public long getReserveWaitTime(TimeUnit unit) {
+      return unit.convert(reserveWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxReserveWaitTime(TimeUnit unit) {
+      return unit.convert(maxReserveWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of connections returned to the pool after an error
+     */
+    public long getErrors() {
+      return errors;
+    }
+
+    @Override
+    public String toString() {
+      return "open:" + connectionsOpen + " reserved:" + connectionsReserved + " created:"
+          + connectionsCreated + " reserves:" + reserves + " reserveWaitMs:"
+          + getReserveWaitTime(TimeUnit.MILLISECONDS) + " maxReserveWaitMs:"
+          + getMaxReserveWaitTime(TimeUnit.MILLISECONDS) + " errors:" + errors;
+    }
+  }
+
   private static class Closer implements Runnable {
     final ThriftTransportPool pool;
 
@@ -116,43 +253,48 @@ public class ThriftTransportPool {
     }
 
     private void closeConnections() throws InterruptedException {
+      long lastStatsLog = System.currentTimeMillis();
+      String lastStats = null;
       while (true) {
 
         ArrayList<CachedConnection> connectionsToClose = new ArrayList<>();
 
-        synchronized (pool) {
-          for (CachedConnections cachedConns : pool.getCache().values()) {
-            Iterator<CachedConnection> iter = cachedConns.unreserved.iterator();
-            while (iter.hasNext()) {
-              CachedConnection cachedConnection = iter.next();
-
-              if (System.currentTimeMillis() - cachedConnection.lastReturnTime > pool.killTime) {
+        long now = System.currentTimeMillis();
+        for (CachedConnections cachedConns : pool.getCache().values()) {
+          for (CachedConnection cachedConnection : cachedConns.unreserved) {
+            if (now - cachedConnection.lastReturnTime > pool.killTime
+                || !cachedConnection.transport.isOpen()) {
+              // only close the connection if it was not reserved concurrently
+              if (cachedConns.unreserved.removeLastOccurrence(cachedConnection)) {
                 connectionsToClose.add(cachedConnection);
-                iter.remove();
               }
             }
+          }
 
-            for (CachedConnection cachedConnection : cachedConns.reserved.values()) {
-              cachedConnection.transport.checkForStuckIO(STUCK_THRESHOLD);
-            }
+          for (CachedConnection cachedConnection : cachedConns.reserved.values()) {
+            cachedConnection.transport.checkForStuckIO(STUCK_THRESHOLD);
           }
 
-          Iterator<Entry<ThriftTransportKey,Long>> iter = pool.errorTime.entrySet().iterator();
-          while (iter.hasNext()) {
-            Entry<ThriftTransportKey,Long> entry = iter.next();
-            long delta = System.currentTimeMillis() - entry.getValue();
-            if (delta >= STUCK_THRESHOLD) {
-              pool.errorCount.remove(entry.getKey());
-              iter.remove();
-            }
+          long errorTime = cachedConns.errorTime;
+          if (errorTime != 0 && now - errorTime >= STUCK_THRESHOLD) {
+            cachedConns.errorCount.set(0);
+            cachedConns.errorTime = 0;
           }
         }
 
-        // close connections outside of sync block
         for (CachedConnection cachedConnection : connectionsToClose) {
           cachedConnection.transport.close();
         }
 
+        if (log.isDebugEnabled() && now - lastStatsLog >= STATS_LOG_INTERVAL) {
+          String stats = pool.getStats().toString();
+          if (!stats.equals(lastStats)) {
+            log.debug("Thrift connection pool {}", stats);
+            lastStats = stats;
+          }
+          lastStatsLog = now;
+        }
+
         Thread.sleep(500);
       }
     }
@@ -403,33 +545,109 @@ public class ThriftTransportPool {
 
   }
 
-  private ThriftTransportPool() {}
+  @VisibleForTesting
+  ThriftTransportPool() {}
 
   public TTransport getTransport(HostAndPort location, long milliseconds, ClientContext context)
       throws TTransportException {
     return getTransport(new ThriftTransportKey(location, milliseconds, context));
   }
 
-  private TTransport getTransport(ThriftTransportKey cacheKey) throws TTransportException {
-    // compute hash code outside of lock, this lowers the time the lock is held
-    cacheKey.precomputeHashCode();
-    synchronized (this) {
-      // atomically reserve location if it exist in cache
-      CachedConnections ccl = getCache().get(cacheKey);
-
+  private CachedConnections getCachedConnections(ThriftTransportKey cacheKey) {
+    Map<ThriftTransportKey,CachedConnections> cache = getCache();
+    CachedConnections ccl = cache.get(cacheKey);
+    if (ccl == null) {
+      CachedConnections newCcl = new CachedConnections(maxConnectionsPerServer);
+      ccl = cache.putIfAbsent(cacheKey, newCcl);
       if (ccl == null) {
-        ccl = new CachedConnections();
-        getCache().put(cacheKey, ccl);
+        ccl = newCcl;
       }
+    }
+    return ccl;
+  }
 
-      CachedConnection cachedConnection = ccl.reserveAny();
-      if (cachedConnection != null) {
-        log.trace("Using existing connection to {}", cacheKey.getServer());
-        return cachedConnection.transport;
+  /**
+   * Waits, in order with other threads, until fewer than the maximum number of connections to the
+   * server are reserved. Gives up after the timeout of the connections to the server. Does not
+   * wait if the current thread already holds a connection to the server.
+   *
+   * @return the current thread if it acquired a permit, null if it did not need one
+   */
+  private Thread acquirePermit(ThriftTransportKey cacheKey, CachedConnections ccl)
+      throws TTransportException {
+    reserves.increment();
+    if (!ccl.needsPermit()) {
+      return null;
+    }
+
+    long start = System.nanoTime();
+    try {
+      boolean acquired;
+      if (cacheKey.getTimeout() > 0) {
+        acquired = ccl.permits.tryAcquire(cacheKey.getTimeout(), TimeUnit.MILLISECONDS);
+      } else {
+        ccl.permits.acquire();
+        acquired = true;
       }
+      if (!acquired) {
+        throw new TTransportException(TTransportException.TIMED_OUT,
+            "Timed out waiting for a connection to " + cacheKey.getServer());
+      }
+      ccl.permitAcquired();
+      return Thread.currentThread();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TTransportException(e);
+    } finally {
+      long wait = System.nanoTime() - start;
+      reserveWaitNanos.add(wait);
+      maxReserveWaitNanos.accumulateAndGet(wait, Math::max);
+    }
+  }
+
+  /**
+   * Like {@link #acquirePermit(ThriftTransportKey, CachedConnections)} but does not wait.
+   *
+   * @param permitHolder
+   *          the current thread if it needs a permit, see {@link CachedConnections#needsPermit()}
+   * @return false if there was no permit available
+   */
+  private boolean tryAcquirePermit(CachedConnections ccl, Thread permitHolder) {
+    if (permitHolder != null) {
+      if (!ccl.permits.tryAcquire()) {
+        return false;
+      }
+      ccl.permitAcquired();
+    }
+    reserves.increment();
+    return true;
+  }
+
+  private static Thread permitHolder(CachedConnections ccl) {
+    return ccl.needsPermit() ? Thread.currentThread() : null;
+  }
+
+  private static void releasePermit(CachedConnections ccl, Thread permitHolder) {
+    if (permitHolder != null) {
+      ccl.releasePermit(permitHolder);
+    }
+  }
+
+  @VisibleForTesting
+  TTransport getTransport(ThriftTransportKey cacheKey) throws TTransportException {
+    // compute hash code once, it is used for every lookup of the key
+    cacheKey.precomputeHashCode();
+
+    CachedConnections ccl = getCachedConnections(cacheKey);
+    Thread permitHolder = acquirePermit(cacheKey, ccl);
+
+    CachedConnection cachedConnection = ccl.reserveAny(permitHolder);
+    if (cachedConnection != null) {
+      log.trace("Using existing connection to {}", cacheKey.getServer());
+      return cachedConnection.transport;
     }
 
-    return createNewTransport(cacheKey);
+    return createNewTransport(cacheKey, ccl, permitHolder);
   }
 
   @VisibleForTesting
@@ -441,50 +659,62 @@ public class ThriftTransportPool {
     if (preferCachedConnection) {
       HashSet<ThriftTransportKey> serversSet = new HashSet<>(servers);
 
-      synchronized (this) {
-
-        // randomly pick a server from the connection cache
-        serversSet.retainAll(getCache().keySet());
+      // randomly pick a server from the connection cache
+      serversSet.retainAll(getCache().keySet());
 
-        if (serversSet.size() > 0) {
-          ArrayList<ThriftTransportKey> cachedServers = new ArrayList<>(serversSet);
-          Collections.shuffle(cachedServers, random);
+      if (serversSet.size() > 0) {
+        ArrayList<ThriftTransportKey> cachedServers = new ArrayList<>(serversSet);
+        Collections.shuffle(cachedServers, random);
 
-          for (ThriftTransportKey ttk : cachedServers) {
-            CachedConnection cachedConnection = getCache().get(ttk).reserveAny();
-            if (cachedConnection != null) {
-              final String serverAddr = ttk.getServer().toString();
-              log.trace("Using existing connection to {}", serverAddr);
-              return new Pair<>(serverAddr, cachedConnection.transport);
-            }
+        for (ThriftTransportKey ttk : cachedServers) {
+          CachedConnection cachedConnection = reserveAny(ttk);
+          if (cachedConnection != null) {
+            final String serverAddr = ttk.getServer().toString();
+            log.trace("Using existing connection to {}", serverAddr);
+            return new Pair<>(serverAddr, cachedConnection.transport);
           }
         }
       }
     }
 
+    // try servers that have not been failing first, in random order
+    Collections.shuffle(servers, random);
+    List<ThriftTransportKey> unhealthy = new ArrayList<>();
+    List<ThriftTransportKey> ordered = new ArrayList<>(servers.size());
+    for (ThriftTransportKey ttk : servers) {
+      CachedConnections cachedConns = getCache().get(ttk);
+      if (cachedConns == null || cachedConns.isHealthy()) {
+        ordered.add(ttk);
+      } else {
+        unhealthy.add(ttk);
+      }
+    }
+    ordered.addAll(unhealthy);
+
     int retryCount = 0;
-    while (servers.size() > 0 && retryCount < 10) {
-      int index = random.nextInt(servers.size());
-      ThriftTransportKey ttk = servers.get(index);
+    for (int i = 0; i < ordered.size() && retryCount < 10; i++) {
+      ThriftTransportKey ttk = ordered.get(i);
 
       if (preferCachedConnection) {
-        synchronized (this) {
-          CachedConnections cachedConns = getCache().get(ttk);
-          if (cachedConns != null) {
-            CachedConnection cachedConnection = cachedConns.reserveAny();
-            if (cachedConnection != null) {
-              final String serverAddr = ttk.getServer().toString();
-              return new Pair<>(serverAddr, cachedConnection.transport);
-            }
-          }
+        CachedConnection cachedConnection = reserveAny(ttk);
+        if (cachedConnection != null) {
+          final String serverAddr = ttk.getServer().toString();
+          return new Pair<>(serverAddr, cachedConnection.transport);
         }
       }
 
+      CachedConnections ccl = getCachedConnections(ttk);
+      Thread permitHolder = permitHolder(ccl);
+      if (!tryAcquirePermit(ccl, permitHolder)) {
+        // the server is at its maximum number of connections, try another one
+        continue;
+      }
+
       try {
-        return new Pair<>(ttk.getServer().toString(), createNewTransport(ttk));
+        return new Pair<>(ttk.getServer().toString(),
+            createNewTransport(ttk, ccl, permitHolder));
       } catch (TTransportException tte) {
-        log.debug("Failed to connect to {}", servers.get(index), tte);
-        servers.remove(index);
+        log.debug("Failed to connect to {}", ttk, tte);
         retryCount++;
       }
     }
@@ -492,32 +722,61 @@ public class ThriftTransportPool {
     throw new TTransportException("Failed to connect to a server");
   }
 
-  private TTransport createNewTransport(ThriftTransportKey cacheKey) throws TTransportException {
-    TTransport transport = ThriftUtil.createClientTransport(cacheKey.getServer(),
-        (int) cacheKey.getTimeout(), cacheKey.getSslParams(), cacheKey.getSaslParams());
+  /**
+   * Reserves a pooled connection to the server without waiting.
+   *
+   * @return null if there is no pooled connection or the server is at its maximum number of
+   *         connections
+   */
+  private CachedConnection reserveAny(ThriftTransportKey ttk) {
+    CachedConnections cachedConns = getCache().get(ttk);
+    if (cachedConns == null || cachedConns.unreserved.isEmpty()) {
+      return null;
+    }
+    Thread permitHolder = permitHolder(cachedConns);
+    if (!tryAcquirePermit(cachedConns, permitHolder)) {
+      return null;
+    }
+
+    CachedConnection cachedConnection = cachedConns.reserveAny(permitHolder);
+    if (cachedConnection == null) {
+      releasePermit(cachedConns, permitHolder);
+    }
+    return cachedConnection;
+  }
+
+  /**
+   * Creates a connection, for which the caller has already acquired a permit if it needed one. The
+   * permit is released if the connection can not be created.
+   */
+  private TTransport createNewTransport(ThriftTransportKey cacheKey, CachedConnections cachedConns,
+      Thread permitHolder) throws TTransportException {
+    TTransport transport;
+    try {
+      transport = ThriftUtil.createClientTransport(cacheKey.getServer(),
+          (int) cacheKey.getTimeout(), cacheKey.getSslParams(), cacheKey.getSaslParams());
+    } catch (TTransportException | RuntimeException e) {
+      releasePermit(cachedConns, permitHolder);
+      throw e;
+    }
 
     log.trace("Creating new connection to connection to {}", cacheKey.getServer());
 
     CachedTTransport tsc = new CachedTTransport(transport, cacheKey);
 
     CachedConnection cc = new CachedConnection(tsc);
-    cc.reserve();
+    cc.reserve(permitHolder);
 
     try {
-      synchronized (this) {
-        CachedConnections cachedConns = getCache().get(cacheKey);
-
-        if (cachedConns == null) {
-          cachedConns = new CachedConnections();
-          getCache().put(cacheKey, cachedConns);
-        }
-
-        cachedConns.reserved.put(cc.transport, cc);
-      }
+      // fails if the pool was shut down
+      getCache();
+      cachedConns.reserved.put(cc.transport, cc);
     } catch (TransportPoolShutdownException e) {
+      releasePermit(cachedConns, permitHolder);
       cc.transport.close();
       throw e;
     }
+    connectionsCreated.increment();
     return cc.transport;
   }
 
@@ -531,60 +790,54 @@ public class ThriftTransportPool {
 
     ArrayList<CachedConnection> closeList = new ArrayList<>();
 
-    synchronized (this) {
-      CachedConnections cachedConns = getCache().get(ctsc.getCacheKey());
-      if (cachedConns != null) {
-        CachedConnection cachedConnection = cachedConns.reserved.remove(ctsc);
-        if (cachedConnection != null) {
-          if (ctsc.sawError) {
-            closeList.add(cachedConnection);
+    CachedConnections cachedConns = getCache().get(ctsc.getCacheKey());
+    if (cachedConns != null) {
+      CachedConnection cachedConnection = cachedConns.reserved.remove(ctsc);
+      if (cachedConnection != null) {
+        if (ctsc.sawError) {
+          closeList.add(cachedConnection);
 
-            log.trace("Returned connection had error {}", ctsc.getCacheKey());
+          log.trace("Returned connection had error {}", ctsc.getCacheKey());
 
-            Long ecount = errorCount.get(ctsc.getCacheKey());
-            if (ecount == null)
-              ecount = 0L;
-            ecount++;
-            errorCount.put(ctsc.getCacheKey(), ecount);
+          errors.increment();
+          long ecount = cachedConns.errorCount.incrementAndGet();
+          if (cachedConns.errorTime == 0) {
+            cachedConns.errorTime = System.currentTimeMillis();
+          }
 
-            Long etime = errorTime.get(ctsc.getCacheKey());
-            if (etime == null) {
-              errorTime.put(ctsc.getCacheKey(), System.currentTimeMillis());
-            }
+          if (ecount >= ERROR_THRESHOLD && !cachedConns.warnedAbout) {
+            log.warn("Server {} had {} failures in a short time period, will not complain anymore",
+                ctsc.getCacheKey(), ecount);
+            cachedConns.warnedAbout = true;
+          }
 
-            if (ecount >= ERROR_THRESHOLD && !serversWarnedAbout.contains(ctsc.getCacheKey())) {
-              log.warn(
-                  "Server {} had {} failures in a short time period, will not complain anymore",
-                  ctsc.getCacheKey(), ecount);
-              serversWarnedAbout.add(ctsc.getCacheKey());
-            }
+          cachedConnection.unreserve();
 
-            cachedConnection.unreserve();
-
-            // remove all unreserved cached connection when a sever has an error, not just the
-            // connection that was returned
-            closeList.addAll(cachedConns.unreserved);
-            cachedConns.unreserved.clear();
-
-          } else {
-            log.trace("Returned connection {} ioCount: {}", ctsc.getCacheKey(),
-                cachedConnection.transport.ioCount);
-
-            cachedConnection.lastReturnTime = System.currentTimeMillis();
-            cachedConnection.unreserve();
-            // Calling addFirst to use unreserved as LIFO queue. Using LIFO ensures that when the #
-            // of pooled connections exceeds the working set size that the
-            // idle times at the end of the list grow. The connections with large idle times will be
-            // cleaned up. Using a FIFO could continually reset the idle
-            // times of all connections, even when there are more than the working set size.
-            cachedConns.unreserved.addFirst(cachedConnection);
+          // remove all unreserved cached connection when a sever has an error, not just the
+          // connection that was returned
+          CachedConnection unreserved;
+          while ((unreserved = cachedConns.unreserved.pollFirst()) != null) {
+            closeList.add(unreserved);
           }
-          existInCache = true;
+
+        } else {
+          log.trace("Returned connection {} ioCount: {}", ctsc.getCacheKey(),
+              cachedConnection.transport.ioCount);
+
+          cachedConnection.lastReturnTime = System.currentTimeMillis();
+          cachedConnection.unreserve();
+          // Calling addFirst to use unreserved as LIFO queue. Using LIFO ensures that when the #
+          // of pooled connections exceeds the working set size that the
+          // idle times at the end of the list grow. The connections with large idle times will be
+          // cleaned up. Using a FIFO could continually reset the idle
+          // times of all connections, even when there are more than the working set size.
+          cachedConns.unreserved.addFirst(cachedConnection);
         }
+        releasePermit(cachedConns, cachedConnection.permitHolder);
+        existInCache = true;
       }
     }
 
-    // close outside of sync block
     for (CachedConnection cachedConnection : closeList) {
       try {
         cachedConnection.transport.close();
@@ -595,7 +848,6 @@ public class ThriftTransportPool {
 
     if (!existInCache) {
       log.warn("Returned tablet server connection to cache that did not come from cache");
-      // close outside of sync block
       tsc.close();
     }
   }
@@ -603,12 +855,34 @@ public class ThriftTransportPool {
   /**
    * Set the time after which idle connections should be closed
    */
-  public synchronized void setIdleTime(long time) {
+  public void setIdleTime(long time) {
     this.killTime = time;
     log.debug("Set thrift transport pool idle time to {}", time);
   }
 
-  private static ThriftTransportPool instance = null;
+  /**
+   * Set the maximum number of connections to each server that can be reserved at once. Threads
+   * that need another connection wait for one to be returned. Only applies to servers that the
+   * pool has not connected to yet. 0, the default, means no limit.
+   */
+  public void setMaxConnectionsPerServer(int max) {
+    this.maxConnectionsPerServer = max;
+    log.debug("Set thrift transport pool maximum connections per server to {}", max);
+  }
+
+  public PoolStats getStats() {
+    long open = 0;
+    long reserved = 0;
+    for (CachedConnections cachedConns : getCache().values()) {
+      int r = cachedConns.reserved.size();
+      reserved += r;
+      open += r + cachedConns.unreserved.size();
+    }
+    return new PoolStats(open, reserved, connectionsCreated.sum(), reserves.sum(),
+        reserveWaitNanos.sum(), maxReserveWaitNanos.get(), errors.sum());
+  }
+
+  private static volatile ThriftTransportPool instance = null;
 
   static {
     SingletonManager.register(new SingletonService() {
@@ -630,12 +904,14 @@ public class ThriftTransportPool {
     });
   }
 
-  public static synchronized ThriftTransportPool getInstance() {
-    Preconditions.checkState(instance != null,
+  public static ThriftTransportPool getInstance() {
+    // called for every RPC, so avoid synchronizing once the pool exists
+    ThriftTransportPool pool = instance;
+    Preconditions.checkState(pool != null,
         "The Accumulo singleton for connection pooling is disabled.  This is likely caused by all "
             + "AccumuloClients being closed or garbage collected.");
-    instance.startCheckerThread();
-    return instance;
+    pool.startCheckerThread();
+    return pool;
   }
 
   private static synchronized boolean isEnabled() {
@@ -660,21 +936,31 @@ public class ThriftTransportPool {
     }
   }
 
-  public synchronized void startCheckerThread() {
-    if (cache != null && checkThread == null) {
-      checkThread = new Daemon(new Closer(instance), "Thrift Connection Pool Checker");
-      checkThread.start();
+  public void startCheckerThread() {
+    if (checkThread != null) {
+      return;
+    }
+    synchronized (this) {
+      if (cache != null && checkThread == null) {
+        checkThread = new Daemon(new Closer(this), "Thrift Connection Pool Checker");
+        checkThread.start();
+      }
     }
   }
 
-  private void shutdown() {
+  @VisibleForTesting
+  void shutdown() {
     Thread ctl;
     synchronized (this) {
+      Map<ThriftTransportKey,CachedConnections> cache = this.cache;
       if (cache == null)
         return;
 
+      // this will render the pool unusable and cause the background thread to exit
+      this.cache = null;
+
       // close any connections in the pool... even ones that are in use
-      for (CachedConnections cachedConn : getCache().values()) {
+      for (CachedConnections cachedConn : cache.values()) {
         for (CachedConnection cc : Iterables.concat(cachedConn.reserved.values(),
             cachedConn.unreserved)) {
           try {
@@ -683,10 +969,12 @@ public class ThriftTransportPool {
             log.debug("Error closing transport during shutdown", e);
           }
         }
-      }
 
-      // this will render the pool unusable and cause the background thread to exit
-      this.cache = null;
+        // wake up threads waiting for a connection, they will find the pool shut down
+        if (cachedConn.permits != null) {
+          cachedConn.permits.release(Integer.MAX_VALUE / 2);
+        }
+      }
 
       ctl = checkThread;
     }
@@ -702,6 +990,7 @@ public class ThriftTransportPool {
   }
 
   private Map<ThriftTransportKey,CachedConnections> getCache() {
+    Map<ThriftTransportKey,CachedConnections> cache = this.cache;
     if (cache == null)
       throw new TransportPoolShutdownException(
           "The Accumulo singleton for connection pooling is disabled.  This is likely caused by "
@@ -78,6 +78,13 @@ public enum ClientProperty {
           + "If the value ends with C, then it will be multiplied by the number of cores on the "
           + "system. This property is only used by the bulk import API introduced in 2.0.0."),
 
+  // RPC
+  RPC_MAX_CONNECTIONS_PER_SERVER("rpc.connections.per.server.max", "0",
+      "The maximum number of pooled connections the client process uses at once to each"
+          + " server. Threads that need another connection wait for one to be returned, up to"
+          + " the RPC timeout, unless they already hold a connection to the server. Set to zero"
+          + " for no limit. The pool is shared by all clients in the process."),
+
   // SSL
   SSL_ENABLED("ssl.enabled", "false", "Enable SSL for client RPC"),
   SSL_KEYSTORE_PASSWORD("ssl.keystore.password", "", "Password used to encrypt keystore"),
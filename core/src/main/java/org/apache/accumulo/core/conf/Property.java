@@ -140,6 +140,14 @@ public enum Property {
       "org.apache.accumulo.server.security.handler.ZKPermHandler", PropertyType.CLASSNAME,
       "The permission handler class that accumulo will use to determine if a "
           + "user has privilege to perform an action"),
+  INSTANCE_SECURITY_CACHE_SIZE("instance.security.cache.size", "1000", PropertyType.COUNT,
+      "The number of permission sets for each kind of permission the ZooKeeper based"
+          + " permission handler keeps on each server. An entry is no longer used once the"
+          + " user's data in ZooKeeper changes. When set to 0, every permission check"
+          + " deserializes."),
+  INSTANCE_SECURITY_CACHE_EXPIRATION("instance.security.cache.expiration", "5m",
+      PropertyType.TIMEDURATION,
+      "How long a permission set is kept by the ZooKeeper based permission handler."),
   INSTANCE_RPC_SSL_ENABLED("instance.rpc.ssl.enabled", "false", PropertyType.BOOLEAN,
       "Use SSL for socket connections from clients and among accumulo services. "
           + "Mutually exclusive with SASL RPC configuration."),
@@ -184,6 +192,13 @@ public enum Property {
           + "a reload of the classloader."),
   GENERAL_RPC_TIMEOUT("general.rpc.timeout", "120s", PropertyType.TIMEDURATION,
       "Time to wait on I/O for simple, short RPC calls"),
+  GENERAL_RPC_MAX_CONNECTIONS_PER_SERVER("general.rpc.connections.per.server.max", "0",
+      PropertyType.COUNT,
+      "The maximum number of pooled thrift connections a server process uses at once"
+          + " to each other server. Threads that need another connection wait for one to"
+          + " be returned, up to the RPC timeout, unless they already hold a connection to"
+          + " the server. When set to 0, there is no limit. Clients set it with the"
+          + " rpc.connections.per.server.max client property."),
   @Experimental
   GENERAL_RPC_SERVER_TYPE("general.rpc.server.type", "", PropertyType.STRING,
       "Type of Thrift server to instantiate, see "
@@ -215,6 +230,9 @@ public enum Property {
   GENERAL_LEGACY_METRICS("general.legacy.metrics", "false", PropertyType.BOOLEAN,
       "Use the old metric infrastructure configured by accumulo-metrics.xml,"
           + " instead of Hadoop Metrics2"),
+  GENERAL_METRICS_PERCENTILES("general.metrics.percentiles", "50,99,99.9", PropertyType.STRING,
+      "Comma-separated list of the percentiles of latencies published with Hadoop Metrics2,"
+          + " for the operations whose latencies are recorded in histograms"),
   GENERAL_ARBITRARY_PROP_PREFIX("general.custom.", null, PropertyType.PREFIX,
       "Prefix to be used for user defined system-wide properties. This may be"
           + " particularly useful for system-wide configuration for various"
@@ -301,6 +319,24 @@ public enum Property {
       "Specifies the size of the cache for RFile index blocks."),
   TSERV_SUMMARYCACHE_SIZE("tserver.cache.summary.size", "10%", PropertyType.MEMORY,
       "Specifies the size of the cache for summary data on each tablet server."),
+  TSERV_SUMMARY_RESULTS_CACHE_SIZE("tserver.cache.summary.results.size", "10M",
+      PropertyType.BYTES,
+      "The memory used on each tablet server to cache the summaries of files, already"
+          + " read and selected for a request. A tenth of it caches the merged results"
+          + " of whole requests. The size of entries is estimated. When set to 0B,"
+          + " nothing is cached."),
+  TSERV_DISK_CACHE_DIR("tserver.cache.disk.dir", "", PropertyType.PATH,
+      "A directory on a local disk, ideally an SSD, where blocks of the index and data caches"
+          + " are also kept. Blocks that are not in memory are read from there instead of"
+          + " from the distributed file system, and they are kept across tablet server"
+          + " restarts. Blocks are kept in a subdirectory named for the instance, which is"
+          + " used by one tablet server at a time. Another tablet server on the same host"
+          + " runs without a local disk cache. When empty, no local disk cache is used."),
+  TSERV_DISK_CACHE_SIZE("tserver.cache.disk.size", "10G", PropertyType.BYTES,
+      "The most space the local disk cache in " + TSERV_DISK_CACHE_DIR.getKey() + " uses."),
+  TSERV_DISK_CACHE_SEGMENT_SIZE("tserver.cache.disk.segment.size", "256M", PropertyType.BYTES,
+      "The size of the files the local disk cache appends blocks to. When the cache is full,"
+          + " the oldest file is deleted as a whole. At most 1G."),
   TSERV_PORTSEARCH("tserver.port.search", "false", PropertyType.BOOLEAN,
       "if the ports above are in use, search higher ports until one is available"),
   TSERV_CLIENTPORT("tserver.port.client", "9997", PropertyType.PORT,
@@ -319,6 +355,11 @@ public enum Property {
           + " tserver.memory.maps.max"),
   TSERV_WALOG_MAX_AGE("tserver.walog.max.age", "24h", PropertyType.TIMEDURATION,
       "The maximum age for each write-ahead log."),
+  TSERV_WALOG_COUNT("tserver.walog.count", "1", PropertyType.COUNT,
+      "The number of write-ahead logs a tablet server writes to at the same time."
+          + " Each tablet is assigned to one of the logs by the hash of its extent, and"
+          + " updates to tablets assigned to different logs are written and synced in"
+          + " parallel. Each log may grow to tserver.walog.max.size."),
   TSERV_WALOG_TOLERATED_CREATION_FAILURES("tserver.walog.tolerated.creation.failures", "50",
       PropertyType.COUNT,
       "The maximum number of failures tolerated when creating a new write-ahead"
@@ -353,7 +394,10 @@ public enum Property {
           + " * tserver.walog.max.size >= this property."),
   TSERV_MEM_MGMT("tserver.memory.manager",
       "org.apache.accumulo.server.tabletserver.LargestFirstMemoryManager", PropertyType.CLASSNAME,
-      "An implementation of MemoryManger that accumulo will use."),
+      "An implementation of MemoryManger that accumulo will use. The"
+          + " org.apache.accumulo.server.tabletserver.PredictiveMemoryManager starts"
+          + " minor compactions earlier, from the ingest rate of each tablet, to avoid"
+          + " holding writes under bursty ingest."),
   TSERV_SESSION_MAXIDLE("tserver.session.idle.max", "1m", PropertyType.TIMEDURATION,
       "When a tablet server's SimpleTimer thread triggers to check idle"
           + " sessions, this configurable option will be used to evaluate scan sessions"
@@ -399,6 +443,11 @@ public enum Property {
   TSERV_BLOOM_LOAD_MAXCONCURRENT("tserver.bloom.load.concurrent.max", "4", PropertyType.COUNT,
       "The number of concurrent threads that will load bloom filters in the background. "
           + "Setting this to zero will make bloom filters load in the foreground."),
+  TSERV_FILE_READ_AHEAD_MAXCONCURRENT("tserver.file.readahead.concurrent.max", "8",
+      PropertyType.COUNT,
+      "The number of threads, shared by all scans, that load data blocks of files into the"
+          + " data cache ahead of scans reading them sequentially. When set to 0, nothing is"
+          + " read ahead."),
   TSERV_MONITOR_FS("tserver.monitor.fs", "true", PropertyType.BOOLEAN,
       "When enabled the tserver will monitor file systems and kill itself when"
           + " one switches from rw to ro. This is usually and indication that Linux has"
@@ -463,8 +512,19 @@ public enum Property {
       PropertyType.CLASSNAME, "Default AccumuloReplicationReplayer implementation"),
   TSERV_REPLICATION_BW_REPLAYER_MEMORY("tserver.replication.batchwriter.replayer.memory", "50M",
       PropertyType.BYTES, "Memory to provide to batchwriter to replay mutations for replication"),
+  TSERV_REPLICATION_BW_REPLAYER_THREADS("tserver.replication.batchwriter.replayer.threads", "4",
+      PropertyType.COUNT,
+      "Threads the batchwriter uses to replay mutations for replication, to"
+          + " write to several tablet servers of the table in parallel"),
   TSERV_ASSIGNMENT_MAXCONCURRENT("tserver.assignment.concurrent.max", "2", PropertyType.COUNT,
       "The number of threads available to load tablets. Recoveries are still performed serially."),
+  TSERV_COMMIT_THREADS("tserver.commit.threads", "8", PropertyType.COUNT,
+      "The number of threads on each tablet server available to check constraints"
+          + " and apply to memory the updates of a batch that spans several tablets,"
+          + " after they are written to the write-ahead log. The thread handling the"
+          + " batch also does this work, taking any tablet these threads have not"
+          + " started, so a busy pool does not delay updates. The updates of each tablet"
+          + " are applied in order by one thread."),
   TSERV_SLOW_FLUSH_MILLIS("tserver.slow.flush.time", "100ms", PropertyType.TIMEDURATION,
       "If a flush to the write-ahead log takes longer than this period of time,"
           + " debugging information will written, and may result in a log rollover."),
@@ -566,6 +626,13 @@ public enum Property {
           + " each property required by trace.token.type, place this prefix in front of it."),
   TRACE_TOKEN_TYPE("trace.token.type", PasswordToken.class.getName(), PropertyType.CLASSNAME,
       "An AuthenticationToken type supported by the authorizer"),
+  TRACE_WRITERS("trace.writers", "2", PropertyType.COUNT,
+      "The number of threads, each with its own batch writer, that the trace"
+          + " server uses to write spans. All of the spans of a trace are written by"
+          + " the same thread."),
+  TRACE_WRITER_QUEUE_SIZE("trace.writer.queue.size", "10000", PropertyType.COUNT,
+      "The number of received spans each trace server writer thread can buffer."
+          + " Spans received while the buffer is full are discarded."),
 
   // per table properties
   TABLE_PREFIX("table.", null, PropertyType.PREFIX,
@@ -627,12 +694,22 @@ public enum Property {
           + " to change the called Load Balancer for this table"),
   TABLE_FILE_COMPRESSION_TYPE("table.file.compress.type", "gz", PropertyType.STRING,
       "Compression algorithm used on index and data blocks before they are"
-          + " written. Possible values: zstd, gz, snappy, lzo, none"),
+          + " written. Possible values: zstd, gz, snappy, lzo, lz4, none"),
   TABLE_FILE_COMPRESSED_BLOCK_SIZE("table.file.compress.blocksize", "100K", PropertyType.BYTES,
       "The maximum size of data blocks in RFiles before they are compressed and written."),
   TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX("table.file.compress.blocksize.index", "128K",
       PropertyType.BYTES,
       "The maximum size of index blocks in RFiles before they are compressed and written."),
+  TABLE_FILE_COMPRESSION_DICTIONARY_SIZE("table.file.compress.dictionary.size", "0B",
+      PropertyType.BYTES,
+      "The size of a dictionary trained from the first keys and values written to"
+          + " an RFile, which later data and index blocks are compressed against. The"
+          + " sample is about one data block, but at least 2 and at most 4 times the"
+          + " dictionary size; blocks written before it is trained are not compressed"
+          + " against the dictionary. This"
+          + " helps small blocks compress well. Only used by compression algorithms"
+          + " that support dictionaries, currently lz4. At most 64K is used. When set"
+          + " to 0B, no dictionary is used."),
   TABLE_FILE_BLOCK_SIZE("table.file.blocksize", "0B", PropertyType.BYTES,
       "The HDFS block size used when writing RFiles. When set to 0B, the"
           + " value/defaults of HDFS property 'dfs.block.size' will be used."),
@@ -652,6 +729,11 @@ public enum Property {
           + " Summary.getFileStatistics().getLarge(). When adjusting this consider the"
           + " expected number RFiles with summaries on each tablet server and the"
           + " summary cache size."),
+  TABLE_FILE_READ_AHEAD_BLOCKS("table.file.readahead.blocks", "4", PropertyType.COUNT,
+      "The most data blocks of a file loaded into the data cache ahead of a scan that reads"
+          + " the file sequentially. Read ahead starts once a scan has read a few blocks in a"
+          + " row, and stops when the scan seeks elsewhere. Nothing is read ahead when set to"
+          + " 0 or when the data cache is not enabled for the table."),
   TABLE_BLOOM_ENABLED("table.bloom.enabled", "false", PropertyType.BOOLEAN,
       "Use bloom filters on this table."),
   TABLE_BLOOM_LOAD_THRESHOLD("table.bloom.load.threshold", "1", PropertyType.COUNT,
@@ -828,6 +910,9 @@ public enum Property {
       "The password to provide when authenticating with the given peer"),
   REPLICATION_PEER_KEYTAB("replication.peer.keytab.", null, PropertyType.PREFIX,
       "The keytab to use when authenticating with the given peer"),
+  REPLICATION_PEER_COMPRESS("replication.peer.compress.", null, PropertyType.PREFIX,
+      "Set to true to compress replication messages before sending them to the"
+          + " given peer. The peer must be able to read compressed messages"),
   REPLICATION_NAME("replication.name", "", PropertyType.STRING,
       "Name of this cluster with respect to replication. Used to identify this"
           + " instance from other peers"),
@@ -848,6 +933,11 @@ public enum Property {
       "The time between adjustments of the replication thread pool."),
   REPLICATION_MAX_UNIT_SIZE("replication.max.unit.size", "64M", PropertyType.BYTES,
       "Maximum size of data to send in a replication message"),
+  REPLICATION_MAX_INFLIGHT_UNITS("replication.max.inflight.units", "1", PropertyType.COUNT,
+      "Number of replication messages for a file that may be sent to a peer"
+          + " before the first of them is acknowledged. Progress is still recorded"
+          + " in order. With more than one, a peer may apply messages out of order,"
+          + " which matters only for updates of the same key with the same timestamp"),
   REPLICATION_WORK_ASSIGNER("replication.work.assigner",
       "org.apache.accumulo.master.replication.UnorderedWorkAssigner", PropertyType.CLASSNAME,
       "Replication WorkAssigner implementation to use"),
@@ -0,0 +1,516 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.disk;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import org.apache.accumulo.core.util.SimpleThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * A cache of blocks on a local disk, meant to hold more blocks than fit in memory without reading
+ * them again from the distributed file system. Blocks are keyed by the same names the in memory
+ * caches use, which include the file, its length and the position of the block in it. Files are
+ * never modified, so a cached block never becomes stale. The blocks are kept in a subdirectory
+ * named for the instance, so the blocks of an instance that was initialized again are not read.
+ * The subdirectory is locked while the cache is open, so it is not used by two processes.
+ *
+ * <p>
+ * Blocks are appended to memory mapped segment files of a fixed size. The key, position, length
+ * and checksum of each block are appended to a small index file next to its segment, and the
+ * index files are read when the cache is opened, so cached blocks survive restarts. When the
+ * cache is full the oldest segment is deleted as a whole, so space is never fragmented. A block
+ * whose checksum does not match, for example because it was not written out before a crash, is
+ * treated as not cached.
+ *
+ * <p>
+ * Blocks are written by a single background thread, so threads caching blocks never wait on the
+ * disk. Blocks are dropped rather than queued when too many bytes are waiting to be written.
+ */
+public class LocalDiskBlockCache implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalDiskBlockCache.class);
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String INDEX_SUFFIX = ".idx";
+  private static final String LOCK_FILE = "lock";
+  private static final long MAX_QUEUED_BYTES = 64 << 20;
+
+  private static class Segment {
+    final long id;
+    final File segmentFile;
+    final File indexFile;
+    final MappedByteBuffer buffer;
+    // the keys appended to this segment, removed from the cache when the segment is deleted
+    final List<String> keys = new ArrayList<>();
+    // null once the segment is full or when it was read at startup
+    DataOutputStream index;
+    int position;
+
+    Segment(long id, File segmentFile, File indexFile, MappedByteBuffer buffer) {
+      this.id = id;
+      this.segmentFile = segmentFile;
+      this.indexFile = indexFile;
+      this.buffer = buffer;
+    }
+  }
+
+  private static class Location {
+    final Segment segment;
+    final int offset;
+    final int length;
+    final int checksum;
+
+    Location(Segment segment, int offset, int length, int checksum) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.checksum = checksum;
+    }
+  }
+
+  /**
+   * Thrown when the cache directory is in use by another process, or is already open in this one.
+   */
+  public static class DirectoryLockedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    DirectoryLockedException(String message) {
+      super(message);
+    }
+  }
+
+  private final File dir;
+  private final FileChannel lockChannel;
+  private final int segmentSize;
+  private final int maxSegments;
+
+  private final ConcurrentHashMap<String,Location> locations = new ConcurrentHashMap<>();
+  // oldest first, guarded by this
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private Segment active = null;
+  private long nextId = 0;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private final ThreadPoolExecutor writer = new SimpleThreadPool(1, "disk block cache writer");
+  private final AtomicLong queuedBytes = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * Opens the cache in a directory, keeping the blocks the instance cached there before.
+   *
+   * @param instanceId
+   *          the instance whose files are cached, the blocks are kept in a subdirectory named
+   *          for it
+   * @param maxSize
+   *          the most bytes of blocks to keep, rounded down to a whole number of segments
+   * @param segmentSize
+   *          the size of each segment file, the largest block that can be cached
+   * @throws DirectoryLockedException
+   *           if another process is using the directory
+   */
+  public LocalDiskBlockCache(File dir, String instanceId, long maxSize, int segmentSize)
+      throws IOException {
+    Preconditions.checkArgument(segmentSize > 0 && segmentSize <= 1 << 30,
+        "segment size must be between 1 and 1G");
+    this.dir = new File(dir, instanceId);
+    this.segmentSize = segmentSize;
+    this.maxSegments = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxSize / segmentSize));
+
+    if (!this.dir.isDirectory() && !this.dir.mkdirs()) {
+      throw new IOException("Unable to create block cache directory " + this.dir);
+    }
+
+    lockChannel = lock(this.dir);
+    try {
+      load();
+    } catch (IOException | RuntimeException e) {
+      lockChannel.close();
+      throw e;
+    }
+
+    log.info("Opened block cache in {} with {} blocks in {} segments of {} bytes", dir,
+        locations.size(), segments.size(), segmentSize);
+  }
+
+  /**
+   * Locks the directory for this process. The lock is released when the returned channel is closed,
+   * or when the process exits.
+   */
+  private static FileChannel lock(File dir) throws IOException {
+    FileChannel channel = FileChannel.open(new File(dir, LOCK_FILE).toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // held by another cache in this process
+      lock = null;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new DirectoryLockedException("Block cache directory " + dir + " is in use");
+    }
+    return channel;
+  }
+
+  private File segmentFile(long id) {
+    return new File(dir, String.format("%016x", id) + SEGMENT_SUFFIX);
+  }
+
+  private File indexFile(long id) {
+    return new File(dir, String.format("%016x", id) + INDEX_SUFFIX);
+  }
+
+  private synchronized void load() throws IOException {
+    TreeMap<Long,File> indexes = new TreeMap<>();
+    List<File> segmentFiles = new ArrayList<>();
+    File[] files = dir.listFiles();
+    if (files == null) {
+      throw new IOException("Unable to list block cache directory " + dir);
+    }
+    for (File file : files) {
+      String name = file.getName();
+      if (name.endsWith(INDEX_SUFFIX)) {
+        try {
+          indexes.put(Long.parseLong(name.substring(0, name.length() - INDEX_SUFFIX.length()), 16),
+              file);
+        } catch (NumberFormatException e) {
+          log.warn("Ignoring unexpected file {} in block cache directory", file);
+        }
+      } else if (name.endsWith(SEGMENT_SUFFIX)) {
+        segmentFiles.add(file);
+      }
+    }
+
+    for (File segmentFile : segmentFiles) {
+      String name = segmentFile.getName();
+      File indexFile = new File(dir, name.substring(0, name.length() - SEGMENT_SUFFIX.length())
+          + INDEX_SUFFIX);
+      if (!indexFile.exists()) {
+        // the server stopped while the segment was created or deleted, its blocks can not be found
+        delete(segmentFile, indexFile);
+      }
+    }
+
+    for (Long id : indexes.keySet()) {
+      File segmentFile = segmentFile(id);
+      if (segmentFile.length() != segmentSize) {
+        // written with another segment size, or the segment was lost
+        delete(segmentFile, indexFile(id));
+        continue;
+      }
+
+      Segment segment;
+      try (RandomAccessFile raf = new RandomAccessFile(segmentFile, "r")) {
+        segment = new Segment(id, segmentFile, indexFile(id),
+            raf.getChannel().map(MapMode.READ_ONLY, 0, segmentSize));
+      }
+
+      try (DataInputStream in = new DataInputStream(new FileInputStream(segment.indexFile))) {
+        while (true) {
+          String key = in.readUTF();
+          int offset = in.readInt();
+          int length = in.readInt();
+          int checksum = in.readInt();
+          if (offset < segment.position || length < 0 || (long) offset + length > segmentSize) {
+            // blocks are appended in order, so the rest of the index is not usable
+            log.debug("Ignoring the rest of block cache index {} at an invalid entry",
+                segment.indexFile);
+            break;
+          }
+          segment.keys.add(key);
+          segment.position = offset + length;
+          // newer segments replace blocks that were also cached in older ones
+          locations.put(key, new Location(segment, offset, length, checksum));
+        }
+      } catch (EOFException e) {
+        // the tail of the index was not written out before the server stopped
+      } catch (IOException e) {
+        // a corrupt tail, the blocks read before it can still be used
+        log.debug("Ignoring the rest of block cache index {}", segment.indexFile, e);
+      }
+
+      segments.addLast(segment);
+      nextId = id + 1;
+    }
+
+    while (segments.size() > maxSegments) {
+      evict(segments.removeFirst());
+    }
+  }
+
+  /**
+   * @return the block cached for the key, or null
+   */
+  public byte[] get(String key) {
+    Location location = locations.get(key);
+    if (location == null) {
+      misses.increment();
+      return null;
+    }
+
+    byte[] block = new byte[location.length];
+    ByteBuffer buffer = location.segment.buffer.duplicate();
+    buffer.position(location.offset);
+    buffer.get(block);
+
+    if (checksum(block) != location.checksum) {
+      log.debug("Ignoring block {} in {} that does not match its checksum", key,
+          location.segment.segmentFile);
+      locations.remove(key, location);
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    return block;
+  }
+
+  /**
+   * Queues a block to be cached, unless it is already cached or is larger than a segment. The
+   * block is dropped when too many bytes are already waiting to be written.
+   */
+  public void put(String key, byte[] block) {
+    if (block.length > segmentSize || locations.containsKey(key)) {
+      return;
+    }
+
+    long queued = queuedBytes.addAndGet(block.length);
+    // a block larger than the limit is still written when nothing else is waiting
+    if (queued > MAX_QUEUED_BYTES && queued != block.length) {
+      queuedBytes.addAndGet(-block.length);
+      dropped.increment();
+      return;
+    }
+
+    try {
+      writer.execute(() -> {
+        try {
+          write(key, block);
+        } finally {
+          queuedBytes.addAndGet(-block.length);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // the cache was closed
+      queuedBytes.addAndGet(-block.length);
+    }
+  }
+
+  /**
+   * Writes a block, only called by the writer thread. Failing to write the block is logged, the
+   * block is just not cached.
+   */
+  private void write(String key, byte[] block) {
+    Segment sealed = null;
+    synchronized (this) {
+      if (locations.containsKey(key)) {
+        return;
+      }
+      try {
+        if (active == null || active.position + block.length > segmentSize) {
+          sealed = active;
+          roll();
+        }
+        append(key, block);
+      } catch (IOException e) {
+        log.warn("Failed to write block {} to cache in {}", key, dir, e);
+      }
+    }
+
+    if (sealed != null) {
+      // only the writer thread appends to segments, so this does not need to hold the lock
+      sealed.buffer.force();
+    }
+  }
+
+  private void append(String key, byte[] block) throws IOException {
+    ByteBuffer buffer = active.buffer.duplicate();
+    buffer.position(active.position);
+    buffer.put(block);
+
+    int checksum = checksum(block);
+    active.index.writeUTF(key);
+    active.index.writeInt(active.position);
+    active.index.writeInt(block.length);
+    active.index.writeInt(checksum);
+
+    active.keys.add(key);
+    locations.put(key, new Location(active, active.position, block.length, checksum));
+    active.position += block.length;
+  }
+
+  /**
+   * Closes the index of the segment being written to and starts a new one, deleting the oldest
+   * segment when the cache is full. The caller writes out the previous segment.
+   */
+  private void roll() throws IOException {
+    if (active != null) {
+      active.index.close();
+      active.index = null;
+      active = null;
+    }
+
+    while (segments.size() >= maxSegments) {
+      evict(segments.removeFirst());
+    }
+
+    long id = nextId++;
+    Segment segment;
+    try (RandomAccessFile raf = new RandomAccessFile(segmentFile(id), "rw")) {
+      raf.setLength(segmentSize);
+      segment = new Segment(id, segmentFile(id), indexFile(id),
+          raf.getChannel().map(MapMode.READ_WRITE, 0, segmentSize));
+    }
+    segment.index = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(segment.indexFile)));
+
+    segments.addLast(segment);
+    active = segment;
+  }
+
+  private void evict(Segment segment) {
+    for (String key : segment.keys) {
+      // the block may have been cached again in a newer segment
+      locations.computeIfPresent(key,
+          (k, location) -> location.segment == segment ? null : location);
+    }
+    // readers still holding the mapping can finish, the space is freed when it is collected
+    delete(segment.segmentFile, segment.indexFile);
+  }
+
+  private void delete(File segmentFile, File indexFile) {
+    // delete the index first, so a partially deleted segment is never read
+    if ((indexFile.exists() && !indexFile.delete())
+        || (segmentFile.exists() && !segmentFile.delete())) {
+      log.warn("Failed to delete block cache segment {}", segmentFile);
+    }
+  }
+
+  private static int checksum(byte[] block) {
+    CRC32 crc = new CRC32();
+    crc.update(block, 0, block.length);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * @return the number of times a block was read from the cache
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of times a block was not in the cache
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of blocks in the cache
+   */
+  public int getBlockCount() {
+    return locations.size();
+  }
+
+  /**
+   * @return the number of blocks not cached because too many were waiting to be written
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Waits for the blocks queued so far to be written.
+   */
+  @VisibleForTesting
+  void waitForWrites() throws InterruptedException, ExecutionException {
+    writer.submit(() -> {}).get();
+  }
+
+  /**
+   * Writes the queued blocks and the segment being written to, so its blocks are found when the
+   * cache is opened again.
+   */
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      while (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.debug("Waiting for blocks to be written to cache in {}", dir);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for block cache writes");
+    }
+
+    Segment sealed;
+    synchronized (this) {
+      sealed = active;
+      if (sealed != null) {
+        sealed.index.close();
+        sealed.index = null;
+        active = null;
+      }
+    }
+    if (sealed != null) {
+      sealed.buffer.force();
+    }
+    lockChannel.close();
+  }
+}
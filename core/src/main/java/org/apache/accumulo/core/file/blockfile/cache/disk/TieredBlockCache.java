@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.disk;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+
+/**
+ * A block cache in memory backed by a {@link LocalDiskBlockCache}. Blocks that are not in memory
+ * are read from the local disk when they are there, and blocks loaded from files are also written
+ * to the local disk.
+ */
+public class TieredBlockCache implements BlockCache {
+
+  private final BlockCache memory;
+  private final LocalDiskBlockCache disk;
+
+  public TieredBlockCache(BlockCache memory, LocalDiskBlockCache disk) {
+    this.memory = memory;
+    this.disk = disk;
+  }
+
+  private class DiskLoader implements Loader {
+    private final String blockName;
+    private final Loader loader;
+
+    DiskLoader(String blockName, Loader loader) {
+      this.blockName = blockName;
+      this.loader = loader;
+    }
+
+    @Override
+    public Map<String,Loader> getDependencies() {
+      Map<String,Loader> dependencies = loader.getDependencies();
+      if (dependencies.isEmpty()) {
+        return dependencies;
+      }
+      Map<String,Loader> wrapped = new HashMap<>();
+      for (Entry<String,Loader> entry : dependencies.entrySet()) {
+        wrapped.put(entry.getKey(), new DiskLoader(entry.getKey(), entry.getValue()));
+      }
+      return wrapped;
+    }
+
+    @Override
+    public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+      byte[] block = disk.get(blockName);
+      if (block != null) {
+        return block.length > maxSize ? null : block;
+      }
+      block = loader.load(maxSize, dependencies);
+      if (block != null) {
+        disk.put(blockName, block);
+      }
+      return block;
+    }
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    disk.put(blockName, buf);
+    return memory.cacheBlock(blockName, buf);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    CacheEntry ce = memory.getBlock(blockName);
+    if (ce == null) {
+      byte[] block = disk.get(blockName);
+      if (block != null) {
+        ce = memory.cacheBlock(blockName, block);
+      }
+    }
+    return ce;
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName, Loader loader) {
+    return memory.getBlock(blockName, new DiskLoader(blockName, loader));
+  }
+
+  @Override
+  public long getMaxHeapSize() {
+    return memory.getMaxHeapSize();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return memory.getMaxSize();
+  }
+
+  /**
+   * @return the stats of the memory tier, the local disk tier counts its own hits and misses
+   */
+  @Override
+  public Stats getStats() {
+    return memory.getStats();
+  }
+}
@@ -24,10 +24,17 @@ import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile.Reader.BlockReader;
 import org.apache.accumulo.core.file.rfile.bcfile.MetaBlockDoesNotExist;
@@ -37,6 +44,7 @@ import org.apache.accumulo.core.spi.cache.BlockCache.Loader;
 import org.apache.accumulo.core.spi.cache.CacheEntry;
 import org.apache.accumulo.core.spi.cache.CacheEntry.Weighable;
 import org.apache.accumulo.core.spi.crypto.CryptoService;
+import org.apache.accumulo.core.util.NamingThreadFactory;
 import org.apache.accumulo.core.util.ratelimit.RateLimiter;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
@@ -66,6 +74,69 @@ public class CachableBlockFile {
     return p.toString();
   }
 
+  private static ExecutorService readAheadThreadPool = null;
+
+  private static final LongAdder readAheadCount = new LongAdder();
+  private static final LongAdder readAheadHitCount = new LongAdder();
+
+  private static synchronized ExecutorService getReadAheadThreadPool(int maxThreads) {
+    if (readAheadThreadPool != null) {
+      return readAheadThreadPool;
+    }
+
+    if (maxThreads > 0) {
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60,
+          TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          new NamingThreadFactory("rfile-read-ahead"));
+      pool.allowCoreThreadTimeOut(true);
+      readAheadThreadPool = pool;
+    }
+
+    return readAheadThreadPool;
+  }
+
+  /**
+   * @return the number of data blocks read ahead of scans, in this process
+   */
+  public static long getReadAheadCount() {
+    return readAheadCount.sum();
+  }
+
+  /**
+   * @return the number of data blocks read ahead that were in the cache by the time their scan
+   *         reached them
+   */
+  public static long getReadAheadHitCount() {
+    return readAheadHitCount.sum();
+  }
+
+  /**
+   * A data block being loaded into the data cache ahead of a scan.
+   */
+  public static class ReadAhead {
+    private final Future<?> future;
+
+    private ReadAhead(Future<?> future) {
+      this.future = future;
+    }
+
+    /**
+     * Called when the scan reaches the block.
+     */
+    public void reached() {
+      if (future.isDone() && !future.isCancelled()) {
+        readAheadHitCount.increment();
+      }
+    }
+
+    /**
+     * Called when the scan will not read the block, does nothing if it is already being loaded.
+     */
+    public void cancel() {
+      future.cancel(false);
+    }
+  }
+
   /**
    * Class wraps the BCFile reader.
    */
@@ -73,11 +144,13 @@ public class CachableBlockFile {
     private final RateLimiter readLimiter;
     // private BCFile.Reader _bc;
     private final String cacheId;
+    // the cache id and the length of the file, set on the first cache lookup
+    private volatile String blockCacheId = null;
     private final BlockCache _dCache;
     private final BlockCache _iCache;
     private Cache<String,Long> fileLenCache = null;
     private volatile InputStream fin = null;
-    private boolean closed = false;
+    private volatile boolean closed = false;
     private final Configuration conf;
     private final AccumuloConfiguration accumuloConfiguration;
     private final CryptoService cryptoService;
@@ -85,6 +158,8 @@ public class CachableBlockFile {
     private final IoeSupplier<InputStream> inputSupplier;
     private final IoeSupplier<Long> lengthSupplier;
     private final AtomicReference<BCFile.Reader> bcfr = new AtomicReference<>();
+    private volatile byte[] compressionDictionary = null;
+    private final int readAheadBlocks;
 
     private static final String ROOT_BLOCK_NAME = "!RootData";
 
@@ -102,6 +177,21 @@ public class CachableBlockFile {
       }
     }
 
+    /**
+     * Gets the prefix of the names of the blocks of this file in the block caches. It includes the
+     * length of the file, so a cache that outlives the tablet server, like the local disk cache,
+     * does not return the blocks of an older file that had the same name.
+     */
+    private String getBlockCacheId() throws IOException {
+      String id = blockCacheId;
+      if (id == null) {
+        long len = fileLenCache == null ? lengthSupplier.get() : getCachedFileLen();
+        id = cacheId + "@" + len;
+        blockCacheId = id;
+      }
+      return id;
+    }
+
     private BCFile.Reader getBCFile(byte[] serializedMetadata) throws IOException {
 
       BCFile.Reader reader = bcfr.get();
@@ -132,6 +222,10 @@ public class CachableBlockFile {
               cryptoService);
         }
 
+        BCFile.Reader dictionaryReader = tmpReader;
+        tmpReader.setCompressionDictionarySupplier(
+            () -> getCompressionDictionary(dictionaryReader));
+
         if (!bcfr.compareAndSet(null, tmpReader)) {
           fsIn.close();
           tmpReader.close();
@@ -145,9 +239,33 @@ public class CachableBlockFile {
       return reader;
     }
 
+    /**
+     * Gets the dictionary that data blocks were compressed against through the index cache, so it
+     * is read once per file. The cache is not given a loader because the dictionary is needed while
+     * data blocks are being loaded.
+     */
+    private byte[] getCompressionDictionary(BCFile.Reader reader) throws IOException {
+      byte[] dictionary = compressionDictionary;
+      if (dictionary == null) {
+        String _lookup = getBlockCacheId() + "M" + BCFile.DICTIONARY_BLOCK_NAME;
+        CacheEntry ce = _iCache == null ? null : _iCache.getBlock(_lookup);
+        if (ce != null) {
+          dictionary = ce.getBuffer();
+        } else {
+          dictionary = reader.readCompressionDictionary();
+          if (dictionary != null && _iCache != null) {
+            _iCache.cacheBlock(_lookup, dictionary);
+          }
+        }
+        compressionDictionary = dictionary;
+      }
+      return dictionary;
+    }
+
     private BCFile.Reader getBCFile() throws IOException {
       if (_iCache != null) {
-        CacheEntry mce = _iCache.getBlock(cacheId + ROOT_BLOCK_NAME, new BCFileLoader());
+        CacheEntry mce = _iCache.getBlock(getBlockCacheId() + ROOT_BLOCK_NAME,
+            new BCFileLoader());
         if (mce != null) {
           return getBCFile(mce.getBuffer());
         }
@@ -259,7 +377,8 @@ public class CachableBlockFile {
       @Override
       public Map<String,Loader> getDependencies() {
         if (bcfr.get() == null && loadingMetaBlock) {
-          String _lookup = cacheId + ROOT_BLOCK_NAME;
+          // set by the lookup of the block being loaded
+          String _lookup = blockCacheId + ROOT_BLOCK_NAME;
           return Collections.singletonMap(_lookup, new BCFileLoader());
         }
         return Collections.emptyMap();
@@ -272,7 +391,7 @@ public class CachableBlockFile {
           BCFile.Reader reader = bcfr.get();
           if (reader == null) {
             if (loadingMetaBlock) {
-              byte[] serializedMetadata = dependencies.get(cacheId + ROOT_BLOCK_NAME);
+              byte[] serializedMetadata = dependencies.get(blockCacheId + ROOT_BLOCK_NAME);
               reader = getBCFile(serializedMetadata);
             } else {
               reader = getBCFile();
@@ -317,6 +436,9 @@ public class CachableBlockFile {
       this.conf = conf;
       this.accumuloConfiguration = accumuloConfiguration;
       this.cryptoService = cryptoService;
+      // blocks are only read ahead into the data cache
+      this.readAheadBlocks = data == null || accumuloConfiguration == null ? 0
+          : accumuloConfiguration.getCount(Property.TABLE_FILE_READ_AHEAD_BLOCKS);
     }
 
     public Reader(FileSystem fs, Path dataFile, Configuration conf, BlockCache data,
@@ -355,7 +477,7 @@ public class CachableBlockFile {
      */
     public CachedBlockRead getMetaBlock(String blockName) throws IOException {
       if (_iCache != null) {
-        String _lookup = this.cacheId + "M" + blockName;
+        String _lookup = getBlockCacheId() + "M" + blockName;
         try {
           CacheEntry ce = _iCache.getBlock(_lookup, new MetaBlockLoader(blockName));
           if (ce != null) {
@@ -379,7 +501,7 @@ public class CachableBlockFile {
     public CachedBlockRead getMetaBlock(long offset, long compressedSize, long rawSize)
         throws IOException {
       if (_iCache != null) {
-        String _lookup = this.cacheId + "R" + offset;
+        String _lookup = getBlockCacheId() + "R" + offset;
         CacheEntry ce = _iCache.getBlock(_lookup,
             new RawBlockLoader(offset, compressedSize, rawSize, true));
         if (ce != null) {
@@ -401,7 +523,7 @@ public class CachableBlockFile {
 
     public CachedBlockRead getDataBlock(int blockIndex) throws IOException {
       if (_dCache != null) {
-        String _lookup = this.cacheId + "O" + blockIndex;
+        String _lookup = getBlockCacheId() + "O" + blockIndex;
         CacheEntry ce = _dCache.getBlock(_lookup, new OffsetBlockLoader(blockIndex, false));
         if (ce != null) {
           return new CachedBlockRead(ce, ce.getBuffer());
@@ -415,7 +537,7 @@ public class CachableBlockFile {
     public CachedBlockRead getDataBlock(long offset, long compressedSize, long rawSize)
         throws IOException {
       if (_dCache != null) {
-        String _lookup = this.cacheId + "R" + offset;
+        String _lookup = getBlockCacheId() + "R" + offset;
         CacheEntry ce = _dCache.getBlock(_lookup,
             new RawBlockLoader(offset, compressedSize, rawSize, false));
         if (ce != null) {
@@ -427,6 +549,57 @@ public class CachableBlockFile {
       return new CachedBlockRead(_currBlock);
     }
 
+    /**
+     * @return the most data blocks to read ahead of a sequential scan, 0 when blocks are not read
+     *         ahead
+     */
+    public int getReadAheadBlocks() {
+      return readAheadBlocks;
+    }
+
+    /**
+     * Loads a data block into the data cache in the background, so it is in the cache when it is
+     * read.
+     *
+     * @return the block being loaded, or null if blocks are not read ahead
+     */
+    public ReadAhead readAheadDataBlock(int blockIndex) {
+      return readAhead("O" + blockIndex, new OffsetBlockLoader(blockIndex, false));
+    }
+
+    /**
+     * @see #readAheadDataBlock(int)
+     */
+    public ReadAhead readAheadDataBlock(long offset, long compressedSize, long rawSize) {
+      return readAhead("R" + offset,
+          new RawBlockLoader(offset, compressedSize, rawSize, false));
+    }
+
+    private ReadAhead readAhead(String blockName, Loader loader) {
+      if (readAheadBlocks == 0) {
+        return null;
+      }
+
+      ExecutorService pool = getReadAheadThreadPool(
+          accumuloConfiguration.getCount(Property.TSERV_FILE_READ_AHEAD_MAXCONCURRENT));
+      if (pool == null) {
+        return null;
+      }
+
+      readAheadCount.increment();
+      return new ReadAhead(pool.submit(() -> {
+        if (closed) {
+          return;
+        }
+        try {
+          _dCache.getBlock(getBlockCacheId() + blockName, loader);
+        } catch (IOException | RuntimeException e) {
+          // the scan reads the block itself, and reports the error if it fails again
+          log.debug("Failed to read ahead block {} of {}", blockName, cacheId, e);
+        }
+      }));
+    }
+
     @Override
     public synchronized void close() throws IOException {
       if (closed)
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * Builds a compression dictionary from the first keys and values written to an RFile. Blocks are
+ * compressed one at a time, so small blocks can not find much repetition within themselves. A
+ * dictionary made of the byte strings that recur across the sample gives every block that history
+ * up front.
+ *
+ * <p>
+ * Segments are picked in the manner of the COVER algorithm. The sample is split into one epoch per
+ * segment and the segment in each epoch whose k-mers are most frequent in the whole sample is
+ * chosen. The k-mers of a chosen segment no longer count, so later segments cover other content.
+ * The best segments are placed at the end of the dictionary, closest to the data.
+ *
+ * <p>
+ * Blocks written before the dictionary is trained are compressed without it, so the sample is kept
+ * short. It stops at about one data block, but holds at least {@value #MIN_SAMPLE_RATIO} and at
+ * most {@value #MAX_SAMPLE_RATIO} times the dictionary size.
+ */
+class DictionaryTrainer {
+
+  /**
+   * Compressors that support dictionaries can not refer back further than this, so larger
+   * dictionaries are not useful.
+   */
+  static final int MAX_DICTIONARY_SIZE = 64 * 1024;
+
+  static final int MIN_SAMPLE_RATIO = 2;
+  static final int MAX_SAMPLE_RATIO = 4;
+  private static final int SEGMENT_SIZE = 32;
+  private static final int KMER_SIZE = 8;
+  private static final int HASH_LOG = 16;
+
+  private final int dictionarySize;
+  private final byte[] sample;
+  private int size = 0;
+
+  /**
+   * @param blockSize
+   *          size of the data blocks being written, which the sample is cut off at
+   */
+  DictionaryTrainer(int dictionarySize, long blockSize) {
+    this.dictionarySize = Math.min(Math.max(dictionarySize, SEGMENT_SIZE), MAX_DICTIONARY_SIZE);
+    long sampleSize = Math.max(blockSize, (long) this.dictionarySize * MIN_SAMPLE_RATIO);
+    sampleSize = Math.min(sampleSize, (long) this.dictionarySize * MAX_SAMPLE_RATIO);
+    this.sample = new byte[(int) sampleSize];
+  }
+
+  private void add(ByteSequence bs) {
+    int len = Math.min(bs.length(), sample.length - size);
+    System.arraycopy(bs.getBackingArray(), bs.offset(), sample, size, len);
+    size += len;
+  }
+
+  /**
+   * Adds the fields of a key and its value to the sample.
+   *
+   * @return true once the sample is full and the dictionary can be trained
+   */
+  boolean add(Key key, Value value) {
+    add(key.getRowData());
+    add(key.getColumnFamilyData());
+    add(key.getColumnQualifierData());
+    add(key.getColumnVisibilityData());
+    int len = Math.min(value.getSize(), sample.length - size);
+    System.arraycopy(value.get(), 0, sample, size, len);
+    size += len;
+    return size == sample.length;
+  }
+
+  private int hash(int pos) {
+    long v = 0;
+    for (int i = 0; i < KMER_SIZE; i++) {
+      v = v << 8 | (sample[pos + i] & 0xff);
+    }
+    return (int) ((v * 0x9E3779B97F4A7C15L) >>> (64 - HASH_LOG));
+  }
+
+  private static class Segment {
+    final int offset;
+    final long score;
+
+    Segment(int offset, long score) {
+      this.offset = offset;
+      this.score = score;
+    }
+  }
+
+  /**
+   * @return the dictionary, or null if the sample does not contain enough repetition for one
+   */
+  byte[] train() {
+    if (size < dictionarySize * MIN_SAMPLE_RATIO) {
+      return null;
+    }
+
+    int kmers = size - KMER_SIZE + 1;
+    int[] hashes = new int[kmers];
+    int[] counts = new int[1 << HASH_LOG];
+    for (int i = 0; i < kmers; i++) {
+      hashes[i] = hash(i);
+      counts[hashes[i]]++;
+    }
+
+    // a k-mer seen once is not worth putting in the dictionary
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = Math.max(counts[i] - 1, 0);
+    }
+
+    int window = SEGMENT_SIZE - KMER_SIZE + 1;
+    int segments = dictionarySize / SEGMENT_SIZE;
+    int epochSize = size / segments;
+    List<Segment> chosen = new ArrayList<>(segments);
+
+    for (int epoch = 0; epoch < segments; epoch++) {
+      int start = epoch * epochSize;
+      int end = Math.min(start + epochSize, size) - SEGMENT_SIZE;
+      if (end < start) {
+        continue;
+      }
+
+      long score = 0;
+      for (int i = start; i < start + window; i++) {
+        score += counts[hashes[i]];
+      }
+      long bestScore = score;
+      int best = start;
+      for (int pos = start + 1; pos <= end; pos++) {
+        score += counts[hashes[pos + window - 1]] - counts[hashes[pos - 1]];
+        if (score > bestScore) {
+          bestScore = score;
+          best = pos;
+        }
+      }
+
+      if (bestScore > 0) {
+        chosen.add(new Segment(best, bestScore));
+        for (int i = best; i < best + window; i++) {
+          counts[hashes[i]] = 0;
+        }
+      }
+    }
+
+    if (chosen.isEmpty()) {
+      return null;
+    }
+
+    chosen.sort(Comparator.comparingLong(s -> s.score));
+    byte[] dictionary = new byte[chosen.size() * SEGMENT_SIZE];
+    int off = 0;
+    for (Segment segment : chosen) {
+      System.arraycopy(sample, segment.offset, dictionary, off, SEGMENT_SIZE);
+      off += SEGMENT_SIZE;
+    }
+    return dictionary;
+  }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.accumulo.core.file.rfile;
 
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 import static java.util.Objects.requireNonNull;
 
 import java.io.ByteArrayInputStream;
@@ -29,18 +30,20 @@ import java.io.PrintStream;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.RandomAccess;
 
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.core.file.blockfile.impl.SeekableByteArrayInputStream;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
 import org.apache.accumulo.core.file.rfile.bcfile.Utils;
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
 
 public class MultiLevelIndex {
 
@@ -253,6 +256,82 @@ public class MultiLevelIndex {
     }
   }
 
+  private static long readVLong(byte[] data, int pos) {
+    byte first = data[pos];
+    int len = WritableUtils.decodeVIntSize(first);
+    if (len == 1) {
+      return first;
+    }
+    long value = 0;
+    for (int i = 1; i < len; i++) {
+      value = (value << 8) | (data[pos + i] & 0xff);
+    }
+    return WritableUtils.isNegativeVInt(first) ? ~value : value;
+  }
+
+  /**
+   * Compares a key serialized by {@link Key#write(DataOutput)} with another key, in the order of
+   * {@link Key#compareTo(Key)}.
+   *
+   * @return a negative number, zero or a positive number when the serialized key is less than,
+   *         equal to or greater than the other key
+   */
+  static int compareSerialized(byte[] data, int pos, Key key) {
+    return compareSerialized(data, pos, key.getRowData(), key.getColumnFamilyData(),
+        key.getColumnQualifierData(), key.getColumnVisibilityData(), key.getTimestamp(),
+        key.isDeleted());
+  }
+
+  private static int compareSerialized(byte[] data, int pos, ByteSequence row, ByteSequence cf,
+      ByteSequence cq, ByteSequence cv, long timestamp, boolean deleted) {
+    int cfOffset = (int) readVLong(data, pos);
+    pos += WritableUtils.decodeVIntSize(data[pos]);
+    int cqOffset = (int) readVLong(data, pos);
+    pos += WritableUtils.decodeVIntSize(data[pos]);
+    int cvOffset = (int) readVLong(data, pos);
+    pos += WritableUtils.decodeVIntSize(data[pos]);
+    int totalLen = (int) readVLong(data, pos);
+    pos += WritableUtils.decodeVIntSize(data[pos]);
+
+    int result = compareBytes(data, pos, cfOffset, row);
+    if (result != 0) {
+      return result;
+    }
+    result = compareBytes(data, pos + cfOffset, cqOffset - cfOffset, cf);
+    if (result != 0) {
+      return result;
+    }
+    result = compareBytes(data, pos + cqOffset, cvOffset - cqOffset, cq);
+    if (result != 0) {
+      return result;
+    }
+    result = compareBytes(data, pos + cvOffset, totalLen - cvOffset, cv);
+    if (result != 0) {
+      return result;
+    }
+
+    pos += totalLen;
+    // newer timestamps sort first
+    result = Long.compare(timestamp, readVLong(data, pos));
+    if (result != 0) {
+      return result;
+    }
+    pos += WritableUtils.decodeVIntSize(data[pos]);
+    // deleted keys sort first
+    return Boolean.compare(deleted, data[pos] != 0);
+  }
+
+  private static int compareBytes(byte[] data, int pos, int len, ByteSequence bs) {
+    // the offsets come from the file, and the comparison below does not check them
+    checkPositionIndexes(pos, pos + len, data.length);
+    if (bs.isBackedByArray()) {
+      return WritableComparator.compareBytes(data, pos, len, bs.getBackingArray(), bs.offset(),
+          bs.length());
+    }
+    byte[] bytes = bs.toArray();
+    return WritableComparator.compareBytes(data, pos, len, bytes, 0, bytes.length);
+  }
+
   static class IndexBlock {
 
     private ByteArrayOutputStream indexBytes;
@@ -411,6 +490,53 @@ public class MultiLevelIndex {
       }
     }
 
+    int size() {
+      return offsetsArray == null ? numOffsets : offsetsArray.length;
+    }
+
+    private int keyPosition(int index) {
+      int offset;
+      if (offsetsArray == null) {
+        int p = offsetsOffset + index * 4;
+        offset = ((data[p] & 0xff) << 24) | ((data[p + 1] & 0xff) << 16)
+            | ((data[p + 2] & 0xff) << 8) | (data[p + 3] & 0xff);
+      } else {
+        offset = offsetsArray[index];
+      }
+      return indexOffset + offset;
+    }
+
+    /**
+     * Searches the keys of this block, comparing the key with the serialized keys instead of
+     * deserializing them, so nothing is allocated for each key compared.
+     *
+     * @return the same as {@link Collections#binarySearch(List, Object)} over
+     *         {@link #getKeyIndex()}
+     */
+    int binarySearch(Key key) {
+      ByteSequence row = key.getRowData();
+      ByteSequence cf = key.getColumnFamilyData();
+      ByteSequence cq = key.getColumnQualifierData();
+      ByteSequence cv = key.getColumnVisibilityData();
+      long timestamp = key.getTimestamp();
+      boolean deleted = key.isDeleted();
+
+      int low = 0;
+      int high = size() - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int cmp = compareSerialized(data, keyPosition(mid), row, cf, cq, cv, timestamp, deleted);
+        if (cmp < 0) {
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
     public List<Key> getKeyIndex() {
       // create KeyIndex on demand as each has an internal input stream over byte array... keeping a
       // KeyIndex ref for the object could lead to problems with
@@ -605,13 +731,12 @@ public class MultiLevelIndex {
       }
 
       private Node lookup(Key key) throws IOException {
-        int pos = Collections.binarySearch(indexBlock.getKeyIndex(), key,
-            Comparator.naturalOrder());
+        int pos = indexBlock.binarySearch(key);
 
         if (pos < 0)
           pos = (pos * -1) - 1;
 
-        if (pos == indexBlock.getIndex().size()) {
+        if (pos == indexBlock.size()) {
           if (parent != null)
             throw new IllegalStateException();
           this.currentPos = pos;
@@ -24,6 +24,7 @@ import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -437,17 +438,21 @@ public class RFile {
 
     private SampleLocalityGroupWriter sample;
 
+    private RowSketch.Builder rowSketch;
+
     // Use windowed stats to fix ACCUMULO-4669
     private RollingStats keyLenStats = new RollingStats(2017);
     private double averageKeySize = 0;
 
     LocalityGroupWriter(BCFile.Writer fileWriter, long blockSize, long maxBlockSize,
-        LocalityGroupMetadata currentLocalityGroup, SampleLocalityGroupWriter sample) {
+        LocalityGroupMetadata currentLocalityGroup, SampleLocalityGroupWriter sample,
+        RowSketch.Builder rowSketch) {
       this.fileWriter = fileWriter;
       this.blockSize = blockSize;
       this.maxBlockSize = maxBlockSize;
       this.currentLocalityGroup = currentLocalityGroup;
       this.sample = sample;
+      this.rowSketch = rowSketch;
     }
 
     private boolean isGiantKey(Key k) {
@@ -467,6 +472,9 @@ public class RFile {
 
       if (currentLocalityGroup.getFirstKey() == null) {
         currentLocalityGroup.setFirstKey(key);
+        if (rowSketch != null) {
+          rowSketch.addFirst(key.getRow());
+        }
       }
 
       if (sample != null) {
@@ -521,6 +529,11 @@ public class RFile {
     private void closeBlock(Key key, boolean lastBlock) throws IOException {
       blockWriter.close();
 
+      if (rowSketch != null) {
+        // the index key may be shortened and not exist in the file, so use the real last key
+        rowSketch.addBlockEnd(lastKeyInBlock.getRow());
+      }
+
       if (lastBlock)
         currentLocalityGroup.indexWriter.addLast(key, entries, blockWriter.getStartPos(),
             blockWriter.getCompressedSize(), blockWriter.getRawSize());
@@ -575,6 +588,11 @@ public class RFile {
     private SamplerConfigurationImpl samplerConfig;
     private Sampler sampler;
 
+    private RowSketch.Builder rowSketch = new RowSketch.Builder();
+
+    // trains the compression dictionary, null once it is trained or when none is used
+    private DictionaryTrainer dictionaryTrainer = null;
+
     public Writer(BCFile.Writer bfw, int blockSize) throws IOException {
       this(bfw, blockSize, (int) DefaultConfiguration.getInstance()
           .getAsBytes(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX), null, null);
@@ -582,6 +600,18 @@ public class RFile {
 
     public Writer(BCFile.Writer bfw, int blockSize, int indexBlockSize,
         SamplerConfigurationImpl samplerConfig, Sampler sampler) throws IOException {
+      this(bfw, blockSize, indexBlockSize, samplerConfig, sampler, 0);
+    }
+
+    /**
+     * @param dictionarySize
+     *          size of the dictionary to train from the first keys and values appended, about one
+     *          data block's worth, for compressing the data and index blocks written after it. 0
+     *          for no dictionary.
+     */
+    public Writer(BCFile.Writer bfw, int blockSize, int indexBlockSize,
+        SamplerConfigurationImpl samplerConfig, Sampler sampler, int dictionarySize)
+        throws IOException {
       this.blockSize = blockSize;
       this.maxBlockSize = (long) (blockSize * MAX_BLOCK_MULTIPLIER);
       this.indexBlockSize = indexBlockSize;
@@ -589,6 +619,9 @@ public class RFile {
       previousColumnFamilies = new HashSet<>();
       this.samplerConfig = samplerConfig;
       this.sampler = sampler;
+      if (dictionarySize > 0 && bfw.supportsCompressionDictionary()) {
+        this.dictionaryTrainer = new DictionaryTrainer(dictionarySize, blockSize);
+      }
     }
 
     @Override
@@ -600,6 +633,12 @@ public class RFile {
 
       closeData();
 
+      if (!rowSketch.isEmpty()) {
+        BlockAppender sba = fileWriter.prepareMetaBlock(RowSketch.META_BLOCK_NAME);
+        rowSketch.build().write(sba);
+        sba.close();
+      }
+
       BlockAppender mba = fileWriter.prepareMetaBlock("RFile.index");
 
       mba.writeInt(RINDEX_MAGIC);
@@ -656,6 +695,11 @@ public class RFile {
       }
 
       lgWriter.append(key, value);
+
+      if (dictionaryTrainer != null && dictionaryTrainer.add(key, value)) {
+        fileWriter.setCompressionDictionary(dictionaryTrainer.train());
+        dictionaryTrainer = null;
+      }
     }
 
     @Override
@@ -708,11 +752,12 @@ public class RFile {
       SampleLocalityGroupWriter sampleWriter = null;
       if (sampler != null) {
         sampleWriter = new SampleLocalityGroupWriter(
-            new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, sampleLocalityGroup, null),
+            new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, sampleLocalityGroup, null,
+                null),
             sampler);
       }
       lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, currentLocalityGroup,
-          sampleWriter);
+          sampleWriter, rowSketch);
     }
 
     @Override
@@ -754,6 +799,14 @@ public class RFile {
     private int version;
     private boolean checkRange = true;
 
+    // blocks a scan reads in a row before the following blocks are read ahead
+    private static final int READ_AHEAD_SEQUENTIAL_BLOCKS = 2;
+
+    // blocks read in a row since the last seek, and the blocks being read ahead of them
+    private int sequentialBlocks = 0;
+    private final ArrayDeque<CachableBlockFile.ReadAhead> readAheads = new ArrayDeque<>();
+    private int lastReadAheadIndex = -1;
+
     private LocalityGroupReader(CachableBlockFile.Reader reader, LocalityGroupMetadata lgm,
         int version) throws IOException {
       super(lgm.columnFamilies, lgm.isDefaultLG);
@@ -785,6 +838,7 @@ public class RFile {
     public void close() throws IOException {
       closed = true;
       hasTop = false;
+      cancelReadAhead();
       if (currBlock != null)
         currBlock.close();
 
@@ -838,6 +892,7 @@ public class RFile {
         if (iiter.hasNext()) {
           IndexEntry indexEntry = iiter.next();
           entriesLeft = indexEntry.getNumEntries();
+          readAhead(indexEntry);
           currBlock = getDataBlock(indexEntry);
 
           checkRange = range.afterEndKey(indexEntry.getKey());
@@ -877,6 +932,70 @@ public class RFile {
 
     }
 
+    /**
+     * Once a scan has read a few blocks in a row, loads the blocks after the current one into the
+     * data cache in the background so the scan does not wait on reading them. The number of blocks
+     * read ahead doubles with each block read, up to the configured number.
+     */
+    private void readAhead(IndexEntry current) {
+      int currentIndex = iiter.previousIndex();
+      while (!readAheads.isEmpty() && lastReadAheadIndex - readAheads.size() < currentIndex) {
+        readAheads.removeFirst().reached();
+      }
+
+      sequentialBlocks++;
+      int maxBlocks = reader.getReadAheadBlocks();
+      if (maxBlocks == 0 || sequentialBlocks < READ_AHEAD_SEQUENTIAL_BLOCKS) {
+        return;
+      }
+
+      int window = Math.min(maxBlocks,
+          1 << Math.min(30, sequentialBlocks - READ_AHEAD_SEQUENTIAL_BLOCKS));
+      int lastIndex = Math.min(currentIndex + window, blockCount - 1);
+      if (lastReadAheadIndex >= lastIndex) {
+        return;
+      }
+
+      // walk the index forward to the blocks to read, then back to the current block
+      int steps = 0;
+      try {
+        IndexEntry prev = current;
+        while (iiter.previousIndex() < lastIndex && iiter.hasNext()
+            && !range.afterEndKey(prev.getKey())) {
+          IndexEntry entry = iiter.next();
+          steps++;
+          int index = iiter.previousIndex();
+          if (index > lastReadAheadIndex) {
+            CachableBlockFile.ReadAhead readAhead;
+            if (version == RINDEX_VER_3 || version == RINDEX_VER_4)
+              readAhead = reader.readAheadDataBlock(startBlock + index);
+            else
+              readAhead = reader.readAheadDataBlock(entry.getOffset(), entry.getCompressedSize(),
+                  entry.getRawSize());
+            if (readAhead == null) {
+              break;
+            }
+            readAheads.addLast(readAhead);
+            lastReadAheadIndex = index;
+          }
+          prev = entry;
+        }
+      } finally {
+        for (; steps > 0; steps--) {
+          iiter.previous();
+        }
+      }
+    }
+
+    private void cancelReadAhead() {
+      for (CachableBlockFile.ReadAhead readAhead : readAheads) {
+        readAhead.cancel();
+      }
+      readAheads.clear();
+      lastReadAheadIndex = -1;
+      sequentialBlocks = 0;
+    }
+
     @Override
     public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
         throws IOException {
@@ -902,6 +1021,7 @@ public class RFile {
     private void reset() {
       rk = null;
       hasTop = false;
+      cancelReadAhead();
       if (currBlock != null) {
         try {
           try {
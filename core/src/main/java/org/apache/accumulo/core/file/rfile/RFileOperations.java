@@ -141,6 +141,9 @@ public class RFileOperations extends FileOperations {
     BCFile.Writer _cbw = new BCFile.Writer(outputStream, options.getRateLimiter(), compression,
         conf, acuconf, cryptoService);
 
-    return new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, samplerConfig, sampler);
+    long dictionarySize = acuconf.getAsBytes(Property.TABLE_FILE_COMPRESSION_DICTIONARY_SIZE);
+
+    return new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, samplerConfig, sampler,
+        (int) Math.min(dictionarySize, Integer.MAX_VALUE));
   }
 }
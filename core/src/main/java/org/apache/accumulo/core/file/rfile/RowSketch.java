@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.rfile.bcfile.MetaBlockDoesNotExist;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A compact summary of the rows in an RFile that is stored in its own meta block. It contains the
+ * first and last row in the file and a bounded, evenly spaced sample of rows that end data blocks.
+ * The sample rows all exist in the file and each one stands for roughly the same amount of data, so
+ * the sketch can be used to decide which tablets a file overlaps and to estimate how much of the
+ * file each tablet gets without reading the file's index or data blocks.
+ *
+ * <p>
+ * Files written before this meta block existed do not have a sketch, so callers must be prepared
+ * for {@link #read(CachableBlockFile.Reader)} to return null.
+ */
+public class RowSketch {
+
+  static final String META_BLOCK_NAME = "RFile.rowsketch";
+
+  private static final int VERSION = 1;
+
+  /**
+   * Upper bound on the number of sample rows kept in a sketch.
+   */
+  static final int MAX_SAMPLES = 1024;
+
+  private final Text firstRow;
+  private final Text lastRow;
+  private final List<Text> samples;
+
+  private RowSketch(Text firstRow, Text lastRow, List<Text> samples) {
+    this.firstRow = firstRow;
+    this.lastRow = lastRow;
+    this.samples = samples;
+  }
+
+  public Text getFirstRow() {
+    return firstRow;
+  }
+
+  public Text getLastRow() {
+    return lastRow;
+  }
+
+  /**
+   * @return sorted rows sampled from the ends of data blocks. Every row is in the range
+   *         [firstRow,lastRow].
+   */
+  public List<Text> getSampleRows() {
+    return Collections.unmodifiableList(samples);
+  }
+
+  /**
+   * @return true if the extent could contain data from this file
+   */
+  public boolean overlaps(KeyExtent extent) {
+    if (extent.getPrevEndRow() != null && extent.getPrevEndRow().compareTo(lastRow) >= 0) {
+      return false;
+    }
+    return extent.getEndRow() == null || extent.getEndRow().compareTo(firstRow) >= 0;
+  }
+
+  /**
+   * @return true if the extent contains a row that the sketch shows is in the file. An extent
+   *         between the first and last row that does not may still contain rows of the file.
+   */
+  public boolean containsRecordedRow(KeyExtent extent) {
+    return extent.contains(firstRow) || extent.contains(lastRow) || countSamples(extent) > 0;
+  }
+
+  /**
+   * @return the number of sample rows that fall in the extent
+   */
+  public int countSamples(KeyExtent extent) {
+    int start = 0;
+    if (extent.getPrevEndRow() != null) {
+      start = upperBound(extent.getPrevEndRow());
+    }
+
+    int end = samples.size();
+    if (extent.getEndRow() != null) {
+      end = upperBound(extent.getEndRow());
+    }
+
+    return Math.max(0, end - start);
+  }
+
+  // index of the first sample strictly greater than row
+  private int upperBound(Text row) {
+    int low = 0;
+    int high = samples.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (samples.get(mid).compareTo(row) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  void write(DataOutput out) throws IOException {
+    out.writeInt(VERSION);
+    firstRow.write(out);
+    lastRow.write(out);
+    WritableUtils.writeVInt(out, samples.size());
+    for (Text sample : samples) {
+      sample.write(out);
+    }
+  }
+
+  static RowSketch read(DataInput in) throws IOException {
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unknown row sketch version " + version);
+    }
+
+    Text firstRow = new Text();
+    firstRow.readFields(in);
+    Text lastRow = new Text();
+    lastRow.readFields(in);
+
+    int size = WritableUtils.readVInt(in);
+    List<Text> samples = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Text sample = new Text();
+      sample.readFields(in);
+      samples.add(sample);
+    }
+
+    return new RowSketch(firstRow, lastRow, samples);
+  }
+
+  /**
+   * Reads the sketch meta block from an RFile without reading the RFile index.
+   *
+   * @return the sketch or null if the file does not have one
+   */
+  public static RowSketch read(CachableBlockFile.Reader reader) throws IOException {
+    try (CachableBlockFile.CachedBlockRead in = reader.getMetaBlock(META_BLOCK_NAME)) {
+      return read(in);
+    } catch (MetaBlockDoesNotExist e) {
+      return null;
+    }
+  }
+
+  /**
+   * Accumulates rows while an RFile is written. Rows from different locality groups may arrive out
+   * of order. When too many samples are collected every other one is dropped and the sampling
+   * stride is doubled, so the retained samples stay evenly spaced across blocks.
+   */
+  static class Builder {
+    private Text firstRow = null;
+    private Text lastRow = null;
+    private List<Text> samples = new ArrayList<>();
+    private int stride = 1;
+    private long blocks = 0;
+
+    void addFirst(Text row) {
+      if (firstRow == null || row.compareTo(firstRow) < 0) {
+        firstRow = new Text(row);
+      }
+    }
+
+    void addBlockEnd(Text row) {
+      if (lastRow == null || row.compareTo(lastRow) > 0) {
+        lastRow = new Text(row);
+      }
+
+      if (blocks++ % stride != 0) {
+        return;
+      }
+
+      samples.add(new Text(row));
+
+      if (samples.size() > MAX_SAMPLES) {
+        Collections.sort(samples);
+        List<Text> halved = new ArrayList<>(samples.size() / 2 + 1);
+        for (int i = 0; i < samples.size(); i += 2) {
+          halved.add(samples.get(i));
+        }
+        samples = halved;
+        stride *= 2;
+      }
+    }
+
+    boolean isEmpty() {
+      return firstRow == null;
+    }
+
+    RowSketch build() {
+      Preconditions.checkState(!isEmpty());
+      List<Text> sorted = new ArrayList<>(samples);
+      Collections.sort(sorted);
+      return new RowSketch(firstRow, lastRow, sorted);
+    }
+  }
+}
@@ -39,6 +39,7 @@ import org.apache.accumulo.core.crypto.CryptoUtils;
 import org.apache.accumulo.core.cryptoImpl.CryptoEnvironmentImpl;
 import org.apache.accumulo.core.cryptoImpl.NoFileDecrypter;
 import org.apache.accumulo.core.file.rfile.bcfile.Compression.Algorithm;
+import org.apache.accumulo.core.file.rfile.bcfile.Compression.DictionarySupplier;
 import org.apache.accumulo.core.file.rfile.bcfile.Utils.Version;
 import org.apache.accumulo.core.file.streams.BoundedRangeFileInputStream;
 import org.apache.accumulo.core.file.streams.RateLimitedOutputStream;
@@ -83,6 +84,11 @@ public final class BCFile {
   static final Version API_VERSION_1 = new Version((short) 1, (short) 0);
   static final Log LOG = LogFactory.getLog(BCFile.class);
 
+  /**
+   * Name of the meta block holding the dictionary that data blocks were compressed against, if any.
+   */
+  public static final String DICTIONARY_BLOCK_NAME = "BCFile.dictionary";
+
   private static final String FS_OUTPUT_BUF_SIZE_ATTR = "tfile.fs.output.buffer.size";
   private static final String FS_INPUT_BUF_SIZE_ATTR = "tfile.fs.input.buffer.size";
 
@@ -120,6 +126,8 @@ public final class BCFile {
     // reusable buffers.
     private BytesWritable fsOutputBuffer;
     private long length = 0;
+    // dictionary for data blocks started after it is set, written as a meta block on close
+    private byte[] compressionDictionary = null;
 
     public long getLength() {
       return this.length;
@@ -139,8 +147,8 @@ public final class BCFile {
       private OutputStream out;
 
       public WBlockState(Algorithm compressionAlgo, RateLimitedOutputStream fsOut,
-          BytesWritable fsOutputBuffer, Configuration conf, FileEncrypter encrypter)
-          throws IOException {
+          BytesWritable fsOutputBuffer, Configuration conf, FileEncrypter encrypter,
+          byte[] dictionary) throws IOException {
         this.compressAlgo = compressionAlgo;
         this.fsOut = fsOut;
         this.posStart = fsOut.position();
@@ -153,7 +161,8 @@ public final class BCFile {
 
         try {
           this.cipherOut = encrypter.encryptStream(fsBufferedOutput);
-          this.out = compressionAlgo.createCompressionStream(cipherOut, compressor, 0);
+          this.out = compressionAlgo.createCompressionStream(cipherOut, compressor, 0,
+              dictionary);
         } catch (IOException e) {
           compressAlgo.returnCompressor(compressor);
           throw e;
@@ -347,6 +356,13 @@ public final class BCFile {
             throw new IllegalStateException("Close() called with active block appender.");
           }
 
+          if (compressionDictionary != null) {
+            try (BlockAppender appender = prepareMetaBlock(DICTIONARY_BLOCK_NAME,
+                getDefaultCompressionAlgorithm())) {
+              appender.write(compressionDictionary);
+            }
+          }
+
           // add metaBCFileIndex to metaIndex as the last meta block
           try (BlockAppender appender = prepareMetaBlock(DataIndex.BLOCK_NAME,
               getDefaultCompressionAlgorithm())) {
@@ -389,7 +405,7 @@ public final class BCFile {
       }
 
       MetaBlockRegister mbr = new MetaBlockRegister(name, compressAlgo);
-      WBlockState wbs = new WBlockState(compressAlgo, out, fsOutputBuffer, conf, encrypter);
+      WBlockState wbs = new WBlockState(compressAlgo, out, fsOutputBuffer, conf, encrypter, null);
       BlockAppender ba = new BlockAppender(mbr, wbs);
       blkInProgress = true;
       metaBlkSeen = true;
@@ -429,12 +445,33 @@ public final class BCFile {
       }
 
       WBlockState wbs = new WBlockState(getDefaultCompressionAlgorithm(), out, fsOutputBuffer, conf,
-          encrypter);
+          encrypter, compressionDictionary);
       BlockAppender ba = new BlockAppender(wbs);
       blkInProgress = true;
       return ba;
     }
 
+    /**
+     * @return true if the compression algorithm used for data blocks can use a dictionary
+     */
+    public boolean supportsCompressionDictionary() {
+      return getDefaultCompressionAlgorithm().supportsDictionary();
+    }
+
+    /**
+     * Sets the dictionary that data blocks created from now on are compressed against. The
+     * dictionary is stored in the file as a meta block, so it can only be set once. It is ignored
+     * if the compression algorithm does not {@link #supportsCompressionDictionary()}.
+     */
+    public void setCompressionDictionary(byte[] dictionary) {
+      if (compressionDictionary != null) {
+        throw new IllegalStateException("Compression dictionary already set");
+      }
+      if (dictionary != null && dictionary.length > 0 && supportsCompressionDictionary()) {
+        compressionDictionary = dictionary;
+      }
+    }
+
     /**
      * Callback to make sure a meta block is added to the internal list when its stream is closed.
      */
@@ -466,6 +503,17 @@ public final class BCFile {
     final Version version;
     private byte[] decryptionParams;
     private FileDecrypter decrypter;
+    private DictionarySupplier dictionarySupplier = new DictionarySupplier() {
+      private volatile byte[] dictionary;
+
+      @Override
+      public byte[] get() throws IOException {
+        if (dictionary == null) {
+          dictionary = readCompressionDictionary();
+        }
+        return dictionary;
+      }
+    };
 
     /**
      * Intermediate class that maintain the state of a Readable Compression Block.
@@ -478,8 +526,8 @@ public final class BCFile {
       private volatile boolean closed;
 
       public <InputStreamType extends InputStream & Seekable> RBlockState(Algorithm compressionAlgo,
-          InputStreamType fsin, BlockRegion region, Configuration conf, FileDecrypter decrypter)
-          throws IOException {
+          InputStreamType fsin, BlockRegion region, Configuration conf, FileDecrypter decrypter,
+          DictionarySupplier dictionary) throws IOException {
         this.compressAlgo = compressionAlgo;
         this.region = region;
         this.decompressor = compressionAlgo.getDecompressor();
@@ -491,7 +539,7 @@ public final class BCFile {
           InputStream inputStreamToBeCompressed = decrypter
               .decryptStream(boundedRangeFileInputStream);
           this.in = compressAlgo.createDecompressionStream(inputStreamToBeCompressed, decompressor,
-              getFSInputBufferSize(conf));
+              getFSInputBufferSize(conf), dictionary);
         } catch (IOException e) {
           compressAlgo.returnDecompressor(decompressor);
           throw e;
@@ -719,7 +767,7 @@ public final class BCFile {
       }
 
       BlockRegion region = imeBCIndex.getRegion();
-      return createReader(imeBCIndex.getCompressionAlgorithm(), region);
+      return createReader(imeBCIndex.getCompressionAlgorithm(), region, null);
     }
 
     public long getMetaBlockRawSize(String name) throws IOException, MetaBlockDoesNotExist {
@@ -745,13 +793,13 @@ public final class BCFile {
       }
 
       BlockRegion region = dataIndex.getBlockRegionList().get(blockIndex);
-      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region);
+      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region, dictionarySupplier);
     }
 
     public BlockReader getDataBlock(long offset, long compressedSize, long rawSize)
         throws IOException {
       BlockRegion region = new BlockRegion(offset, compressedSize, rawSize);
-      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region);
+      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region, dictionarySupplier);
     }
 
     public long getDataBlockRawSize(int blockIndex) {
@@ -763,9 +811,37 @@ public final class BCFile {
       return dataIndex.getBlockRegionList().get(blockIndex).getRawSize();
     }
 
-    private BlockReader createReader(Algorithm compressAlgo, BlockRegion region)
-        throws IOException {
-      RBlockState rbs = new RBlockState(compressAlgo, in, region, conf, decrypter);
+    /**
+     * Reads the dictionary that data blocks were compressed against from its meta block.
+     *
+     * @return the dictionary, or null if the file does not have one
+     */
+    public byte[] readCompressionDictionary() throws IOException {
+      MetaIndexEntry entry = metaIndex.getMetaByName(DICTIONARY_BLOCK_NAME);
+      if (entry == null) {
+        return null;
+      }
+
+      byte[] dictionary = new byte[(int) entry.getRegion().getRawSize()];
+      try (BlockReader reader = createReader(entry.getCompressionAlgorithm(), entry.getRegion(),
+          null)) {
+        reader.readFully(dictionary);
+      }
+      return dictionary;
+    }
+
+    /**
+     * Replaces how the compression dictionary is obtained when a data block needs it, for example
+     * to share it through a cache. By default it is read with {@link #readCompressionDictionary()}
+     * the first time it is needed.
+     */
+    public void setCompressionDictionarySupplier(DictionarySupplier dictionarySupplier) {
+      this.dictionarySupplier = dictionarySupplier;
+    }
+
+    private BlockReader createReader(Algorithm compressAlgo, BlockRegion region,
+        DictionarySupplier dictionary) throws IOException {
+      RBlockState rbs = new RBlockState(compressAlgo, in, region, conf, decrypter, dictionary);
       return new BlockReader(rbs);
     }
   }
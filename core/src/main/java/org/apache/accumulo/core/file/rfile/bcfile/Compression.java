@@ -57,6 +57,14 @@ public final class Compression {
     // nothing
   }
 
+  /**
+   * Supplies the dictionary that data was compressed against. It is only called when compressed
+   * data that needs the dictionary is read, and may return null if there is none.
+   */
+  public interface DictionarySupplier {
+    byte[] get() throws IOException;
+  }
+
   static class FinishOnFlushCompressionStream extends FilterOutputStream {
     public FinishOnFlushCompressionStream(CompressionOutputStream cout) {
       super(cout);
@@ -86,6 +94,8 @@ public final class Compression {
   public static final String COMPRESSION_LZO = "lzo";
   /** compression: none */
   public static final String COMPRESSION_NONE = "none";
+  /** compression: pure Java lz4 */
+  public static final String COMPRESSION_LZ4 = "lz4";
 
   /**
    * Compression algorithms. There is a static initializer, below the values defined in the
@@ -122,6 +132,9 @@ public final class Compression {
    *
    * Snappy will use the default Snappy codec with the default buffer size of 64k for the
    * compression stream, but will use a cached codec if the buffer size differs from the default.
+   *
+   * LZ4 does not use a Hadoop codec. It compresses between pooled byte arrays in pure Java, so it
+   * is always supported and does not depend on native libraries.
    */
   public static enum Algorithm {
 
@@ -565,6 +578,58 @@ public final class Compression {
       public boolean isSupported() {
         return zstdCodec != null;
       }
+    },
+
+    LZ4(COMPRESSION_LZ4) {
+      @Override
+      CompressionCodec getCodec() {
+        return null;
+      }
+
+      @Override
+      public void initializeDefaultCodec() {
+
+      }
+
+      @Override
+      protected CompressionCodec createNewCodec(final int bufferSize) {
+        return null;
+      }
+
+      @Override
+      public InputStream createDecompressionStream(InputStream downStream,
+          Decompressor decompressor, int downStreamBufferSize) {
+        // whole chunks are read from the down stream, so it is not buffered
+        return new Lz4BlockInputStream(downStream);
+      }
+
+      @Override
+      public InputStream createDecompressionStream(InputStream downStream,
+          Decompressor decompressor, int downStreamBufferSize, DictionarySupplier dictionary) {
+        return new Lz4BlockInputStream(downStream, dictionary);
+      }
+
+      @Override
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor,
+          int downStreamBufferSize) {
+        return new Lz4BlockOutputStream(downStream);
+      }
+
+      @Override
+      public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor,
+          int downStreamBufferSize, byte[] dictionary) {
+        return new Lz4BlockOutputStream(downStream, dictionary);
+      }
+
+      @Override
+      public boolean isSupported() {
+        return true;
+      }
+
+      @Override
+      public boolean supportsDictionary() {
+        return true;
+      }
     };
 
     /**
@@ -642,6 +707,33 @@ public final class Compression {
 
     public abstract boolean isSupported();
 
+    /**
+     * @return true if data can be compressed against a dictionary, using
+     *         {@link #createCompressionStream(OutputStream, Compressor, int, byte[])}
+     */
+    public boolean supportsDictionary() {
+      return false;
+    }
+
+    /**
+     * Creates a stream that compresses against the given dictionary, when the algorithm
+     * {@link #supportsDictionary()}. Otherwise the dictionary is ignored.
+     */
+    public OutputStream createCompressionStream(OutputStream downStream, Compressor compressor,
+        int downStreamBufferSize, byte[] dictionary) throws IOException {
+      return createCompressionStream(downStream, compressor, downStreamBufferSize);
+    }
+
+    /**
+     * Creates a stream that can read data compressed against a dictionary. The dictionary is only
+     * obtained from the supplier if the data needs it.
+     */
+    public InputStream createDecompressionStream(InputStream downStream,
+        Decompressor decompressor, int downStreamBufferSize, DictionarySupplier dictionary)
+        throws IOException {
+      return createDecompressionStream(downStream, decompressor, downStreamBufferSize);
+    }
+
     public Compressor getCompressor() throws IOException {
       CompressionCodec codec = getCodec();
       if (codec != null) {
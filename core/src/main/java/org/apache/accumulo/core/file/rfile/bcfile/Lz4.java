@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A pure Java implementation of the LZ4 block format. It trades compression ratio for speed and
+ * does not need native libraries. Data is compressed between byte arrays, and the arrays used by
+ * the block streams are pooled.
+ *
+ * <p>
+ * The compressed data is a sequence of LZ4 sequences as described in the LZ4 block format
+ * specification, so it can be decompressed by any LZ4 block decompressor given the raw length.
+ * Data can also be compressed against a dictionary, which is treated as history that precedes the
+ * data. The same dictionary must then be placed before the data when decompressing.
+ */
+final class Lz4 {
+
+  private Lz4() {}
+
+  /**
+   * Amount of raw data compressed as a unit by the block streams. Large enough that a default size
+   * RFile data block is one chunk.
+   */
+  static final int CHUNK_SIZE = 128 * 1024;
+
+  /**
+   * Set in the raw length of a chunk header when the chunk was compressed against a dictionary.
+   */
+  static final int DICTIONARY_FLAG = 0x80000000;
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;
+  private static final int MF_LIMIT = 12;
+  private static final int MAX_OFFSET = 65535;
+  private static final int HASH_LOG = 12;
+  private static final int SKIP_TRIGGER = 6;
+
+  private static final ThreadLocal<int[]> hashTables = ThreadLocal
+      .withInitial(() -> new int[1 << HASH_LOG]);
+
+  private static final ThreadLocal<byte[]> workBuffers = new ThreadLocal<>();
+
+  private static final int POOL_SIZE = 64;
+  private static final BlockingQueue<byte[]> rawBuffers = new ArrayBlockingQueue<>(POOL_SIZE);
+  private static final BlockingQueue<byte[]> compressedBuffers = new ArrayBlockingQueue<>(
+      POOL_SIZE);
+
+  static int maxCompressedLength(int length) {
+    return length + length / 255 + 16;
+  }
+
+  static byte[] getRawBuffer() {
+    byte[] buffer = rawBuffers.poll();
+    return buffer == null ? new byte[CHUNK_SIZE] : buffer;
+  }
+
+  static byte[] getCompressedBuffer() {
+    byte[] buffer = compressedBuffers.poll();
+    return buffer == null ? new byte[maxCompressedLength(CHUNK_SIZE)] : buffer;
+  }
+
+  static void returnRawBuffer(byte[] buffer) {
+    if (buffer != null) {
+      rawBuffers.offer(buffer);
+    }
+  }
+
+  static void returnCompressedBuffer(byte[] buffer) {
+    if (buffer != null) {
+      compressedBuffers.offer(buffer);
+    }
+  }
+
+  /**
+   * @return a per thread buffer of at least size bytes, for holding a dictionary followed by a
+   *         chunk. It must not be used after the calling method returns.
+   */
+  static byte[] getWorkBuffer(int size) {
+    byte[] buffer = workBuffers.get();
+    if (buffer == null || buffer.length < size) {
+      buffer = new byte[size];
+      workBuffers.set(buffer);
+    }
+    return buffer;
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16
+        | (b[i + 3] & 0xff) << 24;
+  }
+
+  private static int hash(int i) {
+    return (i * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+  private static int writeLength(int length, byte[] dest, int dp) {
+    while (length >= 255) {
+      dest[dp++] = (byte) 255;
+      length -= 255;
+    }
+    dest[dp++] = (byte) length;
+    return dp;
+  }
+
+  private static int writeLiterals(byte[] src, int sp, int length, byte[] dest, int dp,
+      int matchToken) {
+    int tokenPos = dp++;
+    if (length >= 15) {
+      dest[tokenPos] = (byte) (0xf0 | matchToken);
+      dp = writeLength(length - 15, dest, dp);
+    } else {
+      dest[tokenPos] = (byte) (length << 4 | matchToken);
+    }
+    System.arraycopy(src, sp, dest, dp, length);
+    return dp + length;
+  }
+
+  /**
+   * Compresses src into dest, which must have room for {@link #maxCompressedLength(int)} bytes.
+   *
+   * @return the compressed length
+   */
+  static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+    return compress(src, srcOff, srcOff, srcLen, dest, destOff);
+  }
+
+  /**
+   * Compresses src into dest, allowing matches against the history in src from base up to srcOff,
+   * such as a dictionary.
+   *
+   * @return the compressed length
+   */
+  static int compress(byte[] src, int base, int srcOff, int srcLen, byte[] dest, int destOff) {
+    final int end = srcOff + srcLen;
+    final int matchLimit = end - LAST_LITERALS;
+    final int mfLimit = end - MF_LIMIT;
+
+    int sp = srcOff;
+    int dp = destOff;
+    int anchor = srcOff;
+
+    if (srcLen >= MF_LIMIT + 1) {
+      int[] table = hashTables.get();
+      Arrays.fill(table, -1);
+
+      for (int p = Math.max(base, srcOff - MAX_OFFSET); p + MIN_MATCH <= srcOff; p++) {
+        table[hash(readInt(src, p))] = p;
+      }
+
+      table[hash(readInt(src, sp))] = sp;
+      sp++;
+
+      while (true) {
+        // find a match, stepping faster through data that does not compress
+        int ref;
+        int searches = 1 << SKIP_TRIGGER;
+        while (true) {
+          if (sp >= mfLimit) {
+            return writeLiterals(src, anchor, end - anchor, dest, dp, 0) - destOff;
+          }
+          int h = hash(readInt(src, sp));
+          ref = table[h];
+          table[h] = sp;
+          if (ref >= base && sp - ref <= MAX_OFFSET && readInt(src, ref) == readInt(src, sp)) {
+            break;
+          }
+          sp += searches++ >>> SKIP_TRIGGER;
+        }
+
+        // extend the match backwards into the pending literals
+        while (sp > anchor && ref > base && src[sp - 1] == src[ref - 1]) {
+          sp--;
+          ref--;
+        }
+
+        int matchLen = MIN_MATCH;
+        while (sp + matchLen < matchLimit && src[sp + matchLen] == src[ref + matchLen]) {
+          matchLen++;
+        }
+
+        int ml = matchLen - MIN_MATCH;
+        dp = writeLiterals(src, anchor, sp - anchor, dest, dp, Math.min(ml, 15));
+        int offset = sp - ref;
+        dest[dp++] = (byte) offset;
+        dest[dp++] = (byte) (offset >>> 8);
+        if (ml >= 15) {
+          dp = writeLength(ml - 15, dest, dp);
+        }
+
+        sp += matchLen;
+        anchor = sp;
+
+        if (sp < mfLimit) {
+          table[hash(readInt(src, sp - 2))] = sp - 2;
+        }
+      }
+    }
+
+    return writeLiterals(src, anchor, end - anchor, dest, dp, 0) - destOff;
+  }
+
+  private static void checkAvailable(int pos, int needed, int end) throws IOException {
+    if (end - pos < needed) {
+      throw new IOException("Malformed LZ4 data, truncated");
+    }
+  }
+
+  /**
+   * Decompresses exactly rawLen bytes into dest.
+   *
+   * @throws IOException
+   *           if the compressed data is malformed or does not decompress to rawLen bytes
+   */
+  static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int rawLen)
+      throws IOException {
+    decompress(src, srcOff, srcLen, dest, destOff, destOff, rawLen);
+  }
+
+  /**
+   * Decompresses exactly rawLen bytes into dest at destOff, resolving matches against the history
+   * in dest from base up to destOff.
+   *
+   * @throws IOException
+   *           if the compressed data is malformed or does not decompress to rawLen bytes
+   */
+  static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int base, int destOff,
+      int rawLen) throws IOException {
+    final int end = srcOff + srcLen;
+    final int destEnd = destOff + rawLen;
+
+    int sp = srcOff;
+    int dp = destOff;
+
+    // buffers may be larger than the data, so reads past the end are checked explicitly
+    try {
+      while (true) {
+        checkAvailable(sp, 1, end);
+        int token = src[sp++] & 0xff;
+
+        int literals = token >>> 4;
+        if (literals == 15) {
+          int b;
+          do {
+            checkAvailable(sp, 1, end);
+            b = src[sp++] & 0xff;
+            literals += b;
+          } while (b == 255);
+        }
+        if (literals > end - sp || literals > destEnd - dp) {
+          throw new IOException("Malformed LZ4 data, literals overrun");
+        }
+        System.arraycopy(src, sp, dest, dp, literals);
+        sp += literals;
+        dp += literals;
+
+        if (sp == end) {
+          break;
+        }
+
+        checkAvailable(sp, 2, end);
+        int offset = (src[sp] & 0xff) | (src[sp + 1] & 0xff) << 8;
+        sp += 2;
+        int ref = dp - offset;
+        if (offset == 0 || ref < base) {
+          throw new IOException("Malformed LZ4 data, bad offset " + offset);
+        }
+
+        int matchLen = token & 0x0f;
+        if (matchLen == 15) {
+          int b;
+          do {
+            checkAvailable(sp, 1, end);
+            b = src[sp++] & 0xff;
+            matchLen += b;
+          } while (b == 255);
+        }
+        matchLen += MIN_MATCH;
+        if (matchLen > destEnd - dp) {
+          throw new IOException("Malformed LZ4 data, match overrun");
+        }
+
+        if (offset >= matchLen) {
+          System.arraycopy(dest, ref, dest, dp, matchLen);
+          dp += matchLen;
+        } else {
+          // overlapping copy, repeats the last offset bytes
+          for (int i = 0; i < matchLen; i++) {
+            dest[dp++] = dest[ref++];
+          }
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Malformed LZ4 data", e);
+    }
+
+    if (dp != destEnd) {
+      throw new IOException("LZ4 data decompressed to " + (dp - destOff) + " bytes, expected "
+          + rawLen);
+    }
+  }
+}
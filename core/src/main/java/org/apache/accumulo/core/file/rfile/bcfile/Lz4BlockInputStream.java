@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.accumulo.core.file.rfile.bcfile.Compression.DictionarySupplier;
+
+/**
+ * Reads data written by {@link Lz4BlockOutputStream}. When a read asks for at least a whole chunk,
+ * the chunk is decompressed straight into the caller's array. The dictionary is only requested if
+ * a chunk that was compressed against it is read.
+ */
+class Lz4BlockInputStream extends InputStream {
+
+  private final InputStream in;
+  private final DictionarySupplier dictionarySupplier;
+  private final byte[] header = new byte[8];
+  private byte[] buffer = null;
+  private byte[] compressed = null;
+  private int pos = 0;
+  private int limit = 0;
+
+  // lengths of a chunk whose header was read but whose data was not
+  private int pendingRawLen = -1;
+  private int pendingCompressedLen;
+  private boolean pendingUsesDictionary;
+
+  Lz4BlockInputStream(InputStream in) {
+    this(in, null);
+  }
+
+  Lz4BlockInputStream(InputStream in, DictionarySupplier dictionarySupplier) {
+    this.in = in;
+    this.dictionarySupplier = dictionarySupplier;
+  }
+
+  private static int getInt(byte[] b, int off) {
+    return (b[off] & 0xff) << 24 | (b[off + 1] & 0xff) << 16 | (b[off + 2] & 0xff) << 8
+        | (b[off + 3] & 0xff);
+  }
+
+  private void readFully(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = in.read(b, off, len);
+      if (n < 0) {
+        throw new EOFException("Truncated LZ4 chunk");
+      }
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * @return false at the end of the stream
+   */
+  private boolean readHeader() throws IOException {
+    if (pendingRawLen >= 0) {
+      return true;
+    }
+
+    // the down stream is not buffered, so read the header with as few calls as possible
+    int n = in.read(header, 0, header.length);
+    if (n < 0) {
+      return false;
+    }
+    readFully(header, n, header.length - n);
+
+    int rawLen = getInt(header, 0);
+    boolean usesDictionary = (rawLen & Lz4.DICTIONARY_FLAG) != 0;
+    rawLen &= ~Lz4.DICTIONARY_FLAG;
+    int compressedLen = getInt(header, 4);
+    if (rawLen <= 0 || rawLen > Lz4.CHUNK_SIZE || compressedLen <= 0 || compressedLen > rawLen) {
+      throw new IOException("Bad LZ4 chunk header " + rawLen + " " + compressedLen);
+    }
+    pendingRawLen = rawLen;
+    pendingCompressedLen = compressedLen;
+    pendingUsesDictionary = usesDictionary;
+    return true;
+  }
+
+  private void readChunk(byte[] dest, int off) throws IOException {
+    int rawLen = pendingRawLen;
+    pendingRawLen = -1;
+
+    if (pendingCompressedLen == rawLen) {
+      readFully(dest, off, rawLen);
+    } else {
+      if (compressed == null) {
+        compressed = Lz4.getCompressedBuffer();
+      }
+      readFully(compressed, 0, pendingCompressedLen);
+      if (pendingUsesDictionary) {
+        byte[] dictionary = dictionarySupplier == null ? null : dictionarySupplier.get();
+        if (dictionary == null) {
+          throw new IOException("LZ4 chunk was compressed with a dictionary that is not available");
+        }
+        byte[] work = Lz4.getWorkBuffer(dictionary.length + rawLen);
+        System.arraycopy(dictionary, 0, work, 0, dictionary.length);
+        Lz4.decompress(compressed, 0, pendingCompressedLen, work, 0, dictionary.length, rawLen);
+        System.arraycopy(work, dictionary.length, dest, off, rawLen);
+      } else {
+        Lz4.decompress(compressed, 0, pendingCompressedLen, dest, off, rawLen);
+      }
+    }
+  }
+
+  private boolean fill() throws IOException {
+    if (!readHeader()) {
+      return false;
+    }
+    if (buffer == null) {
+      buffer = Lz4.getRawBuffer();
+    }
+    limit = pendingRawLen;
+    pos = 0;
+    readChunk(buffer, 0);
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (pos == limit && !fill()) {
+      return -1;
+    }
+    return buffer[pos++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+
+    if (pos == limit) {
+      if (!readHeader()) {
+        return -1;
+      }
+      if (len >= pendingRawLen) {
+        int rawLen = pendingRawLen;
+        readChunk(b, off);
+        return rawLen;
+      }
+      fill();
+    }
+
+    int n = Math.min(len, limit - pos);
+    System.arraycopy(buffer, pos, b, off, n);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0 || (pos == limit && !fill())) {
+      return 0;
+    }
+    int skipped = (int) Math.min(n, limit - pos);
+    pos += skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return limit - pos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    Lz4.returnRawBuffer(buffer);
+    Lz4.returnCompressedBuffer(compressed);
+    buffer = null;
+    compressed = null;
+    pos = limit = 0;
+    in.close();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses data with {@link Lz4} in chunks of up to {@link Lz4#CHUNK_SIZE} bytes. Each chunk is
+ * written as its raw length and compressed length, as 4 byte big endian integers, followed by the
+ * compressed data. A chunk that does not get smaller is stored as is, which is indicated by equal
+ * lengths. When a dictionary is given, chunks are compressed against it and flagged with
+ * {@link Lz4#DICTIONARY_FLAG}.
+ *
+ * <p>
+ * Like the other compression streams used by BCFile, {@link #flush()} finishes the current chunk.
+ * The chunk buffer is returned to the pool on flush, so a block that is flushed but never closed
+ * does not hold on to it.
+ */
+class Lz4BlockOutputStream extends OutputStream {
+
+  private final OutputStream out;
+  private final byte[] dictionary;
+  private final byte[] header = new byte[8];
+  private byte[] buffer = null;
+  private int count = 0;
+
+  Lz4BlockOutputStream(OutputStream out) {
+    this(out, null);
+  }
+
+  Lz4BlockOutputStream(OutputStream out, byte[] dictionary) {
+    this.out = out;
+    this.dictionary = dictionary == null || dictionary.length == 0 ? null : dictionary;
+  }
+
+  private void ensureBuffer() {
+    if (buffer == null) {
+      buffer = Lz4.getRawBuffer();
+    }
+  }
+
+  private static void putInt(byte[] b, int off, int v) {
+    b[off] = (byte) (v >>> 24);
+    b[off + 1] = (byte) (v >>> 16);
+    b[off + 2] = (byte) (v >>> 8);
+    b[off + 3] = (byte) v;
+  }
+
+  private void writeChunk(byte[] b, int off, int len) throws IOException {
+    byte[] compressed = Lz4.getCompressedBuffer();
+    try {
+      int compressedLen;
+      int flag = 0;
+      if (dictionary == null) {
+        compressedLen = Lz4.compress(b, off, len, compressed, 0);
+      } else {
+        byte[] work = Lz4.getWorkBuffer(dictionary.length + len);
+        System.arraycopy(dictionary, 0, work, 0, dictionary.length);
+        System.arraycopy(b, off, work, dictionary.length, len);
+        compressedLen = Lz4.compress(work, 0, dictionary.length, len, compressed, 0);
+        flag = Lz4.DICTIONARY_FLAG;
+      }
+
+      if (compressedLen >= len) {
+        putInt(header, 0, len);
+        putInt(header, 4, len);
+        out.write(header);
+        out.write(b, off, len);
+      } else {
+        putInt(header, 0, len | flag);
+        putInt(header, 4, compressedLen);
+        out.write(header);
+        out.write(compressed, 0, compressedLen);
+      }
+    } finally {
+      Lz4.returnCompressedBuffer(compressed);
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureBuffer();
+    buffer[count++] = (byte) b;
+    if (count == buffer.length) {
+      writeChunk(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == 0 && len >= Lz4.CHUNK_SIZE) {
+        // compress straight from the caller's array
+        writeChunk(b, off, Lz4.CHUNK_SIZE);
+        off += Lz4.CHUNK_SIZE;
+        len -= Lz4.CHUNK_SIZE;
+        continue;
+      }
+
+      ensureBuffer();
+      int n = Math.min(len, buffer.length - count);
+      System.arraycopy(b, off, buffer, count, n);
+      count += n;
+      off += n;
+      len -= n;
+
+      if (count == buffer.length) {
+        writeChunk(buffer, 0, count);
+        count = 0;
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (count > 0) {
+      writeChunk(buffer, 0, count);
+      count = 0;
+    }
+    Lz4.returnRawBuffer(buffer);
+    buffer = null;
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,584 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.iterators.user;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * A compact encoding of the columns and values of a row, used by {@link WholeRowIterator}.
+ *
+ * <p>
+ * The encoding starts with a byte that can not start the original encoding, followed by the number
+ * of entries. Each entry has flags for the fields that equal those of the previous entry, the
+ * fields that differ as the length of the prefix shared with the previous entry and the rest of
+ * the field, the timestamp as a delta from the previous entry and the value. Every
+ * {@link #RESTART_INTERVAL} entries, an entry is written in full. The offsets of those entries are
+ * written at the end, so a row can be searched without decoding the entries before the one wanted.
+ */
+final class CompactRowEncoding {
+
+  private CompactRowEncoding() {}
+
+  /**
+   * The original encoding starts with a non negative int, so its first byte never has the high bit
+   * set.
+   */
+  static final byte MAGIC = (byte) 0x81;
+
+  static final int RESTART_INTERVAL = 16;
+
+  private static final int SAME_CF = 0x01;
+  private static final int SAME_CQ = 0x02;
+  private static final int SAME_CV = 0x04;
+  private static final int SAME_TS = 0x08;
+
+  // do not hold on to the buffer of an unusually large row
+  private static final int MAX_RETAINED_BUFFER = 1 << 20;
+
+  static boolean isCompact(byte[] encoded) {
+    return encoded.length > 0 && encoded[0] == MAGIC;
+  }
+
+  /**
+   * Encodes rows into a buffer that is reused from row to row.
+   */
+  static class Encoder {
+    private byte[] buf = new byte[1024];
+    private int len = 0;
+    private int[] restarts = new int[8];
+
+    private void ensure(int needed) {
+      if (len + needed > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + needed));
+      }
+    }
+
+    private void writeByte(int b) {
+      ensure(1);
+      buf[len++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] b, int off, int length) {
+      ensure(length);
+      System.arraycopy(b, off, buf, len, length);
+      len += length;
+    }
+
+    private void writeVInt(int v) {
+      ensure(5);
+      while ((v & ~0x7f) != 0) {
+        buf[len++] = (byte) ((v & 0x7f) | 0x80);
+        v >>>= 7;
+      }
+      buf[len++] = (byte) v;
+    }
+
+    private void writeVLong(long v) {
+      ensure(10);
+      while ((v & ~0x7fL) != 0) {
+        buf[len++] = (byte) ((v & 0x7f) | 0x80);
+        v >>>= 7;
+      }
+      buf[len++] = (byte) v;
+    }
+
+    private void writeInt(int v) {
+      ensure(4);
+      buf[len++] = (byte) (v >>> 24);
+      buf[len++] = (byte) (v >>> 16);
+      buf[len++] = (byte) (v >>> 8);
+      buf[len++] = (byte) v;
+    }
+
+    private void writeField(ByteSequence field, ByteSequence prev) {
+      int shared = 0;
+      if (prev != null) {
+        byte[] a = field.getBackingArray();
+        byte[] b = prev.getBackingArray();
+        int aOff = field.offset();
+        int bOff = prev.offset();
+        int max = Math.min(field.length(), prev.length());
+        while (shared < max && a[aOff + shared] == b[bOff + shared]) {
+          shared++;
+        }
+      }
+      writeVInt(shared);
+      writeVInt(field.length() - shared);
+      writeBytes(field.getBackingArray(), field.offset() + shared, field.length() - shared);
+    }
+
+    /**
+     * Encodes everything but the row of the keys, and their values. The keys must be sorted.
+     */
+    Value encode(List<Key> keys, List<Value> values) {
+      len = 0;
+      writeByte(MAGIC);
+      writeVInt(keys.size());
+
+      int numRestarts = 0;
+      ByteSequence prevCf = null;
+      ByteSequence prevCq = null;
+      ByteSequence prevCv = null;
+      long prevTs = 0;
+
+      for (int i = 0; i < keys.size(); i++) {
+        Key k = keys.get(i);
+        ByteSequence cf = k.getColumnFamilyData();
+        ByteSequence cq = k.getColumnQualifierData();
+        ByteSequence cv = k.getColumnVisibilityData();
+        long ts = k.getTimestamp();
+
+        if (i % RESTART_INTERVAL == 0) {
+          if (numRestarts == restarts.length) {
+            restarts = Arrays.copyOf(restarts, numRestarts * 2);
+          }
+          restarts[numRestarts++] = len;
+          prevCf = prevCq = prevCv = null;
+          prevTs = 0;
+        }
+
+        int flags = 0;
+        if (prevCf != null) {
+          flags |= cf.equals(prevCf) ? SAME_CF : 0;
+          flags |= cq.equals(prevCq) ? SAME_CQ : 0;
+          flags |= cv.equals(prevCv) ? SAME_CV : 0;
+          flags |= ts == prevTs ? SAME_TS : 0;
+        }
+        writeByte(flags);
+
+        if ((flags & SAME_CF) == 0) {
+          writeField(cf, prevCf);
+        }
+        if ((flags & SAME_CQ) == 0) {
+          writeField(cq, prevCq);
+        }
+        if ((flags & SAME_CV) == 0) {
+          writeField(cv, prevCv);
+        }
+        if ((flags & SAME_TS) == 0) {
+          // zig zag encode the delta, timestamps in a row are usually close together
+          long delta = ts - prevTs;
+          writeVLong((delta << 1) ^ (delta >> 63));
+        }
+
+        Value v = values.get(i);
+        writeVInt(v.getSize());
+        writeBytes(v.get(), 0, v.getSize());
+
+        prevCf = cf;
+        prevCq = cq;
+        prevCv = cv;
+        prevTs = ts;
+      }
+
+      for (int i = 0; i < numRestarts; i++) {
+        writeInt(restarts[i]);
+      }
+      writeInt(numRestarts);
+
+      Value encoded = new Value(buf, 0, len);
+      if (buf.length > MAX_RETAINED_BUFFER) {
+        buf = new byte[1024];
+      }
+      return encoded;
+    }
+  }
+
+  private static int readInt(byte[] b, int off) {
+    return (b[off] & 0xff) << 24 | (b[off + 1] & 0xff) << 16 | (b[off + 2] & 0xff) << 8
+        | (b[off + 3] & 0xff);
+  }
+
+  /**
+   * Creates a sorted view of an encoded row. Entries are only decoded when they are accessed.
+   */
+  static SortedMap<Key,Value> decode(Key rowKey, Value rowValue) throws IOException {
+    byte[] data = rowValue.get();
+    if (data.length < 6 || data[0] != MAGIC) {
+      throw new IOException("Not a compact row encoding");
+    }
+
+    int numRestarts = readInt(data, data.length - 4);
+    int restartTable = data.length - 4 - 4 * numRestarts;
+    if (numRestarts < 0 || restartTable < 2) {
+      throw new IOException("Malformed row encoding, bad restart count " + numRestarts);
+    }
+
+    Cursor cursor = new Cursor(data, restartTable, 1);
+    int numEntries = cursor.readVInt();
+    if (numEntries < 0 || numRestarts != (numEntries + RESTART_INTERVAL - 1) / RESTART_INTERVAL) {
+      throw new IOException("Malformed row encoding, " + numEntries + " entries and "
+          + numRestarts + " restarts");
+    }
+
+    int prev = cursor.pos - 1;
+    for (int i = 0; i < numRestarts; i++) {
+      int offset = readInt(data, restartTable + 4 * i);
+      if (offset <= prev || offset >= restartTable) {
+        throw new IOException("Malformed row encoding, bad restart offset " + offset);
+      }
+      prev = offset;
+    }
+
+    return new DecodedRow(rowKey.getRowData().toArray(), data, restartTable, 0, numEntries);
+  }
+
+  /**
+   * Decodes entries in order. The fields of the current entry are kept in buffers that are reused
+   * from entry to entry, and keys and values are only created when asked for.
+   */
+  private static class Cursor {
+    final byte[] data;
+    final int end;
+    int pos;
+
+    byte[] cf = new byte[16];
+    int cfLen;
+    byte[] cq = new byte[16];
+    int cqLen;
+    byte[] cv = new byte[16];
+    int cvLen;
+    long ts;
+    int valueOff;
+    int valueLen;
+
+    Cursor(byte[] data, int end, int pos) {
+      this.data = data;
+      this.end = end;
+      this.pos = pos;
+    }
+
+    private int readByte() {
+      if (pos >= end) {
+        throw new IllegalArgumentException("Malformed row encoding, truncated");
+      }
+      return data[pos++] & 0xff;
+    }
+
+    int readVInt() {
+      int v = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        int b = readByte();
+        v |= (b & 0x7f) << shift;
+        if ((b & 0x80) == 0) {
+          return v;
+        }
+      }
+      throw new IllegalArgumentException("Malformed row encoding, bad vint");
+    }
+
+    private long readVLong() {
+      long v = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        v |= (long) (b & 0x7f) << shift;
+        if ((b & 0x80) == 0) {
+          return v;
+        }
+      }
+      throw new IllegalArgumentException("Malformed row encoding, bad vlong");
+    }
+
+    private int readLength() {
+      int length = readVInt();
+      if (length < 0 || length > end - pos) {
+        throw new IllegalArgumentException("Malformed row encoding, bad length " + length);
+      }
+      return length;
+    }
+
+    private byte[] readField(byte[] field, int fieldLen, int[] newLen) {
+      int shared = readVInt();
+      int suffix = readLength();
+      if (shared < 0 || shared > fieldLen) {
+        throw new IllegalArgumentException("Malformed row encoding, bad prefix " + shared);
+      }
+      if (shared + suffix > field.length) {
+        field = Arrays.copyOf(field, Math.max(field.length * 2, shared + suffix));
+      }
+      System.arraycopy(data, pos, field, shared, suffix);
+      pos += suffix;
+      newLen[0] = shared + suffix;
+      return field;
+    }
+
+    private final int[] fieldLen = new int[1];
+
+    /**
+     * Decodes the entry at the current position, which is a restart point when restart is true.
+     */
+    void next(boolean restart) {
+      if (restart) {
+        cfLen = cqLen = cvLen = 0;
+        ts = 0;
+      }
+
+      int flags = readByte();
+      if ((flags & SAME_CF) == 0) {
+        cf = readField(cf, cfLen, fieldLen);
+        cfLen = fieldLen[0];
+      }
+      if ((flags & SAME_CQ) == 0) {
+        cq = readField(cq, cqLen, fieldLen);
+        cqLen = fieldLen[0];
+      }
+      if ((flags & SAME_CV) == 0) {
+        cv = readField(cv, cvLen, fieldLen);
+        cvLen = fieldLen[0];
+      }
+      if ((flags & SAME_TS) == 0) {
+        long zigzag = readVLong();
+        ts += (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+      valueLen = readLength();
+      valueOff = pos;
+      pos += valueLen;
+    }
+
+    Key key(byte[] row) {
+      return new Key(row, 0, row.length, cf, 0, cfLen, cq, 0, cqLen, cv, 0, cvLen, ts);
+    }
+
+    Value value() {
+      return new Value(data, valueOff, valueLen);
+    }
+  }
+
+  /**
+   * A sorted map over the entries [from,to) of an encoded row.
+   */
+  private static class DecodedRow extends AbstractMap<Key,Value> implements SortedMap<Key,Value> {
+    private final byte[] row;
+    private final byte[] data;
+    private final int restartTable;
+    private final int from;
+    private final int to;
+
+    DecodedRow(byte[] row, byte[] data, int restartTable, int from, int to) {
+      this.row = row;
+      this.data = data;
+      this.restartTable = restartTable;
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * @return a cursor that will decode the entry at the given index next
+     */
+    private Cursor cursorAt(int index) {
+      int restart = index / RESTART_INTERVAL;
+      Cursor cursor = new Cursor(data, restartTable, readInt(data, restartTable + 4 * restart));
+      for (int i = restart * RESTART_INTERVAL; i < index; i++) {
+        cursor.next(i % RESTART_INTERVAL == 0);
+      }
+      return cursor;
+    }
+
+    private Key keyAt(int index) {
+      Cursor cursor = cursorAt(index);
+      cursor.next(index % RESTART_INTERVAL == 0);
+      return cursor.key(row);
+    }
+
+    /**
+     * @return the index of the first entry in [from,to) that is not less than key, or to
+     */
+    private int lowerBound(Key key) {
+      if (to <= from) {
+        return to;
+      }
+
+      // find the last restart point at or before the key
+      int lo = from / RESTART_INTERVAL;
+      int hi = (to - 1) / RESTART_INTERVAL;
+      while (lo < hi) {
+        int mid = (lo + hi + 1) >>> 1;
+        if (keyAt(mid * RESTART_INTERVAL).compareTo(key) <= 0) {
+          lo = mid;
+        } else {
+          hi = mid - 1;
+        }
+      }
+
+      int index = Math.max(lo * RESTART_INTERVAL, from);
+      Cursor cursor = cursorAt(index);
+      for (; index < to; index++) {
+        cursor.next(index % RESTART_INTERVAL == 0);
+        if (cursor.key(row).compareTo(key) >= 0) {
+          return index;
+        }
+      }
+      return to;
+    }
+
+    @Override
+    public Value get(Object o) {
+      if (!(o instanceof Key)) {
+        return null;
+      }
+      Key key = (Key) o;
+      int index = lowerBound(key);
+      if (index == to) {
+        return null;
+      }
+      Cursor cursor = cursorAt(index);
+      cursor.next(index % RESTART_INTERVAL == 0);
+      return cursor.key(row).equals(key) ? cursor.value() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return to == from;
+    }
+
+    @Override
+    public Comparator<? super Key> comparator() {
+      return null;
+    }
+
+    @Override
+    public SortedMap<Key,Value> subMap(Key fromKey, Key toKey) {
+      if (fromKey.compareTo(toKey) > 0) {
+        throw new IllegalArgumentException("fromKey > toKey");
+      }
+      int start = lowerBound(fromKey);
+      return new DecodedRow(row, data, restartTable, start, Math.max(start, lowerBound(toKey)));
+    }
+
+    @Override
+    public SortedMap<Key,Value> headMap(Key toKey) {
+      return new DecodedRow(row, data, restartTable, from, lowerBound(toKey));
+    }
+
+    @Override
+    public SortedMap<Key,Value> tailMap(Key fromKey) {
+      return new DecodedRow(row, data, restartTable, lowerBound(fromKey), to);
+    }
+
+    @Override
+    public Key firstKey() {
+      if (isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      return keyAt(from);
+    }
+
+    @Override
+    public Key lastKey() {
+      if (isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      return keyAt(to - 1);
+    }
+
+    @Override
+    public Set<Entry<Key,Value>> entrySet() {
+      return new AbstractSet<Entry<Key,Value>>() {
+        @Override
+        public Iterator<Entry<Key,Value>> iterator() {
+          return new Iterator<Entry<Key,Value>>() {
+            private Cursor cursor = null;
+            private int index = from;
+
+            @Override
+            public boolean hasNext() {
+              return index < to;
+            }
+
+            @Override
+            public Entry<Key,Value> next() {
+              if (index >= to) {
+                throw new NoSuchElementException();
+              }
+              if (cursor == null) {
+                cursor = cursorAt(index);
+              }
+              cursor.next(index % RESTART_INTERVAL == 0);
+              index++;
+              return new SimpleImmutableEntry<>(cursor.key(row), cursor.value());
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return to - from;
+        }
+      };
+    }
+
+    @Override
+    public Set<Key> keySet() {
+      return new AbstractSet<Key>() {
+        @Override
+        public Iterator<Key> iterator() {
+          Iterator<Entry<Key,Value>> iter = entrySet().iterator();
+          return new Iterator<Key>() {
+            @Override
+            public boolean hasNext() {
+              return iter.hasNext();
+            }
+
+            @Override
+            public Key next() {
+              return iter.next().getKey();
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return to - from;
+        }
+      };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Map && super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return super.hashCode();
+    }
+  }
+}
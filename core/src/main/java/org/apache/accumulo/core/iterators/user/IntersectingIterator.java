@@ -57,6 +57,11 @@ import org.apache.hadoop.io.Text;
  * classes should override the {@link TermSource#seekColfams} in their implementation's
  * {@link #init(SortedKeyValueIterator, Map, IteratorEnvironment)} method.
  *
+ * The intersection is driven by the term that most often skips past the other terms, which is
+ * likely the rarest, so a rare term joined with a common one does not cause a seek in the common
+ * term for every document of the common term. Sources close to the next candidate document are
+ * moved with a few calls to next() instead of a seek.
+ *
  * An example of using the IntersectingIterator is available at
  * https://github.com/apache/accumulo-examples/blob/master/docs/shard.md
  */
@@ -94,6 +99,15 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
     public Collection<ByteSequence> seekColfams;
     public boolean notFlag;
 
+    // how often this source was compared with the cursor and how often it was beyond it, used to
+    // order the sources
+    int checks = 0;
+    int skips = 0;
+    // set when next() was called to find the next candidate rather than to catch up with the cursor
+    boolean stepped = false;
+    // how many times to call next() before seeking when this source is behind the cursor
+    int nextLimit = 1;
+
     public TermSource(TermSource other) {
       this.iter = other.iter;
       this.term = other.term;
@@ -122,6 +136,14 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
   protected TermSource[] sources;
   int sourcesCount = 0;
 
+  // the most times next() is called on a source before seeking it instead
+  static final int MAX_NEXT_LIMIT = 32;
+  // how many times the cursor advances between orderings of the sources
+  static final int REORDER_INTERVAL = 32;
+  // the statistics of a source are halved when it has been compared with the cursor this often
+  static final int MAX_CHECKS = 1024;
+  private int cursorAdvances = 0;
+
   Range overallRange;
 
   // query-time settings
@@ -144,7 +166,8 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
       sourcesCount = other.sourcesCount;
       sources = new TermSource[sourcesCount];
       for (int i = 0; i < sourcesCount; i++) {
-        sources[i] = new TermSource(other.sources[i].iter.deepCopy(env), other.sources[i].term);
+        sources[i] = new TermSource(other.sources[i].iter.deepCopy(env), other.sources[i].term,
+            other.sources[i].notFlag);
       }
     }
   }
@@ -246,11 +269,8 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
           break;
         } else if (docIDCompare > 0) {
           // if this source is not yet at the currentCQ then advance in this source
-
-          // seek forwards
           Key seekKey = buildKey(currentPartition, sources[sourceID].term, currentDocID);
-          sources[sourceID].iter.seek(new Range(seekKey, true, null, false),
-              sources[sourceID].seekColfams, true);
+          skipTo(sources[sourceID], seekKey);
           continue;
         } else {
           // docIDCompare == 0
@@ -260,6 +280,7 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
           // We are advancing column 0 because we forced that column to not contain a !
           // when we did the init()
           sources[0].iter.next();
+          sources[0].stepped = true;
           advancedCursor = true;
           break;
         }
@@ -348,24 +369,88 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
         // and return true
         if (docIDCompare < 0) {
           currentDocID.set(docID);
+          if (!sources[sourceID].stepped) {
+            sources[sourceID].checks++;
+            sources[sourceID].skips++;
+          }
+          sources[sourceID].stepped = false;
           advancedCursor = true;
           break;
         }
-        // if this source is not yet at the currentCQ then seek in this source
+        // if this source is not yet at the currentCQ then advance in this source
         if (docIDCompare > 0) {
-          // seek forwards
           Key seekKey = buildKey(currentPartition, sources[sourceID].term, currentDocID);
-          sources[sourceID].iter.seek(new Range(seekKey, true, null, false),
-              sources[sourceID].seekColfams, true);
+          skipTo(sources[sourceID], seekKey);
           continue;
         }
         // this source is at the current row, in its column family, and at currentCQ
+        if (!sources[sourceID].stepped) {
+          sources[sourceID].checks++;
+        }
+        sources[sourceID].stepped = false;
         break;
       }
     }
     return advancedCursor;
   }
 
+  /**
+   * Moves a source that is behind the cursor to the first key at or after the given key. Calling
+   * next() a few times is much cheaper than a seek when the source is close to the key, so next()
+   * is tried first. The number of tries doubles each time it is enough and halves each time the
+   * source has to be seeked anyway.
+   */
+  private void skipTo(TermSource ts, Key key) throws IOException {
+    for (int i = 0; i < ts.nextLimit; i++) {
+      ts.iter.next();
+      if (!ts.iter.hasTop()) {
+        // the source may have reached the end of the range it was seeked to, so seek past it
+        break;
+      }
+      if (ts.iter.getTopKey().compareTo(key) >= 0) {
+        ts.nextLimit = Math.min(MAX_NEXT_LIMIT, ts.nextLimit * 2);
+        return;
+      }
+    }
+    ts.nextLimit = Math.max(1, ts.nextLimit / 2);
+    ts.iter.seek(new Range(key, true, null, false), ts.seekColfams, true);
+  }
+
+  /**
+   * Orders the sources so that the one most often beyond the cursor when compared with it, which
+   * is likely the most selective, is first and drives the intersection. Negated sources are always
+   * last, so the first source is never negated and is at the cursor when a negated source is
+   * compared with it.
+   */
+  private void reorderSources() {
+    // there are only a few sources, so insertion sort
+    for (int i = 1; i < sourcesCount; i++) {
+      TermSource ts = sources[i];
+      int j = i;
+      while (j > 0 && drivesBefore(ts, sources[j - 1])) {
+        sources[j] = sources[j - 1];
+        j--;
+      }
+      sources[j] = ts;
+    }
+
+    // decay the statistics so the order follows changes in the data, such as another shard
+    for (int i = 0; i < sourcesCount; i++) {
+      if (sources[i].checks > MAX_CHECKS) {
+        sources[i].checks /= 2;
+        sources[i].skips /= 2;
+      }
+    }
+  }
+
+  private static boolean drivesBefore(TermSource ts1, TermSource ts2) {
+    if (ts1.notFlag != ts2.notFlag) {
+      return !ts1.notFlag;
+    }
+    // compare the ratios of skips to checks
+    return (long) ts1.skips * ts2.checks > (long) ts2.skips * ts1.checks;
+  }
+
   @Override
   public void next() throws IOException {
     if (currentPartition == null) {
@@ -374,6 +459,7 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
     // precondition: the current row is set up and the sources all have the same column qualifier
     // while we don't have a match, seek in the source with the smallest column qualifier
     sources[0].iter.next();
+    sources[0].stepped = true;
     advanceToIntersection();
   }
 
@@ -382,6 +468,12 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
     while (cursorChanged) {
       // seek all of the sources to at least the highest seen column qualifier in the current row
       cursorChanged = false;
+      // every source is compared with the cursor again after it changes, so the sources can be
+      // reordered here
+      if (++cursorAdvances >= REORDER_INTERVAL) {
+        cursorAdvances = 0;
+        reorderSources();
+      }
       for (int i = 0; i < sourcesCount; i++) {
         if (currentPartition == null) {
           topKey = null;
@@ -498,6 +590,7 @@ public class IntersectingIterator implements SortedKeyValueIterator<Key,Value> {
       sources[i] = new TermSource(source.deepCopy(env), terms[i], notFlag[i]);
     }
     sourcesCount = terms.length;
+    reorderSources();
   }
 
   @Override
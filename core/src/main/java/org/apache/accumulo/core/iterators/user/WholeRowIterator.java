@@ -22,12 +22,15 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
 /**
@@ -48,9 +51,20 @@ import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
  * To regain the original key/value pairs of the row, call the decodeRow function on the key/value
  * pair that this iterator returned.
  *
+ * <p>
+ * When the {@link #COMPACT_ENCODING_OPT} option is set, rows are encoded in a more compact form
+ * that shares the common prefixes of columns and is decoded lazily into a sorted view that can be
+ * searched without decoding the whole row. {@link #decodeRow(Key, Value)} decodes either form, so
+ * only enable the option once all clients are able to decode it.
+ *
  * @see RowFilter
  */
 public class WholeRowIterator extends RowEncodingIterator {
+  public static final String COMPACT_ENCODING_OPT = "compactEncoding";
+
+  private boolean compactEncoding = false;
+  private CompactRowEncoding.Encoder encoder = null;
+
   public WholeRowIterator() {}
 
   WholeRowIterator(SortedKeyValueIterator<Key,Value> source) {
@@ -64,9 +78,49 @@ public class WholeRowIterator extends RowEncodingIterator {
 
   @Override
   public Value rowEncoder(List<Key> keys, List<Value> values) throws IOException {
+    if (compactEncoding) {
+      if (encoder == null) {
+        encoder = new CompactRowEncoding.Encoder();
+      }
+      return encoder.encode(keys, values);
+    }
     return encodeRow(keys, values);
   }
 
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options,
+      IteratorEnvironment env) throws IOException {
+    super.init(source, options, env);
+    compactEncoding = Boolean.parseBoolean(options.get(COMPACT_ENCODING_OPT));
+  }
+
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    WholeRowIterator newInstance = (WholeRowIterator) super.deepCopy(env);
+    newInstance.compactEncoding = compactEncoding;
+    return newInstance;
+  }
+
+  @Override
+  public IteratorOptions describeOptions() {
+    IteratorOptions io = super.describeOptions();
+    io.addNamedOption(COMPACT_ENCODING_OPT,
+        "true to encode rows in the compact form, which older clients can not decode");
+    return io;
+  }
+
+  /**
+   * A convenience method for enabling the compact row encoding.
+   *
+   * @param is
+   *          IteratorSetting object to configure.
+   * @param compact
+   *          true to encode rows in the compact form
+   */
+  public static void setCompactEncoding(IteratorSetting is, boolean compact) {
+    is.addOption(COMPACT_ENCODING_OPT, Boolean.toString(compact));
+  }
+
   /**
    * Returns the byte array containing the field of row key from the given DataInputStream din.
    * Assumes that din first has the length of the field, followed by the field itself.
@@ -87,6 +141,9 @@ public class WholeRowIterator extends RowEncodingIterator {
   // decode a bunch of key value pairs that have been encoded into a single value
   public static final SortedMap<Key,Value> decodeRow(Key rowKey, Value rowValue)
       throws IOException {
+    if (CompactRowEncoding.isCompact(rowValue.get())) {
+      return CompactRowEncoding.decode(rowKey, rowValue);
+    }
     SortedMap<Key,Value> map = new TreeMap<>();
     ByteArrayInputStream in = new ByteArrayInputStream(rowValue.get());
     DataInputStream din = new DataInputStream(in);
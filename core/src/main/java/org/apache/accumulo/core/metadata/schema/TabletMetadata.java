@@ -24,6 +24,7 @@ import static org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSec
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -54,6 +55,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterators;
@@ -66,6 +68,7 @@ public class TabletMetadata {
   private Text endRow;
   private Location location;
   private List<String> files;
+  private Map<String,DataFileValue> filesMap;
   private List<String> scans;
   private Set<String> loadedFiles;
   private EnumSet<FetchedColumns> fetchedCols;
@@ -157,6 +160,14 @@ public class TabletMetadata {
     return files;
   }
 
+  /**
+   * @return the files of the tablet and their sizes and number of entries
+   */
+  public Map<String,DataFileValue> getFilesMap() {
+    ensureFetched(FetchedColumns.FILES);
+    return filesMap;
+  }
+
   public List<String> getScans() {
     ensureFetched(FetchedColumns.SCANS);
     return scans;
@@ -193,6 +204,7 @@ public class TabletMetadata {
     }
 
     Builder<String> filesBuilder = ImmutableList.builder();
+    ImmutableMap.Builder<String,DataFileValue> filesMapBuilder = ImmutableMap.builder();
     Builder<String> scansBuilder = ImmutableList.builder();
     final ImmutableSet.Builder<String> loadedFilesBuilder = ImmutableSet.builder();
     ByteSequence row = null;
@@ -233,6 +245,7 @@ public class TabletMetadata {
           break;
         case DataFileColumnFamily.STR_NAME:
           filesBuilder.add(k.getColumnQualifier().toString());
+          filesMapBuilder.put(k.getColumnQualifier().toString(), new DataFileValue(v.get()));
           break;
         case BulkFileColumnFamily.STR_NAME:
           loadedFilesBuilder.add(k.getColumnQualifier().toString());
@@ -269,6 +282,7 @@ public class TabletMetadata {
     }
 
     te.files = filesBuilder.build();
+    te.filesMap = filesMapBuilder.build();
     te.loadedFiles = loadedFilesBuilder.build();
     te.fetchedCols = fetchedColumns;
     te.scans = scansBuilder.build();
@@ -98,7 +98,8 @@ import com.google.common.hash.Hashing;
  * execute {@link #processPartition(ExecutorService, int, int)}
  * <li>{@link #processPartition(ExecutorService, int, int)} will make RPC calls to multiple tserver
  * to remotely execute
- * <li>{@link #processFiles(FileSystemResolver, Map, BlockCache, BlockCache, Cache, ExecutorService)}
+ * <li>{@link #processFiles(FileSystemResolver, Map, BlockCache, BlockCache, Cache,
+ * SummaryResultCache, ExecutorService)}
  * </ol>
  */
 public class Gatherer {
@@ -505,21 +506,44 @@ public class Gatherer {
   }
 
   /**
-   * This method will read summaries from a set of files.
+   * This method will read summaries from a set of files. Summaries found in the result cache are
+   * not read again, and the merged summaries are added to it.
    */
-  public Future<SummaryCollection> processFiles(FileSystemResolver volMgr,
+  public CompletableFuture<SummaryCollection> processFiles(FileSystemResolver volMgr,
       Map<String,List<TRowRange>> files, BlockCache summaryCache, BlockCache indexCache,
-      Cache<String,Long> fileLenCache, ExecutorService srp) {
+      Cache<String,Long> fileLenCache, SummaryResultCache resultCache, ExecutorService srp) {
+    SummaryCollection cached = resultCache.getRequestSummaries(summarizerPattern, summaries,
+        files);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
     List<CompletableFuture<SummaryCollection>> futures = new ArrayList<>();
     for (Entry<String,List<TRowRange>> entry : files.entrySet()) {
+      SummaryCollection fileSummaries = resultCache.getFileSummaries(entry.getKey(),
+          summarizerPattern, summaries, entry.getValue());
+      if (fileSummaries != null) {
+        futures.add(CompletableFuture.completedFuture(fileSummaries));
+        continue;
+      }
+
       futures.add(CompletableFuture.supplyAsync(() -> {
         List<RowRange> rrl = Lists.transform(entry.getValue(), RowRange::new);
-        return getSummaries(volMgr, entry.getKey(), rrl, summaryCache, indexCache, fileLenCache);
+        SummaryCollection sc = getSummaries(volMgr, entry.getKey(), rrl, summaryCache, indexCache,
+            fileLenCache);
+        resultCache.putFileSummaries(entry.getKey(), summarizerPattern, summaries,
+            entry.getValue(), sc);
+        return sc;
       }, srp));
     }
 
-    return CompletableFutureUtil.merge(futures,
-        (sc1, sc2) -> SummaryCollection.merge(sc1, sc2, factory), SummaryCollection::new);
+    return CompletableFutureUtil
+        .merge(futures, (sc1, sc2) -> SummaryCollection.merge(sc1, sc2, factory),
+            SummaryCollection::new)
+        .thenApply(sc -> {
+          resultCache.putRequestSummaries(summarizerPattern, summaries, files, sc);
+          return sc;
+        });
   }
 
   private int countFiles()
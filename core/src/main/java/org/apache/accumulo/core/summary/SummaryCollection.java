@@ -52,6 +52,13 @@ public class SummaryCollection {
       this.filesLarge = entry.exceededMaxSize ? 1 : 0;
     }
 
+    public MergedSummary(MergedSummary other) {
+      this.summary = other.summary == null ? null : new HashMap<>(other.summary);
+      this.filesContaining = other.filesContaining;
+      this.filesExceedingBoundry = other.filesExceedingBoundry;
+      this.filesLarge = other.filesLarge;
+    }
+
     public MergedSummary(TSummary tSummary) {
       this.summary = new HashMap<>(tSummary.getSummary());
       this.filesContaining = tSummary.getFilesContaining();
@@ -85,6 +92,22 @@ public class SummaryCollection {
   private long totalFiles;
   private long deletedFiles;
 
+  /**
+   * @return a rough estimate of the memory used by the summaries, in bytes
+   */
+  long estimateSize() {
+    long size = 64;
+    for (MergedSummary ms : mergedSummaries.values()) {
+      size += 128;
+      if (ms.summary != null) {
+        for (String stat : ms.summary.keySet()) {
+          size += 64 + 2L * stat.length();
+        }
+      }
+    }
+    return size;
+  }
+
   public SummaryCollection() {
     mergedSummaries = new HashMap<>();
     totalFiles = 0;
@@ -143,7 +166,8 @@ public class SummaryCollection {
     for (Entry<SummarizerConfiguration,MergedSummary> entry : other.mergedSummaries.entrySet()) {
       MergedSummary ms = mergedSummaries.get(entry.getKey());
       if (ms == null) {
-        mergedSummaries.put(entry.getKey(), entry.getValue());
+        // copy, so that later merges do not change other, which may be cached
+        mergedSummaries.put(entry.getKey(), new MergedSummary(entry.getValue()));
       } else {
         ms.merge(entry.getValue(), entry.getKey(), factory);
       }
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.summary;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.accumulo.core.client.summary.SummarizerConfiguration;
+import org.apache.accumulo.core.dataImpl.thrift.TRowRange;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Caches the summaries read from files, after they are deserialized and selected, so that requests
+ * that are repeated often, like those from dashboards, do not read and merge the same summaries
+ * again. Files are never modified, so cached summaries do not become stale.
+ *
+ * <p>
+ * The summaries of each file are cached by file, summarizer selection and row ranges. The merged
+ * summaries of a whole request are also cached, so a request for a set of files that has not
+ * changed is answered without merging. A request is keyed by a SHA-256 hash of its files and
+ * ranges, so large requests do not keep their file maps in the cache.
+ *
+ * <p>
+ * Both caches are bounded by an estimate of the memory their entries use.
+ */
+public class SummaryResultCache {
+
+  /**
+   * What a request selects from files, the summarizer pattern and configurations.
+   */
+  private static class Selection {
+    final String pattern;
+    final Set<SummarizerConfiguration> configs;
+
+    Selection(String pattern, Set<SummarizerConfiguration> configs) {
+      this.pattern = pattern;
+      this.configs = configs;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(pattern, configs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof Selection) {
+        Selection os = (Selection) o;
+        return Objects.equals(pattern, os.pattern) && configs.equals(os.configs);
+      }
+      return false;
+    }
+  }
+
+  private static class FileKey {
+    final String file;
+    final Selection selection;
+    final List<TRowRange> ranges;
+
+    FileKey(String file, Selection selection, List<TRowRange> ranges) {
+      this.file = file;
+      this.selection = selection;
+      this.ranges = ranges;
+    }
+
+    long estimateSize() {
+      long size = 64 + 2L * file.length();
+      for (TRowRange range : ranges) {
+        size += 64 + bytes(range.bufferForStartRow()) + bytes(range.bufferForEndRow());
+      }
+      return size;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(file, selection, ranges);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof FileKey) {
+        FileKey ofk = (FileKey) o;
+        return file.equals(ofk.file) && selection.equals(ofk.selection)
+            && ranges.equals(ofk.ranges);
+      }
+      return false;
+    }
+  }
+
+  private static class RequestKey {
+    final Selection selection;
+    final HashCode files;
+
+    RequestKey(Selection selection, Map<String,List<TRowRange>> files) {
+      this.selection = selection;
+      this.files = hash(files);
+    }
+
+    private static void putBytes(Hasher hasher, ByteBuffer bytes) {
+      if (bytes == null) {
+        hasher.putInt(-1);
+      } else {
+        hasher.putInt(bytes.remaining()).putBytes(bytes.duplicate());
+      }
+    }
+
+    private static HashCode hash(Map<String,List<TRowRange>> files) {
+      // sort the files, so that equal maps hash the same regardless of iteration order
+      Hasher hasher = Hashing.sha256().newHasher();
+      for (Entry<String,List<TRowRange>> entry : new TreeMap<>(files).entrySet()) {
+        hasher.putInt(entry.getKey().length()).putString(entry.getKey(), UTF_8);
+        hasher.putInt(entry.getValue().size());
+        for (TRowRange range : entry.getValue()) {
+          putBytes(hasher, range.bufferForStartRow());
+          putBytes(hasher, range.bufferForEndRow());
+        }
+      }
+      return hasher.hash();
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(selection, files);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof RequestKey) {
+        RequestKey ork = (RequestKey) o;
+        return selection.equals(ork.selection) && files.equals(ork.files);
+      }
+      return false;
+    }
+  }
+
+  private final Cache<FileKey,SummaryCollection> fileSummaries;
+  private final Cache<RequestKey,SummaryCollection> requestSummaries;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private static long bytes(ByteBuffer buffer) {
+    return buffer == null ? 0 : buffer.remaining();
+  }
+
+  private static int weight(long size) {
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param maxSize
+   *          the most memory, in bytes, that the cached summaries may use. A tenth of it is used
+   *          for merged request summaries and the rest for file summaries. When 0 nothing is
+   *          cached.
+   */
+  public SummaryResultCache(long maxSize) {
+    long requestSize = maxSize / 10;
+    fileSummaries = CacheBuilder.newBuilder().maximumWeight(maxSize - requestSize)
+        .weigher((FileKey k, SummaryCollection v) -> weight(k.estimateSize() + v.estimateSize()))
+        .build();
+    requestSummaries = CacheBuilder.newBuilder().maximumWeight(requestSize)
+        .weigher((RequestKey k, SummaryCollection v) -> weight(128 + v.estimateSize())).build();
+  }
+
+  SummaryCollection getFileSummaries(String file, String pattern,
+      Set<SummarizerConfiguration> configs, List<TRowRange> ranges) {
+    SummaryCollection sc = fileSummaries
+        .getIfPresent(new FileKey(file, new Selection(pattern, configs), ranges));
+    if (sc == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return sc;
+  }
+
+  void putFileSummaries(String file, String pattern, Set<SummarizerConfiguration> configs,
+      List<TRowRange> ranges, SummaryCollection summaries) {
+    fileSummaries.put(new FileKey(file, new Selection(pattern, configs), ranges), summaries);
+  }
+
+  SummaryCollection getRequestSummaries(String pattern, Set<SummarizerConfiguration> configs,
+      Map<String,List<TRowRange>> files) {
+    SummaryCollection sc = requestSummaries
+        .getIfPresent(new RequestKey(new Selection(pattern, configs), files));
+    if (sc != null) {
+      // every file of the request was answered from the cache
+      hits.add(files.size());
+    }
+    return sc;
+  }
+
+  void putRequestSummaries(String pattern, Set<SummarizerConfiguration> configs,
+      Map<String,List<TRowRange>> files, SummaryCollection summaries) {
+    requestSummaries.put(new RequestKey(new Selection(pattern, configs), files), summaries);
+  }
+
+  /**
+   * @return the number of times the summaries of a file were found in the cache
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of times the summaries of a file had to be read
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts values, like latencies, in buckets whose width grows with the value, so that any value
+ * from 0 to {@link Long#MAX_VALUE} is counted with a bounded relative error in a fixed amount of
+ * memory. Values below 16 have their own bucket and larger values are counted in 16 buckets per
+ * power of 2, so percentiles are within 1/16 of the real value.
+ *
+ * <p>
+ * Recording a value is lock-free and does not allocate, so it can be done on every operation.
+ * {@link #snapshotAndReset()} takes the values recorded since the last snapshot, to report the
+ * percentiles of an interval.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * @return the largest value counted in a bucket
+   */
+  static long highestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /**
+   * Records a value, negative values are ignored.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      return;
+    }
+    counts.incrementAndGet(bucket(value));
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * @return the values recorded since the last snapshot. Values recorded while the snapshot is taken
+   *         may be in this snapshot or the next one.
+   */
+  public Snapshot snapshotAndReset() {
+    long[] snapshot = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      if (counts.get(i) != 0) {
+        snapshot[i] = counts.getAndSet(i, 0);
+        count += snapshot[i];
+      }
+    }
+    return new Snapshot(snapshot, count, sum.sumThenReset(), max.getThenReset());
+  }
+
+  /**
+   * The values recorded during an interval.
+   */
+  public static class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Snapshot(long[] counts, long count, long sum, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    public double getMean() {
+      return count == 0 ? 0 : sum / (double) count;
+    }
+
+    /**
+     * @param percentile
+     *          a percentile between 0 and 100
+     * @return a value that at least this percent of the values are less than or equal to, or 0 if
+     *         no value was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(highestValue(i), max);
+        }
+      }
+      return max;
+    }
+  }
+}
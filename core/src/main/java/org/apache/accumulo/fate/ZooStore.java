@@ -26,14 +26,15 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.security.SecureRandom;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.fate.zookeeper.IZooReaderWriter;
@@ -42,27 +43,84 @@ import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeMissingPolicy;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.KeeperException.NoNodeException;
 import org.apache.zookeeper.KeeperException.NodeExistsException;
+import org.apache.zookeeper.KeeperException.NotEmptyException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.apache.zookeeper.Watcher.Event.KeeperState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
-//TODO use zoocache? - ACCUMULO-1297
 //TODO handle zookeeper being down gracefully - ACCUMULO-1297
 //TODO document zookeeper layout - ACCUMULO-1298
 
+/**
+ * A {@link TStore} kept in ZooKeeper.
+ *
+ * <p>
+ * Reservations are tracked in concurrent collections rather than under the store's monitor, and
+ * each thread calling {@link #reserve()} keeps its own position in the list of transactions, so
+ * runner threads spread out over the transactions instead of all contending for the same ones. The
+ * list of transactions and their status are cached and invalidated by ZooKeeper watches, which
+ * also wake up threads waiting for a status change made by another process. The repo stack of a
+ * reserved transaction is cached for the duration of the reservation, because nothing else may
+ * modify it.
+ */
 public class ZooStore<T> implements TStore<T> {
 
   private static final Logger log = LoggerFactory.getLogger(ZooStore.class);
   private String path;
   private IZooReaderWriter zk;
-  private String lastReserved = "";
-  private Set<Long> reserved;
-  private Map<Long,Long> defered;
+  private final ThreadLocal<String> lastReserved = ThreadLocal.withInitial(() -> "");
+  private final Set<Long> reserved = ConcurrentHashMap.newKeySet();
+  private final Map<Long,Long> defered = new ConcurrentHashMap<>();
   private SecureRandom idgenerator;
   private long statusChangeEvents = 0;
   private int reservationsWaiting = 0;
 
+  // repo node names of reserved transactions, sorted with the top of the stack last
+  private final Map<Long,Deque<String>> stacks = new ConcurrentHashMap<>();
+
+  // cached from ZooKeeper reads that set cacheWatcher. A read is only cached if no watch fired
+  // while it was outstanding, which is tracked by cacheGeneration.
+  private final Object cacheLock = new Object();
+  private long cacheGeneration = 0;
+  private volatile List<String> cachedTxdirs = null;
+  private final Map<Long,TStatus> statusCache = new ConcurrentHashMap<>();
+
+  private final Watcher cacheWatcher = new Watcher() {
+    @Override
+    public void process(WatchedEvent event) {
+      synchronized (cacheLock) {
+        cacheGeneration++;
+        if (event.getType() == EventType.None) {
+          if (event.getState() != KeeperState.SyncConnected) {
+            // watches may have been lost
+            cachedTxdirs = null;
+            statusCache.clear();
+          }
+        } else if (path.equals(event.getPath())) {
+          cachedTxdirs = null;
+          if (event.getType() == EventType.NodeDeleted) {
+            statusCache.clear();
+          }
+        } else if (event.getPath() != null && event.getPath().startsWith(path + "/tx_")) {
+          statusCache.remove(parseTid(event.getPath().substring(path.length() + 1)));
+        }
+      }
+
+      if (event.getType() != EventType.None) {
+        synchronized (ZooStore.this) {
+          statusChangeEvents++;
+          ZooStore.this.notifyAll();
+        }
+      }
+    }
+  };
+
   private byte[] serialize(Object o) {
 
     try {
@@ -102,8 +160,6 @@ public class ZooStore<T> implements TStore<T> {
 
     this.path = path;
     this.zk = zk;
-    this.reserved = new HashSet<>();
-    this.defered = new HashMap<>();
     this.idgenerator = new SecureRandom();
 
     zk.putPersistentData(path, new byte[0], NodeExistsPolicy.SKIP);
@@ -126,6 +182,28 @@ public class ZooStore<T> implements TStore<T> {
     }
   }
 
+  private long getCacheGeneration() {
+    synchronized (cacheLock) {
+      return cacheGeneration;
+    }
+  }
+
+  private List<String> getTransactions() throws KeeperException, InterruptedException {
+    List<String> txdirs = cachedTxdirs;
+    if (txdirs == null) {
+      long generation = getCacheGeneration();
+      txdirs = new ArrayList<>(zk.getChildren(path, cacheWatcher));
+      Collections.sort(txdirs);
+      txdirs = Collections.unmodifiableList(txdirs);
+      synchronized (cacheLock) {
+        if (generation == cacheGeneration) {
+          cachedTxdirs = txdirs;
+        }
+      }
+    }
+    return txdirs;
+  }
+
   @Override
   public long reserve() {
     try {
@@ -136,50 +214,44 @@ public class ZooStore<T> implements TStore<T> {
           events = statusChangeEvents;
         }
 
-        List<String> txdirs = new ArrayList<>(zk.getChildren(path));
-        Collections.sort(txdirs);
+        List<String> txdirs = getTransactions();
 
-        synchronized (this) {
-          if (txdirs.size() > 0 && txdirs.get(txdirs.size() - 1).compareTo(lastReserved) <= 0)
-            lastReserved = "";
-        }
+        if (txdirs.size() > 0
+            && txdirs.get(txdirs.size() - 1).compareTo(lastReserved.get()) <= 0)
+          lastReserved.set("");
 
-        for (String txdir : txdirs) {
+        // this makes reserve pick up where this thread left off, so that it cycles through all as
+        // it is repeatedly called.... failing to do so can lead to starvation where fate ops that
+        // sort higher and hold a lock are never reserved.
+        int start = Collections.binarySearch(txdirs, lastReserved.get());
+        start = start < 0 ? -(start + 1) : start + 1;
+
+        for (String txdir : txdirs.subList(start, txdirs.size())) {
           long tid = parseTid(txdir);
 
-          synchronized (this) {
-            // this check makes reserve pick up where it left off, so that it cycles through all as
-            // it is repeatedly called.... failing to do so can lead to
-            // starvation where fate ops that sort higher and hold a lock are never reserved.
-            if (txdir.compareTo(lastReserved) <= 0)
-              continue;
-
-            if (defered.containsKey(tid)) {
-              if (defered.get(tid) < System.currentTimeMillis())
-                defered.remove(tid);
-              else
-                continue;
-            }
-            if (!reserved.contains(tid)) {
-              reserved.add(tid);
-              lastReserved = txdir;
-            } else
+          Long deferedUntil = defered.get(tid);
+          if (deferedUntil != null) {
+            if (deferedUntil < System.currentTimeMillis())
+              defered.remove(tid, deferedUntil);
+            else
               continue;
           }
 
+          if (!reserved.add(tid))
+            continue;
+
+          lastReserved.set(txdir);
+
           // have reserved id, status should not change
 
           try {
-            TStatus status = TStatus
-                .valueOf(new String(zk.getData(path + "/" + txdir, null), UTF_8));
+            TStatus status = _getStatus(tid);
             if (status == TStatus.IN_PROGRESS || status == TStatus.FAILED_IN_PROGRESS) {
               return tid;
             } else {
+              // includes UNKNOWN, when the node was deleted after we got the list of children
               unreserve(tid);
             }
-          } catch (NoNodeException nne) {
-            // node deleted after we got the list of children, its ok
-            unreserve(tid);
           } catch (Exception e) {
             unreserve(tid);
             throw e;
@@ -189,7 +261,9 @@ public class ZooStore<T> implements TStore<T> {
         synchronized (this) {
           if (events == statusChangeEvents) {
             if (defered.size() > 0) {
-              Long minTime = Collections.min(defered.values());
+              long minTime = Long.MAX_VALUE;
+              for (Long time : defered.values())
+                minTime = Math.min(minTime, time);
               long waitTime = minTime - System.currentTimeMillis();
               if (waitTime > 0)
                 this.wait(Math.min(waitTime, 5000));
@@ -208,14 +282,12 @@ public class ZooStore<T> implements TStore<T> {
     synchronized (this) {
       reservationsWaiting++;
       try {
-        while (reserved.contains(tid))
+        while (!reserved.add(tid))
           try {
             this.wait(1000);
           } catch (InterruptedException e) {
             throw new RuntimeException(e);
           }
-
-        reserved.add(tid);
       } finally {
         reservationsWaiting--;
       }
@@ -223,6 +295,7 @@ public class ZooStore<T> implements TStore<T> {
   }
 
   private void unreserve(long tid) {
+    stacks.remove(tid);
     synchronized (this) {
       if (!reserved.remove(tid))
         throw new IllegalStateException(
@@ -242,13 +315,18 @@ public class ZooStore<T> implements TStore<T> {
     if (deferTime < 0)
       throw new IllegalArgumentException("deferTime < 0 : " + deferTime);
 
+    stacks.remove(tid);
+
+    // defer before releasing the reservation so that another thread can not reserve it in between
+    if (deferTime > 0)
+      defered.put(tid, System.currentTimeMillis() + deferTime);
+
     synchronized (this) {
-      if (!reserved.remove(tid))
+      if (!reserved.remove(tid)) {
+        defered.remove(tid);
         throw new IllegalStateException(
             "Tried to unreserve id that was not reserved " + String.format("%016x", tid));
-
-      if (deferTime > 0)
-        defered.put(tid, System.currentTimeMillis() + deferTime);
+      }
 
       this.notifyAll();
     }
@@ -256,11 +334,9 @@ public class ZooStore<T> implements TStore<T> {
   }
 
   private void verifyReserved(long tid) {
-    synchronized (this) {
-      if (!reserved.contains(tid))
-        throw new IllegalStateException(
-            "Tried to operate on unreserved transaction " + String.format("%016x", tid));
-    }
+    if (!reserved.contains(tid))
+      throw new IllegalStateException(
+          "Tried to operate on unreserved transaction " + String.format("%016x", tid));
   }
 
   private static final int RETRIES = 10;
@@ -275,7 +351,7 @@ public class ZooStore<T> implements TStore<T> {
       try {
         String top;
         try {
-          top = findTop(txpath);
+          top = getStack(tid, txpath).peekLast();
           if (top == null) {
             return null;
           }
@@ -287,6 +363,7 @@ public class ZooStore<T> implements TStore<T> {
         return (Repo<T>) deserialize(ser);
       } catch (KeeperException.NoNodeException ex) {
         log.debug("zookeeper error reading " + txpath + ": " + ex, ex);
+        stacks.remove(tid);
         sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
         continue;
       } catch (Exception e) {
@@ -296,21 +373,22 @@ public class ZooStore<T> implements TStore<T> {
     return null;
   }
 
-  private String findTop(String txpath) throws KeeperException, InterruptedException {
-    List<String> ops = zk.getChildren(txpath);
-
-    ops = new ArrayList<>(ops);
-
-    String max = "";
-
-    for (String child : ops)
-      if (child.startsWith("repo_") && child.compareTo(max) > 0)
-        max = child;
-
-    if (max.equals(""))
-      return null;
-
-    return max;
+  /**
+   * @return the repo nodes of a reserved transaction, with the top of the stack last
+   */
+  private Deque<String> getStack(long tid, String txpath)
+      throws KeeperException, InterruptedException {
+    Deque<String> stack = stacks.get(tid);
+    if (stack == null) {
+      List<String> ops = new ArrayList<>();
+      for (String child : zk.getChildren(txpath))
+        if (child.startsWith("repo_"))
+          ops.add(child);
+      Collections.sort(ops);
+      stack = new ArrayDeque<>(ops);
+      stacks.put(tid, stack);
+    }
+    return stack;
   }
 
   @Override
@@ -319,15 +397,18 @@ public class ZooStore<T> implements TStore<T> {
 
     String txpath = getTXPath(tid);
     try {
-      String top = findTop(txpath);
+      Deque<String> stack = getStack(tid, txpath);
+      String top = stack.peekLast();
       if (top != null && Long.parseLong(top.split("_")[1]) > 100) {
         throw new StackOverflowException("Repo stack size too large");
       }
 
-      zk.putPersistentSequential(txpath + "/repo_", serialize(repo));
+      String created = zk.putPersistentSequential(txpath + "/repo_", serialize(repo));
+      stack.addLast(created.substring(created.lastIndexOf('/') + 1));
     } catch (StackOverflowException soe) {
       throw soe;
     } catch (Exception e) {
+      stacks.remove(tid);
       throw new RuntimeException(e);
     }
   }
@@ -338,18 +419,38 @@ public class ZooStore<T> implements TStore<T> {
 
     try {
       String txpath = getTXPath(tid);
-      String top = findTop(txpath);
+      Deque<String> stack = getStack(tid, txpath);
+      String top = stack.peekLast();
       if (top == null)
         throw new IllegalStateException("Tried to pop when empty " + tid);
-      zk.recursiveDelete(txpath + "/" + top, NodeMissingPolicy.SKIP);
+      // repo nodes never have children
+      try {
+        zk.delete(txpath + "/" + top, -1);
+      } catch (NoNodeException nne) {
+        // already gone
+      }
+      stack.removeLast();
     } catch (Exception e) {
+      stacks.remove(tid);
       throw new RuntimeException(e);
     }
   }
 
   private TStatus _getStatus(long tid) {
+    TStatus status = statusCache.get(tid);
+    if (status != null) {
+      return status;
+    }
+
     try {
-      return TStatus.valueOf(new String(zk.getData(getTXPath(tid), null), UTF_8));
+      long generation = getCacheGeneration();
+      status = TStatus.valueOf(new String(zk.getData(getTXPath(tid), cacheWatcher, null), UTF_8));
+      synchronized (cacheLock) {
+        if (generation == cacheGeneration) {
+          statusCache.put(tid, status);
+        }
+      }
+      return status;
     } catch (NoNodeException nne) {
       return TStatus.UNKNOWN;
     } catch (Exception e) {
@@ -398,6 +499,12 @@ public class ZooStore<T> implements TStore<T> {
       throw new RuntimeException(e);
     }
 
+    // the watch on the node will also invalidate this, but do not wait for it
+    synchronized (cacheLock) {
+      cacheGeneration++;
+      statusCache.remove(tid);
+    }
+
     synchronized (this) {
       statusChangeEvents++;
     }
@@ -408,8 +515,22 @@ public class ZooStore<T> implements TStore<T> {
   public void delete(long tid) {
     verifyReserved(tid);
 
+    String txpath = getTXPath(tid);
+    stacks.remove(tid);
     try {
-      zk.recursiveDelete(getTXPath(tid), NodeMissingPolicy.SKIP);
+      // the children of a transaction are leaves, so it can be deleted in one round trip
+      List<Op> ops = new ArrayList<>();
+      for (String child : zk.getChildren(txpath))
+        ops.add(Op.delete(txpath + "/" + child, -1));
+      ops.add(Op.delete(txpath, -1));
+      zk.multi(ops);
+    } catch (NoNodeException | NotEmptyException e) {
+      // changed since the children were listed, or an earlier attempt was applied
+      try {
+        zk.recursiveDelete(txpath, NodeMissingPolicy.SKIP);
+      } catch (Exception e2) {
+        throw new RuntimeException(e2);
+      }
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -21,6 +21,8 @@ import java.util.List;
 import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeExistsPolicy;
 import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeMissingPolicy;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.ZooKeeper;
 import org.apache.zookeeper.data.ACL;
 
@@ -61,6 +63,13 @@ public interface IZooReaderWriter extends IZooReader {
 
   void delete(String path, int version) throws InterruptedException, KeeperException;
 
+  /**
+   * Atomically execute a batch of operations in a single round trip. Only connection problems are
+   * retried, so a batch that was applied before the connection was lost can fail on the retry with
+   * the error of its first operation (e.g. {@link KeeperException.NoNodeException} for a delete).
+   */
+  List<OpResult> multi(List<Op> ops) throws InterruptedException, KeeperException;
+
   interface Mutator {
     byte[] mutate(byte[] currentValue) throws Exception;
   }
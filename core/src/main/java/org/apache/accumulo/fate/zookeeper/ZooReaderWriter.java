@@ -30,6 +30,8 @@ import org.apache.accumulo.fate.zookeeper.ZooUtil.ZooKeeperConnectionInfo;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.KeeperException.Code;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.ZooKeeper;
 import org.apache.zookeeper.data.ACL;
 import org.apache.zookeeper.data.Stat;
@@ -152,6 +154,26 @@ public class ZooReaderWriter extends ZooReader implements IZooReaderWriter {
     }
   }
 
+  @Override
+  public List<OpResult> multi(List<Op> ops) throws InterruptedException, KeeperException {
+    final Retry retry = getRetryFactory().createRetry();
+    while (true) {
+      try {
+        return getZooKeeper().multi(ops);
+      } catch (KeeperException e) {
+        final Code code = e.code();
+        if (code == Code.CONNECTIONLOSS || code == Code.OPERATIONTIMEOUT
+            || code == Code.SESSIONEXPIRED) {
+          retryOrThrow(retry, e);
+        } else {
+          throw e;
+        }
+      }
+
+      retry.waitForNextAttempt();
+    }
+  }
+
   @Override
   public byte[] mutate(String zPath, byte[] createValue, List<ACL> acl, Mutator mutator)
       throws Exception {
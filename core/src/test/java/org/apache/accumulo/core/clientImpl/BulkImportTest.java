@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.file.rfile.RowSketch;
+import org.apache.accumulo.core.util.CachedConfiguration;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+public class BulkImportTest {
+
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder(
+      new File(System.getProperty("user.dir") + "/target"));
+
+  private static String row(int i) {
+    return String.format("r%06d", i);
+  }
+
+  private static KeyExtent extent(String end, String prev) {
+    return new KeyExtent(Table.ID.of("1"), end == null ? null : new Text(end),
+        prev == null ? null : new Text(prev));
+  }
+
+  @SuppressFBWarnings(value = "PATH_TRAVERSAL_IN",
+      justification = "tempDir is not provided by user")
+  @Test
+  public void testFindOverlappingTabletsSkipsGaps() throws Exception {
+    ConfigurationCopy acuconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    acuconf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "100");
+
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.getLocal(conf);
+    String file = new File(tempDir.getRoot(), "bulk." + RFile.EXTENSION).getAbsolutePath();
+
+    FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder()
+        .forFile(file, fs, conf).withTableConfiguration(acuconf).build();
+    writer.startDefaultLocalityGroup();
+    for (int i = 0; i < 100; i++) {
+      writer.append(new Key(row(i), "cf", "cq"), new Value(("v" + i).getBytes()));
+    }
+    for (int i = 500; i < 600; i++) {
+      writer.append(new Key(row(i), "cf", "cq"), new Value(("v" + i).getBytes()));
+    }
+    writer.close();
+
+    RowSketch sketch;
+    try (CachableBlockFile.Reader reader = new CachableBlockFile.Reader(fs, new Path(file), conf,
+        null, null, acuconf, null)) {
+      sketch = RowSketch.read(reader);
+    }
+    assertNotNull(sketch);
+
+    List<String> splits = Arrays.asList(row(150), row(300), row(450), row(700));
+    BulkImport.KeyExtentCache extentCache = row -> {
+      String prev = null;
+      for (String split : splits) {
+        if (row.toString().compareTo(split) <= 0) {
+          return extent(split, prev);
+        }
+        prev = split;
+      }
+      return extent(null, prev);
+    };
+
+    AtomicInteger opened = new AtomicInteger();
+    BulkImport.FileOpener opener = () -> {
+      opened.incrementAndGet();
+      return FileOperations.getInstance().newReaderBuilder().forFile(file, fs, conf)
+          .withTableConfiguration(acuconf).seekToBeginning().build();
+    };
+
+    List<KeyExtent> extents = BulkImport.findOverlappingTablets(extentCache, sketch, opener);
+
+    // the tablets between the two ranges of rows are checked in the file and skipped
+    assertEquals(Arrays.asList(extent(row(150), null), extent(row(700), row(450))), extents);
+    assertEquals(1, opened.get());
+
+    // the file is not opened when every tablet contains a row recorded in the sketch
+    opened.set(0);
+    extents = BulkImport.findOverlappingTablets(row -> extent(null, null), sketch, opener);
+    assertEquals(Collections.singletonList(extent(null, null)), extents);
+    assertEquals(0, opened.get());
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool.PoolStats;
+import org.apache.accumulo.core.util.HostAndPort;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThriftTransportPoolTest {
+
+  private ServerSocket serverSocket;
+  private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+  private Thread acceptor;
+  private ThriftTransportPool pool;
+
+  @Before
+  public void setup() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    acceptor = new Thread(() -> {
+      try {
+        while (true) {
+          accepted.add(serverSocket.accept());
+        }
+      } catch (IOException e) {
+        // server socket closed
+      }
+    });
+    acceptor.setDaemon(true);
+    acceptor.start();
+    pool = new ThriftTransportPool();
+  }
+
+  @After
+  public void teardown() throws Exception {
+    pool.shutdown();
+    serverSocket.close();
+    acceptor.join();
+    for (Socket socket : accepted) {
+      socket.close();
+    }
+  }
+
+  private ThriftTransportKey key(long timeout) {
+    return new ThriftTransportKey(
+        HostAndPort.fromParts(serverSocket.getInetAddress().getHostAddress(),
+            serverSocket.getLocalPort()),
+        timeout, null, null);
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    TTransport first = pool.getTransport(key(10_000));
+    TTransport second = pool.getTransport(key(10_000));
+    assertNotSame(first, second);
+
+    PoolStats stats = pool.getStats();
+    assertEquals(2, stats.getConnectionsOpen());
+    assertEquals(2, stats.getConnectionsReserved());
+
+    pool.returnTransport(second);
+    pool.returnTransport(first);
+    assertEquals(0, pool.getStats().getConnectionsReserved());
+
+    // the most recently returned connection is reused first
+    assertSame(first, pool.getTransport(key(10_000)));
+    assertSame(second, pool.getTransport(key(10_000)));
+
+    stats = pool.getStats();
+    assertEquals(2, stats.getConnectionsCreated());
+    assertEquals(4, stats.getReserves());
+    assertEquals(0, stats.getErrors());
+  }
+
+  @Test
+  public void testClosedConnectionNotReused() throws Exception {
+    TTransport first = pool.getTransport(key(10_000));
+    pool.returnTransport(first);
+    first.close();
+
+    TTransport second = pool.getTransport(key(10_000));
+    assertNotSame(first, second);
+    assertEquals(1, pool.getStats().getConnectionsOpen());
+  }
+
+  @Test
+  public void testMaxConnectionsPerServer() throws Exception {
+    pool.setMaxConnectionsPerServer(1);
+    TTransport first = pool.getTransport(key(10_000));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<TTransport> waiter = executor.submit(() -> pool.getTransport(key(10_000)));
+      Thread.sleep(200);
+      assertFalse(waiter.isDone());
+
+      pool.returnTransport(first);
+      assertSame(first, waiter.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    PoolStats stats = pool.getStats();
+    assertEquals(1, stats.getConnectionsCreated());
+    assertTrue(stats.getMaxReserveWaitTime(TimeUnit.MILLISECONDS) >= 100);
+  }
+
+  @Test
+  public void testMaxConnectionsTimeout() throws Exception {
+    pool.setMaxConnectionsPerServer(1);
+    pool.getTransport(key(100));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> pool.getTransport(key(100))).get();
+      fail("reserving a second connection should time out");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TTransportException);
+      assertEquals(TTransportException.TIMED_OUT, ((TTransportException) e.getCause()).getType());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNestedReservationDoesNotWait() throws Exception {
+    pool.setMaxConnectionsPerServer(1);
+    TTransport first = pool.getTransport(key(0));
+    // would wait forever for the thread to return its first connection
+    TTransport nested = pool.getTransport(key(0));
+    assertNotSame(first, nested);
+    assertEquals(2, pool.getStats().getConnectionsReserved());
+    pool.returnTransport(nested);
+
+    // the nested connection did not take a permit, so the limit still applies to other threads
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<TTransport> waiter = executor.submit(() -> pool.getTransport(key(0)));
+      Thread.sleep(200);
+      assertFalse(waiter.isDone());
+
+      pool.returnTransport(first);
+      assertSame(first, waiter.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.disk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LocalDiskBlockCacheTest {
+
+  private static final String INSTANCE = "instance1";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder(
+      new File(System.getProperty("user.dir") + "/target"));
+
+  private static byte[] block(int size, int value) {
+    byte[] block = new byte[size];
+    Arrays.fill(block, (byte) value);
+    return block;
+  }
+
+  @Test
+  public void testPutGet() throws Exception {
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(tempFolder.newFolder(), INSTANCE, 1000,
+        100)) {
+      assertNull(cache.get("f1O0"));
+      cache.put("f1O0", block(10, 1));
+      cache.put("f1O1", block(20, 2));
+      cache.waitForWrites();
+      assertArrayEquals(block(10, 1), cache.get("f1O0"));
+      assertArrayEquals(block(20, 2), cache.get("f1O1"));
+
+      // blocks larger than a segment are not cached
+      cache.put("f1O2", block(101, 3));
+      cache.waitForWrites();
+      assertNull(cache.get("f1O2"));
+
+      assertEquals(2, cache.getHitCount());
+      assertEquals(2, cache.getMissCount());
+    }
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    File root = tempFolder.newFolder();
+    File dir = new File(root, INSTANCE);
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      for (int i = 0; i < 5; i++) {
+        cache.put("f1O" + i, block(40, i));
+      }
+    }
+
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      assertEquals(5, cache.getBlockCount());
+      for (int i = 0; i < 5; i++) {
+        assertArrayEquals(block(40, i), cache.get("f1O" + i));
+      }
+      // new blocks go to a new segment
+      cache.put("f2O0", block(40, 9));
+      cache.waitForWrites();
+      assertArrayEquals(block(40, 9), cache.get("f2O0"));
+    }
+
+    // a smaller cache drops the oldest segments, the last two hold f1O4 and f2O0
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 200, 100)) {
+      assertEquals(2, cache.getBlockCount());
+      assertNull(cache.get("f1O3"));
+      assertArrayEquals(block(40, 4), cache.get("f1O4"));
+      assertArrayEquals(block(40, 9), cache.get("f2O0"));
+    }
+
+    // segments of another size are dropped
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 50)) {
+      assertEquals(0, cache.getBlockCount());
+    }
+    assertArrayEquals(new String[] {"lock"}, dir.list());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    File root = tempFolder.newFolder();
+    File dir = new File(root, INSTANCE);
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 300, 100)) {
+      // two blocks fit in a segment
+      for (int i = 0; i < 10; i++) {
+        cache.put("f1O" + i, block(40, i));
+      }
+      cache.waitForWrites();
+      assertEquals(6, cache.getBlockCount());
+      for (int i = 0; i < 4; i++) {
+        assertNull(cache.get("f1O" + i));
+      }
+      for (int i = 4; i < 10; i++) {
+        assertArrayEquals(block(40, i), cache.get("f1O" + i));
+      }
+      // a segment file and an index file for each segment, and the lock file
+      assertEquals(7, dir.list().length);
+    }
+  }
+
+  @Test
+  public void testCorruptBlock() throws Exception {
+    File root = tempFolder.newFolder();
+    File dir = new File(root, INSTANCE);
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      cache.put("f1O0", block(10, 1));
+      cache.put("f1O1", block(10, 2));
+    }
+
+    File[] segments = dir.listFiles((d, name) -> name.endsWith(".seg"));
+    assertEquals(1, segments.length);
+    try (RandomAccessFile raf = new RandomAccessFile(segments[0], "rw")) {
+      raf.seek(15);
+      raf.write(7);
+    }
+
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      assertArrayEquals(block(10, 1), cache.get("f1O0"));
+      assertNull(cache.get("f1O1"));
+      assertEquals(1, cache.getBlockCount());
+    }
+  }
+
+  @Test
+  public void testSegmentWithoutIndex() throws Exception {
+    File root = tempFolder.newFolder();
+    File dir = new File(root, INSTANCE);
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      cache.put("f1O0", block(10, 1));
+    }
+
+    File[] indexes = dir.listFiles((d, name) -> name.endsWith(".idx"));
+    assertEquals(1, indexes.length);
+    assertTrue(indexes[0].delete());
+
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      assertEquals(0, cache.getBlockCount());
+    }
+    assertArrayEquals(new String[] {"lock"}, dir.list());
+  }
+
+  @Test
+  public void testCorruptIndexTail() throws Exception {
+    File root = tempFolder.newFolder();
+    File dir = new File(root, INSTANCE);
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      cache.put("f1O0", block(10, 1));
+      cache.put("f1O1", block(10, 2));
+    }
+
+    File[] indexes = dir.listFiles((d, name) -> name.endsWith(".idx"));
+    assertEquals(1, indexes.length);
+    try (FileOutputStream out = new FileOutputStream(indexes[0], true)) {
+      // a key of two bytes that are not valid modified UTF-8
+      out.write(new byte[] {0, 2, (byte) 0xc0, 0});
+    }
+
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      assertEquals(2, cache.getBlockCount());
+      assertArrayEquals(block(10, 1), cache.get("f1O0"));
+      assertArrayEquals(block(10, 2), cache.get("f1O1"));
+    }
+  }
+
+  @Test
+  public void testOtherInstance() throws Exception {
+    File root = tempFolder.newFolder();
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      cache.put("f1@10O0", block(10, 1));
+    }
+
+    // a new instance has files with the same names, it does not see the blocks of the old one
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, "instance2", 1000, 100)) {
+      assertEquals(0, cache.getBlockCount());
+      assertNull(cache.get("f1@10O0"));
+    }
+
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      assertArrayEquals(block(10, 1), cache.get("f1@10O0"));
+    }
+  }
+
+  @Test
+  public void testLocked() throws Exception {
+    File root = tempFolder.newFolder();
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      cache.put("f1O0", block(10, 1));
+      cache.waitForWrites();
+
+      try {
+        new LocalDiskBlockCache(root, INSTANCE, 1000, 100).close();
+        fail("Expected the directory to be locked");
+      } catch (LocalDiskBlockCache.DirectoryLockedException e) {
+        // pass
+      }
+
+      // the failed open did not touch the blocks
+      assertArrayEquals(block(10, 1), cache.get("f1O0"));
+    }
+
+    // the lock is released when the cache is closed
+    try (LocalDiskBlockCache cache = new LocalDiskBlockCache(root, INSTANCE, 1000, 100)) {
+      assertArrayEquals(block(10, 1), cache.get("f1O0"));
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.impl.SeekableByteArrayInputStream;
+import org.apache.accumulo.core.file.rfile.RFileTest.TestRFile;
+import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
+import org.apache.accumulo.core.util.CachedConfiguration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.junit.Test;
+
+public class DictionaryTrainerTest {
+
+  private static Key key(int i) {
+    return new Key(String.format("user_%08d", i), i % 2 == 0 ? "attr" : "meta",
+        String.format("%04d", i % 7), "A&B");
+  }
+
+  private static Value value(int i) {
+    return new Value(("value of user " + i + " is " + (i % 13)).getBytes());
+  }
+
+  @Test
+  public void testTrain() {
+    DictionaryTrainer trainer = new DictionaryTrainer(1024, 0);
+    int i = 0;
+    while (!trainer.add(key(i), value(i))) {
+      i++;
+    }
+
+    byte[] dictionary = trainer.train();
+    assertNotNull(dictionary);
+    assertTrue(dictionary.length > 0);
+    assertTrue(dictionary.length <= 1024);
+  }
+
+  @Test
+  public void testNoRepetition() {
+    DictionaryTrainer trainer = new DictionaryTrainer(1024, 0);
+    Random rand = new Random(42);
+    boolean full = false;
+    while (!full) {
+      byte[] row = new byte[100];
+      rand.nextBytes(row);
+      full = trainer.add(new Key(row), new Value(new byte[0]));
+    }
+    assertNull(trainer.train());
+  }
+
+  private static int sampled(DictionaryTrainer trainer) {
+    int bytes = 0;
+    for (int i = 0; !trainer.add(key(i), value(i)); i++) {
+      Key k = key(i);
+      bytes += k.getRowData().length() + k.getColumnFamilyData().length()
+          + k.getColumnQualifierData().length() + k.getColumnVisibilityData().length()
+          + value(i).getSize();
+    }
+    return bytes;
+  }
+
+  @Test
+  public void testSampleCutoff() {
+    // the sample stops at about one data block
+    int sampled = sampled(new DictionaryTrainer(1024, 3000));
+    assertTrue(sampled < 3000);
+    assertTrue(sampled > 2500);
+
+    // but is never smaller than the minimum or larger than the maximum ratio
+    sampled = sampled(new DictionaryTrainer(1024, 100));
+    assertTrue(sampled < 1024 * DictionaryTrainer.MIN_SAMPLE_RATIO);
+    assertTrue(sampled > 1024 * DictionaryTrainer.MIN_SAMPLE_RATIO - 100);
+    sampled = sampled(new DictionaryTrainer(1024, 1 << 20));
+    assertTrue(sampled < 1024 * DictionaryTrainer.MAX_SAMPLE_RATIO);
+    assertTrue(sampled > 1024 * DictionaryTrainer.MAX_SAMPLE_RATIO - 100);
+  }
+
+  @Test
+  public void testTooLittleData() {
+    DictionaryTrainer trainer = new DictionaryTrainer(1024, 0);
+    assertFalse(trainer.add(key(0), value(0)));
+    assertNull(trainer.train());
+  }
+
+  @Test
+  public void testRFile() throws IOException {
+    final int entries = 20_000;
+
+    TestRFile trf = new TestRFile(null);
+    trf.openWriter(true, 200, "lz4", 4096);
+    for (int i = 0; i < entries; i++) {
+      trf.writer.append(key(i), value(i));
+    }
+    trf.closeWriter();
+
+    byte[] data = trf.baos.toByteArray();
+    BCFile.Reader bcr = new BCFile.Reader(
+        new FSDataInputStream(new SeekableByteArrayInputStream(data)), data.length,
+        CachedConfiguration.getInstance(), DefaultConfiguration.getInstance(), null);
+    byte[] dictionary = bcr.readCompressionDictionary();
+    assertNotNull(dictionary);
+    assertTrue(dictionary.length <= 4096);
+    bcr.close();
+
+    // read through the block caches, which also hold the dictionary
+    trf.openReader();
+    trf.iter.seek(new Range(), Collections.emptySet(), false);
+    for (int i = 0; i < entries; i++) {
+      assertTrue(trf.iter.hasTop());
+      assertEquals(key(i), trf.iter.getTopKey());
+      assertEquals(value(i), trf.iter.getTopValue());
+      trf.iter.next();
+    }
+    assertFalse(trf.iter.hasTop());
+
+    trf.iter.seek(new Range(key(entries / 2), null), Collections.emptySet(), false);
+    assertEquals(key(entries / 2), trf.iter.getTopKey());
+    trf.closeReader();
+  }
+
+  @Test
+  public void testNotSupported() throws IOException {
+    TestRFile trf = new TestRFile(null);
+    trf.openWriter(true, 200, "gz", 4096);
+    for (int i = 0; i < 20_000; i++) {
+      trf.writer.append(key(i), value(i));
+    }
+    trf.closeWriter();
+
+    byte[] data = trf.baos.toByteArray();
+    BCFile.Reader bcr = new BCFile.Reader(
+        new FSDataInputStream(new SeekableByteArrayInputStream(data)), data.length,
+        CachedConfiguration.getInstance(), DefaultConfiguration.getInstance(), null);
+    assertNull(bcr.readCompressionDictionary());
+    bcr.close();
+  }
+}
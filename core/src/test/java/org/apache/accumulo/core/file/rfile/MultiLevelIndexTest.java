@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.util.Random;
@@ -127,4 +128,32 @@ public class MultiLevelIndexTest {
 
   }
 
+  @Test
+  public void testCompareSerialized() throws IOException {
+    Random rand = new Random(42);
+    String[] parts = {"", "a", "ab", "b", "\u00ff"};
+    long[] timestamps = {Long.MIN_VALUE, -300, -1, 0, 1, 127, 128, 300, 1L << 40, Long.MAX_VALUE};
+    for (int i = 0; i < 10000; i++) {
+      Key k1 = randomKey(rand, parts, timestamps);
+      Key k2 = randomKey(rand, parts, timestamps);
+
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      // serialize after some bytes, as keys are in the middle of index blocks
+      baos.write(new byte[] {1, 2, 3});
+      k1.write(new DataOutputStream(baos));
+
+      assertEquals(Integer.signum(k1.compareTo(k2)),
+          Integer.signum(MultiLevelIndex.compareSerialized(baos.toByteArray(), 3, k2)));
+      assertEquals(0, MultiLevelIndex.compareSerialized(baos.toByteArray(), 3, k1));
+    }
+  }
+
+  private static Key randomKey(Random rand, String[] parts, long[] timestamps) {
+    Key key = new Key(parts[rand.nextInt(parts.length)], parts[rand.nextInt(parts.length)],
+        parts[rand.nextInt(parts.length)], parts[rand.nextInt(parts.length)],
+        timestamps[rand.nextInt(timestamps.length)]);
+    key.setDeleted(rand.nextBoolean());
+    return key;
+  }
+
 }
@@ -239,9 +239,14 @@ public class RFileTest {
     }
 
     public void openWriter(boolean startDLG, int blockSize) throws IOException {
+      openWriter(startDLG, blockSize, "gz", 0);
+    }
+
+    public void openWriter(boolean startDLG, int blockSize, String compression,
+        int dictionarySize) throws IOException {
       baos = new ByteArrayOutputStream();
       dos = new FSDataOutputStream(baos, new FileSystem.Statistics("a"));
-      BCFile.Writer _cbw = new BCFile.Writer(dos, null, "gz", conf, accumuloConfiguration,
+      BCFile.Writer _cbw = new BCFile.Writer(dos, null, compression, conf, accumuloConfiguration,
           CryptoServiceFactory.newInstance(accumuloConfiguration));
 
       SamplerConfigurationImpl samplerConfig = SamplerConfigurationImpl
@@ -252,7 +257,7 @@ public class RFileTest {
         sampler = SamplerFactory.newSampler(samplerConfig, accumuloConfiguration);
       }
 
-      writer = new RFile.Writer(_cbw, blockSize, 1000, samplerConfig, sampler);
+      writer = new RFile.Writer(_cbw, blockSize, 1000, samplerConfig, sampler, dictionarySize);
 
       if (startDLG)
         writer.startDefaultLocalityGroup();
@@ -396,6 +401,54 @@ public class RFileTest {
     trf.closeReader();
   }
 
+  @Test
+  public void testCachedBlocksOfReplacedFile() throws Exception {
+    // two files that have the same name, like the files of an instance that was initialized again
+    TestRFile trf1 = new TestRFile(conf);
+    trf1.openWriter();
+    trf1.writer.append(newKey("r1", "cf1", "cq1", "L1", 55), newValue("foo"));
+    trf1.closeWriter();
+    byte[] file1 = trf1.baos.toByteArray();
+
+    TestRFile trf2 = new TestRFile(conf);
+    trf2.openWriter();
+    trf2.writer.append(newKey("r2", "cf2", "cq2", "L2", 56),
+        newValue("the quick brown fox jumps over the lazy dog"));
+    trf2.closeWriter();
+    byte[] file2 = trf2.baos.toByteArray();
+    assertTrue(file1.length != file2.length);
+
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, LruBlockCacheManager.class.getName());
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(cc);
+    manager.start(new BlockCacheConfiguration(cc));
+    try {
+      LruBlockCache indexCache = (LruBlockCache) manager.getBlockCache(CacheType.INDEX);
+      LruBlockCache dataCache = (LruBlockCache) manager.getBlockCache(CacheType.DATA);
+
+      Key[] expectedKeys = {newKey("r1", "cf1", "cq1", "L1", 55),
+          newKey("r2", "cf2", "cq2", "L2", 56)};
+      byte[][] files = {file1, file2};
+      for (int i = 0; i < files.length; i++) {
+        FSDataInputStream in = new FSDataInputStream(new SeekableByteArrayInputStream(files[i]));
+        CachableBlockFile.Reader _cbr = new CachableBlockFile.Reader("source-1", in,
+            files[i].length, CachedConfiguration.getInstance(), dataCache, indexCache,
+            DefaultConfiguration.getInstance(),
+            CryptoServiceFactory.newInstance(DefaultConfiguration.getInstance()));
+        try (Reader reader = new RFile.Reader(_cbr)) {
+          // the blocks of the first file are cached, the second file does not get them
+          reader.seek(new Range(), EMPTY_COL_FAMS, false);
+          assertTrue(reader.hasTop());
+          assertEquals(expectedKeys[i], reader.getTopKey());
+          reader.next();
+          assertFalse(reader.hasTop());
+        }
+      }
+    } finally {
+      manager.stop();
+    }
+  }
+
   @Test
   public void test3() throws IOException {
 
@@ -555,6 +608,48 @@ public class RFileTest {
     trf.closeReader();
   }
 
+  @Test
+  public void testReadAhead() throws IOException {
+    // small blocks, so a scan reads many blocks in a row
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter(100);
+
+    ArrayList<Key> expectedKeys = new ArrayList<>();
+    ArrayList<Value> expectedValues = new ArrayList<>();
+    for (int row = 0; row < 1000; row++) {
+      Key k = newKey(formatString("r_", row), "cf", "cq", "", 1);
+      Value v = newValue("" + row);
+      trf.writer.append(k, v);
+      expectedKeys.add(k);
+      expectedValues.add(v);
+    }
+    trf.closeWriter();
+
+    trf.openReader();
+
+    long readAheads = CachableBlockFile.getReadAheadCount();
+    trf.iter.seek(new Range((Key) null, null), EMPTY_COL_FAMS, false);
+    verify(trf, expectedKeys.iterator(), expectedValues.iterator());
+    assertTrue(CachableBlockFile.getReadAheadCount() > readAheads);
+
+    // read part of the file, then seek elsewhere, which cancels the blocks read ahead
+    trf.seek(expectedKeys.get(100));
+    for (int i = 0; i < 100; i++) {
+      assertEquals(expectedKeys.get(100 + i), trf.iter.getTopKey());
+      trf.iter.next();
+    }
+    trf.seek(expectedKeys.get(10));
+    verify(trf, expectedKeys.subList(10, expectedKeys.size()).iterator(),
+        expectedValues.subList(10, expectedKeys.size()).iterator());
+
+    // a range ending in the middle of the file
+    trf.iter.seek(new Range((Text) null, expectedKeys.get(500).getRow()), EMPTY_COL_FAMS, false);
+    verify(trf, expectedKeys.subList(0, 501).iterator(),
+        expectedValues.subList(0, 501).iterator());
+
+    trf.closeReader();
+  }
+
   private void verify(TestRFile trf, Iterator<Key> eki, Iterator<Value> evi) throws IOException {
 
     while (trf.iter.hasTop()) {
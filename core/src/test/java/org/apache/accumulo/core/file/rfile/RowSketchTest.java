@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.clientImpl.Table;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.blockfile.impl.SeekableByteArrayInputStream;
+import org.apache.accumulo.core.file.rfile.RFileTest.TestRFile;
+import org.apache.accumulo.core.util.CachedConfiguration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class RowSketchTest {
+
+  private static String row(int i) {
+    return String.format("r%06d", i);
+  }
+
+  private static RowSketch readSketch(TestRFile trf) throws IOException {
+    byte[] data = trf.baos.toByteArray();
+    try (CachableBlockFile.Reader reader = new CachableBlockFile.Reader(
+        new FSDataInputStream(new SeekableByteArrayInputStream(data)), data.length,
+        CachedConfiguration.getInstance(), DefaultConfiguration.getInstance(), null)) {
+      return RowSketch.read(reader);
+    }
+  }
+
+  private static KeyExtent extent(String end, String prev) {
+    return new KeyExtent(Table.ID.of("1"), end == null ? null : new Text(end),
+        prev == null ? null : new Text(prev));
+  }
+
+  @Test
+  public void testEmptyFile() throws IOException {
+    TestRFile trf = new TestRFile(null);
+    trf.openWriter();
+    trf.closeWriter();
+
+    assertNull(readSketch(trf));
+  }
+
+  @Test
+  public void testSketch() throws IOException {
+    TestRFile trf = new TestRFile(null);
+    trf.openWriter(false, 100);
+
+    trf.writer.startNewLocalityGroup("lg1",
+        Collections.singleton(new ArrayByteSequence("cf1".getBytes())));
+    for (int i = 100; i < 2000; i++) {
+      trf.writer.append(new Key(row(i), "cf1", "cq"), new Value(("v" + i).getBytes()));
+    }
+
+    trf.writer.startDefaultLocalityGroup();
+    for (int i = 50; i < 1500; i++) {
+      trf.writer.append(new Key(row(i), "cf2", "cq"), new Value(("v" + i).getBytes()));
+    }
+    trf.closeWriter();
+
+    RowSketch sketch = readSketch(trf);
+    assertNotNull(sketch);
+    assertEquals(new Text(row(50)), sketch.getFirstRow());
+    assertEquals(new Text(row(1999)), sketch.getLastRow());
+
+    List<Text> samples = sketch.getSampleRows();
+    assertTrue(samples.size() > 10);
+    assertTrue(samples.size() <= RowSketch.MAX_SAMPLES);
+    for (int i = 1; i < samples.size(); i++) {
+      assertTrue(samples.get(i - 1).compareTo(samples.get(i)) <= 0);
+    }
+    assertTrue(samples.get(0).compareTo(sketch.getFirstRow()) >= 0);
+    assertTrue(samples.get(samples.size() - 1).compareTo(sketch.getLastRow()) <= 0);
+
+    assertTrue(sketch.overlaps(extent(null, null)));
+    assertTrue(sketch.overlaps(extent(row(60), row(10))));
+    assertFalse(sketch.overlaps(extent(row(40), null)));
+    assertFalse(sketch.overlaps(extent(null, row(1999))));
+
+    assertEquals(samples.size(), sketch.countSamples(extent(null, null)));
+    assertEquals(0, sketch.countSamples(extent(row(40), null)));
+    assertEquals(samples.size(), sketch.countSamples(extent(row(1000), null))
+        + sketch.countSamples(extent(null, row(1000))));
+  }
+
+  @Test
+  public void testBuilderBoundsSamples() {
+    RowSketch.Builder builder = new RowSketch.Builder();
+    builder.addFirst(new Text(row(0)));
+    for (int i = 0; i < RowSketch.MAX_SAMPLES * 10; i++) {
+      builder.addBlockEnd(new Text(row(i)));
+    }
+
+    RowSketch sketch = builder.build();
+    assertEquals(new Text(row(0)), sketch.getFirstRow());
+    assertEquals(new Text(row(RowSketch.MAX_SAMPLES * 10 - 1)), sketch.getLastRow());
+    assertTrue(sketch.getSampleRows().size() <= RowSketch.MAX_SAMPLES);
+    assertTrue(sketch.getSampleRows().size() >= RowSketch.MAX_SAMPLES / 2);
+
+    // samples should be spread evenly, so each half of the rows should get about half the samples
+    int firstHalf = sketch.countSamples(extent(row(RowSketch.MAX_SAMPLES * 5), null));
+    int total = sketch.getSampleRows().size();
+    assertTrue(Math.abs(total - 2 * firstHalf) <= 2);
+  }
+}
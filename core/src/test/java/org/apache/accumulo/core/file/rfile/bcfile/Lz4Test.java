@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.accumulo.core.file.rfile.bcfile.Compression.Algorithm;
+import org.junit.Test;
+
+public class Lz4Test {
+
+  private static byte[] text(int size) {
+    StringBuilder sb = new StringBuilder();
+    Random rand = new Random(42);
+    while (sb.length() < size) {
+      sb.append(String.format("row_%08d cf:%s cq_%04d %d\n", sb.length() / 50,
+          rand.nextBoolean() ? "attr" : "meta", rand.nextInt(100), rand.nextInt(1000)));
+    }
+    return Arrays.copyOf(sb.toString().getBytes(UTF_8), size);
+  }
+
+  private static byte[] random(int size) {
+    byte[] data = new byte[size];
+    new Random(7).nextBytes(data);
+    return data;
+  }
+
+  private static void checkBlock(byte[] data) throws IOException {
+    byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+    int len = Lz4.compress(data, 0, data.length, compressed, 0);
+    assertTrue(len <= compressed.length);
+
+    byte[] raw = new byte[data.length];
+    Lz4.decompress(compressed, 0, len, raw, 0, raw.length);
+    assertArrayEquals(data, raw);
+  }
+
+  @Test
+  public void testBlocks() throws IOException {
+    checkBlock(new byte[0]);
+    checkBlock(new byte[] {1, 2, 3});
+    checkBlock(new byte[100]);
+    checkBlock(text(13));
+    checkBlock(text(1000));
+    checkBlock(text(Lz4.CHUNK_SIZE));
+    checkBlock(random(Lz4.CHUNK_SIZE));
+
+    // matches longer than the window and runs of a single repeated pattern
+    byte[] data = new byte[200_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i % 3);
+    }
+    checkBlock(data);
+  }
+
+  @Test
+  public void testCompresses() {
+    byte[] data = text(Lz4.CHUNK_SIZE);
+    byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+    int len = Lz4.compress(data, 0, data.length, compressed, 0);
+    assertTrue("compressed to " + len, len < data.length / 2);
+  }
+
+  @Test
+  public void testOffsets() throws IOException {
+    byte[] data = text(5000);
+    byte[] src = new byte[data.length + 20];
+    System.arraycopy(data, 0, src, 10, data.length);
+
+    byte[] compressed = new byte[Lz4.maxCompressedLength(data.length) + 30];
+    int len = Lz4.compress(src, 10, data.length, compressed, 30);
+
+    byte[] raw = new byte[data.length + 5];
+    Lz4.decompress(compressed, 30, len, raw, 5, data.length);
+    assertArrayEquals(data, Arrays.copyOfRange(raw, 5, raw.length));
+  }
+
+  @Test
+  public void testMalformed() {
+    byte[] data = text(10000);
+    byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+    int len = Lz4.compress(data, 0, data.length, compressed, 0);
+    byte[] raw = new byte[data.length];
+
+    try {
+      Lz4.decompress(compressed, 0, len / 2, raw, 0, raw.length);
+      fail("truncated data should not decompress");
+    } catch (IOException e) {
+      // expected
+    }
+
+    try {
+      Lz4.decompress(compressed, 0, len, raw, 0, raw.length - 1);
+      fail("data should not decompress to the wrong length");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  private static byte[] writeStream(byte[] data, int writeSize) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    OutputStream out = Algorithm.LZ4.createCompressionStream(baos, null, 0);
+    for (int off = 0; off < data.length; off += writeSize) {
+      out.write(data, off, Math.min(writeSize, data.length - off));
+    }
+    out.write(7);
+    out.flush();
+    return baos.toByteArray();
+  }
+
+  @Test
+  public void testStreams() throws IOException {
+    assertTrue(Algorithm.LZ4.isSupported());
+    assertEquals(Algorithm.LZ4, Compression.getCompressionAlgorithmByName("lz4"));
+
+    byte[] data = new byte[3 * Lz4.CHUNK_SIZE + 1234];
+    System.arraycopy(text(data.length / 2), 0, data, 0, data.length / 2);
+    System.arraycopy(random(data.length - data.length / 2), 0, data, data.length / 2,
+        data.length - data.length / 2);
+    byte[] expected = Arrays.copyOf(data, data.length + 1);
+    expected[data.length] = 7;
+
+    for (int writeSize : new int[] {1, 1000, Lz4.CHUNK_SIZE, 2 * Lz4.CHUNK_SIZE + 1}) {
+      byte[] compressed = writeStream(data, writeSize);
+
+      // read whole chunks straight into the destination
+      try (DataInputStream in = new DataInputStream(
+          Algorithm.LZ4.createDecompressionStream(new ByteArrayInputStream(compressed), null, 0))) {
+        byte[] actual = new byte[expected.length];
+        in.readFully(actual);
+        assertArrayEquals(expected, actual);
+        assertEquals(-1, in.read());
+      }
+
+      // read through the stream's buffer
+      try (InputStream in = Algorithm.LZ4
+          .createDecompressionStream(new ByteArrayInputStream(compressed), null, 0)) {
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        byte[] buf = new byte[777];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+          actual.write(buf, 0, n);
+          int b = in.read();
+          if (b >= 0) {
+            actual.write(b);
+          }
+        }
+        assertArrayEquals(expected, actual.toByteArray());
+      }
+    }
+  }
+
+  @Test
+  public void testDictionary() throws IOException {
+    byte[] text = text(20_000);
+    byte[] dictionary = Arrays.copyOfRange(text, 0, 10_000);
+    byte[] data = Arrays.copyOfRange(text, 10_000, 10_500);
+
+    // compress against the dictionary as history
+    byte[] src = Arrays.copyOf(dictionary, dictionary.length + data.length);
+    System.arraycopy(data, 0, src, dictionary.length, data.length);
+    byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+    int len = Lz4.compress(src, 0, dictionary.length, data.length, compressed, 0);
+    assertTrue(len < Lz4.compress(data, 0, data.length, new byte[compressed.length], 0));
+
+    byte[] raw = Arrays.copyOf(dictionary, src.length);
+    Lz4.decompress(compressed, 0, len, raw, 0, dictionary.length, data.length);
+    assertArrayEquals(data, Arrays.copyOfRange(raw, dictionary.length, raw.length));
+
+    // matches may not refer back past the start of the dictionary
+    try {
+      Lz4.decompress(compressed, 0, len, raw, dictionary.length, dictionary.length, data.length);
+      fail("data should not decompress without the dictionary");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testDictionaryStreams() throws IOException {
+    byte[] text = text(2 * Lz4.CHUNK_SIZE + 20_000);
+    byte[] dictionary = Arrays.copyOfRange(text, 0, 4096);
+    byte[] data = Arrays.copyOfRange(text, 4096, text.length);
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    OutputStream out = Algorithm.LZ4.createCompressionStream(baos, null, 0, dictionary);
+    out.write(data);
+    out.flush();
+
+    try (DataInputStream in = new DataInputStream(Algorithm.LZ4.createDecompressionStream(
+        new ByteArrayInputStream(baos.toByteArray()), null, 0, () -> dictionary))) {
+      byte[] actual = new byte[data.length];
+      in.readFully(actual);
+      assertArrayEquals(data, actual);
+      assertEquals(-1, in.read());
+    }
+
+    try (InputStream in = Algorithm.LZ4.createDecompressionStream(
+        new ByteArrayInputStream(baos.toByteArray()), null, 0, () -> null)) {
+      in.read();
+      fail("data should not decompress without the dictionary");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testEmptyStream() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    OutputStream out = Algorithm.LZ4.createCompressionStream(baos, null, 0);
+    out.flush();
+    assertEquals(0, baos.size());
+
+    try (InputStream in = Algorithm.LZ4
+        .createDecompressionStream(new ByteArrayInputStream(baos.toByteArray()), null, 0)) {
+      assertEquals(-1, in.read());
+    }
+  }
+}
@@ -22,8 +22,10 @@ import static org.junit.Assert.assertTrue;
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.TreeMap;
 
@@ -295,4 +297,51 @@ public class IntersectingIteratorTest {
     assertEquals(hitCount, docs.size());
     cleanup();
   }
+
+  @Test
+  public void testSkewedTerms() throws IOException {
+    // a rare term joined with a common one, given in both orders and with a negated term
+    Random r = new Random(42);
+    TreeMap<Key,Value> map = new TreeMap<>();
+    Value v = new Value(new byte[0]);
+    HashSet<Text> rareAndCommon = new HashSet<>();
+    HashSet<Text> rareNotOther = new HashSet<>();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Text row = new Text(String.format("%06d", i));
+      for (int j = 0; j < NUM_DOCIDS; j++) {
+        Text doc = new Text(String.format("%010d", i * NUM_DOCIDS + j));
+        boolean common = r.nextFloat() < 0.9f;
+        boolean rare = r.nextFloat() < 0.02f;
+        boolean other = r.nextFloat() < 0.5f;
+        if (common)
+          map.put(new Key(row, new Text("common"), doc), v);
+        if (rare)
+          map.put(new Key(row, new Text("rare"), doc), v);
+        if (other)
+          map.put(new Key(row, new Text("other"), doc), v);
+        if (rare && common)
+          rareAndCommon.add(doc);
+        if (rare && !other)
+          rareNotOther.add(doc);
+      }
+    }
+
+    Text[][] queries = {{new Text("common"), new Text("rare")},
+        {new Text("rare"), new Text("common")}, {new Text("other"), new Text("rare")}};
+    boolean[][] notFlags = {{false, false}, {false, false}, {true, false}};
+    List<HashSet<Text>> expected = Arrays.asList(rareAndCommon, rareAndCommon, rareNotOther);
+    for (int i = 0; i < queries.length; i++) {
+      IteratorSetting is = new IteratorSetting(1, IntersectingIterator.class);
+      IntersectingIterator.setColumnFamilies(is, queries[i], notFlags[i]);
+      IntersectingIterator iter = new IntersectingIterator();
+      iter.init(new SortedMapIterator(map), is.getOptions(), env);
+      iter.seek(new Range(), EMPTY_COL_FAMS, false);
+      HashSet<Text> found = new HashSet<>();
+      while (iter.hasTop()) {
+        assertTrue(found.add(iter.getTopKey().getColumnQualifier()));
+        iter.next();
+      }
+      assertEquals(expected.get(i), found);
+    }
+  }
 }
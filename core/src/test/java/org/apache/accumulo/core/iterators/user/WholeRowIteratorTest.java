@@ -18,6 +18,7 @@ package org.apache.accumulo.core.iterators.user;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -27,12 +28,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.SortedMapIterator;
 import org.apache.accumulo.core.iterators.system.MultiIterator;
 import org.apache.hadoop.io.Text;
@@ -209,4 +213,100 @@ public class WholeRowIteratorTest {
 
   }
 
+  private SortedMap<Key,Value> bigRow(int entries) {
+    SortedMap<Key,Value> map = new TreeMap<>();
+    for (int i = 0; i < entries; i++) {
+      pkv(map, "row1", "cf" + (i / 100), String.format("cq%05d", i % 100), i % 3 == 0 ? "" : "A",
+          1000L + (i * 7) % 31, "v" + i);
+    }
+    // timestamps that are far apart and negative
+    pkv(map, "row1", "cf~", "cq", "", Long.MAX_VALUE, "max");
+    pkv(map, "row1", "cf~", "cq", "", Long.MIN_VALUE, "min");
+    return map;
+  }
+
+  private static Value encodeCompact(SortedMap<Key,Value> map) {
+    return new CompactRowEncoding.Encoder().encode(new ArrayList<>(map.keySet()),
+        new ArrayList<>(map.values()));
+  }
+
+  @Test
+  public void testCompactEncoding() throws IOException {
+    for (int entries : new int[] {0, 1, 15, 16, 17, 1000}) {
+      SortedMap<Key,Value> map = bigRow(entries);
+      Value encoded = encodeCompact(map);
+      assertTrue(encoded.getSize() < WholeRowIterator
+          .encodeRow(new ArrayList<>(map.keySet()), new ArrayList<>(map.values())).getSize());
+
+      SortedMap<Key,Value> decoded = WholeRowIterator.decodeRow(new Key("row1"), encoded);
+      assertEquals(map.size(), decoded.size());
+      assertEquals(map, decoded);
+      assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(decoded.keySet()));
+      assertEquals(map.firstKey(), decoded.firstKey());
+      assertEquals(map.lastKey(), decoded.lastKey());
+      for (Entry<Key,Value> entry : map.entrySet()) {
+        assertEquals(entry.getValue(), decoded.get(entry.getKey()));
+      }
+      assertNull(decoded.get(new Key("row1", "cf0", "cq00000x")));
+    }
+  }
+
+  @Test
+  public void testCompactViews() throws IOException {
+    SortedMap<Key,Value> map = bigRow(500);
+    SortedMap<Key,Value> decoded = WholeRowIterator.decodeRow(new Key("row1"), encodeCompact(map));
+
+    List<Key> keys = new ArrayList<>(map.keySet());
+    for (int i : new int[] {0, 1, 15, 16, 17, 250, 499, 501}) {
+      Key key = keys.get(i);
+      assertEquals(map.headMap(key), decoded.headMap(key));
+      assertEquals(map.tailMap(key), decoded.tailMap(key));
+      assertEquals(map.tailMap(key).firstKey(), decoded.tailMap(key).firstKey());
+      for (int j : new int[] {i, i + 1, i + 40, 501}) {
+        Key end = keys.get(Math.min(j, keys.size() - 1));
+        SortedMap<Key,Value> sub = decoded.subMap(key, end);
+        assertEquals(map.subMap(key, end), sub);
+        assertEquals(map.subMap(key, end).size(), sub.size());
+        assertEquals(map.subMap(key, end).keySet(), sub.keySet());
+      }
+    }
+
+    // keys that fall between the encoded keys
+    Key between = new Key("row1", "cf2", "cq00050a", "A", 0);
+    assertEquals(map.tailMap(between), decoded.tailMap(between));
+    assertEquals(map.headMap(between).lastKey(), decoded.headMap(between).lastKey());
+    assertTrue(decoded.tailMap(new Key("row2")).isEmpty());
+    assertEquals(map, decoded.tailMap(new Key("row0")));
+  }
+
+  @Test(expected = IOException.class)
+  public void testBadCompactDecodeRow() throws IOException {
+    Value encoded = encodeCompact(bigRow(100));
+    encoded.set(Arrays.copyOfRange(encoded.get(), 0, encoded.getSize() - 10));
+    WholeRowIterator.decodeRow(new Key("row1"), encoded);
+  }
+
+  @Test
+  public void testCompactEncodingOption() throws IOException {
+    SortedMap<Key,Value> map = new TreeMap<>();
+    map.putAll(bigRow(100));
+    pkv(map, "row2", "cf1", "cq1", "cv1", 5, "foo");
+    pkv(map, "row2", "cf1", "cq2", "cv1", 6, "bar");
+
+    IteratorSetting is = new IteratorSetting(10, WholeRowIterator.class);
+    WholeRowIterator.setCompactEncoding(is, true);
+    WholeRowIterator iter = new WholeRowIterator();
+    iter.init(new SortedMapIterator(map), is.getOptions(), null);
+
+    for (SortedKeyValueIterator<Key,Value> skvi : ImmutableList.of(iter, iter.deepCopy(null))) {
+      skvi.seek(new Range(), new ArrayList<>(), false);
+      SortedMap<Key,Value> resultMap = new TreeMap<>();
+      while (skvi.hasTop()) {
+        assertTrue(CompactRowEncoding.isCompact(skvi.getTopValue().get()));
+        resultMap.putAll(WholeRowIterator.decodeRow(skvi.getTopKey(), skvi.getTopValue()));
+        skvi.next();
+      }
+      assertEquals(map, resultMap);
+    }
+  }
 }
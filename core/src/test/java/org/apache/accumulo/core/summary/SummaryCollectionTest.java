@@ -70,4 +70,24 @@ public class SummaryCollectionTest {
       assertEquals(4, filestats.getInaccurate());
     }
   }
+
+  @Test
+  public void testMergeDoesNotChangeInputs() {
+    SummarizerConfiguration conf = SummarizerConfiguration.builder(FamilySummarizer.class).build();
+    SummarizerFactory factory = new SummarizerFactory();
+
+    HashMap<String,Long> stats = new HashMap<>();
+    stats.put("c:foo", 9L);
+    SummaryCollection sc1 = new SummaryCollection(
+        Collections.singleton(new FileSummary(conf, stats, false)));
+
+    // merging the same collection many times, as happens when it is cached, gives the same result
+    for (int i = 0; i < 3; i++) {
+      SummaryCollection merged = SummaryCollection.merge(sc1, sc1, factory);
+      Summary summary = merged.getSummaries().get(0);
+      assertEquals(Long.valueOf(18), summary.getStatistics().get("c:foo"));
+      assertEquals(2, summary.getFileStatistics().getTotal());
+    }
+    assertEquals(Long.valueOf(9), sc1.getSummaries().get(0).getStatistics().get("c:foo"));
+  }
 }
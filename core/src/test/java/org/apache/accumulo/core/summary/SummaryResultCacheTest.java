@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.summary;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.client.summary.SummarizerConfiguration;
+import org.apache.accumulo.core.client.summary.summarizers.FamilySummarizer;
+import org.apache.accumulo.core.client.summary.summarizers.VisibilitySummarizer;
+import org.apache.accumulo.core.dataImpl.thrift.TRowRange;
+import org.junit.Test;
+
+public class SummaryResultCacheTest {
+
+  private static final Set<SummarizerConfiguration> FAMILIES = Collections
+      .singleton(SummarizerConfiguration.builder(FamilySummarizer.class).build());
+  private static final Set<SummarizerConfiguration> VISIBILITIES = Collections
+      .singleton(SummarizerConfiguration.builder(VisibilitySummarizer.class).build());
+
+  private static List<TRowRange> range(String start, String end) {
+    return Collections.singletonList(new TRowRange(ByteBuffer.wrap(start.getBytes(UTF_8)),
+        ByteBuffer.wrap(end.getBytes(UTF_8))));
+  }
+
+  @Test
+  public void testFileSummaries() {
+    SummaryResultCache cache = new SummaryResultCache(100_000);
+    SummaryCollection sc = new SummaryCollection();
+
+    assertNull(cache.getFileSummaries("f1", null, FAMILIES, range("a", "m")));
+    cache.putFileSummaries("f1", null, FAMILIES, range("a", "m"), sc);
+    assertSame(sc, cache.getFileSummaries("f1", null, FAMILIES, range("a", "m")));
+
+    // any difference in the file, selection or ranges is another entry
+    assertNull(cache.getFileSummaries("f2", null, FAMILIES, range("a", "m")));
+    assertNull(cache.getFileSummaries("f1", ".*", FAMILIES, range("a", "m")));
+    assertNull(cache.getFileSummaries("f1", null, VISIBILITIES, range("a", "m")));
+    assertNull(cache.getFileSummaries("f1", null, FAMILIES, range("a", "n")));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(5, cache.getMissCount());
+  }
+
+  @Test
+  public void testRequestSummaries() {
+    SummaryResultCache cache = new SummaryResultCache(100_000);
+    SummaryCollection sc = new SummaryCollection();
+
+    Map<String,List<TRowRange>> files = new HashMap<>();
+    files.put("f1", range("a", "m"));
+    files.put("f2", range("a", "m"));
+    cache.putRequestSummaries(null, FAMILIES, files, sc);
+
+    // changing the map after it is cached does not change the cache
+    Map<String,List<TRowRange>> files2 = new HashMap<>(files);
+    files.put("f3", range("a", "m"));
+    assertNull(cache.getRequestSummaries(null, FAMILIES, files));
+    assertSame(sc, cache.getRequestSummaries(null, FAMILIES, files2));
+    assertNull(cache.getRequestSummaries(null, VISIBILITIES, files2));
+
+    // a hit counts for every file of the request
+    assertEquals(2, cache.getHitCount());
+  }
+
+  @Test
+  public void testRequestOrder() {
+    SummaryResultCache cache = new SummaryResultCache(100_000);
+    SummaryCollection sc = new SummaryCollection();
+
+    Map<String,List<TRowRange>> files = new TreeMap<>();
+    files.put("f1", range("a", "m"));
+    files.put("f2", range("m", "z"));
+    cache.putRequestSummaries(null, FAMILIES, files, sc);
+
+    // the same files in another order are the same request
+    Map<String,List<TRowRange>> reversed = new TreeMap<>(Collections.reverseOrder());
+    reversed.putAll(files);
+    assertSame(sc, cache.getRequestSummaries(null, FAMILIES, reversed));
+
+    // moving a range to another file is not
+    files.put("f1", range("m", "z"));
+    files.put("f2", range("a", "m"));
+    assertNull(cache.getRequestSummaries(null, FAMILIES, files));
+  }
+
+  @Test
+  public void testMaxSize() {
+    SummaryResultCache cache = new SummaryResultCache(10_000);
+    for (int i = 0; i < 1000; i++) {
+      cache.putFileSummaries("f" + i, null, FAMILIES, range("a", "m"), new SummaryCollection());
+    }
+
+    int cached = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (cache.getFileSummaries("f" + i, null, FAMILIES, range("a", "m")) != null) {
+        cached++;
+      }
+    }
+    assertTrue(cached > 0);
+    assertTrue(cached < 100);
+  }
+
+  @Test
+  public void testDisabled() {
+    SummaryResultCache cache = new SummaryResultCache(0);
+    cache.putFileSummaries("f1", null, FAMILIES, range("a", "m"), new SummaryCollection());
+    assertNull(cache.getFileSummaries("f1", null, FAMILIES, range("a", "m")));
+    cache.putRequestSummaries(null, FAMILIES, Collections.singletonMap("f1", range("a", "m")),
+        new SummaryCollection());
+    assertNull(cache.getRequestSummaries(null, FAMILIES,
+        Collections.singletonMap("f1", range("a", "m"))));
+  }
+}
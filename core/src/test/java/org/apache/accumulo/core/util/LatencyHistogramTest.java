@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.accumulo.core.util.LatencyHistogram.Snapshot;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBuckets() {
+    for (long v = 0; v < 100_000; v++) {
+      int bucket = LatencyHistogram.bucket(v);
+      assertTrue(v <= LatencyHistogram.highestValue(bucket));
+      if (bucket > 0) {
+        assertTrue(v > LatencyHistogram.highestValue(bucket - 1));
+      }
+    }
+    int last = LatencyHistogram.bucket(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(last));
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long v = 1; v <= 1000; v++) {
+      histogram.record(v);
+    }
+    histogram.record(-5);
+
+    Snapshot snapshot = histogram.snapshotAndReset();
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(1000, snapshot.getMax());
+    assertEquals(500.5, snapshot.getMean(), 0.0);
+    for (double p : new double[] {1, 50, 90, 99, 99.9, 100}) {
+      long expected = (long) Math.ceil(p * 10);
+      long actual = snapshot.getValueAtPercentile(p);
+      assertTrue(p + " " + actual, actual >= expected && actual <= expected + expected / 16);
+    }
+
+    // the snapshot reset the histogram
+    snapshot = histogram.snapshotAndReset();
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void testRelativeError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      long v = (random.nextLong() >>> 1) >>> random.nextInt(63);
+      histogram.record(v);
+      Snapshot snapshot = histogram.snapshotAndReset();
+      long actual = snapshot.getValueAtPercentile(50);
+      assertTrue(v + " " + actual, actual >= v && actual - v <= v / 16);
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.fate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.aryEq;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.accumulo.fate.ReadOnlyTStore.TStatus;
+import org.apache.accumulo.fate.zookeeper.IZooReaderWriter;
+import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeExistsPolicy;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.apache.zookeeper.Watcher.Event.KeeperState;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZooStoreTest {
+  private static final String PATH = "/fate";
+  private static final String TX1 = String.format("tx_%016x", 1L);
+  private static final String TX2 = String.format("tx_%016x", 2L);
+
+  private IZooReaderWriter zk;
+
+  public static class TestRepo implements Repo<String> {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+
+    public TestRepo(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public long isReady(long tid, String environment) {
+      return 0;
+    }
+
+    @Override
+    public String getDescription() {
+      return name;
+    }
+
+    @Override
+    public Repo<String> call(long tid, String environment) {
+      return null;
+    }
+
+    @Override
+    public void undo(long tid, String environment) {}
+
+    @Override
+    public String getReturn() {
+      return null;
+    }
+  }
+
+  private static byte[] serialize(Object o) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(o);
+    }
+    return baos.toByteArray();
+  }
+
+  private static byte[] status(TStatus status) {
+    return status.name().getBytes(UTF_8);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    zk = createMock(IZooReaderWriter.class);
+    expect(zk.putPersistentData(eq(PATH), aryEq(new byte[0]), eq(NodeExistsPolicy.SKIP)))
+        .andReturn(true);
+  }
+
+  @Test
+  public void testReserveUnreserve() throws Exception {
+    // the list of transactions and their status are read once, then cached
+    expect(zk.getChildren(eq(PATH), anyObject(Watcher.class))).andReturn(Arrays.asList(TX2, TX1));
+    expect(zk.getData(eq(PATH + "/" + TX1), anyObject(Watcher.class), anyObject()))
+        .andReturn(status(TStatus.IN_PROGRESS));
+    expect(zk.getData(eq(PATH + "/" + TX2), anyObject(Watcher.class), anyObject()))
+        .andReturn(status(TStatus.IN_PROGRESS));
+    replay(zk);
+
+    ZooStore<String> store = new ZooStore<>(PATH, zk);
+
+    // a thread cycles through the transactions in order
+    assertEquals(1L, store.reserve());
+    assertEquals(2L, store.reserve());
+    assertEquals(TStatus.IN_PROGRESS, store.getStatus(1L));
+
+    store.unreserve(1L, 0);
+    try {
+      store.getStatus(1L);
+      fail("transaction is no longer reserved");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    try {
+      store.unreserve(1L, 0);
+      fail("transaction is no longer reserved");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    // a deferred transaction is skipped
+    store.unreserve(2L, 60_000);
+    assertEquals(1L, store.reserve());
+    store.unreserve(1L, 0);
+
+    // an explicit reservation ignores the deferral
+    store.reserve(2L);
+    store.unreserve(2L, 0);
+
+    verify(zk);
+  }
+
+  @Test
+  public void testWatchInvalidatesCache() throws Exception {
+    Capture<Watcher> watcher = EasyMock.newCapture();
+    expect(zk.getChildren(eq(PATH), capture(watcher))).andReturn(Collections.singletonList(TX1))
+        .andReturn(Arrays.asList(TX1, TX2));
+    expect(zk.getData(eq(PATH + "/" + TX1), anyObject(Watcher.class), anyObject()))
+        .andReturn(status(TStatus.IN_PROGRESS)).andReturn(status(TStatus.SUCCESSFUL));
+    expect(zk.getData(eq(PATH + "/" + TX2), anyObject(Watcher.class), anyObject()))
+        .andReturn(status(TStatus.IN_PROGRESS));
+    replay(zk);
+
+    ZooStore<String> store = new ZooStore<>(PATH, zk);
+
+    assertEquals(1L, store.reserve());
+    store.unreserve(1L, 0);
+
+    // answered from the cache, any extra read would fail the mock
+    assertEquals(1L, store.reserve());
+    store.unreserve(1L, 0);
+
+    // another process adds a transaction and changes the status of the first
+    watcher.getValue().process(
+        new WatchedEvent(EventType.NodeChildrenChanged, KeeperState.SyncConnected, PATH));
+    watcher.getValue().process(new WatchedEvent(EventType.NodeDataChanged,
+        KeeperState.SyncConnected, PATH + "/" + TX1));
+
+    assertEquals(2L, store.reserve());
+    store.unreserve(2L, 0);
+
+    // the first transaction is read again and skipped, the second is still cached
+    assertEquals(2L, store.reserve());
+    store.unreserve(2L, 0);
+
+    verify(zk);
+  }
+
+  @Test
+  public void testPushPop() throws Exception {
+    String txpath = PATH + "/" + TX1;
+    expect(zk.getChildren(txpath)).andReturn(Collections.emptyList());
+    expect(zk.putPersistentSequential(eq(txpath + "/repo_"), anyObject(byte[].class)))
+        .andReturn(txpath + "/repo_0000000000").andReturn(txpath + "/repo_0000000001");
+    expect(zk.getData(eq(txpath + "/repo_0000000001"), anyObject()))
+        .andReturn(serialize(new TestRepo("second")));
+    zk.delete(txpath + "/repo_0000000001", -1);
+    expectLastCall();
+    expect(zk.getData(eq(txpath + "/repo_0000000000"), anyObject()))
+        .andReturn(serialize(new TestRepo("first")));
+    zk.delete(txpath + "/repo_0000000000", -1);
+    expectLastCall();
+    replay(zk);
+
+    ZooStore<String> store = new ZooStore<>(PATH, zk);
+    store.reserve(1L);
+
+    // the stack is listed once for the reservation, then kept up to date by push and pop
+    store.push(1L, new TestRepo("first"));
+    store.push(1L, new TestRepo("second"));
+    assertEquals("second", store.top(1L).getDescription());
+    store.pop(1L);
+    assertEquals("first", store.top(1L).getDescription());
+    store.pop(1L);
+    assertNull(store.top(1L));
+
+    store.unreserve(1L, 0);
+
+    verify(zk);
+  }
+}
@@ -28,6 +28,7 @@ import static org.apache.accumulo.hadoopImpl.mapred.InputFormatBase.setOfflineTa
 import static org.apache.accumulo.hadoopImpl.mapred.InputFormatBase.setRanges;
 import static org.apache.accumulo.hadoopImpl.mapred.InputFormatBase.setSamplerConfiguration;
 import static org.apache.accumulo.hadoopImpl.mapred.InputFormatBase.setScanIsolation;
+import static org.apache.accumulo.hadoopImpl.mapred.InputFormatBase.setSplitSize;
 
 import java.io.IOException;
 import java.util.Map.Entry;
@@ -138,5 +139,7 @@ public class AccumuloInputFormat implements InputFormat<Key,Value> {
     setLocalIterators(job, info.isLocalIterators());
     setOfflineTableScan(job, info.isOfflineScan());
     setBatchScan(job, info.isBatchScan());
+    if (info.getSplitSize() > 0)
+      setSplitSize(job, info.getSplitSize());
   }
 }
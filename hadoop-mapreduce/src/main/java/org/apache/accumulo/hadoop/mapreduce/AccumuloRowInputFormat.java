@@ -28,6 +28,7 @@ import static org.apache.accumulo.hadoopImpl.mapreduce.InputFormatBase.setOfflin
 import static org.apache.accumulo.hadoopImpl.mapreduce.InputFormatBase.setRanges;
 import static org.apache.accumulo.hadoopImpl.mapreduce.InputFormatBase.setSamplerConfiguration;
 import static org.apache.accumulo.hadoopImpl.mapreduce.InputFormatBase.setScanIsolation;
+import static org.apache.accumulo.hadoopImpl.mapreduce.InputFormatBase.setSplitSize;
 
 import java.io.IOException;
 import java.util.List;
@@ -134,5 +135,7 @@ public class AccumuloRowInputFormat extends InputFormat<Text,PeekingIterator<Ent
     setLocalIterators(job, info.isLocalIterators());
     setOfflineTableScan(job, info.isOfflineScan());
     setBatchScan(job, info.isBatchScan());
+    if (info.getSplitSize() > 0)
+      setSplitSize(job, info.getSplitSize());
   }
 }
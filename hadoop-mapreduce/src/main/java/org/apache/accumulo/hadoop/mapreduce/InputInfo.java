@@ -120,6 +120,11 @@ public interface InputInfo {
    */
   boolean isBatchScan();
 
+  /**
+   * @return the split size set using InputInfo.builder()...splitSize(bytes), or 0 if not set
+   */
+  long getSplitSize();
+
   /**
    * Builder starting point for map reduce input format information.
    */
@@ -288,6 +293,21 @@ public interface InputInfo {
        */
       InputFormatOptions disableAutoAdjustRanges();
 
+      /**
+       * Balances the work of map tasks by the size of the data they read. Tablets holding more than
+       * the given number of bytes are divided at rows taken from the indexes of their files, and
+       * adjacent tablets holding less are combined into one input split. Sizes are taken from the
+       * tablet files recorded in the metadata table, so dividing tablets requires read access to
+       * the table's files in HDFS. Without it, large tablets are not divided. This has no effect
+       * when ranges are not automatically adjusted or when the BatchScanner is used.
+       * <p>
+       * By default, one input split is created per tablet.
+       *
+       * @param splitSize
+       *          the number of bytes each input split should read
+       */
+      InputFormatOptions splitSize(long splitSize);
+
       /**
        * Enables the use of the {@link IsolatedScanner} in this job.
        * <p>
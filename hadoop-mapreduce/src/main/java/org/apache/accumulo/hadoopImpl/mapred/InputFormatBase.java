@@ -294,6 +294,24 @@ public abstract class InputFormatBase extends AbstractInputFormat {
     return InputConfigurator.isBatchScan(CLASS, job);
   }
 
+  /**
+   * Sets the number of bytes each input split should read, so that map tasks do similar amounts of
+   * work. Large tablets are divided and adjacent small tablets are combined, using the sizes of
+   * their files. This only applies when ranges are automatically adjusted and the BatchScanner is
+   * not used.
+   * <p>
+   * By default, this feature is <b>disabled</b> and one split is created per tablet.
+   *
+   * @param job
+   *          the Hadoop job instance to be configured
+   * @param splitSize
+   *          the number of bytes each split should read, or 0 to disable
+   * @since 2.0.0
+   */
+  public static void setSplitSize(JobConf job, long splitSize) {
+    InputConfigurator.setSplitSize(CLASS, job, splitSize);
+  }
+
   /**
    * Causes input format to read sample data. If sample data was created using a different
    * configuration or a tables sampler configuration changes while reading data, then the input
@@ -539,6 +539,10 @@ public abstract class AbstractInputFormat {
       if (!autoAdjust)
         splitsToAdd = new HashMap<>();
 
+      // ranges to divide and combine by size, when enabled
+      long splitSize = InputConfigurator.getSplitSize(CLASS, context.getConfiguration());
+      List<SplitBalancer.TabletRange> tabletRanges = new ArrayList<>();
+
       HashMap<String,String> hostNameCache = new HashMap<>();
       for (Map.Entry<String,Map<KeyExtent,List<Range>>> tserverBin : binnedRanges.entrySet()) {
         String ip = tserverBin.getKey().split(":", 2)[0];
@@ -563,7 +567,10 @@ public abstract class AbstractInputFormat {
           } else {
             // not grouping by tablet
             for (Range r : extentRanges.getValue()) {
-              if (autoAdjust) {
+              if (autoAdjust && splitSize > 0) {
+                tabletRanges.add(new SplitBalancer.TabletRange(extentRanges.getKey(), ke.clip(r),
+                    location));
+              } else if (autoAdjust) {
                 // divide ranges into smaller ranges, based on the tablets
                 RangeInputSplit split = new RangeInputSplit(tableName, tableId.canonicalID(),
                     ke.clip(r), new String[] {location});
@@ -585,6 +592,21 @@ public abstract class AbstractInputFormat {
         }
       }
 
+      if (!tabletRanges.isEmpty()) {
+        SplitBalancer balancer = SplitBalancer.create(clientContext, tableId, tableName,
+            context.getConfiguration(), splitSize);
+        for (SplitBalancer.BalancedRange br : balancer.balance(tabletRanges)) {
+          RangeInputSplit split = new RangeInputSplit(tableName, tableId.canonicalID(), br.range,
+              br.locations);
+          SplitUtils.updateSplit(split, tableConfig);
+          split.setOffline(tableConfig.isOfflineScan());
+          split.setIsolatedScan(tableConfig.shouldUseIsolatedScanners());
+          split.setUsesLocalIterators(tableConfig.shouldUseLocalIterators());
+          split.setLength(br.length);
+          splits.add(split);
+        }
+      }
+
       if (!autoAdjust)
         for (Map.Entry<Range,ArrayList<String>> entry : splitsToAdd.entrySet()) {
           RangeInputSplit split = new RangeInputSplit(tableName, tableId.canonicalID(),
@@ -46,12 +46,13 @@ public class InputInfoImpl implements InputInfo {
   Optional<SamplerConfiguration> samplerConfig;
   Map<String,String> hints;
   InputInfoBooleans bools;
+  long splitSize;
 
   public InputInfoImpl(String tableName, ClientInfo clientInfo, Authorizations scanAuths,
       Optional<String> context, Collection<Range> ranges,
       Collection<IteratorSetting.Column> fetchColumns, Map<String,IteratorSetting> iterators,
       Optional<SamplerConfiguration> samplerConfig, Map<String,String> hints,
-      InputInfoBooleans bools) {
+      InputInfoBooleans bools, long splitSize) {
     this.tableName = tableName;
     this.clientInfo = clientInfo;
     this.scanAuths = scanAuths;
@@ -62,6 +63,7 @@ public class InputInfoImpl implements InputInfo {
     this.samplerConfig = samplerConfig;
     this.hints = hints;
     this.bools = bools;
+    this.splitSize = splitSize;
   }
 
   @Override
@@ -133,6 +135,11 @@ public class InputInfoImpl implements InputInfo {
     return bools.batchScan;
   }
 
+  @Override
+  public long getSplitSize() {
+    return splitSize;
+  }
+
   private static class InputInfoBooleans {
     boolean autoAdjustRanges = true;
     boolean scanIsolation = false;
@@ -157,6 +164,7 @@ public class InputInfoImpl implements InputInfo {
     Optional<SamplerConfiguration> samplerConfig = Optional.empty();
     Map<String,String> hints = Collections.emptyMap();
     InputInfoBooleans bools = new InputInfoBooleans();
+    long splitSize = 0;
 
     @Override
     public InputInfoBuilder.TableParams clientInfo(ClientInfo clientInfo) {
@@ -233,6 +241,14 @@ public class InputInfoImpl implements InputInfo {
       return this;
     }
 
+    @Override
+    public InputFormatOptions splitSize(long splitSize) {
+      if (splitSize <= 0)
+        throw new IllegalArgumentException("Split size must be positive.");
+      this.splitSize = splitSize;
+      return this;
+    }
+
     @Override
     public ScanOptions scanIsolation() {
       bools.scanIsolation = true;
@@ -261,7 +277,7 @@ public class InputInfoImpl implements InputInfo {
     @Override
     public InputInfo build() {
       return new InputInfoImpl(tableName, clientInfo, scanAuths, context, ranges, fetchColumns,
-          iterators, samplerConfig, hints, bools);
+          iterators, samplerConfig, hints, bools, splitSize);
     }
   }
 }
@@ -52,6 +52,7 @@ public class RangeInputSplit extends InputSplit implements Writable {
   private List<IteratorSetting> iterators;
   private SamplerConfiguration samplerConfig;
   private Map<String,String> executionHints;
+  private long length = -1;
 
   public RangeInputSplit() {
     range = new Range();
@@ -109,11 +110,21 @@ public class RangeInputSplit extends InputSplit implements Writable {
 
   /**
    * This implementation of length is only an estimate, it does not provide exact values. Do not
-   * have your code rely on this return value.
+   * have your code rely on this return value. When splits are balanced by size, this is the
+   * estimated number of bytes the split will read, otherwise it is derived from the rows of the
+   * range.
    */
   @Override
   public long getLength() throws IOException {
-    return SplitUtils.getRangeLength(range);
+    return length >= 0 ? length : SplitUtils.getRangeLength(range);
+  }
+
+  /**
+   * Sets the estimated number of bytes this split will read, or -1 to derive the length from the
+   * range.
+   */
+  public void setLength(long length) {
+    this.length = length;
   }
 
   @Override
@@ -172,6 +183,8 @@ public class RangeInputSplit extends InputSplit implements Writable {
       String v = in.readUTF();
       executionHints.put(k, v);
     }
+
+    length = in.readLong();
   }
 
   @Override
@@ -229,6 +242,8 @@ public class RangeInputSplit extends InputSplit implements Writable {
         out.writeUTF(entry.getValue());
       }
     }
+
+    out.writeLong(length);
   }
 
   public String getTableName() {
@@ -316,6 +331,7 @@ public class RangeInputSplit extends InputSplit implements Writable {
     sb.append(" iterators: ").append(iterators);
     sb.append(" samplerConfig: ").append(samplerConfig);
     sb.append(" executionHints: ").append(executionHints);
+    sb.append(" length: ").append(length);
     return sb.toString();
   }
 
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.hadoopImpl.mapreduce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.accumulo.core.clientImpl.ClientContext;
+import org.apache.accumulo.core.clientImpl.Table;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.core.metadata.schema.MetadataScanner;
+import org.apache.accumulo.core.metadata.schema.TabletMetadata;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Divides the ranges of large tablets and combines the ranges of adjacent small tablets, so that
+ * each input split reads about the same number of bytes.
+ *
+ * <p>
+ * The size of a tablet is the sum of the sizes of its files in the metadata table. Large tablets
+ * are divided at rows from the indexes of their files, each index entry standing for an equal
+ * share of its file's size. Splits never divide a row.
+ */
+public class SplitBalancer {
+  private static final Logger log = LoggerFactory.getLogger(SplitBalancer.class);
+
+  /**
+   * A range clipped to a tablet, and the location of the tablet.
+   */
+  public static class TabletRange {
+    final KeyExtent extent;
+    final Range range;
+    final String location;
+
+    public TabletRange(KeyExtent extent, Range range, String location) {
+      this.extent = extent;
+      this.range = range;
+      this.location = location;
+    }
+  }
+
+  /**
+   * A range to read in one split, the locations of the tablets it covers and the estimated number
+   * of bytes it will read, or -1 if unknown.
+   */
+  public static class BalancedRange {
+    public final Range range;
+    public final String[] locations;
+    public final long length;
+
+    BalancedRange(Range range, String[] locations, long length) {
+      this.range = range;
+      this.locations = locations;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Reads the rows of the index entries of a file.
+   */
+  interface IndexReader {
+    List<Text> readIndexRows(String file) throws IOException;
+  }
+
+  private final long splitSize;
+  private final Map<KeyExtent,Map<String,DataFileValue>> tabletFiles;
+  private final IndexReader indexReader;
+
+  SplitBalancer(long splitSize, Map<KeyExtent,Map<String,DataFileValue>> tabletFiles,
+      IndexReader indexReader) {
+    this.splitSize = splitSize;
+    this.tabletFiles = tabletFiles;
+    this.indexReader = indexReader;
+  }
+
+  /**
+   * Creates a balancer for a table, reading the files of its tablets from the metadata table.
+   */
+  public static SplitBalancer create(ClientContext context, Table.ID tableId, String tableName,
+      Configuration conf, long splitSize) throws IOException {
+    Map<KeyExtent,Map<String,DataFileValue>> tabletFiles = new HashMap<>();
+    AccumuloConfiguration tableConfig;
+    try (MetadataScanner scanner = MetadataScanner.builder().from(context).scanMetadataTable()
+        .overRange(tableId).fetchFiles().fetchPrev().build()) {
+      for (TabletMetadata tablet : scanner) {
+        tabletFiles.put(tablet.getExtent(), tablet.getFilesMap());
+      }
+      tableConfig = new ConfigurationCopy(
+          context.getClient().tableOperations().getProperties(tableName));
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+
+    IndexReader indexReader = file -> {
+      // files with old style relative paths can not be resolved here, so are not divided
+      if (!file.contains(":")) {
+        throw new IOException("Unable to resolve relative path " + file);
+      }
+      FileSystem fs = new Path(file).getFileSystem(conf);
+      List<Text> rows = new ArrayList<>();
+      FileSKVIterator index = FileOperations.getInstance().newIndexReaderBuilder()
+          .forFile(file, fs, fs.getConf()).withTableConfiguration(tableConfig).build();
+      try {
+        while (index.hasTop()) {
+          rows.add(index.getTopKey().getRow());
+          index.next();
+        }
+      } finally {
+        index.close();
+      }
+      return rows;
+    };
+
+    return new SplitBalancer(splitSize, tabletFiles, indexReader);
+  }
+
+  /**
+   * @return the ranges to create splits for, sorted by range
+   */
+  public List<BalancedRange> balance(List<TabletRange> tabletRanges) {
+    List<TabletRange> sorted = new ArrayList<>(tabletRanges);
+    sorted.sort((tr1, tr2) -> tr1.range.compareTo(tr2.range));
+
+    List<BalancedRange> balanced = new ArrayList<>();
+
+    // adjacent small ranges waiting to be combined
+    List<TabletRange> group = new ArrayList<>();
+    long groupSize = 0;
+
+    for (TabletRange tr : sorted) {
+      Map<String,DataFileValue> files = tabletFiles.get(tr.extent);
+      if (files == null) {
+        // the tablet changed since the ranges were binned, so its size is unknown
+        flush(group, groupSize, balanced);
+        groupSize = 0;
+        balanced.add(new BalancedRange(tr.range, new String[] {tr.location}, -1));
+        continue;
+      }
+
+      long size = 0;
+      for (DataFileValue dfv : files.values()) {
+        size += dfv.getSize();
+      }
+
+      if (size > splitSize) {
+        flush(group, groupSize, balanced);
+        groupSize = 0;
+        divide(tr, files, size, balanced);
+        continue;
+      }
+
+      if (!group.isEmpty()
+          && (groupSize + size > splitSize || !adjacent(group.get(group.size() - 1), tr))) {
+        flush(group, groupSize, balanced);
+        groupSize = 0;
+      }
+      group.add(tr);
+      groupSize += size;
+    }
+    flush(group, groupSize, balanced);
+
+    return balanced;
+  }
+
+  private static boolean adjacent(TabletRange tr1, TabletRange tr2) {
+    Range r1 = tr1.range;
+    Range r2 = tr2.range;
+    return !r1.isInfiniteStopKey() && !r2.isInfiniteStartKey()
+        && r1.getEndKey().equals(r2.getStartKey())
+        && (r1.isEndKeyInclusive() || r2.isStartKeyInclusive());
+  }
+
+  private static void flush(List<TabletRange> group, long groupSize,
+      List<BalancedRange> balanced) {
+    if (group.isEmpty()) {
+      return;
+    }
+
+    Range first = group.get(0).range;
+    Range last = group.get(group.size() - 1).range;
+    Range range = group.size() == 1 ? first
+        : new Range(first.getStartKey(), first.isStartKeyInclusive(), last.getEndKey(),
+            last.isEndKeyInclusive());
+
+    Set<String> locations = new LinkedHashSet<>();
+    for (TabletRange tr : group) {
+      locations.add(tr.location);
+    }
+
+    balanced.add(new BalancedRange(range, locations.toArray(new String[0]), groupSize));
+    group.clear();
+  }
+
+  /**
+   * Divides the range of a large tablet at rows from the indexes of its files.
+   */
+  private void divide(TabletRange tr, Map<String,DataFileValue> files, long tabletSize,
+      List<BalancedRange> balanced) {
+    Range tabletRange = tr.extent.toDataRange();
+
+    // the rows of the index entries in the range, and the bytes each stands for
+    List<Text> rows = new ArrayList<>();
+    List<Long> weights = new ArrayList<>();
+    try {
+      for (Entry<String,DataFileValue> file : files.entrySet()) {
+        List<Text> inTablet = new ArrayList<>();
+        for (Text row : indexReader.readIndexRows(file.getKey())) {
+          if (tabletRange.contains(new Key(row))) {
+            inTablet.add(row);
+          }
+        }
+        long weight = file.getValue().getSize() / Math.max(1, inTablet.size());
+        for (Text row : inTablet) {
+          if (tr.range.contains(new Key(row))) {
+            rows.add(row);
+            weights.add(weight);
+          }
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.debug("Unable to read the index of the files of {}, not dividing it", tr.extent, e);
+      balanced.add(new BalancedRange(tr.range, new String[] {tr.location}, tabletSize));
+      return;
+    }
+
+    // sort the rows of all the files together
+    List<Integer> order = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      order.add(i);
+    }
+    order.sort((i1, i2) -> rows.get(i1).compareTo(rows.get(i2)));
+
+    long rangeSize = 0;
+    for (long weight : weights) {
+      rangeSize += weight;
+    }
+    if (rows.isEmpty()) {
+      rangeSize = tabletSize;
+    }
+
+    int pieces = (int) Math.min(rows.size() + 1, (rangeSize + splitSize - 1) / splitSize);
+    long target = rangeSize / Math.max(1, pieces);
+
+    // cut after the last index entry of a row, never after the last row so the rest of the range
+    // is always covered
+    Text prevCut = null;
+    long pieceSize = 0;
+    int cuts = 0;
+    for (int j = 0; j < order.size(); j++) {
+      Text row = rows.get(order.get(j));
+      pieceSize += weights.get(order.get(j));
+      boolean lastOfRow = j + 1 < order.size() && !rows.get(order.get(j + 1)).equals(row);
+      if (lastOfRow && cuts < pieces - 1 && pieceSize >= target) {
+        addPiece(tr, prevCut, row, pieceSize, balanced);
+        prevCut = row;
+        pieceSize = 0;
+        cuts++;
+      }
+    }
+
+    if (prevCut == null) {
+      balanced.add(new BalancedRange(tr.range, new String[] {tr.location}, rangeSize));
+    } else {
+      addPiece(tr, prevCut, null, pieceSize, balanced);
+    }
+  }
+
+  /**
+   * Adds the part of a tablet range with rows after start and up to and including end.
+   */
+  private static void addPiece(TabletRange tr, Text start, Text end, long size,
+      List<BalancedRange> balanced) {
+    Range piece = tr.range.clip(new Range(start, false, end, true), true);
+    if (piece != null) {
+      balanced.add(new BalancedRange(piece, new String[] {tr.location}, size));
+    }
+  }
+}
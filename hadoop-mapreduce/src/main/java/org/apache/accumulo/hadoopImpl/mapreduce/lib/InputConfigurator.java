@@ -109,7 +109,8 @@ public class InputConfigurator extends ConfiguratorBase {
     USE_LOCAL_ITERATORS,
     SCAN_OFFLINE,
     BATCH_SCANNER,
-    BATCH_SCANNER_THREADS
+    BATCH_SCANNER_THREADS,
+    SPLIT_SIZE
   }
 
   /**
@@ -596,6 +597,44 @@ public class InputConfigurator extends ConfiguratorBase {
     return conf.getBoolean(enumToConfKey(implementingClass, Features.BATCH_SCANNER), false);
   }
 
+  /**
+   * Sets the number of bytes each input split should read. Tablets larger than this are divided
+   * at rows taken from the indexes of their files, and adjacent tablets smaller than this are
+   * combined into one split, using the sizes of the tablet files recorded in the metadata table.
+   * This only applies when ranges are automatically adjusted and the BatchScanner is not used.
+   *
+   * <p>
+   * By default, this feature is <b>disabled</b> and one split is created per tablet.
+   *
+   * @param implementingClass
+   *          the class whose name will be used as a prefix for the property configuration key
+   * @param conf
+   *          the Hadoop configuration object to configure
+   * @param splitSize
+   *          the number of bytes each split should read, or 0 to disable
+   * @since 2.0.0
+   */
+  public static void setSplitSize(Class<?> implementingClass, Configuration conf,
+      long splitSize) {
+    checkArgument(splitSize >= 0, "Split size must be non-negative");
+    conf.setLong(enumToConfKey(implementingClass, Features.SPLIT_SIZE), splitSize);
+  }
+
+  /**
+   * Gets the number of bytes each input split should read.
+   *
+   * @param implementingClass
+   *          the class whose name will be used as a prefix for the property configuration key
+   * @param conf
+   *          the Hadoop configuration object to configure
+   * @return the split size, or 0 if splits are not balanced by size
+   * @since 2.0.0
+   * @see #setSplitSize(Class, Configuration, long)
+   */
+  public static long getSplitSize(Class<?> implementingClass, Configuration conf) {
+    return conf.getLong(enumToConfKey(implementingClass, Features.SPLIT_SIZE), 0);
+  }
+
   /**
    * Sets configurations for multiple tables at a time.
    *
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.hadoopImpl.mapreduce;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.clientImpl.Table;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.hadoopImpl.mapreduce.SplitBalancer.BalancedRange;
+import org.apache.accumulo.hadoopImpl.mapreduce.SplitBalancer.TabletRange;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class SplitBalancerTest {
+
+  private static final Table.ID TABLE = Table.ID.of("1");
+
+  private static KeyExtent extent(String end, String prev) {
+    return new KeyExtent(TABLE, end == null ? null : new Text(end),
+        prev == null ? null : new Text(prev));
+  }
+
+  private static TabletRange tablet(KeyExtent extent, String location) {
+    return new TabletRange(extent, extent.toDataRange(), location);
+  }
+
+  private static List<Text> rows(String... rows) {
+    List<Text> list = new ArrayList<>();
+    for (String row : rows) {
+      list.add(new Text(row));
+    }
+    return list;
+  }
+
+  @Test
+  public void testCombine() {
+    KeyExtent e1 = extent("b", null);
+    KeyExtent e2 = extent("d", "b");
+    KeyExtent e3 = extent("f", "d");
+    KeyExtent e4 = extent(null, "f");
+
+    Map<KeyExtent,Map<String,DataFileValue>> files = new HashMap<>();
+    files.put(e1, ImmutableMap.of("f1", new DataFileValue(10, 1)));
+    files.put(e2, ImmutableMap.of("f2", new DataFileValue(5, 1), "f3", new DataFileValue(5, 1)));
+    files.put(e3, ImmutableMap.of("f4", new DataFileValue(10, 1)));
+    files.put(e4, ImmutableMap.of());
+
+    SplitBalancer balancer = new SplitBalancer(25, files, file -> {
+      throw new IOException("small tablets should not be divided");
+    });
+
+    // given out of order, as binned by location
+    List<BalancedRange> balanced = balancer.balance(Arrays.asList(tablet(e3, "host2"),
+        tablet(e1, "host1"), tablet(e4, "host1"), tablet(e2, "host2")));
+
+    assertEquals(2, balanced.size());
+    assertEquals(new Range(null, new Text("d")), balanced.get(0).range);
+    assertArrayEquals(new String[] {"host1", "host2"}, balanced.get(0).locations);
+    assertEquals(20, balanced.get(0).length);
+    assertEquals(new Range(new Text("d"), false, null, true), balanced.get(1).range);
+    assertArrayEquals(new String[] {"host2", "host1"}, balanced.get(1).locations);
+    assertEquals(10, balanced.get(1).length);
+  }
+
+  @Test
+  public void testNotAdjacent() {
+    KeyExtent e1 = extent("b", null);
+    KeyExtent e2 = extent(null, "b");
+
+    Map<KeyExtent,Map<String,DataFileValue>> files = new HashMap<>();
+    files.put(e1, ImmutableMap.of("f1", new DataFileValue(10, 1)));
+    files.put(e2, ImmutableMap.of("f2", new DataFileValue(10, 1)));
+
+    SplitBalancer balancer = new SplitBalancer(100, files, file -> rows());
+
+    // ranges with a gap between them are not combined
+    Range r1 = new Range("a");
+    Range r2 = new Range("c");
+    List<BalancedRange> balanced = balancer.balance(Arrays
+        .asList(new TabletRange(e1, r1, "host1"), new TabletRange(e2, r2, "host1")));
+    assertEquals(2, balanced.size());
+    assertEquals(r1, balanced.get(0).range);
+    assertEquals(r2, balanced.get(1).range);
+  }
+
+  @Test
+  public void testDivide() {
+    KeyExtent e1 = extent("m", null);
+
+    // the index of f2 has rows outside of the tablet, which it shares with another tablet
+    Map<KeyExtent,Map<String,DataFileValue>> files = new HashMap<>();
+    files.put(e1, ImmutableMap.of("f1", new DataFileValue(600, 100), "f2",
+        new DataFileValue(300, 100)));
+    Map<String,List<Text>> indexes = ImmutableMap.of("f1", rows("a", "c", "e", "g", "i", "k"),
+        "f2", rows("b", "d", "f", "n", "p"));
+
+    SplitBalancer balancer = new SplitBalancer(300, files, indexes::get);
+    List<BalancedRange> balanced = balancer.balance(Arrays.asList(tablet(e1, "host1")));
+
+    // each row of f1 stands for 100 bytes and each row of f2 for 100 bytes
+    assertEquals(3, balanced.size());
+    assertEquals(new Range(null, new Text("c")), balanced.get(0).range);
+    assertEquals(new Range(new Text("c"), false, new Text("f"), true), balanced.get(1).range);
+    assertEquals(new Range(new Text("f"), false, new Text("m"), true), balanced.get(2).range);
+
+    long total = 0;
+    for (BalancedRange br : balanced) {
+      assertArrayEquals(new String[] {"host1"}, br.locations);
+      assertEquals(300, br.length);
+      total += br.length;
+    }
+    assertEquals(900, total);
+  }
+
+  @Test
+  public void testDivideSameRow() {
+    KeyExtent e1 = extent(null, null);
+
+    Map<KeyExtent,Map<String,DataFileValue>> files = new HashMap<>();
+    files.put(e1, ImmutableMap.of("f1", new DataFileValue(1000, 100)));
+
+    // one very large row is never divided
+    SplitBalancer balancer = new SplitBalancer(100, files,
+        file -> rows("a", "a", "a", "a", "a", "a", "a", "a", "a", "a"));
+    List<BalancedRange> balanced = balancer.balance(Arrays.asList(tablet(e1, "host1")));
+
+    assertEquals(1, balanced.size());
+    assertEquals(new Range(), balanced.get(0).range);
+    assertEquals(1000, balanced.get(0).length);
+  }
+
+  @Test
+  public void testIndexNotReadable() {
+    KeyExtent e1 = extent(null, null);
+
+    Map<KeyExtent,Map<String,DataFileValue>> files = new HashMap<>();
+    files.put(e1, ImmutableMap.of("f1", new DataFileValue(1000, 100)));
+
+    SplitBalancer balancer = new SplitBalancer(100, files, file -> {
+      throw new IOException("permission denied");
+    });
+    List<BalancedRange> balanced = balancer.balance(Arrays.asList(tablet(e1, "host1")));
+
+    assertEquals(1, balanced.size());
+    assertEquals(new Range(), balanced.get(0).range);
+    assertEquals(1000, balanced.get(0).length);
+  }
+
+  @Test
+  public void testUnknownTablet() {
+    KeyExtent e1 = extent("b", null);
+    KeyExtent e2 = extent(null, "b");
+
+    Map<KeyExtent,Map<String,DataFileValue>> files = new HashMap<>();
+    files.put(e1, ImmutableMap.of("f1", new DataFileValue(10, 1)));
+
+    SplitBalancer balancer = new SplitBalancer(100, files, file -> rows());
+    List<BalancedRange> balanced = balancer
+        .balance(Arrays.asList(tablet(e1, "host1"), tablet(e2, "host2")));
+
+    assertEquals(2, balanced.size());
+    assertEquals(10, balanced.get(0).length);
+    assertEquals(-1, balanced.get(1).length);
+  }
+}
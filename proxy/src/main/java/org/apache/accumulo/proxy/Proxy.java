@@ -69,6 +69,11 @@ public class Proxy implements KeywordExecutable {
   public static final String THRIFT_THREAD_POOL_SIZE_DEFAULT = "5";
   public static final String THRIFT_MAX_FRAME_SIZE_KEY = "maxFrameSize";
   public static final String THRIFT_MAX_FRAME_SIZE_DEFAULT = "16M";
+  // Threads shared by all batch scanners to run their queries
+  // each batch scanner uses at most a quarter of them, and runs on threads of its own when all
+  // are busy
+  public static final String BATCH_SCANNER_THREADS_KEY = "batchScannerThreads";
+  public static final String BATCH_SCANNER_THREADS_DEFAULT = "64";
 
   // Type of thrift server to create
   public static final String THRIFT_SERVER_TYPE = "thriftServerType";
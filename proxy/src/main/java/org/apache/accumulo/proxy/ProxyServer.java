@@ -19,9 +19,11 @@ package org.apache.accumulo.proxy;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,6 +37,10 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.AccumuloClient;
@@ -64,6 +70,7 @@ import org.apache.accumulo.core.client.admin.TimeType;
 import org.apache.accumulo.core.client.security.SecurityErrorCode;
 import org.apache.accumulo.core.client.security.tokens.AuthenticationToken;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.clientImpl.AccumuloClientImpl;
 import org.apache.accumulo.core.clientImpl.ClientConfConverter;
 import org.apache.accumulo.core.clientImpl.ConnectorImpl;
 import org.apache.accumulo.core.clientImpl.Credentials;
@@ -85,6 +92,9 @@ import org.apache.accumulo.core.security.NamespacePermission;
 import org.apache.accumulo.core.security.SystemPermission;
 import org.apache.accumulo.core.security.TablePermission;
 import org.apache.accumulo.core.util.ByteBufferUtil;
+import org.apache.accumulo.core.util.NamingThreadFactory;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.core.util.SimpleThreadPool;
 import org.apache.accumulo.core.util.TextUtil;
 import org.apache.accumulo.proxy.thrift.AccumuloProxy;
 import org.apache.accumulo.proxy.thrift.BatchScanOptions;
@@ -116,10 +126,12 @@ import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * Proxy Server exposing the Accumulo API via Thrift..
@@ -136,14 +148,81 @@ public class ProxyServer implements AccumuloProxy.Iface {
 
   protected Class<? extends AuthenticationToken> tokenClass;
 
+  /**
+   * A cached client. It is closed once it is no longer cached and the scanners and writers created
+   * from it are closed.
+   */
+  static class SharedClient {
+    final AccumuloClient client;
+    private int users = 0;
+    private boolean removed = false;
+    private boolean closed = false;
+
+    SharedClient(AccumuloClient client) {
+      this.client = client;
+    }
+
+    /**
+     * Called for each scanner or writer created from the client, which must call
+     * {@link #release()} once it is closed.
+     *
+     * @return false if the client was already closed, because it was evicted and not in use
+     */
+    synchronized boolean acquire() {
+      if (closed) {
+        return false;
+      }
+      users++;
+      return true;
+    }
+
+    synchronized void release() {
+      users--;
+      closeIfUnused();
+    }
+
+    synchronized void remove() {
+      removed = true;
+      closeIfUnused();
+    }
+
+    private void closeIfUnused() {
+      if (removed && users == 0 && !closed) {
+        closed = true;
+        client.close();
+      }
+    }
+  }
+
+  static class CloseClient implements RemovalListener<String,SharedClient> {
+    @Override
+    public void onRemoval(RemovalNotification<String,SharedClient> notification) {
+      notification.getValue().remove();
+    }
+  }
+
   protected static class ScannerPlusIterator {
     public ScannerBase scanner;
     public Iterator<Map.Entry<Key,Value>> iterator;
+    SharedClient client;
   }
 
   protected static class BatchWriterPlusProblem {
     public BatchWriter writer;
     public MutationsRejectedException exception = null;
+    SharedClient client;
+
+    void releaseClient() {
+      if (client != null) {
+        client.release();
+        client = null;
+      }
+    }
+  }
+
+  protected static class ConditionalWriterPlusClient {
+    public ConditionalWriter writer;
+    SharedClient client;
   }
 
   static class CloseWriter implements RemovalListener<UUID,BatchWriterPlusProblem> {
@@ -156,6 +235,8 @@ public class ProxyServer implements AccumuloProxy.Iface {
         notification.getValue().writer.close();
       } catch (MutationsRejectedException e) {
         logger.warn("MutationsRejectedException", e);
+      } finally {
+        notification.getValue().releaseClient();
       }
     }
 
@@ -170,21 +251,91 @@ public class ProxyServer implements AccumuloProxy.Iface {
         final BatchScanner scanner = (BatchScanner) base;
         scanner.close();
       }
+      if (notification.getValue().client != null) {
+        notification.getValue().client.release();
+      }
     }
 
     public CloseScanner() {}
   }
 
-  public static class CloseConditionalWriter implements RemovalListener<UUID,ConditionalWriter> {
+  /**
+   * Batch writers with the default configuration for a login and table, that are not in use. Each
+   * is used by one request at a time, so that an error from one request is not seen by another.
+   */
+  static class IdleWriters {
+    private static final int MAX_IDLE = 4;
+
+    // the client the writers are created from
+    final SharedClient client;
+    private final Deque<BatchWriter> writers = new ArrayDeque<>();
+    private boolean closed = false;
+
+    IdleWriters(SharedClient client) {
+      this.client = client;
+    }
+
+    synchronized BatchWriter poll() {
+      return writers.poll();
+    }
+
+    /**
+     * @return false if the writer was not kept, and should be closed
+     */
+    synchronized boolean offer(BatchWriter writer) {
+      if (closed || writers.size() >= MAX_IDLE) {
+        return false;
+      }
+      writers.push(writer);
+      return true;
+    }
+
+    synchronized void close() {
+      closed = true;
+      for (BatchWriter writer : writers) {
+        try {
+          writer.close();
+        } catch (MutationsRejectedException e) {
+          logger.warn("MutationsRejectedException", e);
+        }
+      }
+      writers.clear();
+      if (client != null) {
+        client.release();
+      }
+    }
+  }
+
+  static class CloseIdleWriters implements RemovalListener<Pair<String,String>,IdleWriters> {
     @Override
-    public void onRemoval(RemovalNotification<UUID,ConditionalWriter> notification) {
+    public void onRemoval(RemovalNotification<Pair<String,String>,IdleWriters> notification) {
       notification.getValue().close();
     }
   }
 
+  public static class CloseConditionalWriter
+      implements RemovalListener<UUID,ConditionalWriterPlusClient> {
+    @Override
+    public void onRemoval(RemovalNotification<UUID,ConditionalWriterPlusClient> notification) {
+      try {
+        notification.getValue().writer.close();
+      } finally {
+        notification.getValue().client.release();
+      }
+    }
+  }
+
   protected Cache<UUID,ScannerPlusIterator> scannerCache;
   protected Cache<UUID,BatchWriterPlusProblem> writerCache;
-  protected Cache<UUID,ConditionalWriter> conditionalWriterCache;
+  protected Cache<UUID,ConditionalWriterPlusClient> conditionalWriterCache;
+  // clients by login, so that requests do not authenticate and create a client every time
+  protected Cache<String,SharedClient> clientCache;
+  protected Cache<Pair<String,String>,IdleWriters> idleWriterCache;
+  // runs the queries of all the batch scanners
+  protected ExecutorService batchScannerPool;
+  protected int batchScannerPoolThreads;
+  // starts the threads of batch scanners that find all the pool's threads busy
+  protected ThreadFactory batchScannerThreadFactory;
 
   private final ThriftServerType serverType;
 
@@ -219,10 +370,57 @@ public class ProxyServer implements AccumuloProxy.Iface {
 
     conditionalWriterCache = CacheBuilder.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
         .maximumSize(1000).removalListener(new CloseConditionalWriter()).build();
+
+    clientCache = CacheBuilder.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
+        .maximumSize(1000).removalListener(new CloseClient()).build();
+
+    idleWriterCache = CacheBuilder.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
+        .maximumSize(1000).removalListener(new CloseIdleWriters()).build();
+
+    batchScannerPoolThreads = Integer.parseInt(
+        props.getProperty(Proxy.BATCH_SCANNER_THREADS_KEY, Proxy.BATCH_SCANNER_THREADS_DEFAULT));
+    // no queue, when all the threads are busy a scanner starts threads of its own rather than
+    // waiting for threads that scanners whose clients stopped reading may hold until they expire
+    batchScannerPool = new SimpleThreadPool(batchScannerPoolThreads, "proxy batch scanner",
+        new SynchronousQueue<>());
+    batchScannerThreadFactory = new NamingThreadFactory("proxy batch scanner overflow");
   }
 
-  @SuppressWarnings("deprecation")
   protected AccumuloClient getConnector(ByteBuffer login) throws Exception {
+    return getSharedClient(login).client;
+  }
+
+  private SharedClient getSharedClient(ByteBuffer login) throws Exception {
+    try {
+      return clientCache.get(ByteBufferUtil.toString(login),
+          () -> new SharedClient(connect(login)));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      Throwables.throwIfInstanceOf(e.getCause(), Exception.class);
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the client of a login for a scanner or writer, which must {@link SharedClient#release()}
+   * it once it is closed.
+   */
+  private SharedClient acquireSharedClient(ByteBuffer login) throws Exception {
+    while (true) {
+      SharedClient client = getSharedClient(login);
+      // the client may have been evicted and closed since it was looked up, a closed client is no
+      // longer cached so the next lookup creates a new one
+      if (client.acquire()) {
+        return client;
+      }
+    }
+  }
+
+  /**
+   * Creates a client for a login, which checks its credentials.
+   */
+  @SuppressWarnings("deprecation")
+  private AccumuloClient connect(ByteBuffer login) throws Exception {
     String[] pair = ByteBufferUtil.toString(login).split(",", 2);
     if (instance.getInstanceID().equals(pair[0])) {
       Credentials creds = Credentials.deserialize(pair[1]);
@@ -1168,8 +1366,10 @@ public class ProxyServer implements AccumuloProxy.Iface {
       throws org.apache.accumulo.proxy.thrift.AccumuloException,
       org.apache.accumulo.proxy.thrift.AccumuloSecurityException,
       org.apache.accumulo.proxy.thrift.TableNotFoundException, TException {
+    SharedClient sharedClient = null;
     try {
-      AccumuloClient accumuloClient = getConnector(login);
+      sharedClient = acquireSharedClient(login);
+      AccumuloClient accumuloClient = sharedClient.client;
 
       Authorizations auth;
       if (opts != null && opts.isSetAuthorizations()) {
@@ -1209,9 +1409,13 @@ public class ProxyServer implements AccumuloProxy.Iface {
       ScannerPlusIterator spi = new ScannerPlusIterator();
       spi.scanner = scanner;
       spi.iterator = scanner.iterator();
+      spi.client = sharedClient;
       scannerCache.put(uuid, spi);
       return uuid.toString();
     } catch (Exception e) {
+      if (sharedClient != null) {
+        sharedClient.release();
+      }
       handleExceptionTNF(e);
       return null;
     }
@@ -1222,8 +1426,10 @@ public class ProxyServer implements AccumuloProxy.Iface {
       throws org.apache.accumulo.proxy.thrift.AccumuloException,
       org.apache.accumulo.proxy.thrift.AccumuloSecurityException,
       org.apache.accumulo.proxy.thrift.TableNotFoundException, TException {
+    SharedClient sharedClient = null;
     try {
-      AccumuloClient accumuloClient = getConnector(login);
+      sharedClient = acquireSharedClient(login);
+      AccumuloClient accumuloClient = sharedClient.client;
 
       int threads = 10;
       Authorizations auth;
@@ -1235,7 +1441,10 @@ public class ProxyServer implements AccumuloProxy.Iface {
       if (opts != null && opts.threads > 0)
         threads = opts.threads;
 
-      BatchScanner scanner = accumuloClient.createBatchScanner(tableName, auth, threads);
+      BatchScanner scanner = ((AccumuloClientImpl) accumuloClient).createBatchScanner(tableName,
+          auth, threads, new SharedExecutorView(batchScannerPool,
+              Math.max(1, Math.min(threads, batchScannerPoolThreads / 4)),
+              batchScannerThreadFactory));
 
       if (opts != null) {
         if (opts.iterators != null) {
@@ -1276,9 +1485,13 @@ public class ProxyServer implements AccumuloProxy.Iface {
       ScannerPlusIterator spi = new ScannerPlusIterator();
       spi.scanner = scanner;
       spi.iterator = scanner.iterator();
+      spi.client = sharedClient;
       scannerCache.put(uuid, spi);
       return uuid.toString();
     } catch (Exception e) {
+      if (sharedClient != null) {
+        sharedClient.release();
+      }
       handleExceptionTNF(e);
       return null;
     }
@@ -1329,7 +1542,7 @@ public class ProxyServer implements AccumuloProxy.Iface {
     // synchronized to prevent race conditions
     synchronized (batchScanner) {
       ScanResult ret = new ScanResult();
-      ret.setResults(new ArrayList<>());
+      ret.setResults(new ArrayList<>(Math.min(k, 1000)));
       int numRead = 0;
       try {
         while (batchScanner.hasNext() && numRead < k) {
@@ -1375,20 +1588,27 @@ public class ProxyServer implements AccumuloProxy.Iface {
       org.apache.accumulo.proxy.thrift.TableNotFoundException,
       org.apache.accumulo.proxy.thrift.MutationsRejectedException, TException {
     BatchWriterPlusProblem bwpe = null;
+    boolean flushed = false;
     try {
       bwpe = getWriter(login, tableName, null);
       addCellsToWriter(cells, bwpe);
       if (bwpe.exception != null)
         throw bwpe.exception;
       bwpe.writer.flush();
+      flushed = true;
     } catch (Exception e) {
       handleExceptionMRE(e);
     } finally {
+      // a writer that flushed everything is reused, one that failed is closed
       if (null != bwpe) {
         try {
-          bwpe.writer.close();
+          if (!(flushed && releaseWriter(login, tableName, bwpe.writer))) {
+            bwpe.writer.close();
+          }
         } catch (MutationsRejectedException e) {
           handleExceptionMRE(e);
+        } finally {
+          bwpe.releaseClient();
         }
       }
     }
@@ -1544,10 +1764,50 @@ public class ProxyServer implements AccumuloProxy.Iface {
       }
     }
     BatchWriterPlusProblem result = new BatchWriterPlusProblem();
-    result.writer = getConnector(login).createBatchWriter(tableName, cfg);
+    if (opts == null) {
+      // writers with the default configuration are all created from the client of the idle
+      // writers, so they can be kept with them
+      IdleWriters idle;
+      do {
+        idle = getIdleWriters(login, tableName);
+        // the idle writers hold their client until they are evicted, so a closed client means
+        // they are no longer cached
+      } while (!idle.client.acquire());
+      result.client = idle.client;
+      result.writer = idle.poll();
+    } else {
+      result.client = acquireSharedClient(login);
+    }
+    if (result.writer == null) {
+      try {
+        result.writer = result.client.client.createBatchWriter(tableName, cfg);
+      } catch (Exception e) {
+        result.releaseClient();
+        throw e;
+      }
+    }
     return result;
   }
 
+  private IdleWriters getIdleWriters(ByteBuffer login, String tableName) throws Exception {
+    return idleWriterCache.get(new Pair<>(ByteBufferUtil.toString(login), tableName),
+        () -> new IdleWriters(acquireSharedClient(login)));
+  }
+
+  /**
+   * Keeps a writer with the default configuration, that has no pending mutations, for another
+   * request of the login on the table.
+   *
+   * @return false if the writer was not kept, and should be closed
+   */
+  boolean releaseWriter(ByteBuffer login, String tableName, BatchWriter writer) {
+    try {
+      return getIdleWriters(login, tableName).offer(writer);
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
   private org.apache.accumulo.core.client.Durability getDurability(Durability durability) {
     switch (durability) {
       case DEFAULT:
@@ -2098,7 +2358,12 @@ public class ProxyServer implements AccumuloProxy.Iface {
       ByteBuffer login = ByteBuffer
           .wrap((instance.getInstanceID() + "," + new Credentials(principal, token).serialize())
               .getBytes(UTF_8));
-      getConnector(login); // check to make sure user exists
+      // check to make sure user exists, even if a client is cached for this login
+      SharedClient client = new SharedClient(connect(login));
+      if (clientCache.asMap().putIfAbsent(ByteBufferUtil.toString(login), client) != null) {
+        // keep the cached client, scanners and writers may be using it
+        client.remove();
+      }
       return login;
     } catch (AccumuloSecurityException e) {
       logger.error("Failed to login", e);
@@ -2156,7 +2421,15 @@ public class ProxyServer implements AccumuloProxy.Iface {
       if (options.isSetDurability() && options.getDurability() != null)
         cwc.setDurability(getDurability(options.getDurability()));
 
-      ConditionalWriter cw = getConnector(login).createConditionalWriter(tableName, cwc);
+      SharedClient client = acquireSharedClient(login);
+      ConditionalWriterPlusClient cw = new ConditionalWriterPlusClient();
+      try {
+        cw.writer = client.client.createConditionalWriter(tableName, cwc);
+      } catch (Exception e) {
+        client.release();
+        throw e;
+      }
+      cw.client = client;
 
       UUID id = UUID.randomUUID();
 
@@ -2175,11 +2448,13 @@ public class ProxyServer implements AccumuloProxy.Iface {
       throws UnknownWriter, org.apache.accumulo.proxy.thrift.AccumuloException,
       org.apache.accumulo.proxy.thrift.AccumuloSecurityException, TException {
 
-    ConditionalWriter cw = conditionalWriterCache.getIfPresent(UUID.fromString(conditionalWriter));
+    ConditionalWriterPlusClient cwpc = conditionalWriterCache
+        .getIfPresent(UUID.fromString(conditionalWriter));
 
-    if (cw == null) {
+    if (cwpc == null) {
       throw new UnknownWriter();
     }
+    ConditionalWriter cw = cwpc.writer;
 
     try {
       HashMap<Text,ColumnVisibility> vizMap = new HashMap<>();
@@ -2239,11 +2514,8 @@ public class ProxyServer implements AccumuloProxy.Iface {
 
   @Override
   public void closeConditionalWriter(String conditionalWriter) throws TException {
-    ConditionalWriter cw = conditionalWriterCache.getIfPresent(UUID.fromString(conditionalWriter));
-    if (cw != null) {
-      cw.close();
-      conditionalWriterCache.invalidate(UUID.fromString(conditionalWriter));
-    }
+    // the writer is closed when it is removed from the cache
+    conditionalWriterCache.invalidate(UUID.fromString(conditionalWriter));
   }
 
   @Override
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.proxy;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tasks of one batch scanner in a thread pool shared by all the batch scanners of the proxy.
+ * Shutting it down stops the tasks of that scanner, the ones queued do not run and the running ones
+ * are interrupted, without shutting down the shared pool.
+ *
+ * <p>
+ * A view holds at most a given number of the pool's threads, its other tasks wait in the view
+ * until one of them is free. The tasks of a scanner whose client stopped reading block until the
+ * scanner is closed, so this limits how many threads an abandoned scanner can hold. When the pool
+ * rejects a task because all its threads are busy, the view starts a thread of its own instead of
+ * waiting for threads that may never be freed, as a scanner did with a pool of its own.
+ */
+class SharedExecutorView extends AbstractExecutorService {
+
+  private final ExecutorService pool;
+  private final int maxThreads;
+  private final ThreadFactory threadFactory;
+  private final Deque<Runnable> queued = new ArrayDeque<>();
+  private final Set<Thread> running = new HashSet<>();
+  // threads of the pool held by this view
+  private int active = 0;
+  private boolean shutdown = false;
+
+  /**
+   * @param threadFactory
+   *          creates the threads of this view when all the threads of the pool are busy
+   */
+  SharedExecutorView(ExecutorService pool, int maxThreads, ThreadFactory threadFactory) {
+    this.pool = pool;
+    this.maxThreads = maxThreads;
+    this.threadFactory = threadFactory;
+  }
+
+  /**
+   * Runs queued tasks of this view until there are none.
+   */
+  private void drain() {
+    Thread thread = Thread.currentThread();
+    try {
+      while (true) {
+        Runnable task;
+        synchronized (this) {
+          task = shutdown ? null : queued.poll();
+          if (task == null) {
+            return;
+          }
+          running.add(thread);
+        }
+        try {
+          task.run();
+        } finally {
+          synchronized (this) {
+            running.remove(thread);
+            // clear an interrupt meant for this task, the thread goes on to run other tasks
+            Thread.interrupted();
+          }
+        }
+      }
+    } finally {
+      synchronized (this) {
+        active--;
+        notifyAll();
+      }
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    synchronized (this) {
+      if (shutdown) {
+        throw new RejectedExecutionException("batch scanner closed");
+      }
+      queued.add(command);
+      if (active >= maxThreads) {
+        return;
+      }
+      active++;
+    }
+
+    try {
+      pool.execute(this::drain);
+    } catch (RejectedExecutionException e) {
+      // all the threads of the pool are busy, counted against this view like a thread of the pool
+      threadFactory.newThread(this::drain).start();
+    }
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    shutdown = true;
+    queued.clear();
+  }
+
+  @Override
+  public synchronized List<Runnable> shutdownNow() {
+    shutdown();
+    for (Thread thread : running) {
+      thread.interrupt();
+    }
+    return Collections.emptyList();
+  }
+
+  @Override
+  public synchronized boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public synchronized boolean isTerminated() {
+    return shutdown && active == 0;
+  }
+
+  @Override
+  public synchronized boolean awaitTermination(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (!isTerminated()) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return true;
+  }
+}
@@ -112,4 +112,36 @@ public class ProxyServerTest {
     EasyMock.verify(server, writer, mre);
   }
 
+  @Test
+  public void updateAndFlushReleasesWriterAfterFlush() throws Exception {
+    ProxyServer server = EasyMock.createMockBuilder(ProxyServer.class)
+        .addMockedMethod("getWriter", ByteBuffer.class, String.class, WriterOptions.class)
+        .addMockedMethod("addCellsToWriter", Map.class, BatchWriterPlusProblem.class)
+        .addMockedMethod("releaseWriter", ByteBuffer.class, String.class, BatchWriter.class)
+        .createMock();
+    BatchWriter writer = EasyMock.createMock(BatchWriter.class);
+    BatchWriterPlusProblem bwpe = new BatchWriterPlusProblem();
+    bwpe.writer = writer;
+
+    final ByteBuffer login = ByteBuffer.wrap("my_login".getBytes(UTF_8));
+    final String tableName = "table1";
+    final Map<ByteBuffer,List<ColumnUpdate>> cells = new HashMap<>();
+
+    EasyMock.expect(server.getWriter(login, tableName, null)).andReturn(bwpe);
+    server.addCellsToWriter(cells, bwpe);
+    EasyMock.expectLastCall();
+
+    writer.flush();
+    EasyMock.expectLastCall();
+
+    // the writer is kept for the next request instead of being closed
+    EasyMock.expect(server.releaseWriter(login, tableName, writer)).andReturn(true);
+
+    EasyMock.replay(server, writer);
+
+    server.updateAndFlush(login, tableName, cells);
+
+    EasyMock.verify(server, writer);
+  }
+
 }
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedExecutorViewTest {
+
+  private final ThreadFactory threads = Executors.defaultThreadFactory();
+  private ExecutorService pool;
+
+  @Before
+  public void createPool() {
+    pool = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void shutdownPool() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testShutdownNowStopsOnlyItsTasks() throws Exception {
+    SharedExecutorView view1 = new SharedExecutorView(pool, 2, threads);
+    SharedExecutorView view2 = new SharedExecutorView(pool, 2, threads);
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    view1.execute(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(60_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    view1.shutdownNow();
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertTrue(view1.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(view1.isTerminated());
+    try {
+      view1.execute(() -> {});
+      fail("Expected a closed view to reject tasks");
+    } catch (RejectedExecutionException e) {
+      // pass
+    }
+
+    // the shared pool and the other view are not affected
+    assertFalse(view2.isShutdown());
+    Future<Integer> result = view2.submit(() -> 42);
+    assertEquals(42, result.get(10, TimeUnit.SECONDS).intValue());
+    assertFalse(pool.isShutdown());
+  }
+
+  @Test
+  public void testThreadsPerView() throws Exception {
+    SharedExecutorView view = new SharedExecutorView(pool, 1, threads);
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(4);
+    for (int i = 0; i < 4; i++) {
+      view.execute(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          running.decrementAndGet();
+          done.countDown();
+        }
+      });
+    }
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(1, maxRunning.get());
+  }
+
+  @Test
+  public void testOwnThreadWhenPoolBusy() throws Exception {
+    ExecutorService busyPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+        new SynchronousQueue<>());
+    try {
+      SharedExecutorView view1 = new SharedExecutorView(busyPool, 1, threads);
+      SharedExecutorView view2 = new SharedExecutorView(busyPool, 1, threads);
+
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      Thread[] poolThread = new Thread[1];
+      view1.execute(() -> {
+        poolThread[0] = Thread.currentThread();
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      // the view already holds a thread, so the task waits for it
+      CountDownLatch queuedRan = new CountDownLatch(1);
+      view1.execute(queuedRan::countDown);
+
+      // the other view holds no thread, so it runs the task on a thread of its own
+      Future<Thread> ran = view2.submit(Thread::currentThread);
+      assertNotSame(poolThread[0], ran.get(10, TimeUnit.SECONDS));
+      assertFalse(queuedRan.await(100, TimeUnit.MILLISECONDS));
+
+      release.countDown();
+      assertTrue(queuedRan.await(10, TimeUnit.SECONDS));
+    } finally {
+      busyPool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testMoreUnreadScannersThanPoolThreads() throws Exception {
+    ExecutorService smallPool = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS,
+        new SynchronousQueue<>());
+    List<SharedExecutorView> views = new ArrayList<>();
+    try {
+      // the tasks of a scanner whose client does not read block until the scanner is closed
+      CountDownLatch started = new CountDownLatch(6);
+      for (int i = 0; i < 6; i++) {
+        SharedExecutorView view = new SharedExecutorView(smallPool, 1, threads);
+        views.add(view);
+        view.execute(() -> {
+          started.countDown();
+          try {
+            Thread.sleep(60_000);
+          } catch (InterruptedException e) {
+            // closed
+          }
+        });
+      }
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      // a new scanner still runs
+      SharedExecutorView view = new SharedExecutorView(smallPool, 1, threads);
+      views.add(view);
+      assertEquals(42, view.submit(() -> 42).get(10, TimeUnit.SECONDS).intValue());
+    } finally {
+      for (SharedExecutorView view : views) {
+        view.shutdownNow();
+      }
+      smallPool.shutdownNow();
+    }
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.accumulo.core.client.ClientInfo;
 import org.apache.accumulo.core.client.security.tokens.AuthenticationToken;
 import org.apache.accumulo.core.clientImpl.AccumuloClientImpl;
 import org.apache.accumulo.core.clientImpl.ClientContext;
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.conf.SiteConfiguration;
@@ -99,6 +100,8 @@ public class ServerContext extends ClientContext {
     log.info("Version " + Constants.VERSION);
     log.info("Instance " + info.getInstanceID());
     ServerUtil.init(this, applicationName);
+    ThriftTransportPool.getInstance().setMaxConnectionsPerServer(
+        getConfiguration().getCount(Property.GENERAL_RPC_MAX_CONNECTIONS_PER_SERVER));
     MetricsSystemHelper.configure(applicationClassName);
     DistributedTrace.enable(hostname, applicationName,
         getServerConfFactory().getSystemConfiguration());
@@ -18,12 +18,14 @@ package org.apache.accumulo.server.conf;
 
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
@@ -32,14 +34,18 @@ import org.apache.accumulo.core.clientImpl.Table;
 import org.apache.accumulo.core.conf.ConfigurationObserver;
 import org.apache.accumulo.core.conf.ObservableConfiguration;
 import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.thrift.IterInfo;
 import org.apache.accumulo.core.iterators.IteratorUtil;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.spi.scan.ScanDispatcher;
 import org.apache.accumulo.fate.zookeeper.ZooCache;
 import org.apache.accumulo.fate.zookeeper.ZooCacheFactory;
 import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.server.conf.ZooCachePropertyAccessor.PropCacheKey;
+import org.apache.accumulo.start.classloader.vfs.AccumuloVFSClassLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -168,11 +174,30 @@ public class TableConfiguration extends ObservableConfiguration {
     return parent.getUpdateCount() + getPropCacheAccessor().getZooCache().getUpdateCount();
   }
 
+  /**
+   * Iterator classes resolved by one class loader, by class name.
+   */
+  private static class ResolvedClasses {
+    final ClassLoader loader;
+    final Map<String,Class<? extends SortedKeyValueIterator<Key,Value>>> classes =
+        new ConcurrentHashMap<>();
+
+    ResolvedClasses(ClassLoader loader) {
+      this.loader = loader;
+    }
+  }
+
+  /**
+   * The iterators configured for a scope of the table, parsed once for every change of the table
+   * configuration, along with the classes already resolved for them. Building an iterator stack
+   * from it only needs to create and init the iterators.
+   */
   public static class ParsedIteratorConfig {
     private final List<IterInfo> tableIters;
     private final Map<String,Map<String,String>> tableOpts;
     private final String context;
     private final long updateCount;
+    private volatile ResolvedClasses resolved;
 
     private ParsedIteratorConfig(List<IterInfo> ii, Map<String,Map<String,String>> opts,
         String context, long updateCount) {
@@ -197,6 +222,28 @@ public class TableConfiguration extends ObservableConfiguration {
     public String getContext() {
       return context;
     }
+
+    /**
+     * @return a cache of the iterator classes loaded with the table context, to pass to
+     *         {@link IteratorUtil#loadIterators(SortedKeyValueIterator, java.util.Collection, Map,
+     *         org.apache.accumulo.core.iterators.IteratorEnvironment, boolean, String, Map)}. A new
+     *         cache is started whenever the class loader of the context is reloaded.
+     */
+    public Map<String,Class<? extends SortedKeyValueIterator<Key,Value>>> getClassCache()
+        throws IOException {
+      ClassLoader loader;
+      if (context != null && !context.equals("")) {
+        loader = AccumuloVFSClassLoader.getContextManager().getClassLoader(context);
+      } else {
+        loader = AccumuloVFSClassLoader.getClassLoader();
+      }
+      ResolvedClasses rc = resolved;
+      if (rc == null || rc.loader != loader) {
+        rc = new ResolvedClasses(loader);
+        resolved = rc;
+      }
+      return rc.classes;
+    }
   }
 
   public ParsedIteratorConfig getParsedIteratorConfig(IteratorScope scope) {
@@ -16,6 +16,7 @@
  */
 package org.apache.accumulo.server.master.state;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +27,8 @@ import org.apache.accumulo.core.client.BatchWriterConfig;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.clientImpl.ClientContext;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.metadata.MetadataTable;
 import org.apache.accumulo.core.metadata.schema.MetadataSchema;
 import org.apache.accumulo.core.tabletserver.log.LogEntry;
@@ -66,6 +69,21 @@ public class MetaDataStateStore extends TabletStateStore {
         targetTableName);
   }
 
+  @Override
+  public ClosableIterator<TabletLocationState> unfilteredIterator() {
+    return new MetaDataTableScanner(context, MetadataSchema.TabletsSection.getRange(), null,
+        targetTableName);
+  }
+
+  @Override
+  public ClosableIterator<TabletLocationState> iterator(Collection<KeyExtent> extents) {
+    List<Range> ranges = new ArrayList<>(extents.size());
+    for (KeyExtent extent : extents) {
+      ranges.add(new Range(extent.getMetadataEntry()));
+    }
+    return new MetaDataTableScanner(context, ranges, null, targetTableName);
+  }
+
   @Override
   public void setLocations(Collection<Assignment> assignments) throws DistributedStoreException {
     BatchWriter writer = createBatchWriter();
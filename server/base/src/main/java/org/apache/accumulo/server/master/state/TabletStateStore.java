@@ -44,6 +44,24 @@ public abstract class TabletStateStore implements Iterable<TabletLocationState>
   @Override
   public abstract ClosableIterator<TabletLocationState> iterator();
 
+  /**
+   * Scan the information about all tablets covered by this store, including tablets that are
+   * already in their goal state. Stores that always return every tablet do not need to override
+   * this.
+   */
+  public ClosableIterator<TabletLocationState> unfilteredIterator() {
+    return iterator();
+  }
+
+  /**
+   * Scan the current information about the given tablets, whatever their state. Tablets that no
+   * longer exist are silently skipped. Stores that can not look up individual tablets may return
+   * more tablets than requested.
+   */
+  public ClosableIterator<TabletLocationState> iterator(Collection<KeyExtent> extents) {
+    return unfilteredIterator();
+  }
+
   /**
    * Store the assigned locations in the data store.
    */
@@ -103,7 +103,8 @@ public class ReplicationUtil {
       // Filter out cruft that we don't want
       if (!key.startsWith(Property.REPLICATION_PEER_USER.getKey())
           && !key.startsWith(Property.REPLICATION_PEER_PASSWORD.getKey())
-          && !key.startsWith(Property.REPLICATION_PEER_KEYTAB.getKey())) {
+          && !key.startsWith(Property.REPLICATION_PEER_KEYTAB.getKey())
+          && !key.startsWith(Property.REPLICATION_PEER_COMPRESS.getKey())) {
         String peerName = property.getKey().substring(Property.REPLICATION_PEERS.getKey().length());
         Entry<String,String> entry;
         try {
@@ -148,6 +148,17 @@ public class StatusCombiner extends TypedValueCombiner<Status> {
           builderToString(combined));
     }
 
+    // where reading resumes for begin, kept with the begin it was recorded for
+    if (status.getBegin() > combined.getBegin()
+        || (status.getBegin() == combined.getBegin() && !combined.hasBeginOffset())) {
+      if (status.hasBeginOffset()) {
+        combined.setBeginOffset(status.getBeginOffset());
+        combined.clearBeginTids().addAllBeginTids(status.getBeginTidsList());
+      } else {
+        combined.clearBeginOffset().clearBeginTids();
+      }
+    }
+
     // offset up to which replication is completed
     combined.setBegin(Math.max(combined.getBegin(), status.getBegin()));
 
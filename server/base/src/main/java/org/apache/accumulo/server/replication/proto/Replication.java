@@ -116,6 +116,50 @@ package org.apache.accumulo.server.replication.proto;
      * </pre>
      */
     long getCreatedTime();
+
+    // optional int64 beginOffset = 6 [default = 0];
+    /**
+     * <code>optional int64 beginOffset = 6 [default = 0];</code>
+     *
+     * <pre>
+     * bytes of the WAL after its header that precede begin, 0 if unknown
+     * </pre>
+     */
+    boolean hasBeginOffset();
+    /**
+     * <code>optional int64 beginOffset = 6 [default = 0];</code>
+     *
+     * <pre>
+     * bytes of the WAL after its header that precede begin, 0 if unknown
+     * </pre>
+     */
+    long getBeginOffset();
+
+    // repeated int32 beginTids = 7;
+    /**
+     * <code>repeated int32 beginTids = 7;</code>
+     *
+     * <pre>
+     * WAL ids of the tablets of the replicated table defined before begin
+     * </pre>
+     */
+    java.util.List<java.lang.Integer> getBeginTidsList();
+    /**
+     * <code>repeated int32 beginTids = 7;</code>
+     *
+     * <pre>
+     * WAL ids of the tablets of the replicated table defined before begin
+     * </pre>
+     */
+    int getBeginTidsCount();
+    /**
+     * <code>repeated int32 beginTids = 7;</code>
+     *
+     * <pre>
+     * WAL ids of the tablets of the replicated table defined before begin
+     * </pre>
+     */
+    int getBeginTids(int index);
   }
   /**
    * Protobuf type {@code Status}
@@ -193,6 +237,32 @@ package org.apache.accumulo.server.replication.proto;
               createdTime_ = input.readInt64();
               break;
             }
+            case 48: {
+              bitField0_ |= 0x00000020;
+              beginOffset_ = input.readInt64();
+              break;
+            }
+            case 56: {
+              if (!((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+                beginTids_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              beginTids_.add(input.readInt32());
+              break;
+            }
+            case 58: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000040) == 0x00000040) && input.getBytesUntilLimit() > 0) {
+                beginTids_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                beginTids_.add(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -201,6 +271,9 @@ package org.apache.accumulo.server.replication.proto;
         throw new com.google.protobuf.InvalidProtocolBufferException(
             e.getMessage()).setUnfinishedMessage(this);
       } finally {
+        if (((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+          beginTids_ = java.util.Collections.unmodifiableList(beginTids_);
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
@@ -353,12 +426,73 @@ package org.apache.accumulo.server.replication.proto;
       return createdTime_;
     }
 
+    // optional int64 beginOffset = 6 [default = 0];
+    public static final int BEGINOFFSET_FIELD_NUMBER = 6;
+    private long beginOffset_;
+    /**
+     * <code>optional int64 beginOffset = 6 [default = 0];</code>
+     *
+     * <pre>
+     * bytes of the WAL after its header that precede begin, 0 if unknown
+     * </pre>
+     */
+    public boolean hasBeginOffset() {
+      return ((bitField0_ & 0x00000020) == 0x00000020);
+    }
+    /**
+     * <code>optional int64 beginOffset = 6 [default = 0];</code>
+     *
+     * <pre>
+     * bytes of the WAL after its header that precede begin, 0 if unknown
+     * </pre>
+     */
+    public long getBeginOffset() {
+      return beginOffset_;
+    }
+
+    // repeated int32 beginTids = 7;
+    public static final int BEGINTIDS_FIELD_NUMBER = 7;
+    private java.util.List<java.lang.Integer> beginTids_;
+    /**
+     * <code>repeated int32 beginTids = 7;</code>
+     *
+     * <pre>
+     * WAL ids of the tablets of the replicated table defined before begin
+     * </pre>
+     */
+    public java.util.List<java.lang.Integer>
+        getBeginTidsList() {
+      return beginTids_;
+    }
+    /**
+     * <code>repeated int32 beginTids = 7;</code>
+     *
+     * <pre>
+     * WAL ids of the tablets of the replicated table defined before begin
+     * </pre>
+     */
+    public int getBeginTidsCount() {
+      return beginTids_.size();
+    }
+    /**
+     * <code>repeated int32 beginTids = 7;</code>
+     *
+     * <pre>
+     * WAL ids of the tablets of the replicated table defined before begin
+     * </pre>
+     */
+    public int getBeginTids(int index) {
+      return beginTids_.get(index);
+    }
+
     private void initFields() {
       begin_ = 0L;
       end_ = 0L;
       infiniteEnd_ = false;
       closed_ = false;
       createdTime_ = 0L;
+      beginOffset_ = 0L;
+      beginTids_ = java.util.Collections.emptyList();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -387,6 +521,12 @@ package org.apache.accumulo.server.replication.proto;
       if (((bitField0_ & 0x00000010) == 0x00000010)) {
         output.writeInt64(5, createdTime_);
       }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        output.writeInt64(6, beginOffset_);
+      }
+      for (int i = 0; i < beginTids_.size(); i++) {
+        output.writeInt32(7, beginTids_.get(i));
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -416,6 +556,19 @@ package org.apache.accumulo.server.replication.proto;
         size += com.google.protobuf.CodedOutputStream
           .computeInt64Size(5, createdTime_);
       }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(6, beginOffset_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < beginTids_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(beginTids_.get(i));
+        }
+        size += dataSize;
+        size += 1 * getBeginTidsList().size();
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -541,6 +694,10 @@ package org.apache.accumulo.server.replication.proto;
         bitField0_ = (bitField0_ & ~0x00000008);
         createdTime_ = 0L;
         bitField0_ = (bitField0_ & ~0x00000010);
+        beginOffset_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000020);
+        beginTids_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000040);
         return this;
       }
 
@@ -589,6 +746,15 @@ package org.apache.accumulo.server.replication.proto;
           to_bitField0_ |= 0x00000010;
         }
         result.createdTime_ = createdTime_;
+        if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+          to_bitField0_ |= 0x00000020;
+        }
+        result.beginOffset_ = beginOffset_;
+        if (((bitField0_ & 0x00000040) == 0x00000040)) {
+          beginTids_ = java.util.Collections.unmodifiableList(beginTids_);
+          bitField0_ = (bitField0_ & ~0x00000040);
+        }
+        result.beginTids_ = beginTids_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -620,6 +786,19 @@ package org.apache.accumulo.server.replication.proto;
         if (other.hasCreatedTime()) {
           setCreatedTime(other.getCreatedTime());
         }
+        if (other.hasBeginOffset()) {
+          setBeginOffset(other.getBeginOffset());
+        }
+        if (!other.beginTids_.isEmpty()) {
+          if (beginTids_.isEmpty()) {
+            beginTids_ = other.beginTids_;
+            bitField0_ = (bitField0_ & ~0x00000040);
+          } else {
+            ensureBeginTidsIsMutable();
+            beginTids_.addAll(other.beginTids_);
+          }
+          onChanged();
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -892,6 +1071,149 @@ package org.apache.accumulo.server.replication.proto;
         return this;
       }
 
+      // optional int64 beginOffset = 6 [default = 0];
+      private long beginOffset_ ;
+      /**
+       * <code>optional int64 beginOffset = 6 [default = 0];</code>
+       *
+       * <pre>
+       * bytes of the WAL after its header that precede begin, 0 if unknown
+       * </pre>
+       */
+      public boolean hasBeginOffset() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>optional int64 beginOffset = 6 [default = 0];</code>
+       *
+       * <pre>
+       * bytes of the WAL after its header that precede begin, 0 if unknown
+       * </pre>
+       */
+      public long getBeginOffset() {
+        return beginOffset_;
+      }
+      /**
+       * <code>optional int64 beginOffset = 6 [default = 0];</code>
+       *
+       * <pre>
+       * bytes of the WAL after its header that precede begin, 0 if unknown
+       * </pre>
+       */
+      public Builder setBeginOffset(long value) {
+        bitField0_ |= 0x00000020;
+        beginOffset_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 beginOffset = 6 [default = 0];</code>
+       *
+       * <pre>
+       * bytes of the WAL after its header that precede begin, 0 if unknown
+       * </pre>
+       */
+      public Builder clearBeginOffset() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        beginOffset_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      // repeated int32 beginTids = 7;
+      private java.util.List<java.lang.Integer> beginTids_ = java.util.Collections.emptyList();
+      private void ensureBeginTidsIsMutable() {
+        if (!((bitField0_ & 0x00000040) == 0x00000040)) {
+          beginTids_ = new java.util.ArrayList<java.lang.Integer>(beginTids_);
+          bitField0_ |= 0x00000040;
+         }
+      }
+      /**
+       * <code>repeated int32 beginTids = 7;</code>
+       *
+       * <pre>
+       * WAL ids of the tablets of the replicated table defined before begin
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getBeginTidsList() {
+        return java.util.Collections.unmodifiableList(beginTids_);
+      }
+      /**
+       * <code>repeated int32 beginTids = 7;</code>
+       *
+       * <pre>
+       * WAL ids of the tablets of the replicated table defined before begin
+       * </pre>
+       */
+      public int getBeginTidsCount() {
+        return beginTids_.size();
+      }
+      /**
+       * <code>repeated int32 beginTids = 7;</code>
+       *
+       * <pre>
+       * WAL ids of the tablets of the replicated table defined before begin
+       * </pre>
+       */
+      public int getBeginTids(int index) {
+        return beginTids_.get(index);
+      }
+      /**
+       * <code>repeated int32 beginTids = 7;</code>
+       *
+       * <pre>
+       * WAL ids of the tablets of the replicated table defined before begin
+       * </pre>
+       */
+      public Builder setBeginTids(
+          int index, int value) {
+        ensureBeginTidsIsMutable();
+        beginTids_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 beginTids = 7;</code>
+       *
+       * <pre>
+       * WAL ids of the tablets of the replicated table defined before begin
+       * </pre>
+       */
+      public Builder addBeginTids(int value) {
+        ensureBeginTidsIsMutable();
+        beginTids_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 beginTids = 7;</code>
+       *
+       * <pre>
+       * WAL ids of the tablets of the replicated table defined before begin
+       * </pre>
+       */
+      public Builder addAllBeginTids(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureBeginTidsIsMutable();
+        super.addAll(values, beginTids_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 beginTids = 7;</code>
+       *
+       * <pre>
+       * WAL ids of the tablets of the replicated table defined before begin
+       * </pre>
+       */
+      public Builder clearBeginTids() {
+        beginTids_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000040);
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:Status)
     }
 
@@ -917,11 +1239,12 @@ package org.apache.accumulo.server.replication.proto;
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n#src/main/protobuf/replication.proto\"u\n" +
+      "\n#src/main/protobuf/replication.proto\"\240\001\n" +
       "\006Status\022\020\n\005begin\030\001 \001(\003:\0010\022\016\n\003end\030\002 \001(\003:\001" +
       "0\022\032\n\013infiniteEnd\030\003 \001(\010:\005false\022\025\n\006closed\030" +
-      "\004 \001(\010:\005false\022\026\n\013createdTime\030\005 \001(\003:\0010B0\n," +
-      "org.apache.accumulo.server.replication.p" +
+      "\004 \001(\010:\005false\022\026\n\013createdTime\030\005 \001(\003:\0010\022\026\n" +
+      "\013beginOffset\030\006 \001(\003:\0010\022\021\n\tbeginTids\030\007 \003(\005" +
+      "B0\n,org.apache.accumulo.server.replication.p" +
       "rotoH\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
@@ -934,7 +1257,7 @@ package org.apache.accumulo.server.replication.proto;
           internal_static_Status_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_Status_descriptor,
-              new java.lang.String[] { "Begin", "End", "InfiniteEnd", "Closed", "CreatedTime", });
+              new java.lang.String[] { "Begin", "End", "InfiniteEnd", "Closed", "CreatedTime", "BeginOffset", "BeginTids", });
           return null;
         }
       };
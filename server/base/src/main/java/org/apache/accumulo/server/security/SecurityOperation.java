@@ -157,6 +157,26 @@ public class SecurityOperation {
     return rootUserName;
   }
 
+  /**
+   * @return the number of permission checks answered from the caches of the ZooKeeper based
+   *         permission handler
+   */
+  public long getCacheHits() {
+    if (permHandle instanceof ZKPermHandler)
+      return ((ZKPermHandler) permHandle).getCacheHitCount();
+    return 0;
+  }
+
+  /**
+   * @return the number of permission checks the caches of the ZooKeeper based permission handler
+   *         could not answer
+   */
+  public long getCacheMisses() {
+    if (permHandle instanceof ZKPermHandler)
+      return ((ZKPermHandler) permHandle).getCacheMissCount();
+    return 0;
+  }
+
   public boolean isSystemUser(TCredentials credentials) {
     return context.getCredentials().getToken().getClass().getName()
         .equals(credentials.getTokenClassName());
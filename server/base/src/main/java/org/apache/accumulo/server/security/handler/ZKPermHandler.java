@@ -31,6 +31,8 @@ import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.clientImpl.Namespace;
 import org.apache.accumulo.core.clientImpl.Table;
 import org.apache.accumulo.core.clientImpl.thrift.SecurityErrorCode;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.metadata.MetadataTable;
 import org.apache.accumulo.core.metadata.RootTable;
 import org.apache.accumulo.core.security.NamespacePermission;
@@ -56,6 +58,10 @@ public class ZKPermHandler implements PermissionHandler {
   private String ZKTablePath;
   private String ZKNamespacePath;
   private ZooCache zooCache;
+  // permissions deserialized from the zooCache, by path
+  private ZooCachedValues<String,Set<SystemPermission>> systemPerms;
+  private ZooCachedValues<String,Set<TablePermission>> tablePerms;
+  private ZooCachedValues<String,Set<NamespacePermission>> namespacePerms;
   private final String ZKUserSysPerms = "/System";
   private final String ZKUserTablePerms = "/Tables";
   private final String ZKUserNamespacePerms = "/Namespaces";
@@ -69,6 +75,12 @@ public class ZKPermHandler implements PermissionHandler {
   @Override
   public void initialize(ServerContext context, boolean initialize) {
     zooCache = new ZooCache(context.getZooReaderWriter(), null);
+    AccumuloConfiguration conf = context.getConfiguration();
+    long cacheSize = conf.getCount(Property.INSTANCE_SECURITY_CACHE_SIZE);
+    long expiration = conf.getTimeInMillis(Property.INSTANCE_SECURITY_CACHE_EXPIRATION);
+    systemPerms = new ZooCachedValues<>(cacheSize, expiration);
+    tablePerms = new ZooCachedValues<>(cacheSize, expiration);
+    namespacePerms = new ZooCachedValues<>(cacheSize, expiration);
     zoo = context.getZooReaderWriter();
     String instanceId = context.getInstanceID();
     ZKUserPath = ZKSecurityTool.getInstancePath(instanceId) + "/users";
@@ -119,9 +131,15 @@ public class ZKPermHandler implements PermissionHandler {
   @Override
   public boolean hasCachedTablePermission(String user, String table, TablePermission permission)
       throws AccumuloSecurityException, TableNotFoundException {
-    byte[] serializedPerms = zooCache.get(ZKUserPath + "/" + user + ZKUserTablePerms + "/" + table);
+    String path = ZKUserPath + "/" + user + ZKUserTablePerms + "/" + table;
+    byte[] serializedPerms = zooCache.get(path);
     if (serializedPerms != null) {
-      return ZKSecurityTool.convertTablePermissions(serializedPerms).contains(permission);
+      Set<TablePermission> perms = tablePerms.get(path, serializedPerms);
+      if (perms == null) {
+        perms = ZKSecurityTool.convertTablePermissions(serializedPerms);
+        tablePerms.put(path, serializedPerms, perms);
+      }
+      return perms.contains(permission);
     }
     return false;
   }
@@ -171,10 +189,15 @@ public class ZKPermHandler implements PermissionHandler {
   @Override
   public boolean hasCachedNamespacePermission(String user, Namespace.ID namespace,
       NamespacePermission permission) throws AccumuloSecurityException, NamespaceNotFoundException {
-    byte[] serializedPerms = zooCache
-        .get(ZKUserPath + "/" + user + ZKUserNamespacePerms + "/" + namespace);
+    String path = ZKUserPath + "/" + user + ZKUserNamespacePerms + "/" + namespace;
+    byte[] serializedPerms = zooCache.get(path);
     if (serializedPerms != null) {
-      return ZKSecurityTool.convertNamespacePermissions(serializedPerms).contains(permission);
+      Set<NamespacePermission> perms = namespacePerms.get(path, serializedPerms);
+      if (perms == null) {
+        perms = ZKSecurityTool.convertNamespacePermissions(serializedPerms);
+        namespacePerms.put(path, serializedPerms, perms);
+      }
+      return perms.contains(permission);
     }
     return false;
   }
@@ -517,10 +540,30 @@ public class ZKPermHandler implements PermissionHandler {
   @Override
   public boolean hasCachedSystemPermission(String user, SystemPermission permission)
       throws AccumuloSecurityException {
-    byte[] perms = zooCache.get(ZKUserPath + "/" + user + ZKUserSysPerms);
-    if (perms == null)
+    String path = ZKUserPath + "/" + user + ZKUserSysPerms;
+    byte[] serializedPerms = zooCache.get(path);
+    if (serializedPerms == null)
       return false;
-    return ZKSecurityTool.convertSystemPermissions(perms).contains(permission);
+    Set<SystemPermission> perms = systemPerms.get(path, serializedPerms);
+    if (perms == null) {
+      perms = ZKSecurityTool.convertSystemPermissions(serializedPerms);
+      systemPerms.put(path, serializedPerms, perms);
+    }
+    return perms.contains(permission);
+  }
+
+  /**
+   * @return the number of cached permission checks that did not deserialize the permissions
+   */
+  public long getCacheHitCount() {
+    return systemPerms.getHitCount() + tablePerms.getHitCount() + namespacePerms.getHitCount();
+  }
+
+  /**
+   * @return the number of cached permission checks that deserialized the permissions
+   */
+  public long getCacheMissCount() {
+    return systemPerms.getMissCount() + tablePerms.getMissCount() + namespacePerms.getMissCount();
   }
 
   @Override
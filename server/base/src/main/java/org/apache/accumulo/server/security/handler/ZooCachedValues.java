@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.security.handler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.accumulo.fate.zookeeper.ZooCache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A bounded cache of values derived from the data of ZooKeeper nodes read through a
+ * {@link ZooCache}, such as deserialized permissions. Each entry remembers the array it was derived
+ * from and is only used while the ZooCache still returns that same array. The ZooCache replaces the
+ * array when its watch sees the node change, or when the path is cleared, so a changed permission
+ * is seen without waiting for the entry to expire.
+ */
+class ZooCachedValues<K,V> {
+
+  private static class Entry<V> {
+    final byte[] data;
+    final V value;
+
+    Entry(byte[] data, V value) {
+      this.data = data;
+      this.value = value;
+    }
+  }
+
+  private final Cache<K,Entry<V>> cache;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param maxSize
+   *          the most entries to keep, when 0 nothing is cached
+   * @param expirationMillis
+   *          how long an entry is kept after it is added
+   */
+  ZooCachedValues(long maxSize, long expirationMillis) {
+    cache = CacheBuilder.newBuilder().maximumSize(maxSize)
+        .expireAfterWrite(expirationMillis, TimeUnit.MILLISECONDS).build();
+  }
+
+  /**
+   * @param data
+   *          what the ZooCache currently returns for the node the value is derived from
+   * @return the cached value, or null if there is none or it was derived from other data
+   */
+  V get(K key, byte[] data) {
+    Entry<V> entry = cache.getIfPresent(key);
+    // compare identity, the ZooCache returns the same array until the node changes
+    if (entry != null && data != null && entry.data == data) {
+      hits.increment();
+      return entry.value;
+    }
+    misses.increment();
+    return null;
+  }
+
+  void put(K key, byte[] data, V value) {
+    if (data != null) {
+      cache.put(key, new Entry<>(data, value));
+    }
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+}
@@ -41,18 +41,18 @@ import org.slf4j.LoggerFactory;
 public class LargestFirstMemoryManager implements MemoryManager {
 
   private static final Logger log = LoggerFactory.getLogger(LargestFirstMemoryManager.class);
-  private static final long ZERO_TIME = System.currentTimeMillis();
+  static final long ZERO_TIME = System.currentTimeMillis();
   private static final int TSERV_MINC_MAXCONCURRENT_NUMWAITING_MULTIPLIER = 2;
   private static final double MAX_FLUSH_AT_ONCE_PERCENT = 0.20;
 
-  private long maxMemory = -1;
-  private int maxConcurrentMincs;
-  private int numWaitingMultiplier;
+  long maxMemory = -1;
+  int maxConcurrentMincs;
+  int numWaitingMultiplier;
   private long prevIngestMemory;
   // The fraction of memory that needs to be used before we begin flushing.
   private double compactionThreshold;
   private long maxObserved;
-  private final HashMap<Table.ID,Long> mincIdleThresholds = new HashMap<>();
+  final HashMap<Table.ID,Long> mincIdleThresholds = new HashMap<>();
   private ServerConfiguration config = null;
 
   private static class TabletInfo {
@@ -153,6 +153,27 @@ public class LargestFirstMemoryManager implements MemoryManager {
     return config.getTableConfiguration(tableId) != null;
   }
 
+  /**
+   * Gets the idle time after which a tablet is flushed, or -1 if its table was deleted.
+   */
+  long getMinCIdleThresholdIfExists(KeyExtent extent) {
+    try {
+      // If the table was deleted, getMinCIdleThreshold will throw an exception
+      return getMinCIdleThreshold(extent);
+    } catch (IllegalArgumentException e) {
+      Throwable cause = e.getCause();
+      if (null != cause && cause instanceof TableNotFoundException) {
+        log.trace("Ignoring extent for deleted table: {}", extent);
+
+        // The table might have been deleted during the iteration of the tablets
+        // We just want to eat this exception, do nothing with this tablet, and continue
+        return -1;
+      }
+
+      throw e;
+    }
+  }
+
   @Override
   public MemoryManagementActions getMemoryManagementActions(List<TabletState> tablets) {
     if (maxMemory < 0)
@@ -189,22 +210,12 @@ public class LargestFirstMemoryManager implements MemoryManager {
       if (minorCompactingSize == 0 && memTabletSize > 0) {
         TabletInfo tabletInfo = new TabletInfo(ts.getExtent(), memTabletSize, idleTime,
             timeMemoryLoad);
-        try {
-          // If the table was deleted, getMinCIdleThreshold will throw an exception
-          if (idleTime > getMinCIdleThreshold(ts.getExtent())) {
-            largestIdleMemTablets.put(timeMemoryLoad, tabletInfo);
-          }
-        } catch (IllegalArgumentException e) {
-          Throwable cause = e.getCause();
-          if (null != cause && cause instanceof TableNotFoundException) {
-            log.trace("Ignoring extent for deleted table: {}", ts.getExtent());
-
-            // The table might have been deleted during the iteration of the tablets
-            // We just want to eat this exception, do nothing with this tablet, and continue
-            continue;
-          }
-
-          throw e;
+        final long idleThreshold = getMinCIdleThresholdIfExists(ts.getExtent());
+        if (idleThreshold < 0) {
+          continue;
+        }
+        if (idleTime > idleThreshold) {
+          largestIdleMemTablets.put(timeMemoryLoad, tabletInfo);
         }
         // Only place the tablet into largestMemTablets map when the table still exists
         largestMemTablets.put(timeMemoryLoad, tabletInfo);
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.tabletserver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The PredictiveMemoryManager schedules minor compactions from a forecast of memory use, instead of
+ * waiting for memory to pass a threshold. It follows the rate at which the in memory map of each
+ * tablet grows and the rate at which minor compactions write memory out. From those it estimates
+ * how long flushing the largest tablet takes, and flushes it when memory would pass 60% by the time
+ * that flush could be done. Only one tablet is chosen at a time while memory is forecast below 85%,
+ * so flushes are spread out over time instead of many tablets reaching a limit together. Above
+ * that, as many tablets are flushed at once as needed to get back under 60%, up to twice the number
+ * of concurrent minor compactions. Like the {@link LargestFirstMemoryManager} it extends, it also
+ * flushes tablets that were idle longer than their table's idle time.
+ */
+public class PredictiveMemoryManager extends LargestFirstMemoryManager {
+
+  private static final Logger log = LoggerFactory.getLogger(PredictiveMemoryManager.class);
+  // the fraction of memory flushes try to keep memory use under
+  private static final double TARGET_FRACTION = 0.6;
+  // above this fraction of memory, several tablets are flushed at once
+  private static final double HIGH_FRACTION = 0.85;
+  // the weight of the newest sample in the smoothed rates
+  private static final double SMOOTHING = 0.3;
+  // the minor compaction rate, in bytes per millisecond, assumed until one is observed
+  private static final double INITIAL_FLUSH_RATE = 10 * 1024 * 1024 / 1000.0;
+  // how much longer than forecast a flush may take
+  private static final double SAFETY_FACTOR = 2.0;
+  // about how often the tablet server asks for memory management actions
+  private static final long CALL_INTERVAL = 250;
+
+  // tablets are closed by other threads
+  private final Map<KeyExtent,TabletHistory> history = new ConcurrentHashMap<>();
+  // bytes per millisecond written by one minor compaction, from queued until done
+  private double flushRate = INITIAL_FLUSH_RATE;
+
+  /**
+   * What was last seen of a tablet.
+   */
+  private static class TabletHistory {
+    long time;
+    long memTableSize;
+    // bytes per millisecond
+    double ingestRate = 0;
+    // the size and start of the minor compaction in progress, if any
+    long flushSize = 0;
+    long flushStart;
+
+    TabletHistory(long time, long memTableSize) {
+      this.time = time;
+      this.memTableSize = memTableSize;
+    }
+  }
+
+  private static class TabletInfo {
+    final KeyExtent extent;
+    final long memTableSize;
+    final long load;
+
+    TabletInfo(KeyExtent extent, long memTableSize, long load) {
+      this.extent = extent;
+      this.memTableSize = memTableSize;
+      this.load = load;
+    }
+  }
+
+  private static double smooth(double average, double sample) {
+    return average + SMOOTHING * (sample - average);
+  }
+
+  /**
+   * Updates the ingest rate of a tablet and, when a minor compaction of the tablet finished, the
+   * flush rate.
+   */
+  private TabletHistory update(TabletState ts, long now) {
+    final long memTableSize = ts.getMemTableSize();
+    TabletHistory h = history.get(ts.getExtent());
+    if (h == null) {
+      h = new TabletHistory(now, memTableSize);
+      history.put(ts.getExtent(), h);
+    } else if (now > h.time) {
+      // a minor compaction starts a new in memory map, what it holds arrived since then
+      long growth = memTableSize >= h.memTableSize ? memTableSize - h.memTableSize : memTableSize;
+      h.ingestRate = smooth(h.ingestRate, growth / (double) (now - h.time));
+      h.time = now;
+      h.memTableSize = memTableSize;
+    }
+
+    final long minorCompactingSize = ts.getMinorCompactingMemTableSize();
+    if (minorCompactingSize > 0 && h.flushSize == 0) {
+      h.flushSize = minorCompactingSize;
+      h.flushStart = now;
+    } else if (minorCompactingSize == 0 && h.flushSize > 0) {
+      if (now > h.flushStart) {
+        flushRate = smooth(flushRate, h.flushSize / (double) (now - h.flushStart));
+      }
+      h.flushSize = 0;
+    }
+    return h;
+  }
+
+  @Override
+  public MemoryManagementActions getMemoryManagementActions(List<TabletState> tablets) {
+    if (maxMemory < 0)
+      throw new IllegalStateException(
+          "need to initialize " + PredictiveMemoryManager.class.getName());
+
+    final int maxMinCs = maxConcurrentMincs * numWaitingMultiplier;
+
+    mincIdleThresholds.clear();
+    final MemoryManagementActions result = new MemoryManagementActions();
+    result.tabletsToMinorCompact = new ArrayList<>();
+
+    final long now = currentTimeMillis();
+    final List<TabletInfo> candidates = new ArrayList<>();
+    final List<TabletInfo> idleCandidates = new ArrayList<>();
+    final Set<KeyExtent> seen = new HashSet<>();
+
+    long ingestMemory = 0;
+    long compactionMemory = 0;
+    double ingestRate = 0;
+    int numWaitingMincs = 0;
+
+    for (TabletState ts : tablets) {
+      // Make sure that the table still exists
+      if (!tableExists(ts.getExtent().getTableId())) {
+        log.trace("Ignoring extent for deleted table: {}", ts.getExtent());
+        continue;
+      }
+
+      seen.add(ts.getExtent());
+      TabletHistory h = update(ts, now);
+
+      final long memTabletSize = ts.getMemTableSize();
+      final long minorCompactingSize = ts.getMinorCompactingMemTableSize();
+      final long idleTime = now - Math.max(ts.getLastCommitTime(), ZERO_TIME);
+      ingestMemory += memTabletSize;
+      ingestRate += h.ingestRate;
+      if (minorCompactingSize == 0 && memTabletSize > 0) {
+        TabletInfo tabletInfo = new TabletInfo(ts.getExtent(), memTabletSize,
+            timeMemoryLoad(memTabletSize, idleTime));
+        final long idleThreshold = getMinCIdleThresholdIfExists(ts.getExtent());
+        if (idleThreshold < 0) {
+          continue;
+        }
+        if (idleTime > idleThreshold) {
+          idleCandidates.add(tabletInfo);
+        }
+        candidates.add(tabletInfo);
+      }
+
+      compactionMemory += minorCompactingSize;
+      if (minorCompactingSize > 0)
+        numWaitingMincs++;
+    }
+
+    // forget tablets that are no longer reported
+    history.keySet().retainAll(seen);
+
+    if (numWaitingMincs >= maxMinCs || candidates.isEmpty()) {
+      return result;
+    }
+
+    candidates.sort((t1, t2) -> Long.compare(t2.memTableSize, t1.memTableSize));
+
+    // how long until memory flushed now would be freed, after the flushes already running
+    final double throughput = flushRate * maxConcurrentMincs;
+    final double horizon = SAFETY_FACTOR
+        * (compactionMemory + candidates.get(0).memTableSize) / throughput + CALL_INTERVAL;
+    // memory already being flushed is freed within the horizon
+    final double forecast = ingestMemory + ingestRate * horizon;
+
+    if (forecast > HIGH_FRACTION * maxMemory) {
+      // flush as much as it takes to get back under the target
+      double remaining = forecast;
+      for (int i = numWaitingMincs; i < maxMinCs && i - numWaitingMincs < candidates.size()
+          && remaining > TARGET_FRACTION * maxMemory; i++) {
+        TabletInfo largest = candidates.get(i - numWaitingMincs);
+        result.tabletsToMinorCompact.add(largest.extent);
+        remaining -= largest.memTableSize;
+      }
+    } else if (forecast > TARGET_FRACTION * maxMemory && numWaitingMincs < maxConcurrentMincs) {
+      result.tabletsToMinorCompact.add(candidates.get(0).extent);
+    } else if (!idleCandidates.isEmpty() && numWaitingMincs < maxConcurrentMincs) {
+      TabletInfo idlest = idleCandidates.get(0);
+      for (TabletInfo ti : idleCandidates) {
+        if (ti.load > idlest.load) {
+          idlest = ti;
+        }
+      }
+      result.tabletsToMinorCompact.add(idlest.extent);
+      log.debug("IDLE minor compaction chosen");
+    }
+
+    if (!result.tabletsToMinorCompact.isEmpty()) {
+      log.debug(String.format(
+          "COMPACTING %s total = %,d ingestMemory = %,d forecast = %,.0f"
+              + " ingestRate = %,.0f/s flushRate = %,.0f/s",
+          result.tabletsToMinorCompact, ingestMemory + compactionMemory, ingestMemory, forecast,
+          ingestRate * 1000, flushRate * 1000));
+    }
+
+    return result;
+  }
+
+  @Override
+  public void tabletClosed(KeyExtent extent) {
+    history.remove(extent);
+  }
+}
@@ -18,15 +18,19 @@ package org.apache.accumulo.server.conf;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -37,10 +41,16 @@ import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.clientImpl.Table;
 import org.apache.accumulo.core.conf.ConfigurationObserver;
 import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.user.VersioningIterator;
 import org.apache.accumulo.fate.zookeeper.ZooCache;
 import org.apache.accumulo.fate.zookeeper.ZooCacheFactory;
 import org.apache.accumulo.fate.zookeeper.ZooUtil;
 import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.conf.TableConfiguration.ParsedIteratorConfig;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -143,6 +153,31 @@ public class TableConfigurationTest {
     assertEquals(0, os.size());
   }
 
+  @Test
+  public void testParsedIteratorConfig() throws Exception {
+    expect(parent.getUpdateCount()).andReturn(0L).anyTimes();
+    parent.getProperties(anyObject(), anyObject());
+    expectLastCall().anyTimes();
+    expect(parent.get(Property.TABLE_CLASSPATH)).andReturn("").anyTimes();
+    replay(parent);
+    expect(zc.getUpdateCount()).andReturn(0L).anyTimes();
+    expect(zc.getChildren(anyString())).andReturn(Collections.emptyList()).anyTimes();
+    expect(zc.get(anyString())).andReturn(null).anyTimes();
+    replay(zc);
+
+    // the configuration is parsed again only when it changes
+    ParsedIteratorConfig pic = c.getParsedIteratorConfig(IteratorScope.scan);
+    assertSame(pic, c.getParsedIteratorConfig(IteratorScope.scan));
+    assertEquals(0, pic.getIterInfo().size());
+
+    // classes resolved for one scan are kept for the next
+    Map<String,Class<? extends SortedKeyValueIterator<Key,Value>>> classes = pic.getClassCache();
+    classes.put(VersioningIterator.class.getName(), VersioningIterator.class);
+    assertSame(classes, pic.getClassCache());
+    assertEquals(VersioningIterator.class,
+        pic.getClassCache().get(VersioningIterator.class.getName()));
+  }
+
   @Test
   public void testInvalidateCache() {
     // need to do a get so the accessor is created
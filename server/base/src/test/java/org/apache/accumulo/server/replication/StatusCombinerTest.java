@@ -289,4 +289,30 @@ public class StatusCombinerTest {
     assertTrue(combined.getInfiniteEnd());
     assertTrue(combined.getClosed());
   }
+
+  @Test
+  public void checkpointFollowsBegin() {
+    Status checkpointed = Status.newBuilder().setBegin(10).setBeginOffset(1000)
+        .addAllBeginTids(Arrays.asList(1, 2)).setInfiniteEnd(true).build();
+    Status behind = Status.newBuilder().setBegin(5).setBeginOffset(500).addBeginTids(1).build();
+    Status noCheckpoint = Status.newBuilder().setBegin(10).setClosed(true).build();
+
+    // in any order, the checkpoint of the furthest begin is kept
+    for (List<Status> statuses : Arrays.asList(Arrays.asList(checkpointed, behind, noCheckpoint),
+        Arrays.asList(noCheckpoint, behind, checkpointed),
+        Arrays.asList(behind, noCheckpoint, checkpointed))) {
+      Status combined = combiner.typedReduce(key, statuses.iterator());
+      assertEquals(10, combined.getBegin());
+      assertEquals(1000, combined.getBeginOffset());
+      assertEquals(Arrays.asList(1, 2), combined.getBeginTidsList());
+      assertTrue(combined.getClosed());
+    }
+
+    // a further begin without a checkpoint drops the old one
+    Status further = Status.newBuilder().setBegin(20).build();
+    Status combined = combiner.typedReduce(key, Arrays.asList(checkpointed, further).iterator());
+    assertEquals(20, combined.getBegin());
+    assertFalse(combined.hasBeginOffset());
+    assertEquals(0, combined.getBeginTidsCount());
+  }
 }
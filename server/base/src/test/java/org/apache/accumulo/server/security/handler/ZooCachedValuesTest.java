@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.server.security.handler;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ZooCachedValuesTest {
+
+  @Test
+  public void testChangedData() {
+    ZooCachedValues<String,String> values = new ZooCachedValues<>(100, 60_000);
+    byte[] data = "perms".getBytes(UTF_8);
+    String value = "value";
+
+    assertNull(values.get("p1", data));
+    values.put("p1", data, value);
+    assertSame(value, values.get("p1", data));
+    assertNull(values.get("p2", data));
+
+    // the same bytes in another array are data the zoocache read again
+    assertNull(values.get("p1", "perms".getBytes(UTF_8)));
+    assertNull(values.get("p1", null));
+
+    assertEquals(1, values.getHitCount());
+    assertEquals(4, values.getMissCount());
+  }
+
+  @Test
+  public void testMissingNode() {
+    ZooCachedValues<String,String> values = new ZooCachedValues<>(100, 60_000);
+    values.put("p1", null, "value");
+    assertNull(values.get("p1", null));
+  }
+
+  @Test
+  public void testDisabled() {
+    ZooCachedValues<String,String> values = new ZooCachedValues<>(0, 60_000);
+    byte[] data = "perms".getBytes(UTF_8);
+    values.put("p1", data, "value");
+    assertNull(values.get("p1", data));
+  }
+}
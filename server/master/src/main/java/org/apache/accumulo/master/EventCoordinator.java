@@ -23,6 +23,8 @@ public class EventCoordinator {
 
   private static final Logger log = LoggerFactory.getLogger(EventCoordinator.class);
   long eventCounter = 0;
+  // the value of eventCounter when the last event that needs a full tablet scan happened
+  long fullScanEvent = 0;
 
   synchronized long waitForEvents(long millis, long lastEvent) {
     // Did something happen since the last time we waited?
@@ -40,6 +42,18 @@ public class EventCoordinator {
   }
 
   public synchronized void event(String msg, Object... args) {
+    log.info(String.format(msg, args));
+    eventCounter++;
+    fullScanEvent = eventCounter;
+    notifyAll();
+  }
+
+  /**
+   * Signals an event whose effect on tablets has already been recorded in the
+   * {@link org.apache.accumulo.master.state.TabletStateTracker}. Listeners wake up, but this does
+   * not ask tablet group watchers to rescan all of their tablets.
+   */
+  public synchronized void incrementalEvent(String msg, Object... args) {
     log.info(String.format(msg, args));
     eventCounter++;
     notifyAll();
@@ -51,14 +65,27 @@ public class EventCoordinator {
 
   public class Listener {
     long lastEvent;
+    long lastFullScanEvent;
 
     Listener() {
       lastEvent = eventCounter;
+      lastFullScanEvent = fullScanEvent;
     }
 
     public void waitForEvents(long millis) {
       lastEvent = EventCoordinator.this.waitForEvents(millis, lastEvent);
     }
+
+    /**
+     * @return true if an event that needs a full scan happened since the last call
+     */
+    public boolean consumeFullScanRequest() {
+      synchronized (EventCoordinator.this) {
+        boolean requested = fullScanEvent != lastFullScanEvent;
+        lastFullScanEvent = fullScanEvent;
+        return requested;
+      }
+    }
   }
 
 }
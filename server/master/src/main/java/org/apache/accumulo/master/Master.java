@@ -96,6 +96,7 @@ import org.apache.accumulo.master.replication.MasterReplicationCoordinator;
 import org.apache.accumulo.master.replication.ReplicationDriver;
 import org.apache.accumulo.master.replication.WorkDriver;
 import org.apache.accumulo.master.state.TableCounts;
+import org.apache.accumulo.master.state.TabletStateTracker;
 import org.apache.accumulo.server.HighlyAvailableService;
 import org.apache.accumulo.server.ServerConstants;
 import org.apache.accumulo.server.ServerContext;
@@ -202,6 +203,7 @@ public class Master
   final SortedMap<KeyExtent,TServerInstance> migrations = Collections
       .synchronizedSortedMap(new TreeMap<>());
   final EventCoordinator nextEvent = new EventCoordinator();
+  final TabletStateTracker tabletStateTracker = new TabletStateTracker();
   private final Object mergeLock = new Object();
   private ReplicationDriver replicationWorkDriver;
   private WorkDriver replicationWorkAssigner;
@@ -1158,7 +1160,12 @@ public class Master
         log.debug("migration {}", m);
       }
       if (migrationsOut.size() > 0) {
-        nextEvent.event("Migrating %d more tablets, %d total", migrationsOut.size(),
+        List<KeyExtent> migrating = new ArrayList<>(migrationsOut.size());
+        for (TabletMigration m : migrationsOut) {
+          migrating.add(m.tablet);
+        }
+        tabletStateTracker.changed(migrating);
+        nextEvent.incrementalEvent("Migrating %d more tablets, %d total", migrationsOut.size(),
             migrations.size());
       } else {
         synchronized (balancedNotifier) {
@@ -1616,7 +1623,14 @@ public class Master
         }
       }
     }
-    nextEvent.event("There are now %d tablet servers", current.size());
+    int affected = tabletStateTracker.serversLost(deleted);
+    if (added.isEmpty() && !deleted.isEmpty()) {
+      // the tablets of the lost servers are tracked, so the watchers only need to look at those
+      nextEvent.incrementalEvent("There are now %d tablet servers, %d tablets need reassignment",
+          current.size(), affected);
+    } else {
+      nextEvent.event("There are now %d tablet servers", current.size());
+    }
   }
 
   private static void cleanListByHostAndPort(Collection<TServerInstance> badServers,
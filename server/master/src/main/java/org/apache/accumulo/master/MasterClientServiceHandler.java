@@ -349,8 +349,12 @@ public class MasterClientServiceHandler extends FateServiceHandler
     }
     for (TServerInstance instance : master.tserverSet.getCurrentServers()) {
       if (serverName.equals(instance.hostPort())) {
-        master.nextEvent.event("%s reported split %s, %s", serverName,
-            new KeyExtent(split.newTablets.get(0)), new KeyExtent(split.newTablets.get(1)));
+        KeyExtent newTablet1 = new KeyExtent(split.newTablets.get(0));
+        KeyExtent newTablet2 = new KeyExtent(split.newTablets.get(1));
+        master.tabletStateTracker.split(oldTablet, newTablet1, newTablet2);
+        // the new tablets are hosted where the old one was, which the tracker now knows
+        master.nextEvent.incrementalEvent("%s reported split %s, %s", serverName, newTablet1,
+            newTablet2);
         return;
       }
     }
@@ -367,10 +371,21 @@ public class MasterClientServiceHandler extends FateServiceHandler
         Master.log.error("{} reports assignment failed for tablet {}", serverName, tablet);
         break;
       case LOADED:
-        master.nextEvent.event("tablet %s was loaded on %s", tablet, serverName);
+        TServerInstance server = master.tserverSet.find(serverName);
+        if (server != null) {
+          master.tabletStateTracker.update(tablet, server);
+        }
+        if (tablet.isMeta()) {
+          // other watchers may be waiting for metadata tablets to come online
+          master.nextEvent.event("tablet %s was loaded on %s", tablet, serverName);
+        } else {
+          master.nextEvent.incrementalEvent("tablet %s was loaded on %s", tablet, serverName);
+        }
         break;
       case UNLOADED:
-        master.nextEvent.event("tablet %s was unloaded from %s", tablet, serverName);
+        master.tabletStateTracker.update(tablet, null);
+        master.tabletStateTracker.changed(Collections.singleton(tablet));
+        master.nextEvent.incrementalEvent("tablet %s was unloaded from %s", tablet, serverName);
         break;
       case UNLOAD_ERROR:
         Master.log.error("{} reports unload failed for tablet {}", serverName, tablet);
@@ -69,6 +69,7 @@ import org.apache.accumulo.master.Master.TabletGoalState;
 import org.apache.accumulo.master.state.MergeStats;
 import org.apache.accumulo.master.state.TableCounts;
 import org.apache.accumulo.master.state.TableStats;
+import org.apache.accumulo.master.state.TabletStateTracker;
 import org.apache.accumulo.server.ServerConstants;
 import org.apache.accumulo.server.conf.TableConfiguration;
 import org.apache.accumulo.server.fs.FileRef;
@@ -82,11 +83,13 @@ import org.apache.accumulo.server.master.state.ClosableIterator;
 import org.apache.accumulo.server.master.state.DistributedStoreException;
 import org.apache.accumulo.server.master.state.MergeInfo;
 import org.apache.accumulo.server.master.state.MergeState;
+import org.apache.accumulo.server.master.state.RootTabletStateStore;
 import org.apache.accumulo.server.master.state.TServerInstance;
 import org.apache.accumulo.server.master.state.TabletLocationState;
 import org.apache.accumulo.server.master.state.TabletLocationState.BadLocationStateException;
 import org.apache.accumulo.server.master.state.TabletState;
 import org.apache.accumulo.server.master.state.TabletStateStore;
+import org.apache.accumulo.server.master.state.ZooTabletStateStore;
 import org.apache.accumulo.server.tablets.TabletTime;
 import org.apache.accumulo.server.util.MetadataTableUtil;
 import org.apache.hadoop.fs.Path;
@@ -101,6 +104,9 @@ abstract class TabletGroupWatcher extends Daemon {
   private static final String ASSIGNMENT_BUFFER_SEPARATOR = ", ";
   private static final int ASSINGMENT_BUFFER_MAX_LENGTH = 4096;
 
+  // How often the in-memory tablet locations are rebuilt from a scan of every tablet
+  private static final long FULL_RECONCILE_INTERVAL = 10 * Master.TIME_TO_WAIT_BETWEEN_SCANS;
+
   private final Master master;
   final TabletStateStore store;
   final TabletGroupWatcher dependentWatcher;
@@ -132,6 +138,19 @@ abstract class TabletGroupWatcher extends Daemon {
     return stats.getLast(tableId);
   }
 
+  /**
+   * True if the tablet is covered by this watcher's store.
+   */
+  boolean covers(KeyExtent extent) {
+    if (store instanceof ZooTabletStateStore) {
+      return extent.isRootTablet();
+    } else if (store instanceof RootTabletStateStore) {
+      return extent.isMeta() && !extent.isRootTablet();
+    } else {
+      return !extent.isMeta();
+    }
+  }
+
   /**
    * True if the collection of live tservers specified in 'candidates' hasn't changed since the last
    * time an assignment scan was started.
@@ -147,6 +166,10 @@ abstract class TabletGroupWatcher extends Daemon {
     EventCoordinator.Listener eventListener = this.master.nextEvent.getListener();
 
     WalStateManager wals = new WalStateManager(master.getContext());
+    TabletStateTracker tracker = master.tabletStateTracker;
+
+    long lastFullScan = 0;
+    long lastReconcile = 0;
 
     while (this.master.stillMaster()) {
       // slow things down a little, otherwise we spam the logs when there are many wake-up events
@@ -156,6 +179,7 @@ abstract class TabletGroupWatcher extends Daemon {
       int totalUnloaded = 0;
       int unloaded = 0;
       ClosableIterator<TabletLocationState> iter = null;
+      Set<KeyExtent> changedTablets = Collections.emptySet();
       try {
         Map<Table.ID,MergeStats> mergeStatsCache = new HashMap<>();
         Map<Table.ID,MergeStats> currentMerges = new HashMap<>();
@@ -165,6 +189,21 @@ abstract class TabletGroupWatcher extends Daemon {
           }
         }
 
+        // Decide between looking at every tablet and only at the tablets that changed. Merges need
+        // to see every tablet of the table and untracked events could affect any tablet.
+        long now = System.currentTimeMillis();
+        boolean fullScanRequested = eventListener.consumeFullScanRequest();
+        boolean reconcile = now - lastReconcile >= FULL_RECONCILE_INTERVAL;
+        boolean fullScan = fullScanRequested || reconcile || !currentMerges.isEmpty()
+            || now - lastFullScan >= Master.TIME_TO_WAIT_BETWEEN_SCANS;
+        changedTablets = tracker.drainChanged(this::covers);
+
+        if (!fullScan && changedTablets.isEmpty()) {
+          eventListener.waitForEvents(
+              Math.max(1, Master.TIME_TO_WAIT_BETWEEN_SCANS - (now - lastFullScan)));
+          continue;
+        }
+
         // Get the current status for the current list of tservers
         SortedMap<TServerInstance,TabletServerStatus> currentTServers = new TreeMap<>();
         for (TServerInstance entry : this.master.tserverSet.getCurrentServers()) {
@@ -172,6 +211,8 @@ abstract class TabletGroupWatcher extends Daemon {
         }
 
         if (currentTServers.size() == 0) {
+          // nothing can be assigned, so let the next pass look at everything
+          tracker.changed(changedTablets);
           eventListener.waitForEvents(Master.TIME_TO_WAIT_BETWEEN_SCANS);
           synchronized (this) {
             lastScanServers = ImmutableSortedSet.of();
@@ -192,10 +233,22 @@ abstract class TabletGroupWatcher extends Daemon {
 
         MasterState masterState = master.getMasterState();
         int[] counts = new int[TabletState.values().length];
-        stats.begin();
         // Walk through the tablets in our store, and work tablets
         // towards their goal
-        iter = store.iterator();
+        if (fullScan) {
+          stats.begin();
+          if (reconcile) {
+            // rebuild the tablet locations from every tablet, not only those out of place
+            tracker.clear(this::covers);
+            iter = store.unfilteredIterator();
+          } else {
+            iter = store.iterator();
+          }
+        } else {
+          Master.log.debug("[{}]: processing {} changed tablets", store.name(),
+              changedTablets.size());
+          iter = store.iterator(changedTablets);
+        }
         while (iter.hasNext()) {
           TabletLocationState tls = iter.next();
           if (tls == null) {
@@ -240,7 +293,14 @@ abstract class TabletGroupWatcher extends Daemon {
           if (Master.log.isTraceEnabled()) {
             Master.log.trace("Goal state {} current {} for {}", goal, state, tls.extent);
           }
-          stats.update(tableId, state);
+          if (state == TabletState.HOSTED || state == TabletState.ASSIGNED) {
+            tracker.update(tls.extent, tls.futureOrCurrent());
+          } else {
+            tracker.update(tls.extent, null);
+          }
+          if (fullScan) {
+            stats.update(tableId, state);
+          }
           mergeStats.update(tls.extent, state, tls.chopped, !tls.walogs.isEmpty());
           sendChopRequest(mergeStats.getMergeInfo(), state, tls);
           sendSplitRequest(mergeStats.getMergeInfo(), state, tls);
@@ -361,29 +421,44 @@ abstract class TabletGroupWatcher extends Daemon {
 
         flushChanges(destinations, assignments, assigned, assignedToDeadServers, logsForDeadServers,
             suspendedToGoneServers, unassigned);
-
-        // provide stats after flushing changes to avoid race conditions w/ delete table
-        stats.end(masterState);
-
-        // Report changes
-        for (TabletState state : TabletState.values()) {
-          int i = state.ordinal();
-          if (counts[i] > 0 && counts[i] != oldCounts[i]) {
-            this.master.nextEvent.event("[%s]: %d tablets are %s", store.name(), counts[i],
-                state.name());
+        changedTablets = Collections.emptySet();
+
+        if (fullScan) {
+          // provide stats after flushing changes to avoid race conditions w/ delete table
+          stats.end(masterState);
+
+          // Report changes
+          for (TabletState state : TabletState.values()) {
+            int i = state.ordinal();
+            if (counts[i] > 0 && counts[i] != oldCounts[i]) {
+              this.master.nextEvent.event("[%s]: %d tablets are %s", store.name(), counts[i],
+                  state.name());
+            }
           }
+          Master.log.debug(String.format("[%s]: scan time %.2f seconds", store.name(),
+              stats.getScanTime() / 1000.));
+          oldCounts = counts;
+          lastFullScan = now;
+          if (reconcile) {
+            lastReconcile = now;
+          }
+        } else {
+          Master.log.debug(String.format("[%s]: processed changed tablets in %.2f seconds",
+              store.name(), (System.currentTimeMillis() - now) / 1000.));
         }
-        Master.log.debug(String.format("[%s]: scan time %.2f seconds", store.name(),
-            stats.getScanTime() / 1000.));
-        oldCounts = counts;
         if (totalUnloaded > 0) {
-          this.master.nextEvent.event("[%s]: %d tablets unloaded", store.name(), totalUnloaded);
+          this.master.nextEvent.incrementalEvent("[%s]: %d tablets unloaded", store.name(),
+              totalUnloaded);
         }
 
         updateMergeState(mergeStatsCache);
 
-        synchronized (this) {
-          lastScanServers = ImmutableSortedSet.copyOf(currentTServers.keySet());
+        // The balancer waits for every watcher to have seen the current servers. Only a full scan
+        // gives it an accurate picture of unhosted tablets.
+        if (fullScan) {
+          synchronized (this) {
+            lastScanServers = ImmutableSortedSet.copyOf(currentTServers.keySet());
+          }
         }
         if (this.master.tserverSet.getCurrentServers().equals(currentTServers.keySet())) {
           Master.log.debug(String.format("[%s] sleeping for %.2f seconds", store.name(),
@@ -393,6 +468,9 @@ abstract class TabletGroupWatcher extends Daemon {
           Master.log.info("Detected change in current tserver set, re-running state machine.");
         }
       } catch (Exception ex) {
+        // make sure the tablets that were being processed are looked at again
+        tracker.changed(changedTablets);
+        lastFullScan = 0;
         Master.log.error("Error processing table state for store " + store.name(), ex);
         if (ex.getCause() != null && ex.getCause() instanceof BadLocationStateException) {
           repairMetadata(((BadLocationStateException) ex.getCause()).getEncodedEndRow());
@@ -861,7 +939,14 @@ abstract class TabletGroupWatcher extends Daemon {
         store.unassign(assignedToDeadServers, logsForDeadServers);
       }
       this.master.markDeadServerLogsAsClosed(logsForDeadServers);
-      this.master.nextEvent.event(
+      List<KeyExtent> extents = new ArrayList<>(assignedToDeadServers.size());
+      for (TabletLocationState tls : assignedToDeadServers) {
+        master.tabletStateTracker.update(tls.extent, null);
+        extents.add(tls.extent);
+      }
+      // look at these tablets again on the next pass so they get assigned
+      master.tabletStateTracker.changed(extents);
+      this.master.nextEvent.incrementalEvent(
           "Marked %d tablets as suspended because they don't have current servers",
           assignedToDeadServers.size());
     }
@@ -922,6 +1007,9 @@ abstract class TabletGroupWatcher extends Daemon {
     if (assignments.size() > 0) {
       Master.log.info(String.format("Assigning %d tablets", assignments.size()));
       store.setFutureLocations(assignments);
+      for (Assignment a : assignments) {
+        master.tabletStateTracker.update(a.tablet, a.server);
+      }
     }
     assignments.addAll(assigned);
     for (Assignment a : assignments) {
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.master.state;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.server.master.state.TServerInstance;
+
+/**
+ * An in-memory model of where tablets are assigned or hosted, plus the set of tablets whose state
+ * changed since a tablet group watcher last looked at them. The model is fed by tablet server lock
+ * loss, assignment acknowledgements and split reports, which lets the watchers process only the
+ * tablets affected by an event instead of rescanning every tablet.
+ *
+ * <p>
+ * The model is best effort. Watchers periodically rebuild it from a scan of all tablets, and any
+ * event that is not tracked here makes them fall back to a full scan.
+ */
+public class TabletStateTracker {
+
+  private final Map<KeyExtent,TServerInstance> locations = new HashMap<>();
+  private final Map<TServerInstance,Set<KeyExtent>> tabletsByServer = new HashMap<>();
+  private final Set<KeyExtent> changed = new HashSet<>();
+
+  /**
+   * Record the current or future location of a tablet. A null server removes the tablet from the
+   * model.
+   */
+  public synchronized void update(KeyExtent extent, TServerInstance server) {
+    TServerInstance old = server == null ? locations.remove(extent)
+        : locations.put(extent, server);
+    if (old != null && !old.equals(server)) {
+      Set<KeyExtent> tablets = tabletsByServer.get(old);
+      if (tablets != null) {
+        tablets.remove(extent);
+        if (tablets.isEmpty()) {
+          tabletsByServer.remove(old);
+        }
+      }
+    }
+    if (server != null) {
+      tabletsByServer.computeIfAbsent(server, k -> new HashSet<>()).add(extent);
+    }
+  }
+
+  /**
+   * Record that a tablet was split by the server hosting it.
+   */
+  public synchronized void split(KeyExtent oldTablet, KeyExtent newTablet1, KeyExtent newTablet2) {
+    TServerInstance server = locations.get(oldTablet);
+    update(oldTablet, null);
+    if (server != null) {
+      update(newTablet1, server);
+      update(newTablet2, server);
+    }
+  }
+
+  /**
+   * Mark tablets as needing another look by the watchers.
+   */
+  public synchronized void changed(Collection<KeyExtent> extents) {
+    changed.addAll(extents);
+  }
+
+  /**
+   * Mark every tablet assigned to or hosted by the servers as changed, and forget their locations.
+   *
+   * @return the number of tablets affected
+   */
+  public synchronized int serversLost(Collection<TServerInstance> servers) {
+    int count = 0;
+    for (TServerInstance server : servers) {
+      Set<KeyExtent> tablets = tabletsByServer.remove(server);
+      if (tablets != null) {
+        for (KeyExtent extent : tablets) {
+          locations.remove(extent);
+        }
+        changed.addAll(tablets);
+        count += tablets.size();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Remove and return the changed tablets that match the filter.
+   */
+  public synchronized Set<KeyExtent> drainChanged(Predicate<KeyExtent> filter) {
+    if (changed.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    Set<KeyExtent> result = new HashSet<>();
+    Iterator<KeyExtent> iter = changed.iterator();
+    while (iter.hasNext()) {
+      KeyExtent extent = iter.next();
+      if (filter.test(extent)) {
+        result.add(extent);
+        iter.remove();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Forget the locations of all tablets that match the filter, in preparation for rebuilding them
+   * from a full scan.
+   */
+  public synchronized void clear(Predicate<KeyExtent> filter) {
+    Iterator<KeyExtent> iter = locations.keySet().iterator();
+    while (iter.hasNext()) {
+      KeyExtent extent = iter.next();
+      if (filter.test(extent)) {
+        iter.remove();
+      }
+    }
+    tabletsByServer.values().forEach(tablets -> tablets.removeIf(filter));
+    tabletsByServer.values().removeIf(Set::isEmpty);
+  }
+
+  public synchronized TServerInstance getLocation(KeyExtent extent) {
+    return locations.get(extent);
+  }
+
+  public synchronized int size() {
+    return locations.size();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.master.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.accumulo.core.clientImpl.Table;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.server.master.state.TServerInstance;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class TabletStateTrackerTest {
+
+  private static final TServerInstance server1 = new TServerInstance("192.168.0.1:9997", 1);
+  private static final TServerInstance server2 = new TServerInstance("192.168.0.2:9997", 1);
+
+  private static KeyExtent nke(String table, String end, String prev) {
+    return new KeyExtent(Table.ID.of(table), end == null ? null : new Text(end),
+        prev == null ? null : new Text(prev));
+  }
+
+  @Test
+  public void testServerLost() {
+    TabletStateTracker tracker = new TabletStateTracker();
+
+    KeyExtent ke1 = nke("1", "g", null);
+    KeyExtent ke2 = nke("1", null, "g");
+    KeyExtent ke3 = nke("2", null, null);
+
+    tracker.update(ke1, server1);
+    tracker.update(ke2, server2);
+    tracker.update(ke3, server1);
+    assertEquals(3, tracker.size());
+
+    // moving a tablet should remove it from the old server
+    tracker.update(ke3, server2);
+
+    assertEquals(1, tracker.serversLost(Collections.singleton(server1)));
+    assertNull(tracker.getLocation(ke1));
+    assertEquals(server2, tracker.getLocation(ke3));
+
+    assertEquals(Collections.singleton(ke1), tracker.drainChanged(e -> true));
+    assertTrue(tracker.drainChanged(e -> true).isEmpty());
+
+    assertEquals(2, tracker.serversLost(Arrays.asList(server1, server2)));
+    assertEquals(0, tracker.size());
+  }
+
+  @Test
+  public void testDrainFilter() {
+    TabletStateTracker tracker = new TabletStateTracker();
+
+    KeyExtent ke1 = nke("1", "g", null);
+    KeyExtent ke2 = nke("2", null, null);
+
+    tracker.changed(Arrays.asList(ke1, ke2));
+
+    assertEquals(Collections.singleton(ke2),
+        tracker.drainChanged(e -> e.getTableId().canonicalID().equals("2")));
+    assertEquals(Collections.singleton(ke1), tracker.drainChanged(e -> true));
+  }
+
+  @Test
+  public void testSplit() {
+    TabletStateTracker tracker = new TabletStateTracker();
+
+    KeyExtent old = nke("1", null, null);
+    KeyExtent low = nke("1", "m", null);
+    KeyExtent high = nke("1", null, "m");
+
+    tracker.update(old, server1);
+    tracker.split(old, low, high);
+
+    assertNull(tracker.getLocation(old));
+    assertEquals(server1, tracker.getLocation(low));
+    assertEquals(server1, tracker.getLocation(high));
+
+    tracker.serversLost(Collections.singleton(server1));
+    assertEquals(new HashSet<>(Arrays.asList(low, high)), tracker.drainChanged(e -> true));
+  }
+
+  @Test
+  public void testClear() {
+    TabletStateTracker tracker = new TabletStateTracker();
+
+    KeyExtent ke1 = nke("1", null, null);
+    KeyExtent ke2 = nke("2", null, null);
+
+    tracker.update(ke1, server1);
+    tracker.update(ke2, server1);
+
+    tracker.clear(e -> e.getTableId().canonicalID().equals("1"));
+    assertEquals(1, tracker.size());
+
+    tracker.serversLost(Collections.singleton(server1));
+    Set<KeyExtent> changed = tracker.drainChanged(e -> true);
+    assertEquals(Collections.singleton(ke2), changed);
+  }
+}
@@ -21,22 +21,22 @@ import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleFunction;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.AccumuloClient;
@@ -64,6 +64,7 @@ import org.apache.accumulo.fate.zookeeper.ZooLock.LockLossReason;
 import org.apache.accumulo.fate.zookeeper.ZooReaderWriter;
 import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeExistsPolicy;
 import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeMissingPolicy;
+import org.apache.accumulo.monitor.util.TimeSeries;
 import org.apache.accumulo.server.HighlyAvailableService;
 import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.server.ServerOpts;
@@ -95,61 +96,60 @@ public class Monitor implements HighlyAvailableService {
 
   private static final int REFRESH_TIME = 5;
   private static AtomicLong lastRecalc = new AtomicLong(0L);
-  private static double totalIngestRate = 0.0;
-  private static double totalQueryRate = 0.0;
-  private static double totalScanRate = 0.0;
-  private static long totalEntries = 0L;
-  private static int totalTabletCount = 0;
-  private static long totalHoldTime = 0;
-  private static long totalLookups = 0;
-  private static int totalTables = 0;
-  public static HighlyAvailableService HA_SERVICE_INSTANCE = null;
-  private static final AtomicBoolean monitorInitialized = new AtomicBoolean(false);
-
-  private static class MaxList<T> extends LinkedList<Pair<Long,T>> {
-    private static final long serialVersionUID = 1L;
-
-    private long maxDelta;
-
-    public MaxList(long maxDelta) {
-      this.maxDelta = maxDelta;
-    }
-
-    @Override
-    public boolean add(Pair<Long,T> obj) {
-      boolean result = super.add(obj);
-
-      if (obj.getFirst() - get(0).getFirst() > maxDelta)
-        remove(0);
 
-      return result;
+  /**
+   * The totals of the last fetch, replaced as a whole so that readers see consistent values without
+   * locking.
+   */
+  private static class Totals {
+    final double ingestRate;
+    final double queryRate;
+    final double scanRate;
+    final long entries;
+    final int tabletCount;
+    final long holdTime;
+    final long lookups;
+    final int tables;
+
+    Totals(double ingestRate, double queryRate, double scanRate, long entries, int tabletCount,
+        long holdTime, long lookups, int tables) {
+      this.ingestRate = ingestRate;
+      this.queryRate = queryRate;
+      this.scanRate = scanRate;
+      this.entries = entries;
+      this.tabletCount = tabletCount;
+      this.holdTime = holdTime;
+      this.lookups = lookups;
+      this.tables = tables;
     }
-
   }
 
+  private static volatile Totals totals = new Totals(0, 0, 0, 0, 0, 0, 0, 0);
+  public static HighlyAvailableService HA_SERVICE_INSTANCE = null;
+  private static final AtomicBoolean monitorInitialized = new AtomicBoolean(false);
+
   private static final int MAX_TIME_PERIOD = 60 * 60 * 1000;
-  private static final List<Pair<Long,Double>> loadOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Double>> ingestRateOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Double>> ingestByteRateOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Integer>> minorCompactionsOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Integer>> majorCompactionsOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Double>> lookupsOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Integer>> queryRateOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Integer>> scanRateOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Double>> queryByteRateOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Double>> indexCacheHitRateOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
-  private static final List<Pair<Long,Double>> dataCacheHitRateOverTime = Collections
-      .synchronizedList(new MaxList<>(MAX_TIME_PERIOD));
+  // the last 15 minutes are kept at every refresh, and the rest of the hour as averages
+  private static final int RECENT_SAMPLES = 15 * 60 / REFRESH_TIME;
+  private static final int SAMPLES_PER_POINT = 4;
+
+  private static <T extends Number> TimeSeries<T> newSeries(DoubleFunction<T> fromAverage) {
+    return new TimeSeries<>(MAX_TIME_PERIOD, RECENT_SAMPLES, SAMPLES_PER_POINT, fromAverage);
+  }
+
+  private static final TimeSeries<Double> loadOverTime = newSeries(d -> d);
+  private static final TimeSeries<Double> ingestRateOverTime = newSeries(d -> d);
+  private static final TimeSeries<Double> ingestByteRateOverTime = newSeries(d -> d);
+  private static final TimeSeries<Integer> minorCompactionsOverTime = newSeries(
+      d -> (int) Math.round(d));
+  private static final TimeSeries<Integer> majorCompactionsOverTime = newSeries(
+      d -> (int) Math.round(d));
+  private static final TimeSeries<Double> lookupsOverTime = newSeries(d -> d);
+  private static final TimeSeries<Integer> queryRateOverTime = newSeries(d -> (int) Math.round(d));
+  private static final TimeSeries<Integer> scanRateOverTime = newSeries(d -> (int) Math.round(d));
+  private static final TimeSeries<Double> queryByteRateOverTime = newSeries(d -> d);
+  private static final TimeSeries<Double> indexCacheHitRateOverTime = newSeries(d -> d);
+  private static final TimeSeries<Double> dataCacheHitRateOverTime = newSeries(d -> d);
   private static EventCounter lookupRateTracker = new EventCounter();
   private static EventCounter indexCacheHitTracker = new EventCounter();
   private static EventCounter indexCacheRequestTracker = new EventCounter();
@@ -339,36 +339,30 @@ public class Monitor implements HighlyAvailableService {
           totalTabletCount += tInfo.tablets;
           totalTables++;
         }
-        Monitor.totalIngestRate = totalIngestRate;
-        Monitor.totalTables = totalTables;
+        totals = new Totals(totalIngestRate, totalQueryRate, totalScanRate, totalEntries,
+            totalTabletCount, totalHoldTime, totalLookups, totalTables);
         totalIngestByteRate = totalIngestByteRate / 1000000.0;
-        Monitor.totalQueryRate = totalQueryRate;
-        Monitor.totalScanRate = totalScanRate;
         totalQueryByteRate = totalQueryByteRate / 1000000.0;
-        Monitor.totalEntries = totalEntries;
-        Monitor.totalTabletCount = totalTabletCount;
-        Monitor.totalHoldTime = totalHoldTime;
-        Monitor.totalLookups = totalLookups;
 
-        ingestRateOverTime.add(new Pair<>(currentTime, totalIngestRate));
-        ingestByteRateOverTime.add(new Pair<>(currentTime, totalIngestByteRate));
+        ingestRateOverTime.add(currentTime, totalIngestRate);
+        ingestByteRateOverTime.add(currentTime, totalIngestByteRate);
 
         double totalLoad = 0.;
         for (TabletServerStatus status : mmi.tServerInfo) {
           if (status != null)
             totalLoad += status.osLoad;
         }
-        loadOverTime.add(new Pair<>(currentTime, totalLoad));
+        loadOverTime.add(currentTime, totalLoad);
 
-        minorCompactionsOverTime.add(new Pair<>(currentTime, minorCompactions));
-        majorCompactionsOverTime.add(new Pair<>(currentTime, majorCompactions));
+        minorCompactionsOverTime.add(currentTime, minorCompactions);
+        majorCompactionsOverTime.add(currentTime, majorCompactions);
 
-        lookupsOverTime.add(new Pair<>(currentTime, lookupRateTracker.calculateRate()));
+        lookupsOverTime.add(currentTime, lookupRateTracker.calculateRate());
 
-        queryRateOverTime.add(new Pair<>(currentTime, (int) totalQueryRate));
-        queryByteRateOverTime.add(new Pair<>(currentTime, totalQueryByteRate));
+        queryRateOverTime.add(currentTime, (int) totalQueryRate);
+        queryByteRateOverTime.add(currentTime, totalQueryByteRate);
 
-        scanRateOverTime.add(new Pair<>(currentTime, (int) totalScanRate));
+        scanRateOverTime.add(currentTime, (int) totalScanRate);
 
         calcCacheHitRate(indexCacheHitRateOverTime, currentTime, indexCacheHitTracker,
             indexCacheRequestTracker);
@@ -392,14 +386,13 @@ public class Monitor implements HighlyAvailableService {
     }
   }
 
-  private static void calcCacheHitRate(List<Pair<Long,Double>> hitRate, long currentTime,
+  private static void calcCacheHitRate(TimeSeries<Double> hitRate, long currentTime,
       EventCounter cacheHits, EventCounter cacheReq) {
     long req = cacheReq.calculateCount();
     if (req > 0)
-      hitRate.add(
-          new Pair<>(currentTime, cacheHits.calculateCount() / (double) cacheReq.calculateCount()));
+      hitRate.add(currentTime, cacheHits.calculateCount() / (double) cacheReq.calculateCount());
     else
-      hitRate.add(new Pair<>(currentTime, null));
+      hitRate.add(currentTime, null);
   }
 
   private static GCStatus fetchGcStatus() {
@@ -584,12 +577,10 @@ public class Monitor implements HighlyAvailableService {
     }
   }
 
-  static final Map<HostAndPort,ScanStats> allScans = new HashMap<>();
+  static final Map<HostAndPort,ScanStats> allScans = new ConcurrentHashMap<>();
 
   public static Map<HostAndPort,ScanStats> getScans() {
-    synchronized (allScans) {
-      return new HashMap<>(allScans);
-    }
+    return new HashMap<>(allScans);
   }
 
   public static void fetchScans() throws Exception {
@@ -601,9 +592,7 @@ public class Monitor implements HighlyAvailableService {
       Client tserver = ThriftUtil.getTServerClient(parsedServer, context);
       try {
         List<ActiveScan> scans = tserver.getActiveScans(null, context.rpcCreds());
-        synchronized (allScans) {
-          allScans.put(parsedServer, new ScanStats(scans));
-        }
+        allScans.put(parsedServer, new ScanStats(scans));
       } catch (Exception ex) {
         log.debug("Failed to get active scans from {}", server, ex);
       } finally {
@@ -742,31 +731,31 @@ public class Monitor implements HighlyAvailableService {
   }
 
   public static int getTotalTables() {
-    return totalTables;
+    return totals.tables;
   }
 
   public static int getTotalTabletCount() {
-    return totalTabletCount;
+    return totals.tabletCount;
   }
 
   public static long getTotalEntries() {
-    return totalEntries;
+    return totals.entries;
   }
 
   public static double getTotalIngestRate() {
-    return totalIngestRate;
+    return totals.ingestRate;
   }
 
   public static double getTotalQueryRate() {
-    return totalQueryRate;
+    return totals.queryRate;
   }
 
   public static double getTotalScanRate() {
-    return totalScanRate;
+    return totals.scanRate;
   }
 
   public static long getTotalHoldTime() {
-    return totalHoldTime;
+    return totals.holdTime;
   }
 
   public static Exception getProblemException() {
@@ -782,7 +771,7 @@ public class Monitor implements HighlyAvailableService {
   }
 
   public static long getTotalLookups() {
-    return totalLookups;
+    return totals.lookups;
   }
 
   public static long getStartTime() {
@@ -790,27 +779,27 @@ public class Monitor implements HighlyAvailableService {
   }
 
   public static List<Pair<Long,Double>> getLoadOverTime() {
-    return new ArrayList<>(loadOverTime);
+    return loadOverTime.get();
   }
 
   public static List<Pair<Long,Double>> getIngestRateOverTime() {
-    return new ArrayList<>(ingestRateOverTime);
+    return ingestRateOverTime.get();
   }
 
   public static List<Pair<Long,Double>> getIngestByteRateOverTime() {
-    return new ArrayList<>(ingestByteRateOverTime);
+    return ingestByteRateOverTime.get();
   }
 
   public static List<Pair<Long,Integer>> getMinorCompactionsOverTime() {
-    return new ArrayList<>(minorCompactionsOverTime);
+    return minorCompactionsOverTime.get();
   }
 
   public static List<Pair<Long,Integer>> getMajorCompactionsOverTime() {
-    return new ArrayList<>(majorCompactionsOverTime);
+    return majorCompactionsOverTime.get();
   }
 
   public static List<Pair<Long,Double>> getLookupsOverTime() {
-    return new ArrayList<>(lookupsOverTime);
+    return lookupsOverTime.get();
   }
 
   public static double getLookupRate() {
@@ -818,23 +807,23 @@ public class Monitor implements HighlyAvailableService {
   }
 
   public static List<Pair<Long,Integer>> getQueryRateOverTime() {
-    return new ArrayList<>(queryRateOverTime);
+    return queryRateOverTime.get();
   }
 
   public static List<Pair<Long,Integer>> getScanRateOverTime() {
-    return new ArrayList<>(scanRateOverTime);
+    return scanRateOverTime.get();
   }
 
   public static List<Pair<Long,Double>> getQueryByteRateOverTime() {
-    return new ArrayList<>(queryByteRateOverTime);
+    return queryByteRateOverTime.get();
   }
 
   public static List<Pair<Long,Double>> getIndexCacheHitRateOverTime() {
-    return new ArrayList<>(indexCacheHitRateOverTime);
+    return indexCacheHitRateOverTime.get();
   }
 
   public static List<Pair<Long,Double>> getDataCacheHitRateOverTime() {
-    return new ArrayList<>(dataCacheHitRateOverTime);
+    return dataCacheHitRateOverTime.get();
   }
 
   public static ServerContext getContext() {
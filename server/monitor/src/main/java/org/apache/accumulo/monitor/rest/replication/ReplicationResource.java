@@ -89,7 +89,8 @@ public class ReplicationResource {
       // Filter out cruft that we don't want
       if (key.startsWith(definedPeersPrefix)
           && !key.startsWith(Property.REPLICATION_PEER_USER.getKey())
-          && !key.startsWith(Property.REPLICATION_PEER_PASSWORD.getKey())) {
+          && !key.startsWith(Property.REPLICATION_PEER_PASSWORD.getKey())
+          && !key.startsWith(Property.REPLICATION_PEER_COMPRESS.getKey())) {
         String peerName = property.getKey().substring(definedPeersPrefix.length());
         ReplicaSystem replica;
         try {
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.monitor.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.DoubleFunction;
+
+import org.apache.accumulo.core.util.Pair;
+
+/**
+ * The recent history of a value sampled over time, for the charts of the monitor. The latest
+ * samples are kept as they are and older ones are averaged in groups, so that a long period is
+ * covered by a bounded number of points.
+ *
+ * <p>
+ * One thread adds samples while any number of threads read them, without locks. Samples are kept
+ * in ring buffers, and readers drop the samples that were overwritten while they copied them.
+ */
+public class TimeSeries<T extends Number> {
+
+  /**
+   * A ring buffer written by a single thread.
+   */
+  private static class Ring<T> {
+    /**
+     * A sample and its position in the sequence of samples ever added, so that readers can tell
+     * whether its slot was reused while they copied it.
+     */
+    private static class Slot<T> {
+      final long index;
+      final Pair<Long,T> sample;
+
+      Slot(long index, Pair<Long,T> sample) {
+        this.index = index;
+        this.sample = sample;
+      }
+    }
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    // the number of samples ever added, the latest is in the slot (added - 1) % capacity
+    private volatile long added = 0;
+
+    Ring(int capacity) {
+      slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void add(Pair<Long,T> sample) {
+      slots.set((int) (added % slots.length()), new Slot<>(added, sample));
+      added++;
+    }
+
+    List<Pair<Long,T>> snapshot() {
+      long end = added;
+      long start = Math.max(0, end - slots.length());
+      List<Pair<Long,T>> copy = new ArrayList<>((int) (end - start));
+      for (long i = start; i < end; i++) {
+        Slot<T> slot = slots.get((int) (i % slots.length()));
+        if (slot.index != i) {
+          // replaced by a newer sample while copying, keep only the samples after it
+          copy.clear();
+        } else {
+          copy.add(slot.sample);
+        }
+      }
+      return copy;
+    }
+  }
+
+  private final long maxAge;
+  private final int samplesPerPoint;
+  private final DoubleFunction<T> fromAverage;
+  private final Ring<T> recent;
+  private final Ring<T> older;
+
+  // the samples being averaged into the next older point
+  private int pending = 0;
+  private int pendingValues = 0;
+  private double pendingSum = 0;
+  private long pendingTime;
+
+  /**
+   * @param maxAge
+   *          samples older than this, relative to the latest sample, are not returned
+   * @param capacity
+   *          the number of latest samples kept as they are, and of older averaged points
+   * @param samplesPerPoint
+   *          the number of samples averaged into each older point
+   * @param fromAverage
+   *          converts the average of samples to the type of the values
+   */
+  public TimeSeries(long maxAge, int capacity, int samplesPerPoint, DoubleFunction<T> fromAverage) {
+    this.maxAge = maxAge;
+    this.samplesPerPoint = samplesPerPoint;
+    this.fromAverage = fromAverage;
+    this.recent = new Ring<>(capacity);
+    this.older = new Ring<>(capacity);
+  }
+
+  /**
+   * Adds a sample, only one thread may add samples.
+   *
+   * @param value
+   *          the value of the sample, or null if it is unknown
+   */
+  public void add(long time, T value) {
+    recent.add(new Pair<>(time, value));
+
+    if (pending == 0) {
+      pendingTime = time;
+    }
+    pending++;
+    if (value != null) {
+      pendingValues++;
+      pendingSum += value.doubleValue();
+    }
+    if (pending == samplesPerPoint) {
+      older.add(new Pair<>(pendingTime,
+          pendingValues == 0 ? null : fromAverage.apply(pendingSum / pendingValues)));
+      pending = 0;
+      pendingValues = 0;
+      pendingSum = 0;
+    }
+  }
+
+  /**
+   * @return the samples, oldest first, older ones averaged
+   */
+  public List<Pair<Long,T>> get() {
+    List<Pair<Long,T>> latest = recent.snapshot();
+    if (latest.isEmpty()) {
+      return latest;
+    }
+    long firstLatest = latest.get(0).getFirst();
+    long oldest = latest.get(latest.size() - 1).getFirst() - maxAge;
+
+    List<Pair<Long,T>> samples = new ArrayList<>();
+    for (Pair<Long,T> point : older.snapshot()) {
+      if (point.getFirst() >= oldest && point.getFirst() < firstLatest) {
+        samples.add(point);
+      }
+    }
+    for (Pair<Long,T> sample : latest) {
+      if (sample.getFirst() >= oldest) {
+        samples.add(sample);
+      }
+    }
+    return samples;
+  }
+}
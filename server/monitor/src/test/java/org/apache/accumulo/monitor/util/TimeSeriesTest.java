@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.monitor.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.util.Pair;
+import org.junit.Test;
+
+public class TimeSeriesTest {
+
+  @Test
+  public void testRecent() {
+    TimeSeries<Double> series = new TimeSeries<>(1000, 10, 2, d -> d);
+    assertTrue(series.get().isEmpty());
+    for (int i = 0; i < 5; i++) {
+      series.add(i * 10, (double) i);
+    }
+    List<Pair<Long,Double>> samples = series.get();
+    assertEquals(5, samples.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i * 10, samples.get(i).getFirst().longValue());
+      assertEquals(i, samples.get(i).getSecond(), 0.0);
+    }
+  }
+
+  @Test
+  public void testAveragedOlderSamples() {
+    TimeSeries<Integer> series = new TimeSeries<>(1000, 4, 2, d -> (int) Math.round(d));
+    for (int i = 0; i < 10; i++) {
+      series.add(i * 10, i);
+    }
+    // the 4 latest samples, preceded by the averages of the older pairs of samples that are still
+    // kept
+    List<Pair<Long,Integer>> samples = series.get();
+    assertEquals(6, samples.size());
+    assertEquals(20, samples.get(0).getFirst().longValue());
+    assertEquals(3, samples.get(0).getSecond().intValue());
+    assertEquals(40, samples.get(1).getFirst().longValue());
+    assertEquals(5, samples.get(1).getSecond().intValue());
+    for (int i = 0; i < 4; i++) {
+      assertEquals(i + 6, samples.get(i + 2).getSecond().intValue());
+    }
+  }
+
+  @Test
+  public void testMaxAge() {
+    TimeSeries<Double> series = new TimeSeries<>(25, 4, 2, d -> d);
+    for (int i = 0; i < 10; i++) {
+      series.add(i * 10, (double) i);
+    }
+    List<Pair<Long,Double>> samples = series.get();
+    assertEquals(3, samples.size());
+    assertEquals(70, samples.get(0).getFirst().longValue());
+  }
+
+  @Test
+  public void testNulls() {
+    TimeSeries<Double> series = new TimeSeries<>(1000, 3, 2, d -> d);
+    series.add(0, null);
+    series.add(10, null);
+    series.add(20, null);
+    series.add(30, 1.0);
+    series.add(40, 3.0);
+    series.add(50, null);
+    List<Pair<Long,Double>> samples = series.get();
+    assertEquals(5, samples.size());
+    // an older point is null only if all of its samples are
+    assertNull(samples.get(0).getSecond());
+    assertEquals(1.0, samples.get(1).getSecond(), 0.0);
+    assertEquals(1.0, samples.get(2).getSecond(), 0.0);
+    assertEquals(3.0, samples.get(3).getSecond(), 0.0);
+    assertNull(samples.get(4).getSecond());
+  }
+
+  @Test
+  public void testConcurrentReads() throws Exception {
+    // with one sample per point, every point is a sample whose value is its time
+    TimeSeries<Double> series = new TimeSeries<>(Long.MAX_VALUE / 2, 8, 1, d -> d);
+    AtomicBoolean stop = new AtomicBoolean(false);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Future<?> writer = executor.submit(() -> {
+        for (long i = 0; i < 2_000_000; i++) {
+          series.add(i, (double) i);
+        }
+        stop.set(true);
+      });
+      Runnable reader = () -> {
+        while (!stop.get()) {
+          long previous = -1;
+          for (Pair<Long,Double> sample : series.get()) {
+            // a sample replaced while it was copied would be out of order
+            assertTrue(sample.getFirst() > previous);
+            assertEquals(sample.getFirst(), sample.getSecond(), 0.0);
+            previous = sample.getFirst();
+          }
+        }
+      };
+      Future<?> reader1 = executor.submit(reader);
+      Future<?> reader2 = executor.submit(reader);
+      writer.get(60, TimeUnit.SECONDS);
+      reader1.get(60, TimeUnit.SECONDS);
+      reader2.get(60, TimeUnit.SECONDS);
+    } finally {
+      stop.set(true);
+      executor.shutdownNow();
+    }
+  }
+}
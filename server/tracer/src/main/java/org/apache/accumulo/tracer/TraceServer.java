@@ -23,11 +23,18 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.Accumulo;
@@ -49,6 +56,8 @@ import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.user.AgeOffFilter;
+import org.apache.accumulo.core.util.Daemon;
+import org.apache.accumulo.fate.util.LoggingRunnable;
 import org.apache.accumulo.fate.zookeeper.IZooReaderWriter;
 import org.apache.accumulo.fate.zookeeper.ZooUtil.NodeExistsPolicy;
 import org.apache.accumulo.server.ServerContext;
@@ -86,10 +95,12 @@ public class TraceServer implements Watcher {
   private final ServerConfigurationFactory serverConfiguration;
   private final ServerContext context;
   private final TServer server;
-  private final AtomicReference<BatchWriter> writer;
+  private final SpanWriter[] writers;
+  private final LongAdder discarded = new LongAdder();
   private final AccumuloClient accumuloClient;
   final String tableName;
   private static final int BATCH_WRITER_MAX_LATENCY = 5;
+  private static final int MAX_SPANS_PER_WRITE = 1000;
   private static final long SCHEDULE_PERIOD = 1000;
   private static final long SCHEDULE_DELAY = 1000;
 
@@ -130,61 +141,172 @@ public class TraceServer implements Watcher {
     }
   }
 
+  /**
+   * Converts a span into the mutations that store it, the span itself under its trace, an index
+   * entry by service and start time and, for root spans, an entry by start time. The index entry of
+   * each span has its own key, so that spans of a service that start at the same time are all
+   * indexed.
+   */
+  static List<Mutation> spanMutations(RemoteSpan s) throws TException {
+    List<Mutation> mutations = new ArrayList<>(3);
+    String idString = Long.toHexString(s.traceId);
+    String startString = Long.toHexString(s.start);
+    Mutation spanMutation = new Mutation(new Text(idString));
+    Mutation indexMutation = new Mutation(new Text("idx:" + s.svc + ":" + startString));
+    long diff = s.stop - s.start;
+    indexMutation.put(new Text(s.description),
+        new Text(s.sender + ":" + Long.toHexString(s.spanId)),
+        new Value((idString + ":" + Long.toHexString(diff)).getBytes(UTF_8)));
+    ByteArrayTransport transport = new ByteArrayTransport();
+    TCompactProtocol protocol = new TCompactProtocol(transport);
+    s.write(protocol);
+    String parentString = Long.toHexString(s.parentId);
+    if (s.parentId == Span.ROOT_SPAN_ID)
+      parentString = "";
+    put(spanMutation, "span", parentString + ":" + Long.toHexString(s.spanId), transport.get(),
+        transport.len());
+    mutations.add(spanMutation);
+    mutations.add(indexMutation);
+    // Map the root span to time so we can look up traces by time
+    if (s.parentId == Span.ROOT_SPAN_ID) {
+      Mutation timeMutation = new Mutation(new Text("start:" + startString));
+      put(timeMutation, "id", idString, transport.get(), transport.len());
+      mutations.add(timeMutation);
+    }
+    return mutations;
+  }
+
   class Receiver implements Iface {
     @Override
     public void span(RemoteSpan s) throws TException {
-      String idString = Long.toHexString(s.traceId);
-      String startString = Long.toHexString(s.start);
-      Mutation spanMutation = new Mutation(new Text(idString));
-      Mutation indexMutation = new Mutation(new Text("idx:" + s.svc + ":" + startString));
-      long diff = s.stop - s.start;
-      indexMutation.put(new Text(s.description), new Text(s.sender),
-          new Value((idString + ":" + Long.toHexString(diff)).getBytes(UTF_8)));
-      ByteArrayTransport transport = new ByteArrayTransport();
-      TCompactProtocol protocol = new TCompactProtocol(transport);
-      s.write(protocol);
-      String parentString = Long.toHexString(s.parentId);
-      if (s.parentId == Span.ROOT_SPAN_ID)
-        parentString = "";
-      put(spanMutation, "span", parentString + ":" + Long.toHexString(s.spanId), transport.get(),
-          transport.len());
-      // Map the root span to time so we can look up traces by time
-      Mutation timeMutation = null;
-      if (s.parentId == Span.ROOT_SPAN_ID) {
-        timeMutation = new Mutation(new Text("start:" + startString));
-        put(timeMutation, "id", idString, transport.get(), transport.len());
+      // Only queue the span, so that bursts of spans are not held up by the writers. The spans of
+      // a trace all go to the same writer.
+      SpanWriter spanWriter = writers[Math.floorMod(Long.hashCode(s.traceId), writers.length)];
+      if (!spanWriter.queue.offer(s)) {
+        discarded.increment();
+      }
+    }
+
+  }
+
+  /**
+   * Writes the spans of some of the traces through its own batch writer, in batches of the spans
+   * queued while it was writing the previous batch.
+   */
+  static class SpanWriter implements Runnable {
+    final BlockingQueue<RemoteSpan> queue;
+    final AtomicReference<BatchWriter> writer;
+    // creates a writer to replace one that failed
+    private final Callable<BatchWriter> writerFactory;
+    private final BooleanSupplier tableExists;
+
+    SpanWriter(int queueSize, BatchWriter writer, Callable<BatchWriter> writerFactory,
+        BooleanSupplier tableExists) {
+      this.queue = new ArrayBlockingQueue<>(queueSize);
+      this.writer = new AtomicReference<>(writer);
+      this.writerFactory = writerFactory;
+      this.tableExists = tableExists;
+    }
+
+    @Override
+    public void run() {
+      List<RemoteSpan> batch = new ArrayList<>();
+      List<Mutation> mutations = new ArrayList<>();
+      while (true) {
+        try {
+          batch.add(queue.take());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        queue.drainTo(batch, MAX_SPANS_PER_WRITE - 1);
+        try {
+          for (RemoteSpan s : batch) {
+            mutations.addAll(spanMutations(s));
+          }
+          write(mutations, batch.size());
+        } catch (TException exception) {
+          log.warn("Unable to serialize spans; discarding {} spans. cause: {}", batch.size(),
+              exception.toString());
+        } finally {
+          batch.clear();
+          mutations.clear();
+        }
       }
+    }
+
+    void write(List<Mutation> mutations, int spans) {
       try {
-        final BatchWriter writer = TraceServer.this.writer.get();
+        final BatchWriter writer = this.writer.get();
         /*
          * Check for null, because we expect spans to come in much faster than flush calls. In the
          * case of failure, we'd rather avoid logging tons of NPEs.
          */
         if (null == writer) {
-          log.warn("writer is not ready; discarding span.");
+          log.warn("writer is not ready; discarding {} spans.", spans);
           return;
         }
-        writer.addMutation(spanMutation);
-        writer.addMutation(indexMutation);
-        if (timeMutation != null)
-          writer.addMutation(timeMutation);
+        writer.addMutations(mutations);
       } catch (MutationsRejectedException exception) {
-        log.warn("Unable to write mutation to table; discarding span. set log"
-            + " level to DEBUG for span information and stacktrace. cause: " + exception);
+        log.warn("Unable to write mutation to table; discarding {} spans. set log"
+            + " level to DEBUG for span information and stacktrace. cause: {}", spans,
+            exception.toString());
         if (log.isDebugEnabled()) {
-          log.debug("discarded span due to rejection of mutation: " + spanMutation, exception);
+          log.debug("discarded spans due to rejection of mutations: " + mutations, exception);
         }
         /*
          * XXX this could be e.g. an IllegalArgumentException if we're trying to write this mutation
          * to a writer that has been closed since we retrieved it
          */
       } catch (RuntimeException exception) {
-        log.warn("Unable to write mutation to table; discarding span. set log"
-            + " level to DEBUG for stacktrace. cause: " + exception);
+        log.warn("Unable to write mutation to table; discarding {} spans. set log"
+            + " level to DEBUG for stacktrace. cause: {}", spans, exception.toString());
         log.debug("unable to write mutation to table due to exception.", exception);
       }
     }
 
+    void flush() {
+      try {
+        final BatchWriter writer = this.writer.get();
+        if (null != writer) {
+          writer.flush();
+        } else {
+          // We don't have a writer. If the table exists, try to make a new writer.
+          if (tableExists.getAsBoolean()) {
+            resetWriter();
+          }
+        }
+      } catch (MutationsRejectedException | RuntimeException exception) {
+        log.warn("Problem flushing traces, resetting writer. Set log level to"
+            + " DEBUG to see stacktrace. cause: " + exception);
+        log.debug("flushing traces failed due to exception", exception);
+        resetWriter();
+        /* XXX e.g. if the writer was closed between when we grabbed it and when we called flush. */
+      }
+    }
+
+    private void resetWriter() {
+      BatchWriter writer = null;
+      try {
+        writer = writerFactory.call();
+      } catch (Exception ex) {
+        log.warn("Unable to create a batch writer, will retry. Set log level to"
+            + " DEBUG to see stacktrace. cause: " + ex);
+        log.debug("batch writer creation failed with exception.", ex);
+      } finally {
+        /* Trade in the new writer (even if null) for the one we need to close. */
+        writer = this.writer.getAndSet(writer);
+        try {
+          if (null != writer) {
+            writer.close();
+          }
+        } catch (Exception ex) {
+          log.warn("Problem closing batch writer. Set log level to DEBUG to see stacktrace. cause: "
+              + ex);
+          log.debug("batch writer close failed with exception", ex);
+        }
+      }
+    }
   }
 
   public TraceServer(ServerContext context, String hostname) throws Exception {
@@ -219,8 +341,17 @@ public class TraceServer implements Watcher {
     server = new TThreadPoolServer(options);
     registerInZooKeeper(sock.getInetAddress().getHostAddress() + ":" + sock.getLocalPort(),
         conf.get(Property.TRACE_ZK_PATH));
-    writer = new AtomicReference<>(this.accumuloClient.createBatchWriter(tableName,
-        new BatchWriterConfig().setMaxLatency(BATCH_WRITER_MAX_LATENCY, TimeUnit.SECONDS)));
+    int queueSize = conf.getCount(Property.TRACE_WRITER_QUEUE_SIZE);
+    writers = new SpanWriter[conf.getCount(Property.TRACE_WRITERS)];
+    for (int i = 0; i < writers.length; i++) {
+      writers[i] = new SpanWriter(queueSize, createWriter(), this::createWriter,
+          () -> accumuloClient.tableOperations().exists(tableName));
+    }
+  }
+
+  private BatchWriter createWriter() throws TableNotFoundException {
+    return accumuloClient.createBatchWriter(tableName,
+        new BatchWriterConfig().setMaxLatency(BATCH_WRITER_MAX_LATENCY, TimeUnit.SECONDS));
   }
 
   /**
@@ -294,6 +425,9 @@ public class TraceServer implements Watcher {
   }
 
   public void run() throws Exception {
+    for (int i = 0; i < writers.length; i++) {
+      new Daemon(new LoggingRunnable(log, writers[i]), "Trace span writer " + i).start();
+    }
     SimpleTimer.getInstance(serverConfiguration.getSystemConfiguration()).schedule(new Runnable() {
       @Override
       public void run() {
@@ -304,46 +438,12 @@ public class TraceServer implements Watcher {
   }
 
   private void flush() {
-    try {
-      final BatchWriter writer = this.writer.get();
-      if (null != writer) {
-        writer.flush();
-      } else {
-        // We don't have a writer. If the table exists, try to make a new writer.
-        if (accumuloClient.tableOperations().exists(tableName)) {
-          resetWriter();
-        }
-      }
-    } catch (MutationsRejectedException | RuntimeException exception) {
-      log.warn("Problem flushing traces, resetting writer. Set log level to"
-          + " DEBUG to see stacktrace. cause: " + exception);
-      log.debug("flushing traces failed due to exception", exception);
-      resetWriter();
-      /* XXX e.g. if the writer was closed between when we grabbed it and when we called flush. */
+    for (SpanWriter spanWriter : writers) {
+      spanWriter.flush();
     }
-  }
-
-  private void resetWriter() {
-    BatchWriter writer = null;
-    try {
-      writer = accumuloClient.createBatchWriter(tableName,
-          new BatchWriterConfig().setMaxLatency(BATCH_WRITER_MAX_LATENCY, TimeUnit.SECONDS));
-    } catch (Exception ex) {
-      log.warn("Unable to create a batch writer, will retry. Set log level to"
-          + " DEBUG to see stacktrace. cause: " + ex);
-      log.debug("batch writer creation failed with exception.", ex);
-    } finally {
-      /* Trade in the new writer (even if null) for the one we need to close. */
-      writer = this.writer.getAndSet(writer);
-      try {
-        if (null != writer) {
-          writer.close();
-        }
-      } catch (Exception ex) {
-        log.warn(
-            "Problem closing batch writer. Set log level to DEBUG to see stacktrace. cause: " + ex);
-        log.debug("batch writer close failed with exception", ex);
-      }
+    long count = discarded.sumThenReset();
+    if (count > 0) {
+      log.warn("Discarded {} spans received while the writers were behind", count);
     }
   }
 
@@ -33,10 +33,13 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
-import org.apache.accumulo.tracer.thrift.RemoteSpan;
 
 /**
- * Reads the trace table and prints out some stats about the spans found.
+ * Reads the trace table and prints out some stats about the spans found. The stats are computed
+ * from the index entries the trace server writes for every span, which hold everything needed
+ * here, so that the spans themselves do not have to be read and deserialized. Index entries
+ * written by older trace servers did not include the span id in their key, so spans of a service
+ * with the same description and start time were indexed, and are counted, only once.
  */
 public class TraceTableStats {
   static class Opts extends ClientOnDefaultTable {
@@ -76,7 +79,7 @@ public class TraceTableStats {
       throws AccumuloSecurityException, AccumuloException, TableNotFoundException {
     AccumuloClient client = opts.getClient();
     Scanner scanner = client.createScanner(opts.getTableName(), Authorizations.EMPTY);
-    scanner.setRange(new Range(null, true, "idx:", false));
+    scanner.setRange(Range.prefix("idx:"));
     Map<String,SpanTypeCount> counts = new TreeMap<>();
     final SpanTypeCount hdfs = new SpanTypeCount();
     hdfs.type = "HDFS";
@@ -87,29 +90,37 @@ public class TraceTableStats {
     double maxSpanLengthMS = 0;
     for (Entry<Key,Value> entry : scanner) {
       numSpans++;
-      RemoteSpan span = TraceFormatter.getRemoteSpan(entry);
-      String id = span.getSvc() + ":" + span.getDescription().replaceAll("[0-9][0-9][0-9]+", "");
+      // the row is idx:<service>:<start>, the family the description, the qualifier
+      // <sender>:<span id> and the value <trace id>:<length>
+      String row = entry.getKey().getRow().toString();
+      String svc = row.substring("idx:".length(), row.lastIndexOf(':'));
+      String description = entry.getKey().getColumnFamily().toString();
+      String value = entry.getValue().toString();
+      int sep = value.indexOf(':');
+      long traceId = Long.parseUnsignedLong(value.substring(0, sep), 16);
+      long length = Long.parseUnsignedLong(value.substring(sep + 1), 16);
+
+      String id = svc + ":" + description.replaceAll("[0-9][0-9][0-9]+", "");
       SpanTypeCount stc = counts.get(id);
       if (stc == null) {
         stc = new SpanTypeCount();
         counts.put(id, stc);
-        if (span.description.startsWith("org.apache.hadoop") || span.svc.equals("NameNode")
-            || span.svc.equals("DataNode") || span.description.contains("DFSOutputStream")
-            || span.description.contains("DFSInputStream")
-            || span.description.contains("BlockReader")) {
+        if (description.startsWith("org.apache.hadoop") || svc.equals("NameNode")
+            || svc.equals("DataNode") || description.contains("DFSOutputStream")
+            || description.contains("DFSInputStream") || description.contains("BlockReader")) {
           stc.type = hdfs.type;
         } else {
           stc.type = accumulo.type;
         }
       }
-      increment(stc, span);
+      increment(stc, traceId, length);
       if (stc.type.equals(hdfs.type)) {
-        increment(hdfs, span);
+        increment(hdfs, traceId, length);
       } else {
-        increment(accumulo, span);
+        increment(accumulo, traceId, length);
       }
-      maxSpanLength = Math.max(maxSpanLength, Math.log10(span.stop - span.start));
-      maxSpanLengthMS = Math.max(maxSpanLengthMS, span.stop - span.start);
+      maxSpanLength = Math.max(maxSpanLength, Math.log10(length));
+      maxSpanLengthMS = Math.max(maxSpanLengthMS, length);
     }
     System.out.println();
     System.out.println("log10 max span length " + maxSpanLength + " " + maxSpanLengthMS);
@@ -125,14 +136,13 @@ public class TraceTableStats {
     }
   }
 
-  private static void increment(SpanTypeCount stc, RemoteSpan span) {
-    stc.traceIds.add(span.getTraceId());
-    if (span.stop == span.start) {
+  private static void increment(SpanTypeCount stc, long traceId, long ms) {
+    stc.traceIds.add(traceId);
+    if (ms == 0) {
       stc.zeroCount++;
       incrementIndex(stc.log10SpanLength, 0);
     } else {
       stc.nonzeroCount++;
-      long ms = span.stop - span.start;
       if (ms <= 10)
         incrementIndex(stc.log10SpanLength, 1);
       else if (ms <= 100)
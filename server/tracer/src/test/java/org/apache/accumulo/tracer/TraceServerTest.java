@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tracer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.tracer.thrift.RemoteSpan;
+import org.apache.htrace.Span;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class TraceServerTest {
+
+  private static RemoteSpan span(long spanId, long parentId) {
+    return new RemoteSpan("host:1234", "tserver", 0x1aL, spanId, parentId, 0x100L, 0x105L, "scan",
+        Collections.emptyMap(), Collections.emptyList());
+  }
+
+  private static String row(Mutation m) {
+    return new String(m.getRow(), UTF_8);
+  }
+
+  @Test
+  public void testRootSpanMutations() throws Exception {
+    List<Mutation> mutations = TraceServer.spanMutations(span(0x2L, Span.ROOT_SPAN_ID));
+    assertEquals(3, mutations.size());
+
+    Mutation spanMutation = mutations.get(0);
+    assertEquals("1a", row(spanMutation));
+    ColumnUpdate spanUpdate = spanMutation.getUpdates().get(0);
+    assertEquals("span", new String(spanUpdate.getColumnFamily(), UTF_8));
+    assertEquals(":2", new String(spanUpdate.getColumnQualifier(), UTF_8));
+
+    Mutation indexMutation = mutations.get(1);
+    assertEquals("idx:tserver:100", row(indexMutation));
+    ColumnUpdate indexUpdate = indexMutation.getUpdates().get(0);
+    assertEquals("scan", new String(indexUpdate.getColumnFamily(), UTF_8));
+    assertEquals("host:1234:2", new String(indexUpdate.getColumnQualifier(), UTF_8));
+    assertEquals("1a:5", new String(indexUpdate.getValue(), UTF_8));
+
+    Mutation timeMutation = mutations.get(2);
+    assertEquals("start:100", row(timeMutation));
+    ColumnUpdate timeUpdate = timeMutation.getUpdates().get(0);
+    assertEquals("id", new String(timeUpdate.getColumnFamily(), UTF_8));
+    assertEquals("1a", new String(timeUpdate.getColumnQualifier(), UTF_8));
+  }
+
+  @Test
+  public void testChildSpanMutations() throws Exception {
+    List<Mutation> mutations = TraceServer.spanMutations(span(0x3L, 0x2L));
+    assertEquals(2, mutations.size());
+    assertEquals("2:3",
+        new String(mutations.get(0).getUpdates().get(0).getColumnQualifier(), UTF_8));
+    assertEquals("idx:tserver:100", row(mutations.get(1)));
+  }
+
+  @Test
+  public void testIndexEntriesUniquePerSpan() throws Exception {
+    // spans of the same service and description that start at the same time
+    ColumnUpdate first = TraceServer.spanMutations(span(0x3L, 0x2L)).get(1).getUpdates().get(0);
+    ColumnUpdate second = TraceServer.spanMutations(span(0x4L, 0x2L)).get(1).getUpdates().get(0);
+    assertEquals(new String(first.getColumnFamily(), UTF_8),
+        new String(second.getColumnFamily(), UTF_8));
+    assertNotEquals(new String(first.getColumnQualifier(), UTF_8),
+        new String(second.getColumnQualifier(), UTF_8));
+  }
+
+  @Test
+  public void testFlush() throws Exception {
+    BatchWriter writer = EasyMock.createMock(BatchWriter.class);
+    writer.flush();
+    EasyMock.replay(writer);
+
+    TraceServer.SpanWriter spanWriter = new TraceServer.SpanWriter(10, writer, () -> {
+      throw new AssertionError("the writer should not be replaced");
+    }, () -> true);
+    spanWriter.flush();
+
+    EasyMock.verify(writer);
+    assertSame(writer, spanWriter.writer.get());
+  }
+
+  @Test
+  public void testFailedFlushResetsWriter() throws Exception {
+    BatchWriter writer = EasyMock.createMock(BatchWriter.class);
+    writer.flush();
+    EasyMock.expectLastCall().andThrow(new IllegalStateException("closed"));
+    writer.close();
+    BatchWriter replacement = EasyMock.createMock(BatchWriter.class);
+    EasyMock.replay(writer, replacement);
+
+    TraceServer.SpanWriter spanWriter = new TraceServer.SpanWriter(10, writer, () -> replacement,
+        () -> true);
+    spanWriter.flush();
+
+    EasyMock.verify(writer, replacement);
+    assertSame(replacement, spanWriter.writer.get());
+  }
+
+  @Test
+  public void testWriterCreatedOnceTableExists() throws Exception {
+    BatchWriter failing = EasyMock.createMock(BatchWriter.class);
+    failing.flush();
+    EasyMock.expectLastCall().andThrow(new IllegalStateException("closed"));
+    failing.close();
+    BatchWriter replacement = EasyMock.createMock(BatchWriter.class);
+    EasyMock.replay(failing, replacement);
+
+    AtomicInteger attempts = new AtomicInteger();
+    boolean[] tableExists = {true};
+    TraceServer.SpanWriter spanWriter = new TraceServer.SpanWriter(10, failing, () -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new IllegalStateException("table deleted");
+      }
+      return replacement;
+    }, () -> tableExists[0]);
+
+    // the replacement writer can not be created, so the span writer is left without one
+    spanWriter.flush();
+    assertNull(spanWriter.writer.get());
+    // spans are discarded while there is no writer
+    spanWriter.write(TraceServer.spanMutations(span(0x3L, 0x2L)), 1);
+
+    // no writer is created while the table does not exist
+    tableExists[0] = false;
+    spanWriter.flush();
+    assertEquals(1, attempts.get());
+    assertNull(spanWriter.writer.get());
+
+    tableExists[0] = true;
+    spanWriter.flush();
+    assertEquals(2, attempts.get());
+    assertSame(replacement, spanWriter.writer.get());
+    EasyMock.verify(failing, replacement);
+  }
+}
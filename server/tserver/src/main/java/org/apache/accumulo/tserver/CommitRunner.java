@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.tserver.tablet.CommitSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Runs the steps of an update batch that are done for each tablet, checking constraints and
+ * committing to memory, so the tablets of a batch are handled at the same time. The tasks are
+ * offered to a shared pool, but the calling thread runs the first task and then every task the
+ * pool has not started yet. So a batch never waits for the pool to be free, and the pool does not
+ * need to be as large as the number of threads handling updates. Each tablet has one task, so its
+ * updates are still applied in order.
+ */
+class CommitRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(CommitRunner.class);
+
+  private final Executor executor;
+
+  CommitRunner(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Runs the tasks, returning once every task has been run or started by a pool thread.
+   */
+  <T> List<Future<T>> run(List<Callable<T>> tasks) {
+    List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      futures.add(new FutureTask<>(task));
+    }
+    for (int i = 1; i < futures.size(); i++) {
+      executor.execute(futures.get(i));
+    }
+    // a task that was already started by the pool does nothing when run again
+    for (FutureTask<T> future : futures) {
+      future.run();
+    }
+    return new ArrayList<>(futures);
+  }
+
+  /**
+   * Waits for a task returned by {@link #run(List)}, throwing what the task threw.
+   */
+  static <T> T get(Future<T> future) throws Exception {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), Exception.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  /**
+   * Commits the mutations of every session. Waits for all of them before failing, and aborts the
+   * sessions whose commit failed, so no commit is left in progress.
+   *
+   * @throws RuntimeException
+   *           the first failure, after all commits are done
+   */
+  void commitAll(Map<CommitSession,Mutations> sendables) {
+    List<CommitSession> sessions = new ArrayList<>(sendables.keySet());
+    List<Callable<Void>> commits = new ArrayList<>(sessions.size());
+    for (CommitSession commitSession : sessions) {
+      List<Mutation> mutations = sendables.get(commitSession).getMutations();
+      commits.add(() -> {
+        commitSession.commit(mutations);
+        return null;
+      });
+    }
+
+    Throwable error = null;
+    List<Future<Void>> committed = run(commits);
+    for (int i = 0; i < sessions.size(); i++) {
+      try {
+        get(committed.get(i));
+      } catch (Throwable t) {
+        CommitSession commitSession = sessions.get(i);
+        log.error("Failed to commit mutations for {}", commitSession.getExtent(), t);
+        try {
+          commitSession.abortCommit(sendables.get(commitSession).getMutations());
+        } catch (RuntimeException e) {
+          // the commit failed after it stopped counting as in progress
+          log.debug("Unable to abort failed commit for {}", commitSession.getExtent(), e);
+        }
+        if (error == null) {
+          error = t;
+        }
+      }
+    }
+
+    if (error != null) {
+      Throwables.throwIfUnchecked(error);
+      throw new RuntimeException(error);
+    }
+  }
+}
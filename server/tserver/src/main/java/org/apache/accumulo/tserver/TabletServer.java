@@ -49,7 +49,9 @@ import java.util.TimerTask;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -112,6 +114,7 @@ import org.apache.accumulo.core.dataImpl.thrift.TRowRange;
 import org.apache.accumulo.core.dataImpl.thrift.TSummaries;
 import org.apache.accumulo.core.dataImpl.thrift.TSummaryRequest;
 import org.apache.accumulo.core.dataImpl.thrift.UpdateErrors;
+import org.apache.accumulo.core.file.blockfile.cache.disk.LocalDiskBlockCache;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
 import org.apache.accumulo.core.master.thrift.BulkImportState;
 import org.apache.accumulo.core.master.thrift.Compacting;
@@ -133,6 +136,7 @@ import org.apache.accumulo.core.spi.scan.ScanDispatcher;
 import org.apache.accumulo.core.summary.Gatherer;
 import org.apache.accumulo.core.summary.Gatherer.FileSystemResolver;
 import org.apache.accumulo.core.summary.SummaryCollection;
+import org.apache.accumulo.core.summary.SummaryResultCache;
 import org.apache.accumulo.core.tabletserver.log.LogEntry;
 import org.apache.accumulo.core.tabletserver.thrift.ActiveCompaction;
 import org.apache.accumulo.core.tabletserver.thrift.ActiveScan;
@@ -385,6 +389,7 @@ public class TabletServer implements Runnable {
 
     final long walogMaxSize = aconf.getAsBytes(Property.TSERV_WALOG_MAX_SIZE);
     final long walogMaxAge = aconf.getTimeInMillis(Property.TSERV_WALOG_MAX_AGE);
+    final int walogCount = aconf.getCount(Property.TSERV_WALOG_COUNT);
     final long minBlockSize = CachedConfiguration.getInstance()
         .getLong("dfs.namenode.fs-limits.min-block-size", 0);
     if (minBlockSize != 0 && minBlockSize > walogMaxSize)
@@ -414,7 +419,7 @@ public class TabletServer implements Runnable {
         .createFactory();
 
     logger = new TabletServerLogger(this, walogMaxSize, syncCounter, flushCounter,
-        walCreationRetryFactory, walWritingRetryFactory, walogMaxAge);
+        walCreationRetryFactory, walWritingRetryFactory, walogMaxAge, walogCount);
     this.resourceManager = new TabletServerResourceManager(this, fs, context);
     this.security = AuditedSecurityOperation.getInstance(context);
 
@@ -1032,50 +1037,66 @@ public class TabletServer implements Runnable {
       if (!containsMetadataTablet && us.queuedMutations.size() > 0)
         TabletServer.this.resourceManager.waitUntilCommitsAreEnabled();
 
+      CommitRunner commitRunner = new CommitRunner(resourceManager.getCommitExecutor());
+
       Span prep = Trace.start("prep");
       try {
+        // check the constraints of the tablets in parallel, then handle the results in order
+        List<Tablet> tablets = new ArrayList<>();
+        List<Callable<CommitSession>> prepares = new ArrayList<>();
         for (Entry<Tablet,? extends List<Mutation>> entry : us.queuedMutations.entrySet()) {
-
           Tablet tablet = entry.getKey();
-          Durability tabletDurability = tablet.getDurability();
           List<Mutation> mutations = entry.getValue();
           if (mutations.size() > 0) {
-            try {
-              if (updateMetrics.isEnabled())
-                updateMetrics.add(TabletServerUpdateMetrics.MUTATION_ARRAY_SIZE, mutations.size());
+            TservConstraintEnv cenv = new TservConstraintEnv(us.cenv);
+            tablets.add(tablet);
+            prepares.add(() -> tablet.prepareMutationsForCommit(cenv, mutations));
+          }
+        }
+        List<Future<CommitSession>> prepared = commitRunner.run(prepares);
 
-              CommitSession commitSession = tablet.prepareMutationsForCommit(us.cenv, mutations);
-              if (commitSession == null) {
-                if (us.currentTablet == tablet) {
-                  us.currentTablet = null;
-                }
-                us.failures.put(tablet.getExtent(), us.successfulCommits.get(tablet));
-              } else {
-                sendables.put(commitSession, new Mutations(
-                    DurabilityImpl.resolveDurabilty(us.durability, tabletDurability), mutations));
-                mutationCount += mutations.size();
-              }
+        for (int i = 0; i < tablets.size(); i++) {
 
-            } catch (TConstraintViolationException e) {
-              us.violations.add(e.getViolations());
-              if (updateMetrics.isEnabled())
-                updateMetrics.add(TabletServerUpdateMetrics.CONSTRAINT_VIOLATIONS, 0);
+          Tablet tablet = tablets.get(i);
+          Durability tabletDurability = tablet.getDurability();
+          List<Mutation> mutations = us.queuedMutations.get(tablet);
+          try {
+            if (updateMetrics.isEnabled())
+              updateMetrics.add(TabletServerUpdateMetrics.MUTATION_ARRAY_SIZE, mutations.size());
 
-              if (e.getNonViolators().size() > 0) {
-                // only log and commit mutations if there were some
-                // that did not violate constraints... this is what
-                // prepareMutationsForCommit() expects
-                sendables.put(e.getCommitSession(),
-                    new Mutations(DurabilityImpl.resolveDurabilty(us.durability, tabletDurability),
-                        e.getNonViolators()));
+            CommitSession commitSession = CommitRunner.get(prepared.get(i));
+            if (commitSession == null) {
+              if (us.currentTablet == tablet) {
+                us.currentTablet = null;
               }
-
+              us.failures.put(tablet.getExtent(), us.successfulCommits.get(tablet));
+            } else {
+              sendables.put(commitSession, new Mutations(
+                  DurabilityImpl.resolveDurabilty(us.durability, tabletDurability), mutations));
               mutationCount += mutations.size();
+            }
 
-            } catch (Throwable t) {
+          } catch (TConstraintViolationException e) {
+            us.violations.add(e.getViolations());
+            if (updateMetrics.isEnabled())
+              updateMetrics.add(TabletServerUpdateMetrics.CONSTRAINT_VIOLATIONS, 0);
+
+            if (e.getNonViolators().size() > 0) {
+              // only log and commit mutations if there were some
+              // that did not violate constraints... this is what
+              // prepareMutationsForCommit() expects
+              sendables.put(e.getCommitSession(),
+                  new Mutations(DurabilityImpl.resolveDurabilty(us.durability, tabletDurability),
+                      e.getNonViolators()));
+            }
+
+            mutationCount += mutations.size();
+
+          } catch (Throwable t) {
+            // keep going, the other tablets were prepared at the same time and must be aborted
+            if (error == null) {
               error = t;
               log.error("Unexpected error preparing for commit", error);
-              break;
             }
           }
         }
@@ -1121,12 +1142,9 @@ public class TabletServer implements Runnable {
         Span commit = Trace.start("commit");
         try {
           long t1 = System.currentTimeMillis();
-          for (Entry<CommitSession,Mutations> entry : sendables.entrySet()) {
-            CommitSession commitSession = entry.getKey();
-            List<Mutation> mutations = entry.getValue().getMutations();
-
-            commitSession.commit(mutations);
+          commitRunner.commitAll(sendables);
 
+          for (CommitSession commitSession : sendables.keySet()) {
             KeyExtent extent = commitSession.getExtent();
 
             if (us.currentTablet != null && extent == us.currentTablet.getExtent()) {
@@ -1144,6 +1162,7 @@ public class TabletServer implements Runnable {
           us.commitTimes.addStat(t2 - t1);
 
           updateAvgCommitTime(t2 - t1, sendables.size());
+          updateFlushTime(t2 - pt1);
         } finally {
           commit.stop();
         }
@@ -1158,6 +1177,11 @@ public class TabletServer implements Runnable {
       us.totalUpdates += mutationCount;
     }
 
+    private void updateFlushTime(long time) {
+      if (updateMetrics.isEnabled())
+        updateMetrics.add(TabletServerUpdateMetrics.FLUSH_TIME, time);
+    }
+
     private void updateWalogWriteTime(long time) {
       if (updateMetrics.isEnabled())
         updateMetrics.add(TabletServerUpdateMetrics.WALOG_WRITE_TIME, time);
@@ -2008,12 +2032,8 @@ public class TabletServer implements Runnable {
 
     @Override
     public List<String> getActiveLogs(TInfo tinfo, TCredentials credentials) throws TException {
-      String log = logger.getLogFile();
-      // Might be null if there no active logger
-      if (null == log) {
-        return Collections.emptyList();
-      }
-      return Collections.singletonList(log);
+      // Might be empty if there no active logger
+      return logger.getLogFiles();
     }
 
     @Override
@@ -2120,10 +2140,17 @@ public class TabletServer implements Runnable {
       BlockCache summaryCache = resourceManager.getSummaryCache();
       BlockCache indexCache = resourceManager.getIndexCache();
       Cache<String,Long> fileLenCache = resourceManager.getFileLenCache();
+      SummaryResultCache resultCache = resourceManager.getSummaryResultCache();
       FileSystemResolver volMgr = p -> fs.getVolumeByPath(p).getFileSystem();
-      Future<SummaryCollection> future = new Gatherer(context, request, tableCfg,
+      long t1 = System.currentTimeMillis();
+      CompletableFuture<SummaryCollection> future = new Gatherer(context, request, tableCfg,
           context.getCryptoService()).processFiles(volMgr, files, summaryCache, indexCache,
-              fileLenCache, srp);
+              fileLenCache, resultCache, srp);
+      future.thenRun(() -> {
+        if (scanMetrics.isEnabled()) {
+          scanMetrics.add(TabletServerScanMetrics.SUMMARY, System.currentTimeMillis() - t1);
+        }
+      });
 
       return startSummaryOperation(credentials, future);
     }
@@ -3456,6 +3483,14 @@ public class TabletServer implements Runnable {
     return totalMinorCompactions.get();
   }
 
+  public SummaryResultCache getSummaryResultCache() {
+    return resourceManager.getSummaryResultCache();
+  }
+
+  public LocalDiskBlockCache getDiskBlockCache() {
+    return resourceManager.getDiskBlockCache();
+  }
+
   public double getHoldTimeMillis() {
     return resourceManager.holdTime();
   }
@@ -19,6 +19,7 @@ package org.apache.accumulo.tserver;
 import static java.util.Objects.requireNonNull;
 import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -49,6 +50,8 @@ import org.apache.accumulo.core.conf.AccumuloConfiguration.ScanExecutorConfig;
 import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.blockfile.cache.disk.LocalDiskBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.disk.TieredBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
 import org.apache.accumulo.core.metadata.schema.DataFileValue;
@@ -61,6 +64,7 @@ import org.apache.accumulo.core.spi.scan.ScanExecutor;
 import org.apache.accumulo.core.spi.scan.ScanInfo;
 import org.apache.accumulo.core.spi.scan.ScanPrioritizer;
 import org.apache.accumulo.core.spi.scan.SimpleScanDispatcher;
+import org.apache.accumulo.core.summary.SummaryResultCache;
 import org.apache.accumulo.core.util.Daemon;
 import org.apache.accumulo.core.util.NamingThreadFactory;
 import org.apache.accumulo.fate.util.LoggingRunnable;
@@ -114,6 +118,7 @@ public class TabletServerResourceManager {
   private final ExecutorService summaryRetrievalPool;
   private final ExecutorService summaryParitionPool;
   private final ExecutorService summaryRemotePool;
+  private final ExecutorService commitPool;
   private final Map<String,ExecutorService> threadPools = new TreeMap<>();
 
   private final Map<String,ExecutorService> scanExecutors;
@@ -131,11 +136,13 @@ public class TabletServerResourceManager {
   private final BlockCache _dCache;
   private final BlockCache _iCache;
   private final BlockCache _sCache;
+  private final LocalDiskBlockCache diskCache;
   private final TabletServer tserver;
   private final ServerConfigurationFactory conf;
   private final ServerContext context;
 
   private Cache<String,Long> fileLenCache;
+  private final SummaryResultCache summaryResultCache;
 
   private ExecutorService addEs(String name, ExecutorService tp) {
     if (threadPools.containsKey(name)) {
@@ -315,6 +322,27 @@ public class TabletServerResourceManager {
 
   @SuppressFBWarnings(value = "DM_GC",
       justification = "GC is run to get a good estimate of memory availability")
+  /**
+   * Opens the local disk tier of the block caches, if one is configured. The tier is not used when
+   * another tablet server on the host already uses the directory.
+   */
+  private LocalDiskBlockCache openDiskCache(AccumuloConfiguration acuConf) {
+    String diskCacheDir = acuConf.get(Property.TSERV_DISK_CACHE_DIR);
+    if (diskCacheDir.isEmpty()) {
+      return null;
+    }
+    try {
+      return new LocalDiskBlockCache(new File(diskCacheDir), context.getInstanceID(),
+          acuConf.getAsBytes(Property.TSERV_DISK_CACHE_SIZE),
+          (int) acuConf.getAsBytes(Property.TSERV_DISK_CACHE_SEGMENT_SIZE));
+    } catch (LocalDiskBlockCache.DirectoryLockedException e) {
+      log.warn("Not using a local disk block cache, {}", e.getMessage());
+      return null;
+    } catch (IOException e) {
+      throw new RuntimeException("Error opening local disk block cache", e);
+    }
+  }
+
   public TabletServerResourceManager(TabletServer tserver, VolumeManager fs,
       ServerContext context) {
     this.tserver = tserver;
@@ -336,8 +364,14 @@ public class TabletServerResourceManager {
 
     cacheManager.start(new BlockCacheConfiguration(acuConf));
 
-    _iCache = cacheManager.getBlockCache(CacheType.INDEX);
-    _dCache = cacheManager.getBlockCache(CacheType.DATA);
+    diskCache = openDiskCache(acuConf);
+    if (diskCache == null) {
+      _iCache = cacheManager.getBlockCache(CacheType.INDEX);
+      _dCache = cacheManager.getBlockCache(CacheType.DATA);
+    } else {
+      _iCache = new TieredBlockCache(cacheManager.getBlockCache(CacheType.INDEX), diskCache);
+      _dCache = new TieredBlockCache(cacheManager.getBlockCache(CacheType.DATA), diskCache);
+    }
     _sCache = cacheManager.getBlockCache(CacheType.SUMMARY);
 
     long dCacheSize = _dCache.getMaxHeapSize();
@@ -403,6 +437,9 @@ public class TabletServerResourceManager {
     summaryParitionPool = createIdlingEs(Property.TSERV_SUMMARY_PARTITION_THREADS,
         "summary partition", 60, TimeUnit.SECONDS);
 
+    commitPool = createIdlingEs(Property.TSERV_COMMIT_THREADS, "tablet commit", 60,
+        TimeUnit.SECONDS);
+
     Collection<ScanExecutorConfig> scanExecCfg = acuConf.getScanExecutors();
     Map<String,Queue<?>> scanExecQueues = new HashMap<>();
     scanExecutors = createScanExecutors(scanExecCfg, scanExecQueues);
@@ -416,6 +453,9 @@ public class TabletServerResourceManager {
     fileManager = new FileManager(tserver.getContext(), fs, maxOpenFiles, fileLenCache, _dCache,
         _iCache);
 
+    summaryResultCache = new SummaryResultCache(
+        acuConf.getAsBytes(Property.TSERV_SUMMARY_RESULTS_CACHE_SIZE));
+
     memoryManager = Property.createInstanceFromPropertyName(acuConf, Property.TSERV_MEM_MGMT,
         MemoryManager.class, new LargestFirstMemoryManager());
     memoryManager.init(tserver.getContext().getServerConfFactory());
@@ -737,6 +777,14 @@ public class TabletServerResourceManager {
       }
     }
 
+    if (null != this.diskCache) {
+      try {
+        this.diskCache.close();
+      } catch (IOException ex) {
+        log.error("Error closing local disk block cache", ex);
+      }
+    }
+
     for (Entry<String,ExecutorService> entry : threadPools.entrySet()) {
       while (true) {
         try {
@@ -1012,6 +1060,17 @@ public class TabletServerResourceManager {
     return fileLenCache;
   }
 
+  public SummaryResultCache getSummaryResultCache() {
+    return summaryResultCache;
+  }
+
+  /**
+   * @return the local disk tier of the index and data caches, or null if it is not configured
+   */
+  public LocalDiskBlockCache getDiskBlockCache() {
+    return diskCache;
+  }
+
   public ExecutorService getSummaryRetrievalExecutor() {
     return summaryRetrievalPool;
   }
@@ -1023,4 +1082,8 @@ public class TabletServerResourceManager {
   public ExecutorService getSummaryRemoteExecutor() {
     return summaryRemotePool;
   }
+
+  public ExecutorService getCommitExecutor() {
+    return commitPool;
+  }
 }
@@ -41,6 +41,14 @@ public class TservConstraintEnv implements SystemEnvironment {
     this.credentials = credentials;
   }
 
+  /**
+   * Creates an environment for the same user, so the constraints of several tablets can be checked
+   * at the same time.
+   */
+  TservConstraintEnv(TservConstraintEnv other) {
+    this(other.context, other.security, other.credentials);
+  }
+
   public void setExtent(KeyExtent ke) {
     this.ke = ke;
   }
@@ -67,42 +67,29 @@ import org.slf4j.LoggerFactory;
  * maintaining the maximum thread parallelism for greater performance. As new logs are used and
  * minor compactions are performed, the metadata table is kept up-to-date.
  *
+ * <p>
+ * A tablet server may write to more than one log at a time. Each tablet is assigned to one of the
+ * logs by the hash of its extent, so all the updates of a tablet go to the same log and recovery
+ * sees them in order. Updates to tablets assigned to different logs are written and synced in
+ * parallel.
+ *
  */
 public class TabletServerLogger {
 
   private static final Logger log = LoggerFactory.getLogger(TabletServerLogger.class);
 
-  private final AtomicLong logSizeEstimate = new AtomicLong();
   private final long maxSize;
   private final long maxAge;
 
   private final TabletServer tserver;
 
-  // The current logger
-  private DfsLogger currentLog = null;
-  private final SynchronousQueue<Object> nextLog = new SynchronousQueue<>();
-  private ThreadPoolExecutor nextLogMaker;
-
-  // The current generation of logs.
-  // Because multiple threads can be using a log at one time, a log
-  // failure is likely to affect multiple threads, who will all attempt to
-  // create a new log. This will cause many unnecessary updates to the
-  // metadata table.
-  // We'll use this generational counter to determine if another thread has
-  // already fetched a new log.
-  private final AtomicInteger logId = new AtomicInteger();
-
-  // Use a ReadWriteLock to allow multiple threads to use the log set, but obtain a write lock to
-  // change them
-  private final ReentrantReadWriteLock logIdLock = new ReentrantReadWriteLock();
+  // The logs written at the same time, tablets are assigned to them by hash
+  private final LogSlot[] slots;
 
   private final AtomicLong syncCounter;
   private final AtomicLong flushCounter;
 
-  private long createTime = 0;
-
   private final RetryFactory createRetryFactory;
-  private Retry createRetry = null;
 
   private final RetryFactory writeRetryFactory;
 
@@ -152,203 +139,303 @@ public class TabletServerLogger {
 
   public TabletServerLogger(TabletServer tserver, long maxSize, AtomicLong syncCounter,
       AtomicLong flushCounter, RetryFactory createRetryFactory, RetryFactory writeRetryFactory,
-      long maxAge) {
+      long maxAge, int numLogs) {
     this.tserver = tserver;
     this.maxSize = maxSize;
     this.syncCounter = syncCounter;
     this.flushCounter = flushCounter;
     this.createRetryFactory = createRetryFactory;
-    this.createRetry = null;
     this.writeRetryFactory = writeRetryFactory;
     this.maxAge = maxAge;
+    this.slots = new LogSlot[Math.max(1, numLogs)];
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = new LogSlot();
+    }
   }
 
-  private DfsLogger initializeLoggers(final AtomicInteger logIdOut) throws IOException {
-    final AtomicReference<DfsLogger> result = new AtomicReference<>();
-    testLockAndRun(logIdLock, new TestCallWithWriteLock() {
-      @Override
-      boolean test() {
-        result.set(currentLog);
-        if (currentLog != null)
-          logIdOut.set(logId.get());
-        return currentLog == null;
-      }
+  /**
+   * One of the logs a tablet server writes to at the same time, and the state needed to replace it
+   * when it fails or grows too big or too old.
+   */
+  private class LogSlot {
 
-      @Override
-      void withWriteLock() throws IOException {
-        try {
-          createLogger();
+    private final AtomicLong logSizeEstimate = new AtomicLong();
+
+    // The current logger
+    private DfsLogger currentLog = null;
+    private final SynchronousQueue<Object> nextLog = new SynchronousQueue<>();
+    private ThreadPoolExecutor nextLogMaker;
+
+    // The current generation of logs.
+    // Because multiple threads can be using a log at one time, a log
+    // failure is likely to affect multiple threads, who will all attempt to
+    // create a new log. This will cause many unnecessary updates to the
+    // metadata table.
+    // We'll use this generational counter to determine if another thread has
+    // already fetched a new log.
+    private final AtomicInteger logId = new AtomicInteger();
+
+    // Use a ReadWriteLock to allow multiple threads to use the log set, but obtain a write lock to
+    // change them
+    private final ReentrantReadWriteLock logIdLock = new ReentrantReadWriteLock();
+
+    private long createTime = 0;
+
+    private Retry createRetry = null;
+
+    private DfsLogger initializeLoggers(final AtomicInteger logIdOut) throws IOException {
+      final AtomicReference<DfsLogger> result = new AtomicReference<>();
+      testLockAndRun(logIdLock, new TestCallWithWriteLock() {
+        @Override
+        boolean test() {
           result.set(currentLog);
           if (currentLog != null)
             logIdOut.set(logId.get());
-          else
-            logIdOut.set(-1);
-        } catch (IOException e) {
-          log.error("Unable to create loggers", e);
+          return currentLog == null;
         }
-      }
-    });
-    return result.get();
-  }
 
-  /**
-   * Get the current WAL file
-   *
-   * @return The name of the current log, or null if there is no current log.
-   */
-  public String getLogFile() {
-    logIdLock.readLock().lock();
-    try {
-      if (null == currentLog) {
-        return null;
-      }
-      return currentLog.getFileName();
-    } finally {
-      logIdLock.readLock().unlock();
+        @Override
+        void withWriteLock() throws IOException {
+          try {
+            createLogger();
+            result.set(currentLog);
+            if (currentLog != null)
+              logIdOut.set(logId.get());
+            else
+              logIdOut.set(-1);
+          } catch (IOException e) {
+            log.error("Unable to create loggers", e);
+          }
+        }
+      });
+      return result.get();
     }
-  }
 
-  private synchronized void createLogger() throws IOException {
-    if (!logIdLock.isWriteLockedByCurrentThread()) {
-      throw new IllegalStateException("createLoggers should be called with write lock held!");
+    private String getLogFile() {
+      logIdLock.readLock().lock();
+      try {
+        if (null == currentLog) {
+          return null;
+        }
+        return currentLog.getFileName();
+      } finally {
+        logIdLock.readLock().unlock();
+      }
     }
 
-    if (currentLog != null) {
-      throw new IllegalStateException("createLoggers should not be called when current log is set");
-    }
+    private synchronized void createLogger() throws IOException {
+      if (!logIdLock.isWriteLockedByCurrentThread()) {
+        throw new IllegalStateException("createLoggers should be called with write lock held!");
+      }
 
-    try {
-      startLogMaker();
-      Object next = nextLog.take();
-      if (next instanceof Exception) {
-        throw (Exception) next;
+      if (currentLog != null) {
+        throw new IllegalStateException(
+            "createLoggers should not be called when current log is set");
       }
-      if (next instanceof DfsLogger) {
-        currentLog = (DfsLogger) next;
-        logId.incrementAndGet();
-        log.info("Using next log {}", currentLog.getFileName());
-
-        // When we successfully create a WAL, make sure to reset the Retry.
-        if (null != createRetry) {
-          createRetry = null;
+
+      try {
+        startLogMaker();
+        Object next = nextLog.take();
+        if (next instanceof Exception) {
+          throw (Exception) next;
         }
+        if (next instanceof DfsLogger) {
+          currentLog = (DfsLogger) next;
+          logId.incrementAndGet();
+          log.info("Using next log {}", currentLog.getFileName());
+
+          // When we successfully create a WAL, make sure to reset the Retry.
+          if (null != createRetry) {
+            createRetry = null;
+          }
 
-        this.createTime = System.currentTimeMillis();
-        return;
-      } else {
-        throw new RuntimeException("Error: unexpected type seen: " + next);
-      }
-    } catch (Exception t) {
-      if (null == createRetry) {
-        createRetry = createRetryFactory.createRetry();
-      }
+          this.createTime = System.currentTimeMillis();
+          return;
+        } else {
+          throw new RuntimeException("Error: unexpected type seen: " + next);
+        }
+      } catch (Exception t) {
+        if (null == createRetry) {
+          createRetry = createRetryFactory.createRetry();
+        }
 
-      // We have more retries or we exceeded the maximum number of accepted failures
-      if (createRetry.canRetry()) {
-        // Use the createRetry and record the time in which we did so
-        createRetry.useRetry();
+        // We have more retries or we exceeded the maximum number of accepted failures
+        if (createRetry.canRetry()) {
+          // Use the createRetry and record the time in which we did so
+          createRetry.useRetry();
 
-        try {
-          // Backoff
-          createRetry.waitForNextAttempt();
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          throw new RuntimeException(e);
+          try {
+            // Backoff
+            createRetry.waitForNextAttempt();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+          }
+        } else {
+          log.error("Repeatedly failed to create WAL. Going to exit tabletserver.", t);
+          // We didn't have retries or we failed too many times.
+          Halt.halt("Experienced too many errors creating WALs, giving up", 1);
         }
-      } else {
-        log.error("Repeatedly failed to create WAL. Going to exit tabletserver.", t);
-        // We didn't have retries or we failed too many times.
-        Halt.halt("Experienced too many errors creating WALs, giving up", 1);
-      }
 
-      // The exception will trigger the log creation to be re-attempted.
-      throw new RuntimeException(t);
+        // The exception will trigger the log creation to be re-attempted.
+        throw new RuntimeException(t);
+      }
     }
-  }
 
-  private synchronized void startLogMaker() {
-    if (nextLogMaker != null) {
-      return;
-    }
-    nextLogMaker = new SimpleThreadPool(1, "WALog creator");
-    nextLogMaker.submit(new LoggingRunnable(log, new Runnable() {
-      @Override
-      public void run() {
-        final ServerResources conf = tserver.getServerConfig();
-        final VolumeManager fs = conf.getFileSystem();
-        while (!nextLogMaker.isShutdown()) {
-          DfsLogger alog = null;
-          try {
-            log.debug("Creating next WAL");
-            alog = new DfsLogger(tserver.getContext(), conf, syncCounter, flushCounter);
-            alog.open(tserver.getClientAddressString());
-            String fileName = alog.getFileName();
-            log.debug("Created next WAL " + fileName);
-            tserver.addNewLogMarker(alog);
-            while (!nextLog.offer(alog, 12, TimeUnit.HOURS)) {
-              log.info("Our WAL was not used for 12 hours: {}", fileName);
-            }
-          } catch (Exception t) {
-            log.error("Failed to open WAL", t);
-            if (null != alog) {
-              // It's possible that the sync of the header and OPEN record to the WAL failed
-              // We want to make sure that clean up the resources/thread inside the DfsLogger
-              // object before trying to create a new one.
-              try {
-                alog.close();
-              } catch (Exception e) {
-                log.error("Failed to close WAL after it failed to open", e);
+    private synchronized void startLogMaker() {
+      if (nextLogMaker != null) {
+        return;
+      }
+      nextLogMaker = new SimpleThreadPool(1, "WALog creator");
+      nextLogMaker.submit(new LoggingRunnable(log, new Runnable() {
+        @Override
+        public void run() {
+          final ServerResources conf = tserver.getServerConfig();
+          final VolumeManager fs = conf.getFileSystem();
+          while (!nextLogMaker.isShutdown()) {
+            DfsLogger alog = null;
+            try {
+              log.debug("Creating next WAL");
+              alog = new DfsLogger(tserver.getContext(), conf, syncCounter, flushCounter);
+              alog.open(tserver.getClientAddressString());
+              String fileName = alog.getFileName();
+              log.debug("Created next WAL " + fileName);
+              tserver.addNewLogMarker(alog);
+              while (!nextLog.offer(alog, 12, TimeUnit.HOURS)) {
+                log.info("Our WAL was not used for 12 hours: {}", fileName);
               }
-              // Try to avoid leaving a bunch of empty WALs lying around
-              try {
-                Path path = alog.getPath();
-                if (fs.exists(path)) {
-                  fs.delete(path);
+            } catch (Exception t) {
+              log.error("Failed to open WAL", t);
+              if (null != alog) {
+                // It's possible that the sync of the header and OPEN record to the WAL failed
+                // We want to make sure that clean up the resources/thread inside the DfsLogger
+                // object before trying to create a new one.
+                try {
+                  alog.close();
+                } catch (Exception e) {
+                  log.error("Failed to close WAL after it failed to open", e);
+                }
+                // Try to avoid leaving a bunch of empty WALs lying around
+                try {
+                  Path path = alog.getPath();
+                  if (fs.exists(path)) {
+                    fs.delete(path);
+                  }
+                } catch (Exception e) {
+                  log.warn("Failed to delete a WAL that failed to open", e);
                 }
-              } catch (Exception e) {
-                log.warn("Failed to delete a WAL that failed to open", e);
               }
-            }
-            try {
-              nextLog.offer(t, 12, TimeUnit.HOURS);
-            } catch (InterruptedException ex) {
-              // ignore
+              try {
+                nextLog.offer(t, 12, TimeUnit.HOURS);
+              } catch (InterruptedException ex) {
+                // ignore
+              }
             }
           }
         }
+      }));
+    }
+
+    private void reset() throws IOException {
+      logIdLock.writeLock().lock();
+      try {
+        close();
+      } finally {
+        logIdLock.writeLock().unlock();
       }
-    }));
-  }
+    }
 
-  public void resetLoggers() throws IOException {
-    logIdLock.writeLock().lock();
-    try {
-      close();
-    } finally {
-      logIdLock.writeLock().unlock();
+    private synchronized void close() throws IOException {
+      if (!logIdLock.isWriteLockedByCurrentThread()) {
+        throw new IllegalStateException("close should be called with write lock held!");
+      }
+      try {
+        if (null != currentLog) {
+          try {
+            currentLog.close();
+          } catch (DfsLogger.LogClosedException ex) {
+            // ignore
+          } catch (Throwable ex) {
+            log.error("Unable to cleanly close log " + currentLog.getFileName() + ": " + ex, ex);
+          } finally {
+            tserver.walogClosed(currentLog);
+          }
+          currentLog = null;
+          logSizeEstimate.set(0);
+        }
+      } catch (Throwable t) {
+        throw new IOException(t);
+      }
     }
-  }
 
-  private synchronized void close() throws IOException {
-    if (!logIdLock.isWriteLockedByCurrentThread()) {
-      throw new IllegalStateException("close should be called with write lock held!");
+    /**
+     * Closes the log after a write to it failed. Since multiple threads will attempt it, only close
+     * the log when it has not changed.
+     */
+    private void closeAfterFailure(final int failedLogId, final Collection<CommitSession> sessions)
+        throws IOException {
+      testLockAndRun(logIdLock, new TestCallWithWriteLock() {
+
+        @Override
+        boolean test() {
+          return failedLogId == logId.get();
+        }
+
+        @Override
+        void withWriteLock() throws IOException {
+          close();
+          closeForReplication(sessions);
+        }
+      });
     }
-    try {
-      if (null != currentLog) {
-        try {
-          currentLog.close();
-        } catch (DfsLogger.LogClosedException ex) {
-          // ignore
-        } catch (Throwable ex) {
-          log.error("Unable to cleanly close log " + currentLog.getFileName() + ": " + ex, ex);
-        } finally {
-          this.tserver.walogClosed(currentLog);
+
+    /**
+     * Closes the log if it got too big or too old.
+     */
+    private void closeIfFull(final Collection<CommitSession> sessions) throws IOException {
+      logSizeEstimate.addAndGet(4 * 3); // event, tid, seq overhead
+      testLockAndRun(logIdLock, new TestCallWithWriteLock() {
+        @Override
+        boolean test() {
+          return (logSizeEstimate.get() > maxSize)
+              || ((System.currentTimeMillis() - createTime) > maxAge);
+        }
+
+        @Override
+        void withWriteLock() throws IOException {
+          close();
+          closeForReplication(sessions);
         }
-        currentLog = null;
-        logSizeEstimate.set(0);
+      });
+    }
+  }
+
+  private LogSlot slotFor(CommitSession commitSession) {
+    if (slots.length == 1) {
+      return slots[0];
+    }
+    return slots[Math.floorMod(commitSession.getExtent().hashCode(), slots.length)];
+  }
+
+  /**
+   * Get the current WAL files
+   *
+   * @return The names of the current logs, empty if there is no current log.
+   */
+  public List<String> getLogFiles() {
+    List<String> files = new ArrayList<>(slots.length);
+    for (LogSlot slot : slots) {
+      String file = slot.getLogFile();
+      if (null != file) {
+        files.add(file);
       }
-    } catch (Throwable t) {
-      throw new IOException(t);
+    }
+    return files;
+  }
+
+  public void resetLoggers() throws IOException {
+    for (LogSlot slot : slots) {
+      slot.reset();
     }
   }
 
@@ -356,6 +443,27 @@ public class TabletServerLogger {
     LoggerOperation write(DfsLogger logger) throws Exception;
   }
 
+  /**
+   * A write of the updates of some tablets to the log they are assigned to.
+   */
+  private static class LogWrite {
+    final LogSlot slot;
+    final Collection<CommitSession> sessions;
+    final Writer writer;
+
+    int currentLogId;
+    LoggerOperation lop;
+    boolean success = false;
+
+    LogWrite(LogSlot slot, Collection<CommitSession> sessions, Writer writer) {
+      this.slot = slot;
+      this.sessions = sessions;
+      this.writer = writer;
+      // Work very hard not to lock this during calls to the outside world
+      this.currentLogId = slot.logId.get();
+    }
+  }
+
   private void write(CommitSession commitSession, boolean mincFinish, Writer writer)
       throws IOException {
     write(commitSession, mincFinish, writer, writeRetryFactory.createRetry());
@@ -364,116 +472,120 @@ public class TabletServerLogger {
   private void write(CommitSession commitSession, boolean mincFinish, Writer writer,
       Retry writeRetry) throws IOException {
     List<CommitSession> sessions = Collections.singletonList(commitSession);
-    write(sessions, mincFinish, writer, writeRetry);
+    write(Collections.singletonList(new LogWrite(slotFor(commitSession), sessions, writer)),
+        mincFinish, writeRetry);
   }
 
-  private void write(final Collection<CommitSession> sessions, boolean mincFinish, Writer writer)
+  private void write(final List<LogWrite> writes, boolean mincFinish, Retry writeRetry)
       throws IOException {
-    write(sessions, mincFinish, writer, writeRetryFactory.createRetry());
-  }
-
-  private void write(final Collection<CommitSession> sessions, boolean mincFinish, Writer writer,
-      Retry writeRetry) throws IOException {
-    // Work very hard not to lock this during calls to the outside world
-    int currentLogId = logId.get();
-
-    boolean success = false;
-    while (!success) {
-      try {
-        // get a reference to the loggers that no other thread can touch
-        DfsLogger copy = null;
-        AtomicInteger currentId = new AtomicInteger(-1);
-        copy = initializeLoggers(currentId);
-        currentLogId = currentId.get();
-
-        // add the logger to the log set for the memory in the tablet,
-        // update the metadata table if we've never used this tablet
-
-        if (currentLogId == logId.get()) {
-          for (CommitSession commitSession : sessions) {
-            if (commitSession.beginUpdatingLogsUsed(copy, mincFinish)) {
-              try {
-                // Scribble out a tablet definition and then write to the metadata table
-                defineTablet(commitSession, writeRetry);
-              } finally {
-                commitSession.finishUpdatingLogsUsed();
-              }
+    List<LogWrite> pending = new ArrayList<>(writes);
+    while (!pending.isEmpty()) {
+      boolean backoff = false;
 
-              // Need to release
-              KeyExtent extent = commitSession.getExtent();
-              if (ReplicationConfigurationUtil.isEnabled(extent,
-                  tserver.getTableConfiguration(extent))) {
-                Status status = StatusUtil.openWithUnknownLength(System.currentTimeMillis());
-                log.debug("Writing " + ProtobufUtil.toString(status) + " to metadata table for "
-                    + copy.getFileName());
-                // Got some new WALs, note this in the metadata table
-                ReplicationTableUtil.updateFiles(tserver.getContext(), commitSession.getExtent(),
-                    copy.getFileName(), status);
-              }
-            }
-          }
+      // start writing to every log before waiting on any of them, so the logs sync in parallel
+      for (LogWrite lw : pending) {
+        lw.lop = null;
+        try {
+          lw.lop = start(lw, mincFinish, writeRetry);
+        } catch (DfsLogger.LogClosedException | ClosedChannelException ex) {
+          writeRetry.logRetry(log, "Logs closed while writing", ex);
+        } catch (Exception t) {
+          writeRetry.logRetry(log, "Failed to write to WAL", t);
+          backoff = true;
         }
+      }
 
-        // Make sure that the logs haven't changed out from underneath our copy
-        if (currentLogId == logId.get()) {
-
-          // write the mutation to the logs
-          LoggerOperation lop = writer.write(copy);
-          lop.await();
+      for (LogWrite lw : pending) {
+        if (lw.lop == null) {
+          continue;
+        }
+        try {
+          lw.lop.await();
 
           // double-check: did the log set change?
-          success = (currentLogId == logId.get());
+          lw.success = (lw.currentLogId == lw.slot.logId.get());
+        } catch (DfsLogger.LogClosedException | ClosedChannelException ex) {
+          writeRetry.logRetry(log, "Logs closed while writing", ex);
+        } catch (Exception t) {
+          writeRetry.logRetry(log, "Failed to write to WAL", t);
+          backoff = true;
         }
-      } catch (DfsLogger.LogClosedException | ClosedChannelException ex) {
-        writeRetry.logRetry(log, "Logs closed while writing", ex);
-      } catch (Exception t) {
-        writeRetry.logRetry(log, "Failed to write to WAL", t);
+      }
 
-        try {
-          // Backoff
+      try {
+        if (backoff) {
           writeRetry.waitForNextAttempt();
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          throw new RuntimeException(e);
         }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
       } finally {
         writeRetry.useRetry();
       }
+
       // Some sort of write failure occurred. Grab the write lock and reset the logs.
-      // But since multiple threads will attempt it, only attempt the reset when
-      // the logs haven't changed.
-      final int finalCurrent = currentLogId;
-      if (!success) {
-        testLockAndRun(logIdLock, new TestCallWithWriteLock() {
-
-          @Override
-          boolean test() {
-            return finalCurrent == logId.get();
+      List<LogWrite> failed = new ArrayList<>();
+      for (LogWrite lw : pending) {
+        if (!lw.success) {
+          lw.slot.closeAfterFailure(lw.currentLogId, lw.sessions);
+          failed.add(lw);
+        }
+      }
+      pending = failed;
+    }
+    // if a log gets too big or too old, reset it
+    for (LogWrite lw : writes) {
+      lw.slot.closeIfFull(lw.sessions);
+    }
+  }
+
+  /**
+   * Writes to the current log of a slot without waiting for the write to be synced.
+   *
+   * @return the operation to wait on, or null if the log changed before it could be written to
+   */
+  private LoggerOperation start(LogWrite lw, boolean mincFinish, Retry writeRetry)
+      throws Exception {
+    // get a reference to the loggers that no other thread can touch
+    DfsLogger copy = null;
+    AtomicInteger currentId = new AtomicInteger(-1);
+    copy = lw.slot.initializeLoggers(currentId);
+    lw.currentLogId = currentId.get();
+
+    // add the logger to the log set for the memory in the tablet,
+    // update the metadata table if we've never used this tablet
+
+    if (lw.currentLogId == lw.slot.logId.get()) {
+      for (CommitSession commitSession : lw.sessions) {
+        if (commitSession.beginUpdatingLogsUsed(copy, mincFinish)) {
+          try {
+            // Scribble out a tablet definition and then write to the metadata table
+            defineTablet(commitSession, writeRetry);
+          } finally {
+            commitSession.finishUpdatingLogsUsed();
           }
 
-          @Override
-          void withWriteLock() throws IOException {
-            close();
-            closeForReplication(sessions);
+          // Need to release
+          KeyExtent extent = commitSession.getExtent();
+          if (ReplicationConfigurationUtil.isEnabled(extent,
+              tserver.getTableConfiguration(extent))) {
+            Status status = StatusUtil.openWithUnknownLength(System.currentTimeMillis());
+            log.debug("Writing " + ProtobufUtil.toString(status) + " to metadata table for "
+                + copy.getFileName());
+            // Got some new WALs, note this in the metadata table
+            ReplicationTableUtil.updateFiles(tserver.getContext(), commitSession.getExtent(),
+                copy.getFileName(), status);
           }
-        });
+        }
       }
     }
-    // if the log gets too big or too old, reset it .. grab the write lock first
-    logSizeEstimate.addAndGet(4 * 3); // event, tid, seq overhead
-    testLockAndRun(logIdLock, new TestCallWithWriteLock() {
-      @Override
-      boolean test() {
-        return (logSizeEstimate.get() > maxSize)
-            || ((System.currentTimeMillis() - createTime) > maxAge);
-      }
 
-      @Override
-      void withWriteLock() throws IOException {
-        close();
-        closeForReplication(sessions);
-      }
-    });
+    // Make sure that the logs haven't changed out from underneath our copy
+    if (lw.currentLogId == lw.slot.logId.get()) {
+      // write the mutation to the logs
+      return lw.writer.write(copy);
+    }
+    return null;
   }
 
   protected void closeForReplication(Collection<CommitSession> sessions) {
@@ -507,39 +619,49 @@ public class TabletServerLogger {
         return logger.log(tabletSeq, commitSession.getLogId(), m, durability);
       }
     });
-    logSizeEstimate.addAndGet(m.numBytes());
+    slotFor(commitSession).logSizeEstimate.addAndGet(m.numBytes());
   }
 
   public void logManyTablets(Map<CommitSession,Mutations> mutations) throws IOException {
 
-    final Map<CommitSession,Mutations> loggables = new HashMap<>(mutations);
+    // group the tablets by the log they are assigned to
+    final Map<LogSlot,Map<CommitSession,Mutations>> loggables = new HashMap<>();
     for (Entry<CommitSession,Mutations> entry : mutations.entrySet()) {
-      if (entry.getValue().getDurability() == Durability.NONE) {
-        loggables.remove(entry.getKey());
+      if (entry.getValue().getDurability() != Durability.NONE) {
+        loggables.computeIfAbsent(slotFor(entry.getKey()), slot -> new HashMap<>())
+            .put(entry.getKey(), entry.getValue());
       }
     }
     if (loggables.size() == 0)
       return;
 
-    write(loggables.keySet(), false, new Writer() {
-      @Override
-      public LoggerOperation write(DfsLogger logger) throws Exception {
-        List<TabletMutations> copy = new ArrayList<>(loggables.size());
-        for (Entry<CommitSession,Mutations> entry : loggables.entrySet()) {
-          CommitSession cs = entry.getKey();
-          Durability durability = entry.getValue().getDurability();
-          copy.add(new TabletMutations(cs.getLogId(), cs.getWALogSeq(),
-              entry.getValue().getMutations(), durability));
+    List<LogWrite> writes = new ArrayList<>(loggables.size());
+    for (Entry<LogSlot,Map<CommitSession,Mutations>> slotEntry : loggables.entrySet()) {
+      final Map<CommitSession,Mutations> slotMutations = slotEntry.getValue();
+      writes.add(new LogWrite(slotEntry.getKey(), slotMutations.keySet(), new Writer() {
+        @Override
+        public LoggerOperation write(DfsLogger logger) throws Exception {
+          List<TabletMutations> copy = new ArrayList<>(slotMutations.size());
+          for (Entry<CommitSession,Mutations> entry : slotMutations.entrySet()) {
+            CommitSession cs = entry.getKey();
+            Durability durability = entry.getValue().getDurability();
+            copy.add(new TabletMutations(cs.getLogId(), cs.getWALogSeq(),
+                entry.getValue().getMutations(), durability));
+          }
+          return logger.logManyTablets(copy);
+        }
+      }));
+    }
+    write(writes, false, writeRetryFactory.createRetry());
+
+    for (Entry<LogSlot,Map<CommitSession,Mutations>> slotEntry : loggables.entrySet()) {
+      for (Mutations entry : slotEntry.getValue().values()) {
+        if (entry.getMutations().size() < 1) {
+          throw new IllegalArgumentException("logManyTablets: logging empty mutation list");
+        }
+        for (Mutation m : entry.getMutations()) {
+          slotEntry.getKey().logSizeEstimate.addAndGet(m.numBytes());
         }
-        return logger.logManyTablets(copy);
-      }
-    });
-    for (Mutations entry : loggables.values()) {
-      if (entry.getMutations().size() < 1) {
-        throw new IllegalArgumentException("logManyTablets: logging empty mutation list");
-      }
-      for (Mutation m : entry.getMutations()) {
-        logSizeEstimate.addAndGet(m.numBytes());
       }
     }
   }
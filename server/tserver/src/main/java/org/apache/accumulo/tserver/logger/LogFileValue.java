@@ -29,6 +29,7 @@ import org.apache.accumulo.core.data.ColumnUpdate;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.server.data.ServerMutation;
 import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 
 public class LogFileValue implements Writable {
 
@@ -47,6 +48,72 @@ public class LogFileValue implements Writable {
     }
   }
 
+  /**
+   * Reads past a serialized value without deserializing its mutations, for readers that only need
+   * the values of some tablets.
+   */
+  public static void skipFields(DataInput in) throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      skipMutation(in);
+    }
+  }
+
+  // follows the formats read by Mutation.readFields() and ServerMutation.readFields()
+  private static void skipMutation(DataInput in) throws IOException {
+    byte first = in.readByte();
+    if ((first & 0x80) != 0x80) {
+      // the old format, the first byte is part of the length of the row
+      int len = ((first & 0xff) << 24) | ((in.readByte() & 0xff) << 16)
+          | ((in.readByte() & 0xff) << 8) | (in.readByte() & 0xff);
+      skipFully(in, len);
+      skipFully(in, in.readInt());
+      in.readInt();
+      if (in.readBoolean()) {
+        int numValues = in.readInt();
+        for (int i = 0; i < numValues; i++) {
+          skipFully(in, in.readInt());
+        }
+      }
+      return;
+    }
+
+    // row, data and the number of entries
+    skipFully(in, WritableUtils.readVInt(in));
+    skipFully(in, WritableUtils.readVInt(in));
+    WritableUtils.readVInt(in);
+
+    if ((first & 0x01) == 0x01) {
+      int numValues = WritableUtils.readVInt(in);
+      for (int i = 0; i < numValues; i++) {
+        skipFully(in, WritableUtils.readVInt(in));
+      }
+    }
+
+    if ((first & 0x02) == 0x02) {
+      int numSources = WritableUtils.readVInt(in);
+      for (int i = 0; i < numSources; i++) {
+        // written by WritableUtils.writeString(), a length of -1 is null
+        skipFully(in, Math.max(0, in.readInt()));
+      }
+    }
+
+    // the system time
+    WritableUtils.readVLong(in);
+  }
+
+  private static void skipFully(DataInput in, int len) throws IOException {
+    while (len > 0) {
+      int skipped = in.skipBytes(len);
+      if (skipped <= 0) {
+        // skipBytes does not report the end of the input, readByte does
+        in.readByte();
+        skipped = 1;
+      }
+      len -= skipped;
+    }
+  }
+
   @Override
   public void write(DataOutput out) throws IOException {
     out.writeInt(mutations.size());
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import org.apache.accumulo.core.util.LatencyHistogram;
+import org.apache.hadoop.metrics2.MetricsInfo;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
+import org.apache.hadoop.metrics2.lib.Interns;
+
+/**
+ * Publishes percentiles of the values recorded during each metrics period, for the tail latencies
+ * that the mean, min and max of a MutableStat do not show.
+ */
+class LatencyPercentiles {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+  private final double[] percentiles;
+  private final MetricsInfo[] infos;
+  private final MetricsInfo countInfo;
+
+  LatencyPercentiles(String name, String description, double[] percentiles) {
+    this.percentiles = percentiles;
+    this.infos = new MetricsInfo[percentiles.length];
+    for (int i = 0; i < percentiles.length; i++) {
+      // 99 is published as P99 and 99.9 as P99_9
+      String label = Double.toString(percentiles[i]).replaceAll("\\.0$", "").replace('.', '_');
+      infos[i] = Interns.info(name + "P" + label,
+          label.replace('_', '.') + "th percentile of " + description);
+    }
+    this.countInfo = Interns.info(name + "Samples", "Number of samples of " + description);
+  }
+
+  static double[] parse(String percentiles) {
+    if (percentiles.trim().isEmpty()) {
+      return new double[0];
+    }
+    String[] parts = percentiles.split(",");
+    double[] parsed = new double[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      parsed[i] = Double.parseDouble(parts[i].trim());
+      if (parsed[i] <= 0 || parsed[i] > 100) {
+        throw new IllegalArgumentException("Percentile not in (0, 100] : " + parts[i]);
+      }
+    }
+    return parsed;
+  }
+
+  void add(long value) {
+    histogram.record(value);
+  }
+
+  /**
+   * Adds the percentiles of the values added since the last snapshot.
+   */
+  void snapshot(MetricsRecordBuilder builder) {
+    LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+    builder.addGauge(countInfo, snapshot.getCount());
+    for (int i = 0; i < percentiles.length; i++) {
+      builder.addGauge(infos[i], snapshot.getValueAtPercentile(percentiles[i]));
+    }
+  }
+}
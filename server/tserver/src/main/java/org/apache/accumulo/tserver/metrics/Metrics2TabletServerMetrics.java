@@ -16,6 +16,9 @@
  */
 package org.apache.accumulo.tserver.metrics;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool.PoolStats;
 import org.apache.accumulo.server.metrics.Metrics;
 import org.apache.accumulo.server.metrics.MetricsSystemHelper;
 import org.apache.accumulo.tserver.TabletServer;
@@ -41,7 +44,10 @@ public class Metrics2TabletServerMetrics
   private final MetricsRegistry registry;
 
   private final MutableGaugeLong entries, entriesInMemory, activeMajcs, queuedMajcs, activeMincs,
-      queuedMincs, onlineTablets, openingTablets, unopenedTablets, queries, totalMincs;
+      queuedMincs, onlineTablets, openingTablets, unopenedTablets, queries, totalMincs,
+      summaryCacheHits, summaryCacheMisses, securityCacheHits, securityCacheMisses,
+      readAheadBlocks, readAheadHits, rpcConnectionsOpen, rpcConnectionsReserved,
+      rpcConnectionWaitTime, diskCacheHits, diskCacheMisses, diskCacheDropped;
 
   // Use TabletServerMetricsFactory
   Metrics2TabletServerMetrics(TabletServer tserver, MetricsSystem system) {
@@ -69,6 +75,32 @@ public class Metrics2TabletServerMetrics
     queries = registry.newGauge(Interns.info(QUERIES, "Number of queries"), 0L);
     totalMincs = registry
         .newGauge(Interns.info(TOTAL_MINCS, "Total number of minor compactions performed"), 0L);
+    summaryCacheHits = registry.newGauge(
+        Interns.info(SUMMARY_CACHE_HITS, "Number of file summaries found in the result cache"), 0L);
+    summaryCacheMisses = registry.newGauge(
+        Interns.info(SUMMARY_CACHE_MISSES, "Number of file summaries read from files"), 0L);
+    securityCacheHits = registry.newGauge(Interns.info(SECURITY_CACHE_HITS,
+        "Number of permission checks answered from the security caches"), 0L);
+    securityCacheMisses = registry.newGauge(Interns.info(SECURITY_CACHE_MISSES,
+        "Number of permission checks not answered from the security caches"), 0L);
+    readAheadBlocks = registry.newGauge(
+        Interns.info(READ_AHEAD_BLOCKS, "Number of data blocks read ahead of sequential scans"),
+        0L);
+    readAheadHits = registry.newGauge(Interns.info(READ_AHEAD_HITS,
+        "Number of data blocks read ahead that were cached before their scan reached them"), 0L);
+    rpcConnectionsOpen = registry.newGauge(Interns.info(RPC_CONNECTIONS_OPEN,
+        "Number of pooled connections to other servers, reserved or idle"), 0L);
+    rpcConnectionsReserved = registry.newGauge(Interns.info(RPC_CONNECTIONS_RESERVED,
+        "Number of pooled connections to other servers in use"), 0L);
+    rpcConnectionWaitTime = registry.newGauge(Interns.info(RPC_CONNECTION_WAIT_TIME,
+        "Total milliseconds waited for a connection to a server at its connection limit"), 0L);
+    diskCacheHits = registry.newGauge(Interns.info(DISK_CACHE_HITS,
+        "Number of blocks missing from memory that were read from the local disk cache"), 0L);
+    diskCacheMisses = registry.newGauge(Interns.info(DISK_CACHE_MISSES,
+        "Number of blocks missing from memory that were not in the local disk cache"), 0L);
+    diskCacheDropped = registry.newGauge(Interns.info(DISK_CACHE_DROPPED,
+        "Number of blocks not written to the local disk cache because its writes were behind"),
+        0L);
   }
 
   @Override
@@ -99,6 +131,19 @@ public class Metrics2TabletServerMetrics
     unopenedTablets.set(util.getUnopenedCount());
     queries.set(util.getQueries());
     totalMincs.set(util.getTotalMinorCompactions());
+    summaryCacheHits.set(util.getSummaryCacheHits());
+    summaryCacheMisses.set(util.getSummaryCacheMisses());
+    securityCacheHits.set(util.getSecurityCacheHits());
+    securityCacheMisses.set(util.getSecurityCacheMisses());
+    readAheadBlocks.set(util.getReadAheadBlocks());
+    readAheadHits.set(util.getReadAheadHits());
+    PoolStats poolStats = util.getConnectionPoolStats();
+    rpcConnectionsOpen.set(poolStats.getConnectionsOpen());
+    rpcConnectionsReserved.set(poolStats.getConnectionsReserved());
+    rpcConnectionWaitTime.set(poolStats.getReserveWaitTime(TimeUnit.MILLISECONDS));
+    diskCacheHits.set(util.getDiskCacheHits());
+    diskCacheMisses.set(util.getDiskCacheMisses());
+    diskCacheDropped.set(util.getDiskCacheDropped());
   }
 
   @Override
@@ -38,24 +38,36 @@ public class Metrics2TabletServerMinCMetrics
 
   private final MetricsSystem system;
   private final MetricsRegistry registry;
-  private final MutableStat activeMinc, queuedMinc;
+  private final MutableStat activeMinc, queuedMinc, majc;
+  private final LatencyPercentiles mincPercentiles, queuePercentiles, majcPercentiles;
 
   // Use TabletServerMetricsFactory
-  Metrics2TabletServerMinCMetrics(MetricsSystem system) {
+  Metrics2TabletServerMinCMetrics(MetricsSystem system, double[] percentiles) {
     this.system = system;
     this.registry = new MetricsRegistry(Interns.info(NAME, DESCRIPTION));
     this.registry.tag(MsInfo.ProcessName, MetricsSystemHelper.getProcessName());
 
     activeMinc = registry.newStat(MINC, "Minor compactions", "Ops", "Count", true);
     queuedMinc = registry.newStat(QUEUE, "Queued minor compactions", "Ops", "Count", true);
+    majc = registry.newStat(MAJC, "Major compactions", "Ops", "Time", true);
+
+    mincPercentiles = new LatencyPercentiles(MINC, "minor compaction times", percentiles);
+    queuePercentiles = new LatencyPercentiles(QUEUE, "minor compaction queue times",
+        percentiles);
+    majcPercentiles = new LatencyPercentiles(MAJC, "major compaction times", percentiles);
   }
 
   @Override
   public void add(String name, long value) {
     if (MINC.equals(name)) {
       activeMinc.add(value);
+      mincPercentiles.add(value);
     } else if (QUEUE.equals(name)) {
       queuedMinc.add(value);
+      queuePercentiles.add(value);
+    } else if (MAJC.equals(name)) {
+      majc.add(value);
+      majcPercentiles.add(value);
     }
   }
 
@@ -74,6 +86,9 @@ public class Metrics2TabletServerMinCMetrics
     MetricsRecordBuilder builder = collector.addRecord(RECORD).setContext(CONTEXT);
 
     registry.snapshot(builder, all);
+    mincPercentiles.snapshot(builder);
+    queuePercentiles.snapshot(builder);
+    majcPercentiles.snapshot(builder);
   }
 
 }
@@ -37,10 +37,11 @@ public class Metrics2TabletServerScanMetrics
 
   private final MetricsSystem system;
   private final MetricsRegistry registry;
-  private final MutableStat scans, resultsPerScan, yields;
+  private final MutableStat scans, resultsPerScan, yields, summaries, iteratorStacks;
+  private final LatencyPercentiles scanPercentiles, summaryPercentiles;
 
   // Use TabletServerMetricsFactory
-  Metrics2TabletServerScanMetrics(MetricsSystem system) {
+  Metrics2TabletServerScanMetrics(MetricsSystem system, double[] percentiles) {
     this.system = system;
     this.registry = new MetricsRegistry(Interns.info(NAME, DESCRIPTION));
     this.registry.tag(MsInfo.ProcessName, MetricsSystemHelper.getProcessName());
@@ -48,16 +49,27 @@ public class Metrics2TabletServerScanMetrics
     scans = registry.newStat(SCAN, "Scans", "Ops", "Count", true);
     resultsPerScan = registry.newStat(RESULT_SIZE, "Results per scan", "Ops", "Count", true);
     yields = registry.newStat(YIELD, "Yields", "Ops", "Count", true);
+    summaries = registry.newStat(SUMMARY, "Summary requests", "Ops", "Time", true);
+    iteratorStacks = registry.newStat(ITERATOR_STACK_MICROS,
+        "Microseconds to build the iterator stack of a scan", "Ops", "Micros", true);
+    scanPercentiles = new LatencyPercentiles(SCAN, "scan times", percentiles);
+    summaryPercentiles = new LatencyPercentiles(SUMMARY, "summary request times", percentiles);
   }
 
   @Override
   public void add(String name, long value) {
     if (SCAN.equals(name)) {
       scans.add(value);
+      scanPercentiles.add(value);
     } else if (RESULT_SIZE.equals(name)) {
       resultsPerScan.add(value);
     } else if (YIELD.equals(name)) {
       yields.add(value);
+    } else if (SUMMARY.equals(name)) {
+      summaries.add(value);
+      summaryPercentiles.add(value);
+    } else if (ITERATOR_STACK_MICROS.equals(name)) {
+      iteratorStacks.add(value);
     } else {
       throw new RuntimeException("Could not find metric to update for name " + name);
     }
@@ -78,6 +90,8 @@ public class Metrics2TabletServerScanMetrics
     MetricsRecordBuilder builder = collector.addRecord(RECORD).setContext(CONTEXT);
 
     registry.snapshot(builder, all);
+    scanPercentiles.snapshot(builder);
+    summaryPercentiles.snapshot(builder);
   }
 
 }
@@ -42,10 +42,12 @@ public class Metrics2TabletServerUpdateMetrics
   private final MutableCounterLong permissionErrorsCounter, unknownTabletErrorsCounter,
       constraintViolationsCounter;
   private final MutableStat commitPrepStat, walogWriteTimeStat, commitTimeStat,
-      mutationArraySizeStat;
+      mutationArraySizeStat, flushTimeStat;
+  private final LatencyPercentiles commitPrepPercentiles, walogWriteTimePercentiles,
+      commitTimePercentiles, flushTimePercentiles;
 
   // Use TabletServerMetricsFactory
-  Metrics2TabletServerUpdateMetrics(MetricsSystem system) {
+  Metrics2TabletServerUpdateMetrics(MetricsSystem system, double[] percentiles) {
     this.system = system;
     this.registry = new MetricsRegistry(Interns.info(NAME, DESCRIPTION));
     this.registry.tag(MsInfo.ProcessName, MetricsSystemHelper.getProcessName());
@@ -64,6 +66,17 @@ public class Metrics2TabletServerUpdateMetrics
     commitTimeStat = registry.newStat(COMMIT_TIME, "committing mutations", "Ops", "Time", true);
     mutationArraySizeStat = registry.newStat(MUTATION_ARRAY_SIZE, "mutation array", "ops", "Size",
         true);
+    flushTimeStat = registry.newStat(FLUSH_TIME, "preparing, logging and committing mutations",
+        "Ops", "Time", true);
+
+    commitPrepPercentiles = new LatencyPercentiles(COMMIT_PREP,
+        "times preparing to commit mutations", percentiles);
+    walogWriteTimePercentiles = new LatencyPercentiles(WALOG_WRITE_TIME,
+        "times writing mutations to WAL", percentiles);
+    commitTimePercentiles = new LatencyPercentiles(COMMIT_TIME, "times committing mutations",
+        percentiles);
+    flushTimePercentiles = new LatencyPercentiles(FLUSH_TIME,
+        "times preparing, logging and committing mutations", percentiles);
   }
 
   @Override
@@ -76,12 +89,18 @@ public class Metrics2TabletServerUpdateMetrics
       mutationArraySizeStat.add(value);
     } else if (COMMIT_PREP.equals(name)) {
       commitPrepStat.add(value);
+      commitPrepPercentiles.add(value);
     } else if (CONSTRAINT_VIOLATIONS.equals(name)) {
       constraintViolationsCounter.incr(value);
     } else if (WALOG_WRITE_TIME.equals(name)) {
       walogWriteTimeStat.add(value);
+      walogWriteTimePercentiles.add(value);
     } else if (COMMIT_TIME.equals(name)) {
       commitTimeStat.add(value);
+      commitTimePercentiles.add(value);
+    } else if (FLUSH_TIME.equals(name)) {
+      flushTimeStat.add(value);
+      flushTimePercentiles.add(value);
     } else {
       throw new RuntimeException("Cannot process metric with name " + name);
     }
@@ -102,6 +121,10 @@ public class Metrics2TabletServerUpdateMetrics
     MetricsRecordBuilder builder = collector.addRecord(RECORD).setContext(CONTEXT);
 
     registry.snapshot(builder, all);
+    commitPrepPercentiles.snapshot(builder);
+    walogWriteTimePercentiles.snapshot(builder);
+    commitTimePercentiles.snapshot(builder);
+    flushTimePercentiles.snapshot(builder);
   }
 
 }
@@ -47,4 +47,8 @@ public interface TabletServerMBean {
   String getName();
 
   double getAverageFilesPerTablet();
+
+  long getSummaryCacheHits();
+
+  long getSummaryCacheMisses();
 }
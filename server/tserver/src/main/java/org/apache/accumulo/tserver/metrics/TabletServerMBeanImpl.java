@@ -164,6 +164,22 @@ public class TabletServerMBeanImpl extends AbstractMetricsImpl implements Tablet
     return 0;
   }
 
+  @Override
+  public long getSummaryCacheHits() {
+    if (isEnabled()) {
+      return util.getSummaryCacheHits();
+    }
+    return 0;
+  }
+
+  @Override
+  public long getSummaryCacheMisses() {
+    if (isEnabled()) {
+      return util.getSummaryCacheMisses();
+    }
+    return 0;
+  }
+
   @Override
   protected ObjectName getObjectName() {
     return OBJECT_NAME;
@@ -35,6 +35,7 @@ public class TabletServerMetricsFactory {
 
   private final boolean useOldMetrics;
   private final MetricsSystem metricsSystem;
+  private final double[] percentiles;
 
   public TabletServerMetricsFactory(AccumuloConfiguration conf) {
     requireNonNull(conf);
@@ -45,6 +46,7 @@ public class TabletServerMetricsFactory {
     } else {
       metricsSystem = MetricsSystemHelper.getInstance();
     }
+    percentiles = LatencyPercentiles.parse(conf.get(Property.GENERAL_METRICS_PERCENTILES));
   }
 
   /**
@@ -55,7 +57,7 @@ public class TabletServerMetricsFactory {
       return new TabletServerMinCMetrics();
     }
 
-    return new Metrics2TabletServerMinCMetrics(metricsSystem);
+    return new Metrics2TabletServerMinCMetrics(metricsSystem, percentiles);
   }
 
   /**
@@ -77,7 +79,7 @@ public class TabletServerMetricsFactory {
       return new TabletServerScanMetrics();
     }
 
-    return new Metrics2TabletServerScanMetrics(metricsSystem);
+    return new Metrics2TabletServerScanMetrics(metricsSystem, percentiles);
   }
 
   /**
@@ -88,6 +90,6 @@ public class TabletServerMetricsFactory {
       return new TabletServerUpdateMetrics();
     }
 
-    return new Metrics2TabletServerUpdateMetrics(metricsSystem);
+    return new Metrics2TabletServerUpdateMetrics(metricsSystem, percentiles);
   }
 }
@@ -39,4 +39,16 @@ public interface TabletServerMetricsKeys {
   String QUERY_RATE = "queryRate";
   String QUERY_BYTE_RATE = "queryByteRate";
   String SCANNED_RATE = "scannedRate";
+  String SUMMARY_CACHE_HITS = "summaryCacheHits";
+  String SUMMARY_CACHE_MISSES = "summaryCacheMisses";
+  String SECURITY_CACHE_HITS = "securityCacheHits";
+  String SECURITY_CACHE_MISSES = "securityCacheMisses";
+  String READ_AHEAD_BLOCKS = "readAheadBlocks";
+  String READ_AHEAD_HITS = "readAheadHits";
+  String RPC_CONNECTIONS_OPEN = "rpcConnectionsOpen";
+  String RPC_CONNECTIONS_RESERVED = "rpcConnectionsReserved";
+  String RPC_CONNECTION_WAIT_TIME = "rpcConnectionWaitTime";
+  String DISK_CACHE_HITS = "diskCacheHits";
+  String DISK_CACHE_MISSES = "diskCacheMisses";
+  String DISK_CACHE_DROPPED = "diskCacheDropped";
 }
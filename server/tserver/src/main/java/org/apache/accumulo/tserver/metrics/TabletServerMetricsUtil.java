@@ -16,6 +16,10 @@
  */
 package org.apache.accumulo.tserver.metrics;
 
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool;
+import org.apache.accumulo.core.clientImpl.ThriftTransportPool.PoolStats;
+import org.apache.accumulo.core.file.blockfile.cache.disk.LocalDiskBlockCache;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.tserver.TabletServer;
 import org.apache.accumulo.tserver.tablet.Tablet;
 
@@ -156,6 +160,49 @@ public class TabletServerMetricsUtil {
     return tserver.getHoldTimeMillis() / 1000.;
   }
 
+  public long getSummaryCacheHits() {
+    return tserver.getSummaryResultCache().getHitCount();
+  }
+
+  public long getSummaryCacheMisses() {
+    return tserver.getSummaryResultCache().getMissCount();
+  }
+
+  public long getSecurityCacheHits() {
+    return tserver.getSecurityOperation().getCacheHits();
+  }
+
+  public long getSecurityCacheMisses() {
+    return tserver.getSecurityOperation().getCacheMisses();
+  }
+
+  public long getReadAheadBlocks() {
+    return CachableBlockFile.getReadAheadCount();
+  }
+
+  public long getReadAheadHits() {
+    return CachableBlockFile.getReadAheadHitCount();
+  }
+
+  public long getDiskCacheHits() {
+    LocalDiskBlockCache diskCache = tserver.getDiskBlockCache();
+    return diskCache == null ? 0 : diskCache.getHitCount();
+  }
+
+  public long getDiskCacheMisses() {
+    LocalDiskBlockCache diskCache = tserver.getDiskBlockCache();
+    return diskCache == null ? 0 : diskCache.getMissCount();
+  }
+
+  public long getDiskCacheDropped() {
+    LocalDiskBlockCache diskCache = tserver.getDiskBlockCache();
+    return diskCache == null ? 0 : diskCache.getDroppedCount();
+  }
+
+  public PoolStats getConnectionPoolStats() {
+    return ThriftTransportPool.getInstance().getStats();
+  }
+
   public double getAverageFilesPerTablet() {
     int count = 0;
     long result = 0;
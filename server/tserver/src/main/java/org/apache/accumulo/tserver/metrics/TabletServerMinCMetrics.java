@@ -96,6 +96,7 @@ public class TabletServerMinCMetrics extends AbstractMetricsImpl
   public void reset() {
     createMetric("minc");
     createMetric("queue");
+    createMetric("majc");
   }
 
 }
@@ -23,5 +23,6 @@ public interface TabletServerMinCMetricsKeys {
 
   String MINC = "minc";
   String QUEUE = "queue";
+  String MAJC = "majc";
 
 }
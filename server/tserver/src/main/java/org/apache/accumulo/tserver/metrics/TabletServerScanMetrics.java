@@ -92,10 +92,32 @@ public class TabletServerScanMetrics extends AbstractMetricsImpl
     return this.getMetricMin(SCAN);
   }
 
+  @Override
+  public long getSummaryCount() {
+    return this.getMetricCount(SUMMARY);
+  }
+
+  @Override
+  public long getSummaryAvgTime() {
+    return this.getMetricAvg(SUMMARY);
+  }
+
+  @Override
+  public long getIteratorStackCount() {
+    return this.getMetricCount(ITERATOR_STACK_MICROS);
+  }
+
+  @Override
+  public long getIteratorStackAvgMicros() {
+    return this.getMetricAvg(ITERATOR_STACK_MICROS);
+  }
+
   @Override
   public void reset() {
     createMetric(SCAN);
     createMetric(RESULT_SIZE);
+    createMetric(SUMMARY);
+    createMetric(ITERATOR_STACK_MICROS);
   }
 
 }
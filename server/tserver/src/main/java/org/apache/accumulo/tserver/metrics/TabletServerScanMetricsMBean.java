@@ -34,6 +34,14 @@ public interface TabletServerScanMetricsMBean extends TabletServerScanMetricsKey
 
   long getResultMaxSize();
 
+  long getSummaryCount();
+
+  long getSummaryAvgTime();
+
+  long getIteratorStackCount();
+
+  long getIteratorStackAvgMicros();
+
   void reset();
 
 }
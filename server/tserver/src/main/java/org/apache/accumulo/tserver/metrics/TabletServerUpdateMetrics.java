@@ -141,6 +141,26 @@ public class TabletServerUpdateMetrics extends AbstractMetricsImpl
     return this.getMetricAvg(COMMIT_TIME);
   }
 
+  @Override
+  public long getFlushCount() {
+    return this.getMetricCount(FLUSH_TIME);
+  }
+
+  @Override
+  public long getFlushMinTime() {
+    return this.getMetricMin(FLUSH_TIME);
+  }
+
+  @Override
+  public long getFlushMaxTime() {
+    return this.getMetricMax(FLUSH_TIME);
+  }
+
+  @Override
+  public long getFlushAvgTime() {
+    return this.getMetricAvg(FLUSH_TIME);
+  }
+
   @Override
   public void reset() {
     createMetric(PERMISSION_ERRORS);
@@ -150,6 +170,7 @@ public class TabletServerUpdateMetrics extends AbstractMetricsImpl
     createMetric(CONSTRAINT_VIOLATIONS);
     createMetric(WALOG_WRITE_TIME);
     createMetric(COMMIT_TIME);
+    createMetric(FLUSH_TIME);
   }
 
 }
@@ -28,5 +28,6 @@ public interface TabletServerUpdateMetricsKeys {
   String CONSTRAINT_VIOLATIONS = "constraintViolations";
   String WALOG_WRITE_TIME = "waLogWriteTime";
   String COMMIT_TIME = "commitTime";
+  String FLUSH_TIME = "flushTime";
 
 }
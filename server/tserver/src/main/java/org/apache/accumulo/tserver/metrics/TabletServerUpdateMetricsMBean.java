@@ -54,5 +54,13 @@ public interface TabletServerUpdateMetricsMBean extends TabletServerUpdateMetric
 
   long getCommitAvgTime();
 
+  long getFlushCount();
+
+  long getFlushMinTime();
+
+  long getFlushMaxTime();
+
+  long getFlushAvgTime();
+
   void reset();
 }
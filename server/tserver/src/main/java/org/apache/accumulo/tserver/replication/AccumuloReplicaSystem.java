@@ -27,12 +27,18 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -62,6 +68,7 @@ import org.apache.accumulo.core.trace.Span;
 import org.apache.accumulo.core.trace.Trace;
 import org.apache.accumulo.core.trace.TraceSamplers;
 import org.apache.accumulo.core.util.HostAndPort;
+import org.apache.accumulo.core.util.SimpleThreadPool;
 import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.server.fs.VolumeManagerImpl;
@@ -83,6 +90,11 @@ import org.apache.thrift.transport.TTransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.Uninterruptibles;
+
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 public class AccumuloReplicaSystem implements ReplicaSystem {
@@ -93,6 +105,27 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
   private AccumuloConfiguration conf;
   private VolumeManager fs;
 
+  // a replica system is created for each unit of work, so the threads that send WAL batches are
+  // shared by all of them
+  private static SimpleThreadPool batchSenders = null;
+
+  /**
+   * @return the pool that sends WAL batches, sized so every replication worker can have a full
+   *         window of batches in flight
+   */
+  private static synchronized ExecutorService getBatchSenders(AccumuloConfiguration conf,
+      int window) {
+    int threads = conf.getCount(Property.REPLICATION_WORKER_THREADS) * window;
+    if (null == batchSenders) {
+      batchSenders = new SimpleThreadPool(threads, "replication batch sender");
+    } else if (batchSenders.getMaximumPoolSize() != threads) {
+      log.info("Changing max threads for replication batch sender to {}", threads);
+      batchSenders.setCorePoolSize(threads);
+      batchSenders.setMaximumPoolSize(threads);
+    }
+    return batchSenders;
+  }
+
   protected String getInstanceName() {
     return instanceName;
   }
@@ -380,17 +413,30 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
 
     log.debug("Replication WAL to peer tserver");
     final Set<Integer> tids;
+    // the bytes of the WAL, after its header, that precede the current begin
+    long offset;
+    ExecutorService senders = null;
+    final Deque<WalBatch> inflight = new ArrayDeque<>();
     try (final FSDataInputStream fsinput = fs.open(p);
         final DataInputStream input = getWalStream(p, fsinput)) {
       log.debug("Skipping unwanted data in WAL");
       Span span = Trace.start("Consume WAL prefix");
       span.data("file", p.toString());
       try {
-        // We want to read all records in the WAL up to the "begin" offset contained in the Status
-        // message,
-        // building a Set of tids from DEFINE_TABLET events which correspond to table ids for future
-        // mutations
-        tids = consumeWalPrefix(target, input, p, status, sizeLimit);
+        if (isCheckpointed(status)) {
+          // A previous attempt recorded where begin is in the file and which tids it had seen, so
+          // the entries before it do not need to be read again
+          offset = status.getBeginOffset();
+          skipWalPrefix(fsinput, input, offset);
+          tids = new HashSet<>(status.getBeginTidsList());
+        } else {
+          // We want to read all records in the WAL up to the "begin" offset contained in the
+          // Status message, building a Set of tids from DEFINE_TABLET events which correspond to
+          // table ids for future mutations
+          CountingInputStream counter = new CountingInputStream(input);
+          tids = consumeWalPrefix(target, new DataInputStream(counter), p, status, sizeLimit);
+          offset = counter.getCount();
+        }
       } catch (IOException e) {
         log.warn("Unexpected error consuming file.");
         return status;
@@ -400,39 +446,85 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
 
       log.debug("Sending batches of data to peer tserver");
 
+      // Batches are read while earlier ones are sent, but only this many are sent at a time and
+      // the status only moves past a batch once it and all of the batches before it are replicated
+      final int window = conf.getCount(Property.REPLICATION_MAX_INFLIGHT_UNITS);
+      if (window > 1) {
+        senders = getBatchSenders(conf, window);
+      }
+      long readOffset = offset;
+      boolean moreToRead = true;
+
       Status lastStatus = status, currentStatus = status;
       final AtomicReference<Exception> exceptionRef = new AtomicReference<>();
       while (true) {
-        // Set some trace context
-        span = Trace.start("Replicate WAL batch");
-        span.data("Batch size (bytes)", Long.toString(sizeLimit));
-        span.data("File", p.toString());
-        span.data("Peer instance name", peerContext.getInstanceName());
-        span.data("Peer tserver", peerTserver.toString());
-        span.data("Remote table ID", remoteTableId);
-
-        ReplicationStats replResult;
-        try {
-          // Read and send a batch of mutations
-          replResult = ReplicationClient.executeServicerWithReturn(peerContext, peerTserver,
-              new WalClientExecReturn(target, input, p, currentStatus, sizeLimit, remoteTableId,
-                  tcreds, tids),
-              timeout);
-        } catch (Exception e) {
-          log.error("Caught exception replicating data to {} at {}", peerContext.getInstanceName(),
-              peerTserver, e);
-          throw e;
-        } finally {
-          span.stop();
+        while (moreToRead && inflight.size() < window) {
+          // Read a batch of mutations
+          final WalReplication edits;
+          try {
+            edits = getWalEdits(target, input, p, currentStatus, sizeLimit, tids);
+          } catch (IOException e) {
+            throw new AccumuloException(e);
+          }
+          if (edits.entriesConsumed == 0) {
+            moreToRead = false;
+            break;
+          }
+          moreToRead = edits.entriesConsumed != Long.MAX_VALUE;
+          readOffset += edits.bytesConsumed;
+
+          // and send it
+          FutureTask<ReplicationStats> send = new FutureTask<>(() -> {
+            // Set some trace context
+            Span batchSpan = Trace.start("Replicate WAL batch");
+            batchSpan.data("Batch size (bytes)", Long.toString(sizeLimit));
+            batchSpan.data("File", p.toString());
+            batchSpan.data("Peer instance name", peerContext.getInstanceName());
+            batchSpan.data("Peer tserver", peerTserver.toString());
+            batchSpan.data("Remote table ID", remoteTableId);
+            try {
+              return ReplicationClient.executeServicerWithReturn(peerContext, peerTserver,
+                  new WalClientExecReturn(target, edits, p, remoteTableId, tcreds), timeout);
+            } catch (Exception e) {
+              log.error("Caught exception replicating data to {} at {}",
+                  peerContext.getInstanceName(), peerTserver, e);
+              throw e;
+            } finally {
+              batchSpan.stop();
+            }
+          });
+          if (null == senders) {
+            send.run();
+          } else {
+            senders.execute(Trace.wrap(send));
+          }
+          inflight.add(new WalBatch(send, readOffset, new HashSet<>(tids)));
+        }
+
+        if (inflight.isEmpty()) {
+          log.debug("Did not replicate any new data for {} to {}, (state was {})", p, target,
+              ProtobufUtil.toString(lastStatus));
+          return status;
         }
 
+        WalBatch batch = inflight.remove();
+        ReplicationStats replResult = batch.getResult();
+
         // Catch the overflow
         long newBegin = currentStatus.getBegin() + replResult.entriesConsumed;
         if (newBegin < 0) {
           newBegin = Long.MAX_VALUE;
         }
 
-        currentStatus = Status.newBuilder(currentStatus).setBegin(newBegin).build();
+        Status.Builder builder = Status.newBuilder(currentStatus).setBegin(newBegin);
+        if (newBegin == Long.MAX_VALUE) {
+          // the whole file was consumed, there is nothing left to resume from
+          builder.clearBeginOffset().clearBeginTids();
+        } else if (replResult instanceof WalReplication) {
+          // record where the new begin is so the next attempt can resume from it
+          builder.setBeginOffset(batch.offset).clearBeginTids().addAllBeginTids(batch.tids);
+        }
+        currentStatus = builder.build();
 
         log.debug("Sent batch for replication of {} to {}, with new Status {}", p, target,
             ProtobufUtil.toString(currentStatus));
@@ -504,9 +596,11 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
       Status newStatus;
       // Bump up the begin to the (infinite) end, trying to be accurate
       if (status.getInfiniteEnd()) {
-        newStatus = Status.newBuilder(status).setBegin(Long.MAX_VALUE).build();
+        newStatus = Status.newBuilder(status).setBegin(Long.MAX_VALUE).clearBeginOffset()
+            .clearBeginTids().build();
       } else {
-        newStatus = Status.newBuilder(status).setBegin(status.getEnd()).build();
+        newStatus = Status.newBuilder(status).setBegin(status.getEnd()).clearBeginOffset()
+            .clearBeginTids().build();
       }
       Span span = Trace.start("Update replication table");
       try {
@@ -524,12 +618,48 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
       log.error("Could not create stream for WAL", e);
       // No data sent (bytes nor records) and no progress made
       return status;
+    } finally {
+      // batches still being sent are not recorded, they are sent again by a later attempt
+      for (WalBatch batch : inflight) {
+        batch.result.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * A batch of a WAL being sent, with the position in the WAL after it and the tids defined before
+   * that position
+   */
+  private static class WalBatch {
+    final Future<ReplicationStats> result;
+    final long offset;
+    final Set<Integer> tids;
+
+    WalBatch(Future<ReplicationStats> result, long offset, Set<Integer> tids) {
+      this.result = result;
+      this.offset = offset;
+      this.tids = tids;
+    }
+
+    ReplicationStats getResult()
+        throws AccumuloException, AccumuloSecurityException, TTransportException {
+      try {
+        return Uninterruptibles.getUninterruptibly(result);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof AccumuloSecurityException) {
+          throw (AccumuloSecurityException) cause;
+        }
+        Throwables.propagateIfPossible(cause, AccumuloException.class, TTransportException.class);
+        throw new AccumuloException(cause);
+      }
     }
   }
 
   protected class WalClientExecReturn
       implements ClientExecReturn<ReplicationStats,ReplicationServicer.Client> {
 
+    private WalReplication edits;
     private ReplicationTarget target;
     private DataInputStream input;
     private Path p;
@@ -552,9 +682,24 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
       this.tids = tids;
     }
 
+    /**
+     * Sends edits that were already read from the WAL
+     */
+    public WalClientExecReturn(ReplicationTarget target, WalReplication edits, Path p,
+        String remoteTableId, TCredentials tcreds) {
+      this.edits = edits;
+      this.target = target;
+      this.p = p;
+      this.remoteTableId = remoteTableId;
+      this.tcreds = tcreds;
+    }
+
     @Override
     public ReplicationStats execute(Client client) throws Exception {
-      WalReplication edits = getWalEdits(target, input, p, status, sizeLimit, tids);
+      WalReplication edits = this.edits;
+      if (null == edits) {
+        edits = getWalEdits(target, input, p, status, sizeLimit, tids);
+      }
 
       log.debug(
           "Read {} WAL entries and retained {} bytes of WAL entries for replication to peer '{}'",
@@ -564,7 +709,11 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
       // If we have some edits to send
       if (0 < edits.walEdits.getEditsSize()) {
         log.debug("Sending {} edits", edits.walEdits.getEditsSize());
-        long entriesReplicated = client.replicateLog(remoteTableId, edits.walEdits, tcreds);
+        WalEdits data = edits.walEdits;
+        if (isCompressed(conf, target)) {
+          data = WalEditsCompression.compress(data);
+        }
+        long entriesReplicated = client.replicateLog(remoteTableId, data, tcreds);
         if (entriesReplicated != edits.numUpdates) {
           log.warn("Sent {} WAL entries for replication but {} were reported as replicated",
               edits.numUpdates, entriesReplicated);
@@ -630,6 +779,19 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
     }
   }
 
+  /**
+   * @return true if the WAL edits sent to the target's peer should be compressed
+   */
+  protected boolean isCompressed(AccumuloConfiguration localConf, ReplicationTarget target) {
+    requireNonNull(localConf);
+    requireNonNull(target);
+
+    Map<String,String> peerCompress = localConf
+        .getAllPropertiesWithPrefix(Property.REPLICATION_PEER_COMPRESS);
+    return Boolean.parseBoolean(
+        peerCompress.get(Property.REPLICATION_PEER_COMPRESS.getKey() + target.getPeerName()));
+  }
+
   protected String getPassword(AccumuloConfiguration localConf, ReplicationTarget target) {
     requireNonNull(localConf);
     requireNonNull(target);
@@ -698,9 +860,7 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
 
   protected Set<Integer> consumeWalPrefix(ReplicationTarget target, DataInputStream wal, Path p,
       Status status, long sizeLimit) throws IOException {
-    Set<Integer> tids = new HashSet<>();
     LogFileKey key = new LogFileKey();
-    LogFileValue value = new LogFileValue();
 
     Set<Integer> desiredTids = new HashSet<>();
 
@@ -709,7 +869,8 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
     // later on might use that tid
     for (long i = 0; i < status.getBegin(); i++) {
       key.readFields(wal);
-      value.readFields(wal);
+      // none of the mutations before begin are sent, so they are not deserialized
+      LogFileValue.skipFields(wal);
 
       switch (key.event) {
         case DEFINE_TABLET:
@@ -722,7 +883,29 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
       }
     }
 
-    return tids;
+    return desiredTids;
+  }
+
+  /**
+   * @return true if the status records where its begin is in the WAL, so replication can resume
+   *         there without reading the entries before it
+   */
+  protected boolean isCheckpointed(Status status) {
+    return status.getBegin() > 0 && status.getBegin() != Long.MAX_VALUE
+        && status.hasBeginOffset();
+  }
+
+  /**
+   * Positions the WAL stream {@code offset} bytes after the end of its header. Unencrypted WALs
+   * are seeked directly, encrypted WALs are decrypted up to the offset without being parsed.
+   */
+  protected void skipWalPrefix(FSDataInputStream fsinput, DataInputStream wal, long offset)
+      throws IOException {
+    if (wal == fsinput) {
+      fsinput.seek(fsinput.getPos() + offset);
+    } else {
+      ByteStreams.skipFully(wal, offset);
+    }
   }
 
   public DataInputStream getWalStream(Path p, FSDataInputStream input) throws IOException {
@@ -743,13 +926,23 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
     long size = 0L;
     long entriesConsumed = 0L;
     long numUpdates = 0L;
+    long bytesConsumed = 0L;
     LogFileKey key = new LogFileKey();
     LogFileValue value = new LogFileValue();
 
+    // count the bytes read, so the caller can record where the last complete entry ended
+    CountingInputStream counter = new CountingInputStream(wal);
+    DataInputStream in = new DataInputStream(counter);
+
     while (size < sizeLimit) {
       try {
-        key.readFields(wal);
-        value.readFields(wal);
+        key.readFields(in);
+        if (isWantedMutation(key, desiredTids)) {
+          value.readFields(in);
+        } else {
+          // mutations for other tables are never sent, so they are not deserialized
+          LogFileValue.skipFields(in);
+        }
       } catch (EOFException e) {
         log.debug("Caught EOFException reading {}", p);
         if (status.getInfiniteEnd() && status.getClosed()) {
@@ -761,6 +954,7 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
       }
 
       entriesConsumed++;
+      bytesConsumed = counter.getCount();
 
       switch (key.event) {
         case DEFINE_TABLET:
@@ -795,7 +989,20 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
       }
     }
 
-    return new WalReplication(edits, size, entriesConsumed, numUpdates);
+    WalReplication replication = new WalReplication(edits, size, entriesConsumed, numUpdates);
+    replication.bytesConsumed = bytesConsumed;
+    return replication;
+  }
+
+  private static boolean isWantedMutation(LogFileKey key, Set<Integer> desiredTids) {
+    switch (key.event) {
+      case MUTATION:
+      case MANY_MUTATIONS:
+        return desiredTids.contains(key.tabletId);
+      default:
+        // the values of other events are empty
+        return false;
+    }
   }
 
   /**
@@ -911,6 +1118,11 @@ public class AccumuloReplicaSystem implements ReplicaSystem {
      */
     public long numUpdates;
 
+    /**
+     * The number of bytes of the WAL read for the entries consumed
+     */
+    public long bytesConsumed;
+
     public WalReplication(WalEdits edits, long size, long entriesConsumed, long numMutations) {
       super(size, edits.getEditsSize(), entriesConsumed);
       this.walEdits = edits;
@@ -20,7 +20,9 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.accumulo.core.client.AccumuloException;
@@ -60,6 +62,10 @@ public class BatchWriterReplicationReplayer implements AccumuloReplicationReplay
     final LogFileValue value = new LogFileValue();
     final long memoryInBytes = context.getConfiguration()
         .getAsBytes(Property.TSERV_REPLICATION_BW_REPLAYER_MEMORY);
+    final int writeThreads = context.getConfiguration()
+        .getCount(Property.TSERV_REPLICATION_BW_REPLAYER_THREADS);
+    // the updates of a batch usually share a few visibilities, only parse each of them once
+    final Map<ByteBuffer,ColumnVisibility> visibilities = new HashMap<>();
 
     BatchWriter bw = null;
     long mutationsApplied = 0L;
@@ -82,6 +88,8 @@ public class BatchWriterReplicationReplayer implements AccumuloReplicationReplay
         if (null == bw) {
           BatchWriterConfig bwConfig = new BatchWriterConfig();
           bwConfig.setMaxMemory(memoryInBytes);
+          // write to the tablet servers of the table in parallel
+          bwConfig.setMaxWriteThreads(writeThreads);
           try {
             bw = context.getClient().createBatchWriter(tableName, bwConfig);
           } catch (TableNotFoundException e) {
@@ -114,13 +122,14 @@ public class BatchWriterReplicationReplayer implements AccumuloReplicationReplay
                 timestamp = update.getTimestamp();
               }
 
-              // TODO ACCUMULO-2937 cache the CVs
+              ColumnVisibility cv = visibilities.computeIfAbsent(
+                  ByteBuffer.wrap(update.getColumnVisibility()),
+                  k -> new ColumnVisibility(update.getColumnVisibility()));
               if (update.isDeleted()) {
-                copy.putDelete(update.getColumnFamily(), update.getColumnQualifier(),
-                    new ColumnVisibility(update.getColumnVisibility()), timestamp);
+                copy.putDelete(update.getColumnFamily(), update.getColumnQualifier(), cv,
+                    timestamp);
               } else {
-                copy.put(update.getColumnFamily(), update.getColumnQualifier(),
-                    new ColumnVisibility(update.getColumnVisibility()), timestamp,
+                copy.put(update.getColumnFamily(), update.getColumnQualifier(), cv, timestamp,
                     update.getValue());
               }
             }
@@ -16,6 +16,7 @@
  */
 package org.apache.accumulo.tserver.replication;
 
+import java.io.IOException;
 import java.util.Map;
 
 import org.apache.accumulo.core.client.AccumuloException;
@@ -104,6 +105,15 @@ public class ReplicationServicerHandler implements Iface {
           "Could not instantiate replayer class" + clz.getName());
     }
 
+    // the sender may have packed the edits to save bandwidth
+    try {
+      data = WalEditsCompression.decompress(data);
+    } catch (IOException e) {
+      log.error("Could not decompress edits", e);
+      throw new RemoteReplicationException(RemoteReplicationErrorCode.COULD_NOT_DESERIALIZE,
+          "Could not decompress edits");
+    }
+
     long entriesReplicated;
     try {
       entriesReplicated = replayer.replicateLog(tabletServer.getContext(), tableName, data);
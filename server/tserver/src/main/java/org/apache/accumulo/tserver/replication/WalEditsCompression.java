@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.accumulo.core.replication.thrift.WalEdits;
+import org.apache.accumulo.core.util.ByteBufferUtil;
+
+/**
+ * Packs all of the edits of a {@link WalEdits} into a single deflated edit, so that replicating
+ * across slow links sends fewer bytes, and unpacks them on the peer.
+ *
+ * <p>
+ * An edit starts with the {@link org.apache.accumulo.tserver.logger.LogEvents} ordinal of its key,
+ * which is never negative, so a packed edit is recognized by its first byte. Only peers that
+ * unpack edits can receive packed ones.
+ */
+public class WalEditsCompression {
+
+  static final byte COMPRESSED = -1;
+
+  /**
+   * @return a message with a single edit holding all of the given edits
+   */
+  public static WalEdits compress(WalEdits edits) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    baos.write(COMPRESSED);
+    // favor speed, the edits are compressed on every replication of a batch
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(baos, deflater))) {
+      out.writeInt(edits.getEditsSize());
+      for (ByteBuffer edit : edits.getEdits()) {
+        out.writeInt(edit.remaining());
+        ByteBufferUtil.write(out, edit);
+      }
+    } finally {
+      deflater.end();
+    }
+
+    List<ByteBuffer> compressed = new ArrayList<>(1);
+    compressed.add(ByteBuffer.wrap(baos.toByteArray()));
+    return new WalEdits(compressed);
+  }
+
+  /**
+   * @return the edits packed by {@link #compress(WalEdits)}, or the given edits when they are not
+   *         packed
+   */
+  public static WalEdits decompress(WalEdits edits) throws IOException {
+    if (edits.getEditsSize() != 1) {
+      return edits;
+    }
+    ByteBuffer packed = edits.getEdits().get(0);
+    if (!packed.hasRemaining() || packed.get(packed.position()) != COMPRESSED) {
+      return edits;
+    }
+
+    ByteArrayInputStream bais = ByteBufferUtil.toByteArrayInputStream(packed);
+    bais.skip(1);
+    try (DataInputStream in = new DataInputStream(new InflaterInputStream(bais))) {
+      int count = in.readInt();
+      List<ByteBuffer> unpacked = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        byte[] edit = new byte[in.readInt()];
+        in.readFully(edit);
+        unpacked.add(ByteBuffer.wrap(edit));
+      }
+      return new WalEdits(unpacked);
+    }
+  }
+}
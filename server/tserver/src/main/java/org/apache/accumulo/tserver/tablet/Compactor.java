@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +38,7 @@ import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.dataImpl.thrift.IterInfo;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
@@ -54,6 +56,8 @@ import org.apache.accumulo.core.util.LocalityGroupUtil;
 import org.apache.accumulo.core.util.LocalityGroupUtil.LocalityGroupConfigurationError;
 import org.apache.accumulo.core.util.ratelimit.RateLimiter;
 import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.conf.TableConfiguration;
+import org.apache.accumulo.server.conf.TableConfiguration.ParsedIteratorConfig;
 import org.apache.accumulo.server.fs.FileRef;
 import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.server.problems.ProblemReport;
@@ -93,6 +97,8 @@ public class Compactor implements Callable<CompactionStats> {
   private final FileRef outputFile;
   private final boolean propogateDeletes;
   private final AccumuloConfiguration acuTableConf;
+  // acuTableConf may be a copy with the write parameters of a compaction plan
+  private final TableConfiguration iteratorConf;
   private final CompactionEnv env;
   private final VolumeManager fs;
   protected final KeyExtent extent;
@@ -152,6 +158,7 @@ public class Compactor implements Callable<CompactionStats> {
     this.extent = tablet.getExtent();
     this.fs = tablet.getTabletServer().getFileSystem();
     this.acuTableConf = tableConfiguation;
+    this.iteratorConf = tablet.getTableConfiguration();
     this.filesToCompact = files;
     this.imm = imm;
     this.outputFile = outputFile;
@@ -361,8 +368,29 @@ public class Compactor implements Callable<CompactionStats> {
       else
         throw new IllegalArgumentException();
 
+      // the table iterators are parsed once per configuration change, not for every compaction
+      ParsedIteratorConfig pic = iteratorConf.getParsedIteratorConfig(env.getIteratorScope());
+      List<IterInfo> iterInfos;
+      Map<String,Map<String,String>> iterOpts;
+      if (iterators.isEmpty()) {
+        iterInfos = pic.getIterInfo();
+        iterOpts = pic.getOpts();
+      } else {
+        List<IterInfo> compactionIters = new ArrayList<>(iterators.size());
+        Map<String,Map<String,String>> compactionOpts = new HashMap<>();
+        for (IteratorSetting is : iterators) {
+          compactionIters.add(new IterInfo(is.getPriority(), is.getIteratorClass(), is.getName()));
+          compactionOpts.put(is.getName(), is.getOptions());
+        }
+        iterInfos = new ArrayList<>(pic.getIterInfo().size() + compactionIters.size());
+        iterOpts = new HashMap<>(pic.getOpts().size() + compactionOpts.size());
+        IteratorUtil.mergeIteratorConfig(iterInfos, iterOpts, pic.getIterInfo(), pic.getOpts(),
+            compactionIters, compactionOpts);
+      }
+
       SortedKeyValueIterator<Key,Value> itr = iterEnv.getTopLevelIterator(IteratorUtil
-          .loadIterators(env.getIteratorScope(), cfsi, extent, acuTableConf, iterators, iterEnv));
+          .loadIterators(cfsi, iterInfos, iterOpts, iterEnv, true, pic.getContext(),
+              pic.getClassCache()));
 
       itr.seek(extent.toDataRange(), columnFamilies, inclusive);
 
@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.client.sample.SamplerConfiguration;
@@ -47,10 +48,12 @@ import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.util.Pair;
 import org.apache.accumulo.server.conf.TableConfiguration.ParsedIteratorConfig;
 import org.apache.accumulo.server.fs.FileRef;
+import org.apache.accumulo.server.metrics.Metrics;
 import org.apache.accumulo.tserver.FileManager.ScanFileManager;
 import org.apache.accumulo.tserver.InMemoryMap.MemoryIterator;
 import org.apache.accumulo.tserver.TabletIteratorEnvironment;
 import org.apache.accumulo.tserver.TabletServer;
+import org.apache.accumulo.tserver.metrics.TabletServerScanMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -205,6 +208,7 @@ class ScanDataSource implements DataSource {
     if (!loadIters) {
       return visFilter;
     } else {
+      long t1 = System.nanoTime();
       List<IterInfo> iterInfos;
       Map<String,Map<String,String>> iterOpts;
 
@@ -225,12 +229,15 @@ class ScanDataSource implements DataSource {
       }
 
       String context;
+      Map<String,Class<? extends SortedKeyValueIterator<Key,Value>>> classCache = null;
       if (options.getClassLoaderContext() != null) {
         log.trace("Loading iterators for scan with scan context: {}",
             options.getClassLoaderContext());
         context = options.getClassLoaderContext();
       } else {
         context = pic.getContext();
+        // the classes resolved for earlier scans of the table can be reused
+        classCache = pic.getClassCache();
         if (context != null) {
           log.trace("Loading iterators for scan with table context: {}",
               options.getClassLoaderContext());
@@ -239,8 +246,15 @@ class ScanDataSource implements DataSource {
         }
       }
 
-      return iterEnv.getTopLevelIterator(
-          IteratorUtil.loadIterators(visFilter, iterInfos, iterOpts, iterEnv, true, context));
+      SortedKeyValueIterator<Key,Value> stack = iterEnv.getTopLevelIterator(IteratorUtil
+          .loadIterators(visFilter, iterInfos, iterOpts, iterEnv, true, context, classCache));
+
+      Metrics scanMetrics = tablet.getTabletServer().getScanMetrics();
+      if (scanMetrics.isEnabled())
+        scanMetrics.add(TabletServerScanMetrics.ITERATOR_STACK_MICROS,
+            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - t1));
+
+      return stack;
     }
   }
 
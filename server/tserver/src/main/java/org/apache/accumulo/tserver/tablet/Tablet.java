@@ -2174,6 +2174,9 @@ public class Tablet implements TabletCommitter {
     if (majCStats != null)
       count = majCStats.getEntriesRead();
     timer.updateTime(Operation.MAJOR, queued, start, count, !success);
+    Metrics minCMetrics = getTabletServer().getMinCMetrics();
+    if (success && minCMetrics.isEnabled())
+      minCMetrics.add(TabletServerMinCMetrics.MAJC, System.currentTimeMillis() - start);
 
     return majCStats;
   }
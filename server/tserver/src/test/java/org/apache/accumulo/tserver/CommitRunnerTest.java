@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.client.Durability;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.tserver.tablet.CommitSession;
+import org.junit.Test;
+
+public class CommitRunnerTest {
+
+  private static List<Mutation> mutations(String row) {
+    Mutation m = new Mutation(row);
+    m.put("cf", "cq", "v");
+    return Collections.singletonList(m);
+  }
+
+  @Test
+  public void testCallerRunsUnstartedTasks() throws Exception {
+    // a pool that never gets to the tasks
+    List<Runnable> queued = new ArrayList<>();
+    CommitRunner runner = new CommitRunner(queued::add);
+
+    AtomicInteger runs = new AtomicInteger();
+    Thread caller = Thread.currentThread();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      int id = i;
+      tasks.add(() -> {
+        assertEquals(caller, Thread.currentThread());
+        runs.incrementAndGet();
+        return id;
+      });
+    }
+
+    List<Future<Integer>> results = runner.run(tasks);
+    assertEquals(2, queued.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i, (int) CommitRunner.get(results.get(i)));
+    }
+
+    // when the pool gets to the tasks, they are not run again
+    queued.forEach(Runnable::run);
+    assertEquals(3, runs.get());
+  }
+
+  @Test
+  public void testCommitFailureWaitsAndAborts() throws Exception {
+    CommitSession ok = createMock(CommitSession.class);
+    CommitSession failing = createMock(CommitSession.class);
+    CommitSession slow = createMock(CommitSession.class);
+
+    List<Mutation> okMutations = mutations("a");
+    List<Mutation> failingMutations = mutations("b");
+    List<Mutation> slowMutations = mutations("c");
+    AtomicBoolean slowDone = new AtomicBoolean(false);
+
+    ok.commit(okMutations);
+    expectLastCall();
+    failing.commit(failingMutations);
+    expectLastCall().andThrow(new IllegalStateException("commit failed"));
+    expect(failing.getExtent()).andReturn(null).anyTimes();
+    // only the failed commit is aborted
+    failing.abortCommit(failingMutations);
+    expectLastCall();
+    slow.commit(slowMutations);
+    expectLastCall().andAnswer(() -> {
+      Thread.sleep(200);
+      slowDone.set(true);
+      return null;
+    });
+    replay(ok, failing, slow);
+
+    Map<CommitSession,Mutations> sendables = new LinkedHashMap<>();
+    sendables.put(failing, new Mutations(Durability.SYNC, failingMutations));
+    sendables.put(ok, new Mutations(Durability.SYNC, okMutations));
+    sendables.put(slow, new Mutations(Durability.SYNC, slowMutations));
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      new CommitRunner(pool).commitAll(sendables);
+      fail("expected the failed commit to be thrown");
+    } catch (IllegalStateException e) {
+      assertEquals("commit failed", e.getMessage());
+      // the other tablets were committed before the failure was reported
+      assertTrue(slowDone.get());
+    } finally {
+      pool.shutdownNow();
+    }
+
+    verify(ok, failing, slow);
+  }
+}
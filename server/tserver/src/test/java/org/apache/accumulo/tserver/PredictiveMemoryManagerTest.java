@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.accumulo.core.clientImpl.Namespace;
+import org.apache.accumulo.core.clientImpl.Table;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.server.conf.NamespaceConfiguration;
+import org.apache.accumulo.server.conf.ServerConfiguration;
+import org.apache.accumulo.server.conf.TableConfiguration;
+import org.apache.accumulo.server.tabletserver.MemoryManagementActions;
+import org.apache.accumulo.server.tabletserver.PredictiveMemoryManager;
+import org.apache.accumulo.server.tabletserver.TabletState;
+import org.apache.hadoop.io.Text;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PredictiveMemoryManagerTest {
+
+  private static final long ZERO = System.currentTimeMillis();
+  private static final long LATER = ZERO + 20 * 60 * 1000;
+  private static final long ONE_GIG = 1024 * 1024 * 1024;
+  private static final long QGIG = ONE_GIG / 4;
+  private static final long TENTH_GIG = ONE_GIG / 10;
+  private static final long ONE_SECOND = 1000;
+  private static final long ONE_MINUTE = 60 * ONE_SECOND;
+
+  private PredictiveMemoryManagerUnderTest mgr;
+
+  @Before
+  public void createManager() {
+    mgr = new PredictiveMemoryManagerUnderTest();
+    mgr.init(new ServerConfiguration() {
+      @Override
+      public AccumuloConfiguration getSystemConfiguration() {
+        ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+        conf.set(Property.TSERV_MAXMEM, "1g");
+        conf.set(Property.TSERV_MINC_MAXCONCURRENT, "4");
+        return conf;
+      }
+
+      @Override
+      public TableConfiguration getTableConfiguration(Table.ID tableId) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public NamespaceConfiguration getNamespaceConfiguration(Namespace.ID namespaceId) {
+        throw new UnsupportedOperationException();
+      }
+    });
+  }
+
+  @Test
+  public void testNothingToDo() {
+    MemoryManagementActions result = mgr
+        .getMemoryManagementActions(tablets(t(k("x"), ZERO, 1000, 0), t(k("y"), ZERO, 2000, 0)));
+    assertEquals(0, result.tabletsToMinorCompact.size());
+  }
+
+  @Test
+  public void testFastIngestFlushesEarly() {
+    MemoryManagementActions result = mgr.getMemoryManagementActions(
+        tablets(t(k("x"), ZERO, TENTH_GIG, 0), t(k("y"), ZERO, TENTH_GIG, 0)));
+    assertEquals(0, result.tabletsToMinorCompact.size());
+    // memory is only 40% full, but x is growing too fast to flush it in time
+    mgr.currentTime += ONE_SECOND;
+    result = mgr.getMemoryManagementActions(
+        tablets(t(k("x"), ZERO, 3 * TENTH_GIG, 0), t(k("y"), ZERO, TENTH_GIG, 0)));
+    assertEquals(2, result.tabletsToMinorCompact.size());
+    assertEquals(k("x"), result.tabletsToMinorCompact.get(0));
+    assertEquals(k("y"), result.tabletsToMinorCompact.get(1));
+  }
+
+  @Test
+  public void testOneAtATime() {
+    // a little over the target, only flush the largest
+    MemoryManagementActions result = mgr.getMemoryManagementActions(tablets(
+        t(k("a"), ZERO, QGIG, 0), t(k("b"), ZERO, QGIG + 1, 0), t(k("c"), ZERO, QGIG / 2, 0)));
+    assertEquals(1, result.tabletsToMinorCompact.size());
+    assertEquals(k("b"), result.tabletsToMinorCompact.get(0));
+    // the memory being flushed will be freed, nothing more to do
+    mgr.currentTime += ONE_SECOND;
+    result = mgr.getMemoryManagementActions(tablets(t(k("a"), ZERO, QGIG, 0),
+        t(k("b"), ZERO, 0, QGIG + 1), t(k("c"), ZERO, QGIG / 2, 0)));
+    assertEquals(0, result.tabletsToMinorCompact.size());
+    // more data over a minute, flush the largest again
+    mgr.currentTime += ONE_MINUTE;
+    result = mgr.getMemoryManagementActions(tablets(t(k("a"), ZERO, QGIG, 0),
+        t(k("b"), ZERO, QGIG / 2, QGIG + 1), t(k("c"), ZERO, QGIG + 2, 0)));
+    assertEquals(1, result.tabletsToMinorCompact.size());
+    assertEquals(k("c"), result.tabletsToMinorCompact.get(0));
+  }
+
+  @Test
+  public void testMemoryNearlyFull() {
+    // flush enough to get back under the target at once
+    MemoryManagementActions result = mgr.getMemoryManagementActions(tablets(
+        t(k("a"), ZERO, TENTH_GIG, 0), t(k("b"), ZERO, TENTH_GIG + 1, 0),
+        t(k("c"), ZERO, TENTH_GIG + 2, 0), t(k("d"), ZERO, TENTH_GIG + 3, 0),
+        t(k("e"), ZERO, TENTH_GIG + 4, 0), t(k("f"), ZERO, TENTH_GIG + 5, 0),
+        t(k("g"), ZERO, TENTH_GIG + 6, 0), t(k("h"), ZERO, TENTH_GIG + 7, 0),
+        t(k("i"), ZERO, TENTH_GIG + 8, 0)));
+    assertEquals(4, result.tabletsToMinorCompact.size());
+    assertEquals(k("i"), result.tabletsToMinorCompact.get(0));
+    assertEquals(k("h"), result.tabletsToMinorCompact.get(1));
+    assertEquals(k("g"), result.tabletsToMinorCompact.get(2));
+    assertEquals(k("f"), result.tabletsToMinorCompact.get(3));
+  }
+
+  @Test
+  public void testCompactorsBusy() {
+    // over the target, but as many flushes are running as can run at once
+    MemoryManagementActions result = mgr.getMemoryManagementActions(tablets(
+        t(k("a"), ZERO, QGIG, 0), t(k("b"), ZERO, QGIG + 1, 0), t(k("c"), ZERO, 0, 1000),
+        t(k("d"), ZERO, 0, 1000), t(k("e"), ZERO, 0, 1000), t(k("f"), ZERO, 0, 1000)));
+    assertEquals(0, result.tabletsToMinorCompact.size());
+  }
+
+  @Test
+  public void testIdle() {
+    mgr.currentTime = LATER;
+    MemoryManagementActions result = mgr
+        .getMemoryManagementActions(tablets(t(k("x"), ZERO, 1001, 0), t(k("y"), LATER, 2000, 0)));
+    assertEquals(1, result.tabletsToMinorCompact.size());
+    assertEquals(k("x"), result.tabletsToMinorCompact.get(0));
+  }
+
+  private static class PredictiveMemoryManagerUnderTest extends PredictiveMemoryManager {
+
+    public long currentTime = ZERO;
+
+    @Override
+    protected long currentTimeMillis() {
+      return currentTime;
+    }
+
+    @Override
+    protected long getMinCIdleThreshold(KeyExtent extent) {
+      return 15 * 60 * 1000;
+    }
+
+    @Override
+    protected boolean tableExists(Table.ID tableId) {
+      return true;
+    }
+  }
+
+  private static KeyExtent k(String endRow) {
+    return new KeyExtent(Table.ID.of("1"), new Text(endRow), null);
+  }
+
+  private static class TestTabletState implements TabletState {
+
+    private final KeyExtent extent;
+    private final long lastCommit;
+    private final long memSize;
+    private final long compactingSize;
+
+    TestTabletState(KeyExtent extent, long commit, long memsize, long compactingTableSize) {
+      this.extent = extent;
+      this.lastCommit = commit;
+      this.memSize = memsize;
+      this.compactingSize = compactingTableSize;
+    }
+
+    @Override
+    public KeyExtent getExtent() {
+      return extent;
+    }
+
+    @Override
+    public long getLastCommitTime() {
+      return lastCommit;
+    }
+
+    @Override
+    public long getMemTableSize() {
+      return memSize;
+    }
+
+    @Override
+    public long getMinorCompactingMemTableSize() {
+      return compactingSize;
+    }
+  }
+
+  private static TabletState t(KeyExtent ke, long lastCommit, long memSize, long compactingSize) {
+    return new TestTabletState(ke, lastCommit, memSize, compactingSize);
+  }
+
+  private static List<TabletState> tablets(TabletState... states) {
+    return Arrays.asList(states);
+  }
+}
@@ -113,6 +113,36 @@ public class LogFileTest {
     assertEquals(value.mutations, Arrays.asList(m, m));
   }
 
+  @Test
+  public void testSkipFields() throws IOException {
+    Mutation m1 = new ServerMutation(new Text("row"));
+    m1.put(new Text("cf"), new Text("cq"), new ColumnVisibility("vis"), 12345,
+        new Value("value".getBytes()));
+    m1.putDelete(new Text("cf"), new Text("cq"));
+    Mutation m2 = new ServerMutation(new Text("row2"));
+    // a value large enough to be stored outside of the mutation data
+    m2.put(new Text("cf"), new Text("cq"), new Value(new byte[100_000]));
+    m2.addReplicationSource("peer");
+    LogFileValue value = new LogFileValue();
+    value.mutations = Arrays.asList(m1, m2, m1);
+
+    DataOutputBuffer out = new DataOutputBuffer();
+    value.write(out);
+    value.write(out);
+    out.writeInt(42);
+    out.flush();
+    DataInputBuffer in = new DataInputBuffer();
+    in.reset(out.getData(), out.size());
+
+    // skipping a value leaves the input at the start of the next one
+    LogFileValue.skipFields(in);
+    LogFileValue valueResult = new LogFileValue();
+    valueResult.readFields(in);
+    assertEquals(value.mutations, valueResult.mutations);
+    assertEquals(42, in.readInt());
+    assertEquals(-1, in.read());
+  }
+
   @Test
   public void testEventType() {
     assertEquals(LogFileKey.eventType(MUTATION), LogFileKey.eventType(MANY_MUTATIONS));
@@ -21,6 +21,7 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -57,6 +58,7 @@ import org.apache.accumulo.tserver.replication.AccumuloReplicaSystem.Replication
 import org.apache.accumulo.tserver.replication.AccumuloReplicaSystem.WalClientExecReturn;
 import org.apache.accumulo.tserver.replication.AccumuloReplicaSystem.WalReplication;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.Text;
 import org.junit.Test;
 
@@ -453,6 +455,69 @@ public class AccumuloReplicaSystemTest {
     assertNotEquals(0, repl.sizeInBytes);
   }
 
+  @Test
+  public void consumedBytesResumeAfterPrefix() throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dos = new DataOutputStream(baos);
+
+    LogFileKey key = new LogFileKey();
+    LogFileValue value = new LogFileValue();
+    key.seq = 1L;
+
+    key.event = LogEvents.DEFINE_TABLET;
+    key.tablet = new KeyExtent(Table.ID.of("1"), null, null);
+    key.tabletId = 1;
+    key.write(dos);
+    value.write(dos);
+
+    key.tablet = null;
+    key.event = LogEvents.MUTATION;
+    key.tabletId = 2;
+    key.filename = "/accumulo/wals/tserver+port/" + UUID.randomUUID();
+    value.mutations = Arrays.asList(new ServerMutation(new Text("otherrow")));
+    key.write(dos);
+    value.write(dos);
+
+    dos.flush();
+    int prefixSize = baos.size();
+
+    key.tabletId = 1;
+    value.mutations = Arrays.asList(new ServerMutation(new Text("row")));
+    key.write(dos);
+    value.write(dos);
+
+    // a partially written entry at the end of the file
+    key.write(dos);
+    dos.close();
+
+    Map<String,String> confMap = new HashMap<>();
+    confMap.put(Property.REPLICATION_NAME.getKey(), "source");
+    AccumuloConfiguration conf = new ConfigurationCopy(confMap);
+
+    AccumuloReplicaSystem ars = new AccumuloReplicaSystem();
+    ars.setConf(conf);
+
+    ReplicationTarget target = new ReplicationTarget("peer", "1", Table.ID.of("1"));
+    Path p = new Path("/accumulo/wals/tserver+port/wal");
+    Status status = Status.newBuilder().setBegin(2).setEnd(0).setInfiniteEnd(true).setClosed(false)
+        .build();
+    byte[] data = baos.toByteArray();
+    DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data));
+
+    Set<Integer> tids = ars.consumeWalPrefix(target, dis, p, status, Long.MAX_VALUE);
+    assertEquals(Collections.singleton(1), tids);
+    assertEquals(data.length - prefixSize, dis.available());
+
+    WalReplication repl = ars.getWalEdits(target, dis, p, status, Long.MAX_VALUE, tids);
+    assertEquals(1, repl.entriesConsumed);
+    assertEquals(1, repl.walEdits.getEditsSize());
+
+    // the partial entry is not counted, so a resumed read starts at its beginning
+    DataOutputBuffer last = new DataOutputBuffer();
+    key.write(last);
+    assertEquals(data.length - prefixSize - last.getLength(), repl.bytesConsumed);
+  }
+
   @Test
   public void dontSendEmptyDataToPeer() throws Exception {
     Client replClient = createMock(Client.class);
@@ -542,4 +607,18 @@ public class AccumuloReplicaSystemTest {
     assertEquals(user, ars.getPrincipal(conf, target));
     assertEquals(keytab, ars.getKeytab(conf, target));
   }
+
+  @Test
+  public void testCompressPerPeer() throws Exception {
+    AccumuloReplicaSystem ars = new AccumuloReplicaSystem();
+    ReplicationTarget target = new ReplicationTarget("peer", "peer_table", Table.ID.of("1"));
+    ReplicationTarget other = new ReplicationTarget("other", "peer_table", Table.ID.of("1"));
+
+    Map<String,String> confMap = new HashMap<>();
+    confMap.put(Property.REPLICATION_PEER_COMPRESS.getKey() + target.getPeerName(), "true");
+    AccumuloConfiguration conf = new ConfigurationCopy(confMap);
+
+    assertTrue(ars.isCompressed(conf, target));
+    assertFalse(ars.isCompressed(conf, other));
+  }
 }
@@ -79,6 +79,7 @@ public class BatchWriterReplicationReplayerTest {
     final long systemTimestamp = 1000;
     final BatchWriterConfig bwCfg = new BatchWriterConfig();
     bwCfg.setMaxMemory(1L);
+    bwCfg.setMaxWriteThreads(4);
 
     LogFileKey key = new LogFileKey();
     key.event = LogEvents.MANY_MUTATIONS;
@@ -124,6 +125,8 @@ public class BatchWriterReplicationReplayerTest {
 
     expect(conf.getAsBytes(Property.TSERV_REPLICATION_BW_REPLAYER_MEMORY))
         .andReturn(bwCfg.getMaxMemory());
+    expect(conf.getCount(Property.TSERV_REPLICATION_BW_REPLAYER_THREADS))
+        .andReturn(bwCfg.getMaxWriteThreads());
     expect(client.createBatchWriter(tableName, bwCfg)).andReturn(bw);
 
     bw.addMutations(Lists.newArrayList(expectedMutation));
@@ -145,6 +148,7 @@ public class BatchWriterReplicationReplayerTest {
     final String peerName = "peer";
     final BatchWriterConfig bwCfg = new BatchWriterConfig();
     bwCfg.setMaxMemory(1L);
+    bwCfg.setMaxWriteThreads(4);
 
     LogFileKey key = new LogFileKey();
     key.event = LogEvents.MANY_MUTATIONS;
@@ -196,6 +200,8 @@ public class BatchWriterReplicationReplayerTest {
 
     expect(conf.getAsBytes(Property.TSERV_REPLICATION_BW_REPLAYER_MEMORY))
         .andReturn(bwCfg.getMaxMemory());
+    expect(conf.getCount(Property.TSERV_REPLICATION_BW_REPLAYER_THREADS))
+        .andReturn(bwCfg.getMaxWriteThreads());
     expect(client.createBatchWriter(tableName, bwCfg)).andReturn(bw);
 
     bw.addMutations(Lists.newArrayList(expectedMutation));
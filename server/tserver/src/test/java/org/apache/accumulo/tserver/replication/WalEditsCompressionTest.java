@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.replication;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.replication.thrift.WalEdits;
+import org.junit.Test;
+
+public class WalEditsCompressionTest {
+
+  @Test
+  public void roundTrip() throws Exception {
+    List<ByteBuffer> list = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      list.add(ByteBuffer.wrap(("edit for row " + i).getBytes(UTF_8)));
+    }
+    list.add(ByteBuffer.wrap(new byte[0]));
+    WalEdits edits = new WalEdits(list);
+
+    WalEdits compressed = WalEditsCompression.compress(edits);
+    assertEquals(1, compressed.getEditsSize());
+    assertNotEquals(edits, compressed);
+
+    assertEquals(edits, WalEditsCompression.decompress(compressed));
+  }
+
+  @Test
+  public void uncompressedEditsAreUnchanged() throws Exception {
+    WalEdits edits = new WalEdits(
+        Collections.singletonList(ByteBuffer.wrap("edit".getBytes(UTF_8))));
+    assertSame(edits, WalEditsCompression.decompress(edits));
+
+    edits = new WalEdits(Collections.emptyList());
+    assertSame(edits, WalEditsCompression.decompress(edits));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.functional;
+
+import static org.apache.accumulo.minicluster.ServerType.GARBAGE_COLLECTOR;
+import static org.apache.accumulo.minicluster.ServerType.TABLET_SERVER;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.accumulo.core.cli.BatchWriterOpts;
+import org.apache.accumulo.core.cli.ScannerOpts;
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.miniclusterImpl.MiniAccumuloClusterControl;
+import org.apache.accumulo.miniclusterImpl.MiniAccumuloConfigImpl;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.log.WalStateManager;
+import org.apache.accumulo.server.log.WalStateManager.WalState;
+import org.apache.accumulo.test.TestIngest;
+import org.apache.accumulo.test.VerifyIngest;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.junit.Test;
+
+/**
+ * Writes to a tablet server that has several write-ahead logs open at once, kills it, and verifies
+ * that recovery finds all the data.
+ */
+public class MultipleWALRecoveryIT extends ConfigurableMacBase {
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 10 * 60;
+  }
+
+  @Override
+  protected void configure(MiniAccumuloConfigImpl cfg, Configuration hadoopCoreSite) {
+    cfg.setNumTservers(1);
+    cfg.setProperty(Property.TSERV_WALOG_COUNT, "4");
+    // small enough that the logs roll during ingest
+    cfg.setProperty(Property.TSERV_WALOG_MAX_SIZE, "5M");
+    cfg.setProperty(Property.TSERV_WAL_REPLICATION, "1");
+    cfg.setProperty(Property.MASTER_RECOVERY_DELAY, "1s");
+    cfg.setProperty(Property.INSTANCE_ZK_TIMEOUT, "15s");
+    hadoopCoreSite.set("fs.file.impl", RawLocalFileSystem.class.getName());
+  }
+
+  private int countWALsInUse(ServerContext context) throws Exception {
+    int inUse = 0;
+    for (WalState state : new WalStateManager(context).getAllState().values()) {
+      if (state != WalState.UNREFERENCED) {
+        inUse++;
+      }
+    }
+    return inUse;
+  }
+
+  @Test
+  public void test() throws Exception {
+    MiniAccumuloClusterControl control = getCluster().getClusterControl();
+    // keep the logs around for recovery
+    control.stop(GARBAGE_COLLECTOR);
+
+    ServerContext context = getServerContext();
+    try (AccumuloClient c = context.getClient()) {
+      String tableName = getUniqueNames(1)[0];
+
+      // split the table, so its tablets are spread over all the logs
+      TestIngest.Opts opts = new TestIngest.Opts();
+      opts.setTableName(tableName);
+      opts.setClientInfo(getClientInfo());
+      opts.createTable = true;
+      opts.numsplits = 16;
+      opts.rows = 50_000;
+      TestIngest.ingest(c, opts, new BatchWriterOpts());
+
+      VerifyIngest.Opts vopts = new VerifyIngest.Opts();
+      vopts.setTableName(tableName);
+      vopts.setClientInfo(getClientInfo());
+      vopts.rows = opts.rows;
+      VerifyIngest.verifyIngest(c, vopts, new ScannerOpts());
+
+      int inUse = countWALsInUse(context);
+      assertTrue("expected the tablet server to write to several logs, but " + inUse
+          + " were in use", inUse > 1);
+
+      // data that was not flushed before the kill must be recovered from the logs
+      control.stop(TABLET_SERVER);
+      control.start(TABLET_SERVER);
+
+      VerifyIngest.verifyIngest(c, vopts, new ScannerOpts());
+    }
+  }
+}
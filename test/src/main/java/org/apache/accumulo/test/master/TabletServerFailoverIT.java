@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.master;
+
+import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.clientImpl.Table;
+import org.apache.accumulo.core.conf.ClientProperty;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.metadata.MetadataTable;
+import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.minicluster.ServerType;
+import org.apache.accumulo.miniclusterImpl.MiniAccumuloConfigImpl;
+import org.apache.accumulo.test.categories.MiniClusterOnlyTests;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.apache.accumulo.test.functional.ConfigurableMacBase;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how long it takes for the tablets of a crashed tablet server to be hosted again. The
+ * master only looks at the tablets of the lost server, so this should not depend on the number of
+ * tablets in the table.
+ */
+@Category({MiniClusterOnlyTests.class, PerformanceTests.class})
+public class TabletServerFailoverIT extends ConfigurableMacBase {
+  private static final Logger log = LoggerFactory.getLogger(TabletServerFailoverIT.class);
+
+  private static final int TABLETS = 1000;
+  private static final long ZK_TIMEOUT_MS = 5000;
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 4 * 60;
+  }
+
+  @Override
+  public void configure(MiniAccumuloConfigImpl cfg, Configuration hadoopCoreSite) {
+    cfg.setNumTservers(3);
+    cfg.setProperty(Property.INSTANCE_ZK_TIMEOUT, ZK_TIMEOUT_MS + "ms");
+    cfg.setClientProperty(ClientProperty.INSTANCE_ZOOKEEPERS_TIMEOUT, "5s");
+  }
+
+  private static int countUnhosted(AccumuloClient client, Table.ID tableId) throws Exception {
+    Set<String> live = new HashSet<>(client.instanceOperations().getTabletServers());
+    int hosted = 0;
+    try (Scanner s = client.createScanner(MetadataTable.NAME, Authorizations.EMPTY)) {
+      s.setRange(TabletsSection.getRange(tableId));
+      s.fetchColumnFamily(TabletsSection.CurrentLocationColumnFamily.NAME);
+      for (Entry<Key,Value> entry : s) {
+        if (live.contains(entry.getValue().toString())) {
+          hosted++;
+        }
+      }
+    }
+    return TABLETS + 1 - hosted;
+  }
+
+  @Test
+  public void test() throws Exception {
+    String tableName = getUniqueNames(1)[0];
+    try (AccumuloClient client = getClient()) {
+      client.tableOperations().create(tableName);
+      SortedSet<Text> splits = new TreeSet<>();
+      for (int i = 0; i < TABLETS; i++) {
+        splits.add(new Text(String.format("%05d", i)));
+      }
+      client.tableOperations().addSplits(tableName, splits);
+      Table.ID tableId = Table.ID.of(client.tableOperations().tableIdMap().get(tableName));
+
+      while (countUnhosted(client, tableId) > 0) {
+        sleepUninterruptibly(250, TimeUnit.MILLISECONDS);
+      }
+
+      long t1 = System.currentTimeMillis();
+      getCluster().killProcess(ServerType.TABLET_SERVER,
+          getCluster().getProcesses().get(ServerType.TABLET_SERVER).iterator().next());
+
+      // wait for the master to notice the lost server
+      while (client.instanceOperations().getTabletServers().size() == 3) {
+        sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      }
+      long t2 = System.currentTimeMillis();
+
+      while (countUnhosted(client, tableId) > 0) {
+        sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      }
+      long t3 = System.currentTimeMillis();
+
+      log.info("Lock loss detected in {}ms, tablets reassigned {}ms after lock loss", t2 - t1,
+          t3 - t2);
+
+      // Reassignment is driven by the lock loss event and should not wait for a periodic scan of
+      // all tablets
+      assertTrue("Reassignment took " + (t3 - t2) + "ms", t3 - t2 < 30 * 1000);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.fate.Fate;
+import org.apache.accumulo.fate.Repo;
+import org.apache.accumulo.fate.TStore.TStatus;
+import org.apache.accumulo.fate.ZooStore;
+import org.apache.accumulo.fate.zookeeper.ZooReaderWriter;
+import org.apache.accumulo.harness.AccumuloITBase;
+import org.apache.accumulo.server.util.PortUtils;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.apache.zookeeper.server.ServerCnxnFactory;
+import org.apache.zookeeper.server.ZooKeeperServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how many FATE transactions per second a {@link ZooStore} can run against an in-process
+ * ZooKeeper, for different numbers of runner threads. Each transaction pushes a few steps, so the
+ * numbers include reservation, status changes, repo pushes and cleanup.
+ */
+@Category(PerformanceTests.class)
+public class FateThroughputIT extends AccumuloITBase {
+  private static final Logger log = LoggerFactory.getLogger(FateThroughputIT.class);
+
+  private static final int TRANSACTIONS = 2000;
+  private static final int STEPS = 3;
+
+  private ZooKeeperServer zooKeeper;
+  private ServerCnxnFactory cnxnFactory;
+  private ZooReaderWriter zk;
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 5 * 60;
+  }
+
+  @Before
+  public void startZooKeeper() throws Exception {
+    File dir = createTestDir(FateThroughputIT.class.getSimpleName() + "_"
+        + testName.getMethodName());
+    zooKeeper = new ZooKeeperServer(new File(dir, "snap"), new File(dir, "log"), 2000);
+    int port = PortUtils.getRandomFreePort();
+    cnxnFactory = ServerCnxnFactory.createFactory(new InetSocketAddress("localhost", port), 1000);
+    cnxnFactory.startup(zooKeeper);
+    zk = new ZooReaderWriter("localhost:" + port, 30000, "secret");
+  }
+
+  @After
+  public void stopZooKeeper() throws Exception {
+    if (zk != null) {
+      // close the session, so it is not left trying to reconnect to the stopped server
+      zk.getZooKeeper().close();
+    }
+    if (cnxnFactory != null) {
+      cnxnFactory.shutdown();
+    }
+    if (zooKeeper != null) {
+      zooKeeper.shutdown();
+    }
+  }
+
+  public static class Step implements Repo<AtomicLong> {
+    private static final long serialVersionUID = 1L;
+
+    private final int remaining;
+
+    public Step(int remaining) {
+      this.remaining = remaining;
+    }
+
+    @Override
+    public long isReady(long tid, AtomicLong environment) {
+      return 0;
+    }
+
+    @Override
+    public String getDescription() {
+      return "step " + remaining;
+    }
+
+    @Override
+    public Repo<AtomicLong> call(long tid, AtomicLong environment) {
+      environment.incrementAndGet();
+      return remaining > 1 ? new Step(remaining - 1) : null;
+    }
+
+    @Override
+    public void undo(long tid, AtomicLong environment) {}
+
+    @Override
+    public String getReturn() {
+      return null;
+    }
+  }
+
+  private double run(int threads) throws Exception {
+    ZooStore<AtomicLong> store = new ZooStore<>("/fate" + threads, zk);
+    AtomicLong steps = new AtomicLong();
+    Fate<AtomicLong> fate = new Fate<>(steps, store);
+    try {
+      fate.startTransactionRunners(threads);
+
+      long t1 = System.currentTimeMillis();
+      List<Long> tids = new ArrayList<>(TRANSACTIONS);
+      for (int i = 0; i < TRANSACTIONS; i++) {
+        long tid = fate.startTransaction();
+        fate.seedTransaction(tid, new Step(STEPS), false);
+        tids.add(tid);
+      }
+
+      for (long tid : tids) {
+        assertEquals(TStatus.SUCCESSFUL, fate.waitForCompletion(tid));
+      }
+      long t2 = System.currentTimeMillis();
+
+      assertEquals(TRANSACTIONS * STEPS, steps.get());
+
+      double rate = TRANSACTIONS / ((t2 - t1) / 1000.0);
+      log.info("{} runner threads : {} transactions in {}ms, {} tx/sec", threads, TRANSACTIONS,
+          t2 - t1, String.format("%,.1f", rate));
+
+      for (long tid : tids) {
+        fate.delete(tid);
+      }
+      return rate;
+    } finally {
+      fate.shutdown();
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    // warm up the server and the JVM
+    run(4);
+
+    for (int threads : new int[] {1, 4, 16, 64}) {
+      run(threads);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.DefaultIteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+import org.apache.accumulo.core.iterators.user.IntersectingIterator;
+import org.apache.accumulo.harness.AccumuloITBase;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the time, seeks and calls to next() needed to intersect terms of very different
+ * frequencies in a synthetic sharded document index, with the terms given in both orders.
+ */
+@Category(PerformanceTests.class)
+public class IntersectingIteratorIT extends AccumuloITBase {
+  private static final Logger log = LoggerFactory.getLogger(IntersectingIteratorIT.class);
+
+  private static final int SHARDS = 20;
+  private static final int DOCS_PER_SHARD = 50_000;
+  private static final int ITERATIONS = 5;
+
+  // the fraction of documents containing each term
+  private static final String[] TERMS = {"the", "data", "table", "tablet", "accumulo"};
+  private static final double[] FREQUENCIES = {0.95, 0.3, 0.1, 0.01, 0.001};
+
+  private static final IteratorEnvironment env = new DefaultIteratorEnvironment();
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 10 * 60;
+  }
+
+  private static long seeks;
+  private static long nexts;
+
+  private static class CountingIterator extends WrappingIterator {
+    CountingIterator(SortedKeyValueIterator<Key,Value> source) {
+      setSource(source);
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      return new CountingIterator(getSource().deepCopy(env));
+    }
+
+    @Override
+    public void next() throws IOException {
+      nexts++;
+      super.next();
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
+        throws IOException {
+      seeks++;
+      super.seek(range, columnFamilies, inclusive);
+    }
+  }
+
+  private static TreeMap<Key,Value> createIndex() {
+    Random rand = new Random(42);
+    Value empty = new Value(new byte[0]);
+    TreeMap<Key,Value> index = new TreeMap<>();
+    for (int shard = 0; shard < SHARDS; shard++) {
+      Text row = new Text(String.format("%04d", shard));
+      for (int doc = 0; doc < DOCS_PER_SHARD; doc++) {
+        Text docID = new Text(String.format("%08d", doc));
+        for (int t = 0; t < TERMS.length; t++) {
+          if (rand.nextDouble() < FREQUENCIES[t]) {
+            index.put(new Key(row, new Text(TERMS[t]), docID), empty);
+          }
+        }
+      }
+    }
+    return index;
+  }
+
+  private static void intersect(TreeMap<Key,Value> index, String... terms) throws IOException {
+    Text[] columns = new Text[terms.length];
+    for (int i = 0; i < terms.length; i++) {
+      columns[i] = new Text(terms[i]);
+    }
+    IteratorSetting is = new IteratorSetting(1, IntersectingIterator.class);
+    IntersectingIterator.setColumnFamilies(is, columns);
+
+    long best = Long.MAX_VALUE;
+    long hits = -1;
+    for (int i = 0; i < ITERATIONS; i++) {
+      seeks = 0;
+      nexts = 0;
+      long t1 = System.nanoTime();
+      IntersectingIterator iter = new IntersectingIterator();
+      iter.init(new CountingIterator(new SortedMapIterator(index)), is.getOptions(), env);
+      iter.seek(new Range(), Collections.emptyList(), false);
+      long count = 0;
+      while (iter.hasTop()) {
+        count++;
+        iter.next();
+      }
+      best = Math.min(best, System.nanoTime() - t1);
+      if (hits >= 0) {
+        assertEquals(hits, count);
+      }
+      hits = count;
+    }
+    log.info("{} : {} hits in {}ms with {} seeks and {} nexts", String.join(" AND ", terms), hits,
+        best / 1_000_000, seeks, nexts);
+  }
+
+  @Test
+  public void test() throws Exception {
+    TreeMap<Key,Value> index = createIndex();
+    log.info("Created an index with {} entries", index.size());
+
+    // warm up
+    intersect(index, "data", "table");
+
+    intersect(index, "the", "accumulo");
+    intersect(index, "accumulo", "the");
+    intersect(index, "the", "data", "tablet");
+    intersect(index, "tablet", "data", "the");
+    intersect(index, "data", "table");
+    intersect(index, "table", "data");
+    intersect(index, "the", "data", "table", "tablet", "accumulo");
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import org.apache.accumulo.core.util.LatencyHistogram;
+import org.apache.accumulo.harness.AccumuloITBase;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.apache.hadoop.metrics2.lib.MutableStat;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the cost of recording latencies in a LatencyHistogram compared with the MutableStat that
+ * tablet server metrics use, from 1, 4 and 16 threads. Each thread records latencies drawn from a
+ * long tailed distribution, and a snapshot is taken every 100,000 records, like a metrics period.
+ */
+@Category(PerformanceTests.class)
+public class LatencyHistogramIT extends AccumuloITBase {
+  private static final Logger log = LoggerFactory.getLogger(LatencyHistogramIT.class);
+
+  private static final int[] THREADS = {1, 4, 16};
+  private static final int RECORDS = 2_000_000;
+  private static final int ITERATIONS = 5;
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 10 * 60;
+  }
+
+  private static long[] latencies() {
+    Random rand = new Random(42);
+    long[] latencies = new long[1 << 16];
+    for (int i = 0; i < latencies.length; i++) {
+      // mostly a few ms, with a tail up to seconds
+      latencies[i] = (long) Math.exp(rand.nextGaussian() * 1.5 + 1.5);
+    }
+    return latencies;
+  }
+
+  private static long run(int threads, long[] latencies, LongConsumer recorder, Runnable snapshot)
+      throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      long best = Long.MAX_VALUE;
+      for (int i = 0; i < ITERATIONS; i++) {
+        List<Future<?>> futures = new ArrayList<>();
+        long t1 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+          final int offset = t;
+          futures.add(pool.submit(() -> {
+            for (int r = 0; r < RECORDS; r++) {
+              recorder.accept(latencies[(r + offset) & (latencies.length - 1)]);
+              if (offset == 0 && r % 100_000 == 0) {
+                snapshot.run();
+              }
+            }
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        best = Math.min(best, System.nanoTime() - t1);
+      }
+      return best / RECORDS;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    long[] latencies = latencies();
+
+    for (int threads : THREADS) {
+      MutableStat stat = new MutableStat("test", "test", "Ops", "Time", true);
+      long statNanos = run(threads, latencies, stat::add, stat::resetMinMax);
+
+      LatencyHistogram histogram = new LatencyHistogram();
+      long histogramNanos = run(threads, latencies, histogram::record,
+          histogram::snapshotAndReset);
+
+      log.info("{} threads : MutableStat {}ns, LatencyHistogram {}ns per record", threads,
+          statNanos, histogramNanos);
+    }
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.accumulo.core.clientImpl.Namespace;
+import org.apache.accumulo.core.clientImpl.Table;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.harness.AccumuloITBase;
+import org.apache.accumulo.server.conf.NamespaceConfiguration;
+import org.apache.accumulo.server.conf.ServerConfiguration;
+import org.apache.accumulo.server.conf.TableConfiguration;
+import org.apache.accumulo.server.tabletserver.LargestFirstMemoryManager;
+import org.apache.accumulo.server.tabletserver.MemoryManagementActions;
+import org.apache.accumulo.server.tabletserver.MemoryManager;
+import org.apache.accumulo.server.tabletserver.PredictiveMemoryManager;
+import org.apache.accumulo.server.tabletserver.TabletState;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays an ingest trace against a simulated tablet server with each memory manager, and compares
+ * how long writes were held and how many minor compactions were run. The simulated tablet server
+ * holds commits above 95% of its memory, like the real one, and flushes with a fixed write rate per
+ * minor compaction.
+ *
+ * <p>
+ * A recorded trace can be replayed by setting the system property {@value #TRACE_PROPERTY} to a
+ * file with one write per line, as {@code millis,tablet,bytes}, with the tablets numbered from 0
+ * and the lines in time order. Otherwise a synthetic trace of steady ingest with periodic bursts is
+ * replayed.
+ */
+@Category(PerformanceTests.class)
+public class MemoryManagerSimulationIT extends AccumuloITBase {
+  private static final Logger log = LoggerFactory.getLogger(MemoryManagerSimulationIT.class);
+
+  public static final String TRACE_PROPERTY = "memory.manager.trace";
+
+  private static final long MAX_MEMORY = 1024L * 1024 * 1024;
+  private static final int MAX_CONCURRENT_MINCS = 4;
+  // bytes per millisecond written by one minor compaction
+  private static final long FLUSH_RATE = 20 * 1024;
+  private static final long TICK = 10;
+  private static final long MANAGER_INTERVAL = 250;
+  private static final long IDLE_THRESHOLD = 5 * 60 * 1000;
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 10 * 60;
+  }
+
+  private static class Write {
+    final long time;
+    final int tablet;
+    final long bytes;
+
+    Write(long time, int tablet, long bytes) {
+      this.time = time;
+      this.tablet = tablet;
+      this.bytes = bytes;
+    }
+  }
+
+  private static class Trace {
+    final int tablets;
+    final List<Write> writes;
+
+    Trace(int tablets, List<Write> writes) {
+      this.tablets = tablets;
+      this.writes = writes;
+    }
+  }
+
+  private static Trace readTrace(String file) throws IOException {
+    List<Write> writes = new ArrayList<>();
+    int tablets = 0;
+    try (BufferedReader in = Files.newBufferedReader(Paths.get(file), UTF_8)) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        String[] fields = line.trim().split(",");
+        if (fields.length != 3)
+          continue;
+        Write w = new Write(Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+            Long.parseLong(fields[2]));
+        tablets = Math.max(tablets, w.tablet + 1);
+        writes.add(w);
+      }
+    }
+    return new Trace(tablets, writes);
+  }
+
+  /**
+   * Ten minutes of ingest into 40 tablets at 10MB/s, with a 10 second burst at 60MB/s every minute.
+   */
+  private static Trace syntheticTrace() {
+    final int tablets = 40;
+    final long duration = 10 * 60 * 1000;
+    final long writeSize = 64 * 1024;
+    Random rand = new Random(42);
+    List<Write> writes = new ArrayList<>();
+    for (long time = 0; time < duration; time += TICK) {
+      long rate = time % 60_000 < 50_000 ? 10 : 60;
+      // MB/s is about KB per ms, spread as writes over the tablets
+      long bytes = rate * 1024 * TICK;
+      for (long written = 0; written < bytes; written += writeSize) {
+        writes.add(new Write(time, rand.nextInt(tablets), writeSize));
+      }
+    }
+    return new Trace(tablets, writes);
+  }
+
+  private static class SimTabletState implements TabletState {
+    final KeyExtent extent;
+    long lastCommit;
+    long memTableSize;
+    long compactingSize;
+
+    SimTabletState(KeyExtent extent, long lastCommit) {
+      this.extent = extent;
+      this.lastCommit = lastCommit;
+    }
+
+    @Override
+    public KeyExtent getExtent() {
+      return extent;
+    }
+
+    @Override
+    public long getLastCommitTime() {
+      return lastCommit;
+    }
+
+    @Override
+    public long getMemTableSize() {
+      return memTableSize;
+    }
+
+    @Override
+    public long getMinorCompactingMemTableSize() {
+      return compactingSize;
+    }
+
+    SimTabletState copy() {
+      SimTabletState copy = new SimTabletState(extent, lastCommit);
+      copy.memTableSize = memTableSize;
+      copy.compactingSize = compactingSize;
+      return copy;
+    }
+  }
+
+  private static class Clock {
+    long now = System.currentTimeMillis();
+  }
+
+  private static class SimLargestFirst extends LargestFirstMemoryManager {
+    final Clock clock;
+
+    SimLargestFirst(Clock clock) {
+      this.clock = clock;
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return clock.now;
+    }
+
+    @Override
+    protected long getMinCIdleThreshold(KeyExtent extent) {
+      return IDLE_THRESHOLD;
+    }
+
+    @Override
+    protected boolean tableExists(Table.ID tableId) {
+      return true;
+    }
+  }
+
+  private static class SimPredictive extends PredictiveMemoryManager {
+    final Clock clock;
+
+    SimPredictive(Clock clock) {
+      this.clock = clock;
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return clock.now;
+    }
+
+    @Override
+    protected long getMinCIdleThreshold(KeyExtent extent) {
+      return IDLE_THRESHOLD;
+    }
+
+    @Override
+    protected boolean tableExists(Table.ID tableId) {
+      return true;
+    }
+  }
+
+  private static final ServerConfiguration config = new ServerConfiguration() {
+    @Override
+    public AccumuloConfiguration getSystemConfiguration() {
+      ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+      conf.set(Property.TSERV_MAXMEM, Long.toString(MAX_MEMORY));
+      conf.set(Property.TSERV_MINC_MAXCONCURRENT, Integer.toString(MAX_CONCURRENT_MINCS));
+      return conf;
+    }
+
+    @Override
+    public TableConfiguration getTableConfiguration(Table.ID tableId) {
+      return null;
+    }
+
+    @Override
+    public NamespaceConfiguration getNamespaceConfiguration(Namespace.ID namespaceId) {
+      return null;
+    }
+  };
+
+  private static class Result {
+    long holdTime = 0;
+    long holds = 0;
+    long mincs = 0;
+    long flushedBytes = 0;
+    long peakMemory = 0;
+    long[] latencies;
+  }
+
+  private static Result simulate(Trace trace, Clock clock, MemoryManager manager) {
+    manager.init(config);
+    final long start = clock.now;
+    SimTabletState[] tablets = new SimTabletState[trace.tablets];
+    for (int i = 0; i < tablets.length; i++) {
+      tablets[i] = new SimTabletState(
+          new KeyExtent(Table.ID.of("1"), new Text(String.format("%06d", i)), null), start);
+    }
+
+    Result result = new Result();
+    result.latencies = new long[trace.writes.size()];
+    Deque<SimTabletState> queued = new ArrayDeque<>();
+    List<SimTabletState> running = new ArrayList<>();
+    List<Long> finishTimes = new ArrayList<>();
+    int next = 0;
+    boolean held = false;
+    long nextManagerCall = start;
+
+    while (next < trace.writes.size() || !running.isEmpty()) {
+      // finish minor compactions
+      for (int i = running.size() - 1; i >= 0; i--) {
+        if (finishTimes.get(i) <= clock.now) {
+          running.remove(i).compactingSize = 0;
+          finishTimes.remove(i);
+        }
+      }
+      while (running.size() < MAX_CONCURRENT_MINCS && !queued.isEmpty()) {
+        SimTabletState tablet = queued.poll();
+        running.add(tablet);
+        finishTimes.add(clock.now + tablet.compactingSize / FLUSH_RATE);
+      }
+
+      long used = 0;
+      for (SimTabletState tablet : tablets) {
+        used += tablet.memTableSize + tablet.compactingSize;
+      }
+      result.peakMemory = Math.max(result.peakMemory, used);
+      boolean hold = used > 0.95 * MAX_MEMORY;
+      if (hold && !held)
+        result.holds++;
+      held = hold;
+      if (held) {
+        result.holdTime += TICK;
+      } else {
+        // apply the writes that arrived, including those delayed by holding
+        while (next < trace.writes.size()
+            && start + trace.writes.get(next).time <= clock.now) {
+          Write w = trace.writes.get(next);
+          SimTabletState tablet = tablets[w.tablet];
+          tablet.memTableSize += w.bytes;
+          tablet.lastCommit = clock.now;
+          result.latencies[next] = clock.now - (start + w.time);
+          next++;
+        }
+      }
+
+      if (clock.now >= nextManagerCall) {
+        nextManagerCall += MANAGER_INTERVAL;
+        List<TabletState> states = new ArrayList<>(tablets.length);
+        for (SimTabletState tablet : tablets) {
+          states.add(tablet.copy());
+        }
+        MemoryManagementActions mma = manager.getMemoryManagementActions(states);
+        for (KeyExtent extent : mma.tabletsToMinorCompact) {
+          SimTabletState tablet = tablets[Integer.parseInt(extent.getEndRow().toString())];
+          // like a tablet, only one minor compaction at a time
+          if (tablet.compactingSize == 0 && tablet.memTableSize > 0) {
+            tablet.compactingSize = tablet.memTableSize;
+            tablet.memTableSize = 0;
+            result.mincs++;
+            result.flushedBytes += tablet.compactingSize;
+            queued.add(tablet);
+          }
+        }
+      }
+
+      clock.now += TICK;
+    }
+    return result;
+  }
+
+  private static void report(String name, Result result) {
+    long[] latencies = result.latencies.clone();
+    Arrays.sort(latencies);
+    log.info(String.format(
+        "%s : held %,d times for %,d ms, %,d minor compactions averaging %,d bytes,"
+            + " peak memory %.1f%%, write latency p99 %,d ms p99.9 %,d ms max %,d ms",
+        name, result.holds, result.holdTime, result.mincs,
+        result.mincs == 0 ? 0 : result.flushedBytes / result.mincs,
+        100.0 * result.peakMemory / MAX_MEMORY, latencies[(int) (latencies.length * 0.99)],
+        latencies[(int) (latencies.length * 0.999)], latencies[latencies.length - 1]));
+  }
+
+  @Test
+  public void test() throws Exception {
+    String file = System.getProperty(TRACE_PROPERTY);
+    Trace trace = file == null ? syntheticTrace() : readTrace(file);
+    log.info("Replaying {} writes into {} tablets", trace.writes.size(), trace.tablets);
+
+    Clock clock = new Clock();
+    report(LargestFirstMemoryManager.class.getSimpleName(),
+        simulate(trace, clock, new SimLargestFirst(clock)));
+    clock = new Clock();
+    report(PredictiveMemoryManager.class.getSimpleName(),
+        simulate(trace, clock, new SimPredictive(clock)));
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import static org.junit.Assume.assumeFalse;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.metadata.MetadataTable;
+import org.apache.accumulo.core.metadata.RootTable;
+import org.apache.accumulo.minicluster.ServerType;
+import org.apache.accumulo.miniclusterImpl.MiniAccumuloConfigImpl;
+import org.apache.accumulo.test.categories.MiniClusterOnlyTests;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.apache.accumulo.test.functional.ConfigurableMacBase;
+import org.apache.accumulo.test.mrit.IntegrationTestMapReduce;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Measures ingest throughput into a single tablet server writing to 1, 2 and 4 write-ahead logs at
+ * the same time.
+ */
+@Category({MiniClusterOnlyTests.class, PerformanceTests.class})
+public class MultipleWALPerformanceIT extends ConfigurableMacBase {
+
+  private static final int[] WAL_COUNTS = {1, 2, 4};
+  private static final long ENTRIES = 200 * 1000;
+
+  @BeforeClass
+  public static void checkMR() {
+    assumeFalse(IntegrationTestMapReduce.isMapReduce());
+  }
+
+  @Override
+  protected void configure(MiniAccumuloConfigImpl cfg, Configuration hadoopCoreSite) {
+    cfg.setNumTservers(1);
+    cfg.setProperty(Property.TSERV_WAL_REPLICATION, "1");
+    cfg.setProperty(Property.TSERV_WALOG_MAX_SIZE, "1G");
+    cfg.setProperty(Property.TABLE_MINC_LOGS_MAX, "100");
+    cfg.useMiniDFS(true);
+  }
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 10 * 60;
+  }
+
+  private long ingest(AccumuloClient c) throws Exception {
+    final String tableName = getUniqueNames(1)[0];
+
+    log.info("Creating the table");
+    c.tableOperations().create(tableName);
+
+    log.info("Splitting the table");
+    final long SPLIT_COUNT = 100;
+    final long distance = Long.MAX_VALUE / SPLIT_COUNT;
+    final SortedSet<Text> splits = new TreeSet<>();
+    for (int i = 1; i < SPLIT_COUNT; i++) {
+      splits.add(new Text(String.format("%016x", i * distance)));
+    }
+    c.tableOperations().addSplits(tableName, splits);
+
+    log.info("Starting ingest");
+    final long start = System.nanoTime();
+    final String args[] = {"-i", c.info().getInstanceName(), "-z", c.info().getZooKeepers(), "-u",
+        "root", "-p", ROOT_PASSWORD, "--batchThreads", "8", "--table", tableName, "--num",
+        Long.toString(ENTRIES)};
+
+    ContinuousIngest.main(args);
+    final long result = System.nanoTime() - start;
+    log.debug(String.format("Finished in %,d ns", result));
+    log.debug("Dropping table");
+    c.tableOperations().delete(tableName);
+    return result;
+  }
+
+  private long getAverage(AccumuloClient c) throws Exception {
+    final int REPEAT = 3;
+    long totalTime = 0;
+    for (int i = 0; i < REPEAT; i++) {
+      totalTime += ingest(c);
+    }
+    return totalTime / REPEAT;
+  }
+
+  @Test
+  public void testWalCountScaling() throws Exception {
+    try (AccumuloClient c = getClient()) {
+      long[] averages = new long[WAL_COUNTS.length];
+      for (int i = 0; i < WAL_COUNTS.length; i++) {
+        // the number of logs is read when the tablet server starts
+        c.instanceOperations().setProperty(Property.TSERV_WALOG_COUNT.getKey(),
+            Integer.toString(WAL_COUNTS[i]));
+        c.tableOperations().flush(MetadataTable.NAME, null, null, true);
+        c.tableOperations().flush(RootTable.NAME, null, null, true);
+        getCluster().getClusterControl().stop(ServerType.TABLET_SERVER);
+        getCluster().start();
+
+        averages[i] = getAverage(c);
+        log.info(String.format("%d WALs : average run time %,d ns, %,.0f entries/s", WAL_COUNTS[i],
+            averages[i], ENTRIES * 1e9 / averages[i]));
+      }
+      for (int i = 1; i < WAL_COUNTS.length; i++) {
+        log.info(String.format("%d WALs : %.2fx the throughput of 1 WAL", WAL_COUNTS[i],
+            (double) averages[0] / averages[i]));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.rfile.RFile;
+import org.apache.accumulo.core.client.rfile.RFileSource;
+import org.apache.accumulo.core.client.rfile.RFileWriter;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.rfile.bcfile.Compression;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.harness.AccumuloITBase;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the size of RFiles and the time to write and scan them with each supported compression
+ * algorithm. The data resembles a typical table, with sorted rows, a few column families, numeric
+ * qualifiers, visibilities and a mix of text and numeric values. Small blocks are also written
+ * with and without a trained compression dictionary.
+ */
+@Category(PerformanceTests.class)
+public class RFileCompressionIT extends AccumuloITBase {
+  private static final Logger log = LoggerFactory.getLogger(RFileCompressionIT.class);
+
+  private static final int ROWS = 100_000;
+  private static final int ITERATIONS = 5;
+
+  private static final String[] FAMILIES = {"attr", "meta", "link"};
+  private static final String[] VISIBILITIES = {"", "A", "A&B", "(A|C)&B"};
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 10 * 60;
+  }
+
+  private static Map<String,String> props(String algorithm, String blockSize,
+      String dictionarySize) {
+    Map<String,String> props = new HashMap<>();
+    props.put(Property.TABLE_FILE_COMPRESSION_TYPE.getKey(), algorithm);
+    props.put(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE.getKey(), blockSize);
+    props.put(Property.TABLE_FILE_COMPRESSION_DICTIONARY_SIZE.getKey(), dictionarySize);
+    return props;
+  }
+
+  private static byte[] write(Map<String,String> props) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Random rand = new Random(42);
+    try (RFileWriter writer = RFile.newWriter().to(out).withTableProperties(props).build()) {
+      for (int r = 0; r < ROWS; r++) {
+        String row = String.format("user_%010d", r * 7L);
+        for (String family : FAMILIES) {
+          int columns = 1 + rand.nextInt(3);
+          for (int c = 0; c < columns; c++) {
+            String qual = String.format("%04d", c);
+            String vis = VISIBILITIES[rand.nextInt(VISIBILITIES.length)];
+            String val = rand.nextBoolean() ? Long.toString(rand.nextInt(1_000_000))
+                : "value of " + family + " " + qual + " for " + row;
+            writer.append(new Key(row, family, qual, vis, 1_500_000_000_000L + r),
+                new Value(val));
+          }
+        }
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static long scan(byte[] data) throws Exception {
+    long count = 0;
+    try (Scanner scanner = RFile.newScanner()
+        .from(new RFileSource(new ByteArrayInputStream(data), data.length))
+        .withAuthorizations(new Authorizations("A", "B", "C")).build()) {
+      for (Entry<Key,Value> entry : scanner) {
+        count += entry.getValue().getSize() > 0 ? 1 : 0;
+      }
+    }
+    return count;
+  }
+
+  private static void run(String name, Map<String,String> props) throws Exception {
+    // warm up
+    byte[] data = write(props);
+    long entries = scan(data);
+
+    long bestWrite = Long.MAX_VALUE;
+    long bestScan = Long.MAX_VALUE;
+    for (int i = 0; i < ITERATIONS; i++) {
+      long t1 = System.nanoTime();
+      data = write(props);
+      long t2 = System.nanoTime();
+      assertEquals(entries, scan(data));
+      long t3 = System.nanoTime();
+      bestWrite = Math.min(bestWrite, t2 - t1);
+      bestScan = Math.min(bestScan, t3 - t2);
+    }
+
+    log.info("{} : {} entries, {} bytes, write {}ms, scan {}ms", name, entries, data.length,
+        bestWrite / 1_000_000, bestScan / 1_000_000);
+  }
+
+  @Test
+  public void test() throws Exception {
+    for (String algorithm : Compression.getSupportedAlgorithms()) {
+      run(algorithm, props(algorithm, "100K", "0B"));
+    }
+  }
+
+  @Test
+  public void testDictionary() throws Exception {
+    for (String blockSize : new String[] {"4K", "16K"}) {
+      run("lz4 " + blockSize + " blocks", props("lz4", blockSize, "0B"));
+      run("lz4 " + blockSize + " blocks with dictionary", props("lz4", blockSize, "16K"));
+    }
+  }
+}
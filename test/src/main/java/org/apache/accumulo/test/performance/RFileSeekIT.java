@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.rfile.RFile;
+import org.apache.accumulo.core.client.rfile.RFileSource;
+import org.apache.accumulo.core.client.rfile.RFileWriter;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.harness.AccumuloITBase;
+import org.apache.accumulo.test.categories.PerformanceTests;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the time of random seeks in an RFile, with index blocks of a few sizes so that the index
+ * has one or more levels. The index and data blocks are cached, so the time is mostly spent
+ * searching the index and the data block.
+ */
+@Category(PerformanceTests.class)
+public class RFileSeekIT extends AccumuloITBase {
+  private static final Logger log = LoggerFactory.getLogger(RFileSeekIT.class);
+
+  private static final int ROWS = 500_000;
+  private static final int SEEKS = 200_000;
+  private static final int ITERATIONS = 5;
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 10 * 60;
+  }
+
+  private static String row(long r) {
+    return String.format("row_%010d", r * 7);
+  }
+
+  private static byte[] write(String indexBlockSize) throws Exception {
+    Map<String,String> props = new HashMap<>();
+    props.put(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE.getKey(), "8K");
+    props.put(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX.getKey(), indexBlockSize);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RFileWriter writer = RFile.newWriter().to(out).withTableProperties(props).build()) {
+      for (int r = 0; r < ROWS; r++) {
+        writer.append(new Key(row(r), "attr", "name", 1_500_000_000_000L + r),
+            new Value("value " + r));
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static long seek(Scanner scanner, int[] rows) {
+    long t1 = System.nanoTime();
+    for (int r : rows) {
+      scanner.setRange(Range.exact(row(r)));
+      Iterator<Entry<Key,Value>> iter = scanner.iterator();
+      assertEquals(row(r), iter.next().getKey().getRow().toString());
+    }
+    return System.nanoTime() - t1;
+  }
+
+  private static void run(String indexBlockSize) throws Exception {
+    byte[] data = write(indexBlockSize);
+
+    Random rand = new Random(42);
+    int[] rows = new int[SEEKS];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = rand.nextInt(ROWS);
+    }
+
+    try (Scanner scanner = RFile.newScanner()
+        .from(new RFileSource(new ByteArrayInputStream(data), data.length))
+        .withIndexCache(64 * 1024 * 1024).withDataCache(256 * 1024 * 1024).build()) {
+      // warm up, also loads the caches
+      seek(scanner, rows);
+
+      long best = Long.MAX_VALUE;
+      for (int i = 0; i < ITERATIONS; i++) {
+        best = Math.min(best, seek(scanner, rows));
+      }
+      log.info("{} index blocks : {} bytes, {}ns per seek", indexBlockSize, data.length,
+          best / SEEKS);
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    for (String indexBlockSize : new String[] {"1K", "8K", "128K"}) {
+      run(indexBlockSize);
+    }
+  }
+}